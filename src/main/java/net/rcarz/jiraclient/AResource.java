@@ -1,5 +1,6 @@
 package net.rcarz.jiraclient;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -48,6 +49,37 @@ public abstract class AResource {
 	 */
 	protected abstract void deserialise(Map<String, Object> data) throws JiraException;
 	
+	/**
+	 * Reads a single property of the JSON payload from a token stream.
+	 * 
+	 * Resources that override this can be built by {@link JsonBinder}
+	 * without decoding the payload into a map first.
+	 * 
+	 * @param property Property name
+	 * @param reader JSON reader positioned before the property value
+	 * @param binder Binder to read nested values with
+	 * 
+	 * @return true if the value was consumed, false to have it skipped
+	 * 
+	 * @throws IOException when the payload can't be read
+	 * @throws JiraException when a nested resource can't be created
+	 */
+	boolean bind(String property, JsonReader reader, JsonBinder binder) throws IOException, JiraException {
+		switch (property) {
+		case "id":
+			id = binder.readString(reader);
+			return true;
+		case "name":
+			name = binder.readString(reader);
+			return true;
+		case "key":
+			key = binder.readString(reader);
+			return true;
+		default:
+			return false;
+		}
+	}
+	
     /**
      * Internal JIRA ID.
      */
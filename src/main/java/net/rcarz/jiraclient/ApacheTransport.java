@@ -0,0 +1,63 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * Sends requests with Apache HttpClient over HTTP/1.1.
+ */
+public class ApacheTransport implements HttpTransport {
+
+    private final HttpClient httpClient;
+
+    /**
+     * Creates a transport on top of an HTTP client.
+     *
+     * @param httpClient Underlying HTTP client to use
+     */
+    public ApacheTransport(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    public HttpResponse execute(HttpRequestBase req) throws IOException {
+        return httpClient.execute(req);
+    }
+
+    /**
+     * Gets the underlying HTTP client.
+     */
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Closes the underlying HTTP client if it can be closed.
+     */
+    public void close() throws IOException {
+        if (httpClient instanceof Closeable)
+            ((Closeable)httpClient).close();
+    }
+}
@@ -0,0 +1,405 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import net.rcarz.jiraclient.JiraClient.SearchResult;
+import net.sf.json.JSONObject;
+
+/**
+ * A non-blocking JIRA REST client.
+ *
+ * Every operation returns immediately with a future. Failed futures complete
+ * with a {@link JiraException} describing the operation, with the transport
+ * or HTTP error as its cause. Cancelling a future aborts the HTTP exchange.
+ */
+public class AsyncJiraClient implements Closeable {
+
+    /**
+     * Converts a JSON payload to a result object.
+     */
+    private interface Converter<T> {
+        T convert(Map<String, Object> data) throws JiraException;
+    }
+
+    private final AsyncRestClient restclient;
+    private String username = null;
+    private IssueDecoding issueDecoding = IssueDecoding.EAGER;
+    private final JsonBinder binder = new JsonBinder();
+
+    /**
+     * Creates an asynchronous JIRA client.
+     *
+     * @param restclient Asynchronous REST client to send requests with
+     * @param creds Credentials to authenticate with
+     */
+    public AsyncJiraClient(AsyncRestClient restclient, ICredentials creds) {
+        this.restclient = restclient;
+
+        if (creds != null) {
+            username = creds.getLogonName();
+        }
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        while ((ex instanceof CompletionException || ex instanceof ExecutionException) && ex.getCause() != null)
+            ex = ex.getCause();
+
+        return ex;
+    }
+
+    private static <T> CompletableFuture<T> convert(final CompletableFuture<Map<String, Object>> pending,
+            final String error, final Converter<T> converter) {
+
+        final CompletableFuture<T> result = new CompletableFuture<T>();
+
+        pending.whenComplete((data, ex) -> {
+            if (ex != null) {
+                result.completeExceptionally(new JiraException(error, unwrap(ex)));
+                return;
+            }
+
+            try {
+                result.complete(converter.convert(data));
+            } catch (Exception cex) {
+                result.completeExceptionally(new JiraException(error, cex));
+            }
+        });
+
+        result.whenComplete((r, ex) -> {
+            if (result.isCancelled())
+                pending.cancel(true);
+        });
+
+        return result;
+    }
+
+    private <T> CompletableFuture<T> getConverted(String error, Converter<T> converter,
+            Map<String, String> params, String... pathParts) {
+
+        return getConverted(error, converter, () -> restclient.buildURI(params, pathParts));
+    }
+
+    private <T> CompletableFuture<T> getConverted(String error, Converter<T> converter,
+            Route route, Map<String, String> params, String... vars) {
+
+        return getConverted(error, converter, () -> restclient.buildURI(route, params, vars));
+    }
+
+    private <T> CompletableFuture<T> getConverted(String error, Converter<T> converter, Callable<URI> target) {
+        try {
+            return convert(restclient.get(target.call()), error, converter);
+        } catch (Exception ex) {
+            CompletableFuture<T> result = new CompletableFuture<T>();
+            result.completeExceptionally(new JiraException(error, ex));
+            return result;
+        }
+    }
+
+    private <T> CompletableFuture<T> get(String error, JsonHandler<T> handler,
+            Route route, Map<String, String> params, String... vars) {
+
+        CompletableFuture<T> result = new CompletableFuture<T>();
+
+        try {
+            final CompletableFuture<T> pending = restclient.get(restclient.buildURI(route, params, vars), handler);
+
+            pending.whenComplete((r, ex) -> {
+                if (ex != null)
+                    result.completeExceptionally(new JiraException(error, unwrap(ex)));
+                else
+                    result.complete(r);
+            });
+
+            result.whenComplete((r, ex) -> {
+                if (result.isCancelled())
+                    pending.cancel(true);
+            });
+        } catch (Exception ex) {
+            result.completeExceptionally(new JiraException(error, ex));
+        }
+
+        return result;
+    }
+
+    private <T extends Resource> CompletableFuture<T> getResource(final Class<T> type, String... pathParts) {
+        return getConverted("Failed to retrieve " + type.getSimpleName(), new Converter<T>() {
+            public T convert(Map<String, Object> data) throws JiraException {
+                return Field.getResource(type, data);
+            }
+        }, null, pathParts);
+    }
+
+    private <T extends Resource> CompletableFuture<List<T>> getResourceList(final Class<T> type, String... pathParts) {
+        return getConverted("Failed to retrieve " + type.getSimpleName() + " list", new Converter<List<T>>() {
+            public List<T> convert(Map<String, Object> data) throws JiraException {
+                return Field.getResourceArray(type, Field.getList(data));
+            }
+        }, null, pathParts);
+    }
+
+    /**
+     * Retrieves the issue with the given key.
+     *
+     * @param issueKey Issue key
+     *
+     * @return a future issue
+     */
+    public CompletableFuture<Issue> getIssue(String issueKey) {
+        return getIssue(issueKey, null, null);
+    }
+
+    /**
+     * Retrieves the issue with the given key.
+     *
+     * @param issueKey Issue key
+     * @param includedFields Specifies which issue fields will be included
+     * @param expand Fields to expand
+     *
+     * @return a future issue
+     */
+    public CompletableFuture<Issue> getIssue(String issueKey, String includedFields, String expand) {
+        Map<String, String> queryParams = new HashMap<String, String>();
+        if (includedFields != null) {
+            queryParams.put("fields", includedFields);
+        }
+        if (expand != null) {
+            queryParams.put("expand", expand);
+        }
+
+        if (issueDecoding == IssueDecoding.BOUND) {
+            return get("Failed to retrieve issue " + issueKey, binder.issueHandler,
+                    Route.ISSUE, queryParams, issueKey);
+        }
+
+        return getConverted("Failed to retrieve issue " + issueKey, new Converter<Issue>() {
+            public Issue convert(Map<String, Object> data) throws JiraException {
+                return new Issue(data, issueDecoding == IssueDecoding.LAZY);
+            }
+        }, Route.ISSUE, queryParams, issueKey);
+    }
+
+    /**
+     * Search for issues with the given query.
+     *
+     * @param jql JQL statement
+     *
+     * @return a future search result structure
+     */
+    public CompletableFuture<SearchResult> searchIssues(String jql) {
+        return searchIssues(jql, null, null, null, null);
+    }
+
+    /**
+     * Search for issues with the given query and specify which fields to
+     * retrieve.
+     *
+     * @see JiraClient#searchIssues(String, String, String, Integer, Integer)
+     *
+     * @return a future search result structure
+     */
+    public CompletableFuture<SearchResult> searchIssues(String jql, String includedFields, String expandFields,
+            Integer maxResults, Integer startAt) {
+
+        Map<String, String> queryParams = JiraClient.searchParams(jql, includedFields, expandFields, maxResults, startAt);
+
+        if (issueDecoding == IssueDecoding.BOUND) {
+            return get("Failed to search issues", binder.searchResultHandler,
+                    Route.SEARCH, queryParams);
+        }
+
+        return getConverted("Failed to search issues", new Converter<SearchResult>() {
+            public SearchResult convert(Map<String, Object> data) throws JiraException {
+                return JiraClient.toSearchResult(data, issueDecoding == IssueDecoding.LAZY);
+            }
+        }, Route.SEARCH, queryParams);
+    }
+
+    /**
+     * Counts issues with the given query.
+     *
+     * @param jql JQL statement
+     *
+     * @return the future count
+     */
+    public CompletableFuture<Integer> countIssues(String jql) {
+        return getConverted("Failed to search issues", new Converter<Integer>() {
+            public Integer convert(Map<String, Object> data) {
+                return Field.getInteger(data.get("total"));
+            }
+        }, Route.SEARCH, JiraClient.searchParams(jql, null, null, 1, null));
+    }
+
+    /**
+     * Retrieves the available transitions of an issue.
+     *
+     * @param issueKey Issue key
+     *
+     * @return the future list of transitions
+     */
+    public CompletableFuture<List<Transition>> getTransitions(final String issueKey) {
+        Map<String, String> queryParams = new HashMap<String, String>();
+        queryParams.put("expand", "transitions.fields");
+
+        return getConverted("Failed to retrieve transitions", new Converter<List<Transition>>() {
+            public List<Transition> convert(Map<String, Object> data) throws JiraException {
+                if (!(data.get("transitions") instanceof List))
+                    throw new JiraException("Transition metadata is missing.");
+
+                return Field.getResourceArray(Transition.class, data.get("transitions"));
+            }
+        }, Route.ISSUE_TRANSITIONS, queryParams, issueKey);
+    }
+
+    public CompletableFuture<Component> getComponent(String componentId) {
+        return getResource(Component.class, JiraClient.getBaseUri(), Component.URI, componentId);
+    }
+
+    public CompletableFuture<IssueType> getIssueType(String typeId) {
+        return getResource(IssueType.class, JiraClient.getBaseUri(), IssueType.URI, typeId);
+    }
+
+    public CompletableFuture<List<IssueType>> getIssueTypes() {
+        return getResourceList(IssueType.class, JiraClient.getBaseUri(), IssueType.URI);
+    }
+
+    public CompletableFuture<Priority> getPriority(String priorityId) {
+        return getResource(Priority.class, JiraClient.getBaseUri(), Priority.URI, priorityId);
+    }
+
+    public CompletableFuture<List<Priority>> getPriorities() {
+        return getResourceList(Priority.class, JiraClient.getBaseUri(), Priority.URI);
+    }
+
+    public CompletableFuture<Project> getProject(String projectKey) {
+        return getResource(Project.class, JiraClient.getBaseUri(), Project.URI, projectKey);
+    }
+
+    public CompletableFuture<List<Project>> getProjects() {
+        return getResourceList(Project.class, JiraClient.getBaseUri(), Project.URI);
+    }
+
+    public CompletableFuture<Resolution> getResolution(String resolutionId) {
+        return getResource(Resolution.class, JiraClient.getBaseUri(), Resolution.URI, resolutionId);
+    }
+
+    public CompletableFuture<Status> getStatus(String statusId) {
+        return getResource(Status.class, JiraClient.getBaseUri(), Status.URI, statusId);
+    }
+
+    public CompletableFuture<Version> getVersion(String versionId) {
+        return getResource(Version.class, JiraClient.getBaseUri(), Version.URI, versionId);
+    }
+
+    public CompletableFuture<Votes> getVotes(String issueKey) {
+        return getResource(Votes.class, JiraClient.getBaseUri(), Issue.URI, issueKey, Votes.URI);
+    }
+
+    public CompletableFuture<Watches> getWatches(String issueKey) {
+        return getResource(Watches.class, JiraClient.getBaseUri(), Issue.URI, issueKey, Watches.URI);
+    }
+
+    public CompletableFuture<List<WorkLog>> getWorkLogs(String issueKey) {
+        return getResourceList(WorkLog.class, JiraClient.getBaseUri(), Issue.URI, issueKey, WorkLog.URI);
+    }
+
+    /**
+     * Retrieves the given user record.
+     *
+     * @param username User logon name
+     *
+     * @return the future user
+     */
+    public CompletableFuture<User> getUser(String username) {
+        Map<String, String> params = new HashMap<String, String>();
+        params.put("username", username);
+
+        return getConverted("Failed to retrieve user " + username, new Converter<User>() {
+            public User convert(Map<String, Object> data) throws JiraException {
+                return new User(data);
+            }
+        }, params, JiraClient.getBaseUri(), User.URI);
+    }
+
+    /**
+     * Adds a comment to an issue.
+     *
+     * @param issueKey Issue key
+     * @param body Comment text
+     *
+     * @return a future that completes when the comment was added
+     */
+    public CompletableFuture<Void> addComment(String issueKey, String body) {
+        JSONObject req = new JSONObject();
+        req.put("body", body);
+
+        String error = "Failed add comment to issue " + issueKey;
+
+        try {
+            return convert(restclient.post(restclient.buildURI(null, JiraClient.getBaseUri(), Issue.URI,
+                    issueKey, Comment.URI), req), error, new Converter<Void>() {
+                public Void convert(Map<String, Object> data) {
+                    return null;
+                }
+            });
+        } catch (Exception ex) {
+            CompletableFuture<Void> result = new CompletableFuture<Void>();
+            result.completeExceptionally(new JiraException(error, ex));
+            return result;
+        }
+    }
+
+    /**
+     * Sets how issue payloads are turned into issues.
+     *
+     * @param issueDecoding Decoding strategy for getIssue and searchIssues
+     */
+    public void setIssueDecoding(IssueDecoding issueDecoding) {
+        this.issueDecoding = issueDecoding;
+    }
+
+    public String getSelf() {
+        return username;
+    }
+
+    /**
+     * Exposes the asynchronous REST client.
+     */
+    public AsyncRestClient getRestClient() {
+        return restclient;
+    }
+
+    /**
+     * Shuts down the I/O reactor and closes all connections.
+     */
+    public void close() throws IOException {
+        restclient.close();
+    }
+}
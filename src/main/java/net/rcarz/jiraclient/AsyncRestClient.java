@@ -0,0 +1,454 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import net.sf.json.JSON;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * A non-blocking REST client that speaks JSON.
+ *
+ * Requests are multiplexed over the NIO reactor of the underlying HTTP
+ * client, so a handful of I/O threads can keep thousands of requests in
+ * flight. Responses are decoded on a separate executor to keep the reactor
+ * threads free.
+ *
+ * Credentials that log in, like {@link TokenCredentials} with a username,
+ * need a blocking {@link RestClient} to do so. The first request logs in
+ * through it on the decoding executor, and a request rejected with 401 is
+ * sent once more after the credentials are renewed.
+ */
+public class AsyncRestClient implements Closeable {
+
+    private final CloseableHttpAsyncClient httpClient;
+    private final ICredentials creds;
+    private final URI uri;
+    private final String base;
+    private final Executor executor;
+    private final RestClient session;
+    private volatile boolean credsInitialized = false;
+    private JsonDecoder decoder = new JsonDecoder();
+    private boolean compression = true;
+    private ResponseListener listener = null;
+    private RateLimiter rateLimiter = null;
+    private RateLimiter.Mode rateLimitMode = RateLimiter.Mode.ASYNC;
+
+    /**
+     * Creates an authenticated asynchronous REST client instance with a URI.
+     *
+     * @param httpclient Underlying HTTP client to use; it is started if it
+     * isn't running yet
+     * @param creds Credentials to send with each request
+     * @param uri Base URI of the remote REST service
+     */
+    public AsyncRestClient(CloseableHttpAsyncClient httpclient, ICredentials creds, URI uri) {
+        this(httpclient, creds, uri, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an authenticated asynchronous REST client instance with a URI.
+     *
+     * @param httpclient Underlying HTTP client to use; it is started if it
+     * isn't running yet
+     * @param creds Credentials to send with each request
+     * @param uri Base URI of the remote REST service
+     * @param executor Executor that decodes responses
+     *
+     * @throws IllegalArgumentException when the credentials need to log in
+     */
+    public AsyncRestClient(CloseableHttpAsyncClient httpclient, ICredentials creds, URI uri, Executor executor) {
+        this(httpclient, creds, uri, executor, null);
+    }
+
+    /**
+     * Creates an authenticated asynchronous REST client instance with a URI
+     * and a blocking client for the credentials to log in with.
+     *
+     * @param httpclient Underlying HTTP client to use; it is started if it
+     * isn't running yet
+     * @param creds Credentials to send with each request
+     * @param uri Base URI of the remote REST service
+     * @param executor Executor that decodes responses and logs in
+     * @param session REST client with the same credentials to log in and
+     * renew the session with, or null when the credentials don't log in;
+     * closing this client closes its transport as well
+     *
+     * @throws IllegalArgumentException when the credentials need to log in
+     * and there's no client to do it with
+     */
+    public AsyncRestClient(CloseableHttpAsyncClient httpclient, ICredentials creds, URI uri, Executor executor,
+            RestClient session) {
+
+        if (session == null && creds instanceof TokenCredentials && creds.getLogonName() != null)
+            throw new IllegalArgumentException("Session credentials with a username need a RestClient to log in with");
+
+        this.httpClient = httpclient;
+        this.creds = creds;
+        this.uri = uri;
+        this.base = RestClient.routeBase(uri);
+        this.executor = executor;
+        this.session = session;
+
+        if (!httpClient.isRunning())
+            httpClient.start();
+    }
+
+    /**
+     * Build a URI from a path and query parmeters.
+     *
+     * @param params Map of key value pairs
+     * @param pathParts Path to append to the base URI
+     *
+     * @return the full URI
+     *
+     * @throws URISyntaxException when the path is invalid
+     */
+    public URI buildURI(Map<String, String> params, String... pathParts) throws URISyntaxException {
+        return RestClient.buildURI(uri, params, pathParts);
+    }
+
+    /**
+     * Build a URI from a precompiled route and query parameters.
+     *
+     * @param route Route to expand
+     * @param params Map of key value pairs, may be null
+     * @param vars Route variable values in template order
+     *
+     * @return the full URI
+     */
+    public URI buildURI(Route route, Map<String, String> params, String... vars) {
+        return route.expand(base, params, vars);
+    }
+
+    private CompletableFuture<Map<String, Object>> request(HttpRequestBase req) {
+        return request(req, decoder);
+    }
+
+    private <T> CompletableFuture<T> request(final HttpRequestBase req, final JsonHandler<T> handler) {
+        final CompletableFuture<T> result = new CompletableFuture<T>();
+
+        req.addHeader("Accept", "application/json");
+
+        if (compression && !req.containsHeader("Accept-Encoding"))
+            req.addHeader("Accept-Encoding", RestClient.ACCEPT_ENCODING);
+
+        if (session == null || credsInitialized) {
+            dispatch(req, handler, result, true);
+            return result;
+        }
+
+        /* logging in blocks, so it stays off the calling and reactor threads */
+        executor.execute(() -> {
+            try {
+                session.initialize();
+                credsInitialized = true;
+            } catch (Throwable ex) {
+                result.completeExceptionally(ex);
+                return;
+            }
+
+            dispatch(req, handler, result, true);
+        });
+
+        return result;
+    }
+
+    /**
+     * Authenticates a request and sends it once the rate limiter allows.
+     *
+     * @param renew Whether a 401 response may renew the credentials
+     */
+    private <T> void dispatch(final HttpRequestBase req, final JsonHandler<T> handler,
+            final CompletableFuture<T> result, final boolean renew) {
+
+        if (result.isDone())
+            return;
+
+        try {
+            if (creds != null)
+                creds.authenticate(req);
+        } catch (Exception ex) {
+            result.completeExceptionally(ex);
+            return;
+        }
+
+        RateLimiter limiter = rateLimiter;
+        if (limiter == null) {
+            send(req, handler, result, renew);
+            return;
+        }
+
+        limiter.acquireAsync(rateLimitMode).whenComplete((v, ex) -> {
+            if (ex != null)
+                result.completeExceptionally(ex);
+            else if (!result.isDone())
+                send(req, handler, result, renew);
+        });
+    }
+
+    private <T> void send(final HttpRequestBase req, final JsonHandler<T> handler,
+            final CompletableFuture<T> result, final boolean renew) {
+
+        final RateLimiter limiter = rateLimiter;
+        final Future<HttpResponse> pending = httpClient.execute(req, new FutureCallback<HttpResponse>() {
+            public void completed(final HttpResponse resp) {
+                if (limiter != null)
+                    limiter.onResponse(resp);
+
+                executor.execute(() -> {
+                    try {
+                        if (renew && reauthenticate(req, resp)) {
+                            dispatch(req, handler, result, false);
+                            return;
+                        }
+
+                        result.complete(RestClient.readResponse(req, resp, decoder, handler, listener));
+                    } catch (Throwable ex) {
+                        result.completeExceptionally(ex);
+                    }
+                });
+            }
+
+            public void failed(Exception ex) {
+                result.completeExceptionally(ex);
+            }
+
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+
+        /* cancelling the returned future aborts the exchange */
+        result.whenComplete((r, ex) -> {
+            if (result.isCancelled())
+                pending.cancel(true);
+        });
+    }
+
+    /**
+     * Prepares a request rejected with 401 to be sent again if the
+     * credentials could be renewed through the session client.
+     *
+     * @return true if the request should be sent again
+     */
+    private boolean reauthenticate(HttpRequestBase req, HttpResponse resp) throws IOException, JiraException {
+        if (session == null || resp.getStatusLine().getStatusCode() != 401)
+            return false;
+
+        if (req instanceof HttpEntityEnclosingRequestBase) {
+            HttpEntity ent = ((HttpEntityEnclosingRequestBase)req).getEntity();
+            if (ent != null && !ent.isRepeatable())
+                return false;
+        }
+
+        if (!creds.reauthenticate(session, req))
+            return false;
+
+        EntityUtils.consume(resp.getEntity());
+        req.reset();
+        req.removeHeaders("Cookie");
+        req.removeHeaders("Authorization");
+
+        return true;
+    }
+
+    private CompletableFuture<Map<String, Object>> request(HttpEntityEnclosingRequestBase req, JSON payload) {
+        if (payload != null) {
+            StringEntity ent = new StringEntity(payload.toString(), "UTF-8");
+            ent.setContentType("application/json");
+
+            req.addHeader("Content-Type", "application/json");
+            req.setEntity(ent);
+        }
+
+        return request(req);
+    }
+
+    /**
+     * Executes an HTTP DELETE with the given URI.
+     *
+     * @param uri Full URI of the remote endpoint
+     *
+     * @return a future JSON-encoded result or null when there's no content
+     */
+    public CompletableFuture<Map<String, Object>> delete(URI uri) {
+        return request(new HttpDelete(uri));
+    }
+
+    /**
+     * Executes an HTTP GET with the given URI.
+     *
+     * @param uri Full URI of the remote endpoint
+     *
+     * @return a future JSON-encoded result or null when there's no content
+     */
+    public CompletableFuture<Map<String, Object>> get(URI uri) {
+        return request(new HttpGet(uri));
+    }
+
+    /**
+     * Executes an HTTP GET with the given URI and reads the response with
+     * the given handler.
+     *
+     * @param uri Full URI of the remote endpoint
+     * @param handler Reads the result from the JSON tokens
+     *
+     * @return the future result or null when there's no content
+     */
+    public <T> CompletableFuture<T> get(URI uri, JsonHandler<T> handler) {
+        return request(new HttpGet(uri), handler);
+    }
+
+    /**
+     * Executes an HTTP GET with the given path.
+     *
+     * @param params Map of key value pairs
+     * @param pathParts Path to be appended to the URI supplied in the construtor
+     *
+     * @return a future JSON-encoded result or null when there's no content
+     *
+     * @throws URISyntaxException when an error occurred appending the path to the URI
+     */
+    public CompletableFuture<Map<String, Object>> get(Map<String, String> params, String... pathParts)
+            throws URISyntaxException {
+
+        return get(buildURI(params, pathParts));
+    }
+
+    /**
+     * Executes an HTTP POST with the given URI and payload.
+     *
+     * @param uri Full URI of the remote endpoint
+     * @param payload JSON-encoded data to send to the remote service
+     *
+     * @return a future JSON-encoded result or null when there's no content
+     */
+    public CompletableFuture<Map<String, Object>> post(URI uri, JSON payload) {
+        return request(new HttpPost(uri), payload);
+    }
+
+    /**
+     * Executes an HTTP PUT with the given URI and payload.
+     *
+     * @param uri Full URI of the remote endpoint
+     * @param payload JSON-encoded data to send to the remote service
+     *
+     * @return a future JSON-encoded result or null when there's no content
+     */
+    public CompletableFuture<Map<String, Object>> put(URI uri, JSON payload) {
+        return request(new HttpPut(uri), payload);
+    }
+
+    /**
+     * Enables or disables asking the server for compressed responses.
+     * Compressed responses are decompressed either way.
+     *
+     * @param compression Whether to send Accept-Encoding with each request
+     */
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Sets the listener that receives the transfer statistics of each
+     * response.
+     *
+     * @param listener Response listener or null to remove it
+     */
+    public void setResponseListener(ResponseListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the table that decoded responses share equal strings through.
+     *
+     * Names, keys and URLs repeat for every issue of a search page, so a
+     * table keeps one instance of each instead of thousands. Use a table
+     * per client and size it for the distinct short strings of a page.
+     *
+     * @param strings String table or null to create a new string for every
+     * name and value
+     */
+    public void setStringTable(StringTable strings) {
+        this.decoder = new JsonDecoder(true, strings);
+    }
+
+    /**
+     * Gets the table that decoded responses share equal strings through.
+     */
+    public StringTable getStringTable() {
+        return decoder.getStringTable();
+    }
+
+    /**
+     * Sets the limiter that every request takes a permit from.
+     *
+     * @param rateLimiter Rate limiter, usually shared per host, or null
+     * @param mode What to do when no permit is available; blocking waits
+     * block the calling thread
+     */
+    public void setRateLimiter(RateLimiter rateLimiter, RateLimiter.Mode mode) {
+        this.rateLimiter = rateLimiter;
+        this.rateLimitMode = mode;
+    }
+
+    /**
+     * Exposes the http client.
+     *
+     * @return the httpClient property
+     */
+    public CloseableHttpAsyncClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Shuts down the I/O reactor and closes all connections.
+     */
+    public void close() throws IOException {
+        try {
+            httpClient.close();
+        } finally {
+            if (session != null)
+                session.getTransport().close();
+        }
+    }
+}
@@ -32,7 +32,7 @@ public class Attachment extends Resource {
 	
     private User author = null;
     private String filename = null;
-    private Date created = null;
+    private long created = DateParser.NONE;
     private int size = 0;
     private String mimeType = null;
     private String content = null;
@@ -59,7 +59,7 @@ public class Attachment extends Resource {
 	protected void deserialise(Map<String, Object> data) throws JiraException {
     	author = Field.getResource(User.class, data.get("author"));
         filename = Field.getString(data.get("filename"));
-        created = Field.getDate(data.get("created"));
+        created = Field.getDateMillis(data.get("created"));
         size = Field.getInteger(data.get("size"));
         mimeType = Field.getString(data.get("mimeType"));
         content = Field.getString(data.get("content"));
@@ -75,7 +75,7 @@ public class Attachment extends Resource {
     }
 
     public Date getCreatedDate() {
-        return created;
+        return DateParser.toDate(created);
     }
 
     public String getContentUrl() {
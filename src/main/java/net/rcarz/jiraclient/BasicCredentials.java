@@ -19,11 +19,13 @@
 
 package net.rcarz.jiraclient;
 
+import org.apache.commons.codec.binary.Base64;
+import org.apache.http.Consts;
+import org.apache.http.Header;
 import org.apache.http.HttpRequest;
+import org.apache.http.auth.AUTH;
 import org.apache.http.auth.AuthenticationException;
-import org.apache.http.auth.Credentials;
-import org.apache.http.auth.UsernamePasswordCredentials;
-import org.apache.http.impl.auth.BasicScheme;
+import org.apache.http.message.BasicHeader;
 
 /**
  * Basic HTTP authentication credentials.
@@ -32,6 +34,7 @@ public class BasicCredentials implements ICredentials {
 
     private String username;
     private String password;
+    private final Header header;
 
     /**
      * Creates new basic HTTP credentials.
@@ -42,6 +45,10 @@ public class BasicCredentials implements ICredentials {
     public BasicCredentials(String username, String password) {
         this.username = username;
         this.password = password;
+
+        /* the same header BasicScheme builds, encoded once */
+        byte[] raw = (username + ":" + (password != null ? password : "null")).getBytes(Consts.ASCII);
+        this.header = new BasicHeader(AUTH.WWW_AUTH_RESP, "Basic " + Base64.encodeBase64String(raw));
     }
 
     /**
@@ -51,8 +58,7 @@ public class BasicCredentials implements ICredentials {
      * @throws AuthenticationException 
      */
     public void authenticate(HttpRequest req) throws AuthenticationException {
-        Credentials creds = new UsernamePasswordCredentials(username, password);
-        req.addHeader(new BasicScheme().authenticate(creds, req, null));
+        req.addHeader(header);
     }
 
     /**
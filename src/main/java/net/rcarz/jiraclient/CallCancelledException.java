@@ -0,0 +1,42 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+
+package net.rcarz.jiraclient;
+
+/**
+ * Thrown when a call is cancelled or runs past its deadline.
+ */
+public class CallCancelledException extends JiraException {
+    private static final long serialVersionUID = 1L;
+
+    private final boolean deadlineExceeded;
+
+    public CallCancelledException(String msg, boolean deadlineExceeded, Throwable cause) {
+        super(msg, cause);
+        this.deadlineExceeded = deadlineExceeded;
+    }
+
+    /**
+     * Checks whether the call ran out of time rather than being cancelled.
+     */
+    public boolean isDeadlineExceeded() {
+        return deadlineExceeded;
+    }
+}
@@ -0,0 +1,445 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * Timeouts, a deadline and cancellation for one logical call.
+ *
+ * Options apply to every request sent through a client view from
+ * {@link JiraClient#withOptions(CallOptions)}, including retries and each
+ * page of a paginated call. The deadline is fixed when it's set, so all of
+ * those requests share it. Connect, read and pool lease timeouts are capped
+ * at the time left, and when the deadline passes or {@link #cancel()} is
+ * called the requests in flight are aborted. Waits between requests, such
+ * as retry back-off and rate limiting, end with the call as well: a wait
+ * that would run past the deadline fails right away.
+ *
+ * Aborting needs a transport that honours {@link HttpRequestBase#abort()},
+ * like the default Apache transport. The task that aborts requests at the
+ * deadline only runs while requests of the call are in progress.
+ */
+public class CallOptions {
+
+    /**
+     * Applies the options to each request before handing it on.
+     */
+    static final class Transport implements HttpTransport {
+        private final HttpTransport delegate;
+        private final CallOptions options;
+        private final RequestConfig defaults;
+
+        Transport(HttpTransport delegate, CallOptions options, RequestConfig defaults) {
+            this.delegate = delegate;
+            this.options = options;
+            this.defaults = defaults;
+        }
+
+        public HttpResponse execute(HttpRequestBase req) throws IOException {
+            options.begin(req);
+            req.setConfig(options.configure(req.getConfig() != null ? req.getConfig() : defaults));
+            return delegate.execute(req);
+        }
+
+        /**
+         * Does nothing, the transport belongs to the client the view was
+         * created from.
+         */
+        public void close() {
+        }
+    }
+
+    private static volatile ScheduledExecutorService scheduler = null;
+
+    /**
+     * Options of the requests in progress, so filters can find them.
+     */
+    private static final Map<HttpRequestBase, CallOptions> CALLS =
+            Collections.synchronizedMap(new WeakHashMap<HttpRequestBase, CallOptions>());
+
+    private int connectTimeout = -1;
+    private int readTimeout = -1;
+    private long deadline = 0;
+    private boolean hasDeadline = false;
+    private volatile boolean cancelled = false;
+    private volatile boolean expired = false;
+    private final CompletableFuture<Void> cancellation = new CompletableFuture<Void>();
+    private ScheduledFuture<?> watchdog = null;
+    private int active = 0;
+    private final Set<HttpRequestBase> requests =
+            Collections.newSetFromMap(new WeakHashMap<HttpRequestBase, Boolean>());
+
+    /**
+     * Sets the connect timeout in milliseconds.
+     */
+    public CallOptions connectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    /**
+     * Sets the socket read timeout in milliseconds.
+     */
+    public CallOptions readTimeout(int readTimeout) {
+        this.readTimeout = readTimeout;
+        return this;
+    }
+
+    /**
+     * Sets the deadline to the given number of milliseconds from now.
+     */
+    public synchronized CallOptions timeout(long timeout) {
+        deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+        hasDeadline = true;
+
+        if (watchdog != null) {
+            watchdog.cancel(false);
+            watchdog = null;
+        }
+
+        return this;
+    }
+
+    /**
+     * Cancels the call. Requests in flight are aborted and new requests
+     * fail right away.
+     */
+    public void cancel() {
+        cancelled = true;
+        cancellation.complete(null);
+
+        synchronized (this) {
+            /* wake up pauses */
+            notifyAll();
+        }
+
+        abortAll();
+    }
+
+    /**
+     * Checks whether the call was cancelled.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Checks whether the deadline has passed.
+     */
+    public boolean isExpired() {
+        return expired || getRemainingMillis() <= 0;
+    }
+
+    /**
+     * Gets the time left until the deadline.
+     *
+     * @return milliseconds left or Long.MAX_VALUE without a deadline
+     */
+    public synchronized long getRemainingMillis() {
+        if (!hasDeadline)
+            return Long.MAX_VALUE;
+
+        return TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+    }
+
+    /**
+     * Checks whether the task that aborts requests at the deadline is
+     * scheduled.
+     */
+    synchronized boolean isWatched() {
+        return watchdog != null;
+    }
+
+    /**
+     * Checks whether the call was cancelled or ran out of time.
+     */
+    boolean isDone() {
+        return cancelled || isExpired();
+    }
+
+    /**
+     * Creates the exception a call that is done fails with.
+     */
+    CallCancelledException failure(Throwable cause) {
+        return cancelled
+                ? new CallCancelledException("Call was cancelled", false, cause)
+                : new CallCancelledException("Call deadline exceeded", true, cause);
+    }
+
+    /**
+     * Marks the start of a request of the call, before it passes through
+     * the interceptors and filters.
+     */
+    void enter(HttpRequestBase req) {
+        CALLS.put(req, this);
+
+        synchronized (this) {
+            active++;
+        }
+    }
+
+    /**
+     * Marks the end of a request of the call. When no other request is in
+     * progress the deadline task is cancelled, so finished calls don't
+     * leave it queued until the deadline.
+     */
+    void exit(HttpRequestBase req) {
+        CALLS.remove(req);
+
+        synchronized (this) {
+            if (--active > 0)
+                return;
+
+            requests.clear();
+
+            if (watchdog != null) {
+                watchdog.cancel(false);
+                watchdog = null;
+            }
+        }
+    }
+
+    /**
+     * Gets the options of a request in progress.
+     *
+     * @return the call options or null when the request was sent without
+     */
+    static CallOptions forRequest(HttpRequestBase req) {
+        return CALLS.get(req);
+    }
+
+    /**
+     * Makes a copy of a request, such as a hedge, part of the same call.
+     */
+    static void inherit(HttpRequestBase req, HttpRequestBase copy) {
+        CallOptions options = CALLS.get(req);
+        if (options != null)
+            CALLS.put(copy, options);
+    }
+
+    /**
+     * Waits before sending a request of the call again. The wait ends early
+     * when the call is cancelled.
+     *
+     * @param nanos Time to wait in nanoseconds
+     * @param message Message of the exception thrown when interrupted
+     *
+     * @throws CallCancelledException when the call is done or the wait
+     * would run past the deadline
+     * @throws InterruptedIOException when the thread is interrupted
+     */
+    void pause(long nanos, String message) throws CallCancelledException, InterruptedIOException {
+        if (isDone())
+            throw failure(null);
+
+        if (TimeUnit.NANOSECONDS.toMillis(nanos) >= getRemainingMillis())
+            throw new CallCancelledException("Call deadline exceeded", true, null);
+
+        long end = System.nanoTime() + nanos;
+
+        try {
+            synchronized (this) {
+                long left;
+                while (!cancelled && (left = end - System.nanoTime()) > 0)
+                    TimeUnit.NANOSECONDS.timedWait(this, left);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(message);
+        }
+
+        if (cancelled)
+            throw failure(null);
+    }
+
+    /**
+     * Waits for a result that another call is working on, for as long as
+     * this call has. The wait ends early when this call is cancelled.
+     *
+     * @param result Outcome of the other call
+     *
+     * @return the result
+     *
+     * @throws ExecutionException when the other call failed
+     * @throws CallCancelledException when this call is done first
+     * @throws InterruptedException when the thread is interrupted
+     */
+    Object await(CompletableFuture<?> result)
+            throws ExecutionException, CallCancelledException, InterruptedException {
+
+        if (isDone())
+            throw failure(null);
+
+        CompletableFuture<Object> first = CompletableFuture.anyOf(result, cancellation);
+        long remaining = getRemainingMillis();
+
+        try {
+            if (remaining == Long.MAX_VALUE)
+                first.get();
+            else
+                first.get(Math.max(0, remaining), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            /* reported by the result below */
+        } catch (TimeoutException ex) {
+            throw failure(ex);
+        }
+
+        if (!result.isDone())
+            throw failure(null);
+
+        return result.get();
+    }
+
+    /**
+     * Waits before sending a request again, within the time left to the
+     * call the request belongs to.
+     *
+     * @param req Request to send again
+     * @param nanos Time to wait in nanoseconds
+     * @param message Message of the exception thrown when interrupted
+     *
+     * @throws CallCancelledException when the call is done or the wait
+     * would run past its deadline
+     * @throws InterruptedIOException when the thread is interrupted
+     */
+    static void pause(HttpRequestBase req, long nanos, String message)
+            throws CallCancelledException, InterruptedIOException {
+
+        CallOptions options = req != null ? forRequest(req) : null;
+        if (options != null) {
+            options.pause(nanos, message);
+            return;
+        }
+
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(message);
+        }
+    }
+
+    /**
+     * Registers a request about to be sent, so it can be aborted.
+     *
+     * @throws InterruptedIOException when the call is already done
+     */
+    void begin(HttpRequestBase req) throws InterruptedIOException {
+        if (isDone()) {
+            /* aborted, so circuit breakers don't count it against the server */
+            req.abort();
+            throw new InterruptedIOException(cancelled ? "Call was cancelled" : "Call deadline exceeded");
+        }
+
+        synchronized (this) {
+            requests.add(req);
+
+            if (hasDeadline && watchdog == null) {
+                watchdog = getScheduler().schedule(new Runnable() {
+                    public void run() {
+                        expired = true;
+                        abortAll();
+                    }
+                }, deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            }
+        }
+
+        /* cancelled while registering */
+        if (cancelled)
+            req.abort();
+    }
+
+    /**
+     * Caps the timeouts of a request configuration at the time left.
+     */
+    RequestConfig configure(RequestConfig base) {
+        RequestConfig.Builder config = RequestConfig.copy(base != null ? base : RequestConfig.DEFAULT);
+        int connect = connectTimeout >= 0 ? connectTimeout : base != null ? base.getConnectTimeout() : -1;
+        int read = readTimeout >= 0 ? readTimeout : base != null ? base.getSocketTimeout() : -1;
+        int lease = base != null ? base.getConnectionRequestTimeout() : -1;
+
+        long remaining = getRemainingMillis();
+        if (remaining != Long.MAX_VALUE) {
+            int left = (int)Math.max(1, Math.min(Integer.MAX_VALUE, remaining));
+            connect = cap(connect, left);
+            read = cap(read, left);
+            lease = cap(lease, left);
+        }
+
+        return config.setConnectTimeout(connect).setSocketTimeout(read).setConnectionRequestTimeout(lease).build();
+    }
+
+    /* zero and negative timeouts mean no limit */
+    private static int cap(int timeout, int left) {
+        return timeout > 0 ? Math.min(timeout, left) : left;
+    }
+
+    private void abortAll() {
+        List<HttpRequestBase> pending;
+        synchronized (this) {
+            pending = new ArrayList<HttpRequestBase>(requests);
+        }
+
+        for (HttpRequestBase req : pending)
+            req.abort();
+    }
+
+    private static ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            synchronized (CallOptions.class) {
+                if (scheduler == null) {
+                    ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread t = new Thread(r, "jira-call-deadline");
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+
+                    /* cancelled deadline tasks would stay queued until they're due */
+                    executor.setRemoveOnCancelPolicy(true);
+                    scheduler = executor;
+                }
+            }
+        }
+
+        return scheduler;
+    }
+}
@@ -38,7 +38,7 @@ public class ChangeLogEntry extends Resource {
     /**
      * Date when the changelog entry was created.
      */
-    private Date created = null;
+    private long created = DateParser.NONE;
 
     /**
      * List of change log items in the change log entry.
@@ -65,7 +65,7 @@ public class ChangeLogEntry extends Resource {
     @Override
 	protected void deserialise(Map<String, Object> data) throws JiraException {
     	author = Field.getResource(User.class, data.get("author"));      
-        created = Field.getDateTime(data.get("created"));
+        created = Field.getDateTimeMillis(data.get("created"));
         items = Field.getResourceArray(ChangeLogItem.class, data.get(Field.CHANGE_LOG_ITEMS));
 	}
 
@@ -82,7 +82,7 @@ public class ChangeLogEntry extends Resource {
      * @return the date
      */
     public Date getCreated() {
-        return created;
+        return DateParser.toDate(created);
     }
 
     /**
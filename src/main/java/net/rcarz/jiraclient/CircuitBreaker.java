@@ -0,0 +1,379 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * Stops sending requests to an endpoint family that keeps failing or
+ * responding slowly.
+ *
+ * Each family has its own circuit, so a degraded search backend doesn't
+ * hold up issue reads. A circuit counts calls, failures and slow calls in a
+ * rolling time window. Transport errors and 5xx responses are failures.
+ * Once enough calls have been made and either the failure rate or the slow
+ * call rate reaches its threshold, the circuit opens and requests fail
+ * immediately with a {@link CircuitOpenException}. After the open duration
+ * a few probe requests are let through: if they all succeed the circuit
+ * closes, otherwise it opens again.
+ */
+public class CircuitBreaker implements RestFilter {
+
+    /**
+     * Groups of endpoints that share a circuit.
+     */
+    public enum Family {
+        SEARCH, ISSUE_READ, ISSUE_WRITE, GREENHOPPER, ATTACHMENTS, OTHER;
+
+        /**
+         * Determines the family of a request.
+         *
+         * @param method HTTP method
+         * @param uri Request URI
+         *
+         * @return the endpoint family
+         */
+        public static Family of(String method, URI uri) {
+            String path = uri.getRawPath();
+            if (path == null)
+                return OTHER;
+
+            if (path.contains("/rest/greenhopper/"))
+                return GREENHOPPER;
+
+            int i = path.indexOf("/rest/api/");
+            if (i < 0)
+                return OTHER;
+
+            /* skip the API revision */
+            i = path.indexOf('/', i + 10);
+            if (i < 0)
+                return OTHER;
+
+            int end = path.indexOf('/', i + 1);
+            String resource = end < 0 ? path.substring(i + 1) : path.substring(i + 1, end);
+
+            if (resource.equals("search"))
+                return SEARCH;
+            if (resource.equals(Attachment.URI))
+                return ATTACHMENTS;
+            if (resource.equals(Issue.URI)) {
+                if (end >= 0 && path.indexOf("/" + Attachment.URI_MULTI, end) >= 0)
+                    return ATTACHMENTS;
+
+                return method.equals("GET") || method.equals("HEAD") ? ISSUE_READ : ISSUE_WRITE;
+            }
+
+            return OTHER;
+        }
+    }
+
+    /**
+     * Circuit states.
+     */
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Snapshot of one circuit.
+     */
+    public static final class Stats {
+        public final State state;
+        public final long calls;
+        public final long failures;
+        public final long slowCalls;
+        public final long rejected;
+        public final long opened;
+
+        private Stats(State state, long calls, long failures, long slowCalls, long rejected, long opened) {
+            this.state = state;
+            this.calls = calls;
+            this.failures = failures;
+            this.slowCalls = slowCalls;
+            this.rejected = rejected;
+            this.opened = opened;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[state: %s; calls: %d; failures: %d; slow calls: %d; rejected: %d; opened: %d]",
+                    state, calls, failures, slowCalls, rejected, opened);
+        }
+    }
+
+    /**
+     * State and rolling window of one family.
+     */
+    private final class Circuit {
+        final Family family;
+        final long[] epochs = new long[buckets];
+        final long[] calls = new long[buckets];
+        final long[] failures = new long[buckets];
+        final long[] slow = new long[buckets];
+
+        State state = State.CLOSED;
+        long openedAt = 0;
+        int probes = 0;
+        int probeSuccesses = 0;
+        long rejected = 0;
+        long opened = 0;
+
+        Circuit(Family family) {
+            this.family = family;
+        }
+
+        /**
+         * Lets a call through or throws when the circuit is open.
+         *
+         * @return true when the call is a half-open probe
+         */
+        synchronized boolean acquire(long now) throws CircuitOpenException {
+            if (state == State.OPEN) {
+                long wait = openedAt + openDuration - now;
+                if (wait > 0)
+                    throw reject(wait);
+
+                state = State.HALF_OPEN;
+                probes = 0;
+                probeSuccesses = 0;
+            }
+
+            if (state == State.HALF_OPEN) {
+                if (probes + probeSuccesses >= halfOpenCalls)
+                    throw reject(0);
+
+                probes++;
+                return true;
+            }
+
+            return false;
+        }
+
+        private CircuitOpenException reject(long wait) {
+            rejected++;
+            return new CircuitOpenException("Circuit for " + family + " requests is " + state, family, wait);
+        }
+
+        /**
+         * Gives back a probe whose outcome says nothing about the server.
+         */
+        synchronized void release(boolean probe) {
+            if (probe && state == State.HALF_OPEN)
+                probes--;
+        }
+
+        synchronized void record(boolean probe, boolean failed, long millis, long now) {
+            boolean isSlow = millis >= slowCallMillis;
+            long epoch = now / bucketMillis;
+            int slot = (int)(epoch % buckets);
+
+            if (epochs[slot] != epoch) {
+                epochs[slot] = epoch;
+                calls[slot] = 0;
+                failures[slot] = 0;
+                slow[slot] = 0;
+            }
+
+            calls[slot]++;
+            if (failed)
+                failures[slot]++;
+            if (isSlow)
+                slow[slot]++;
+
+            if (state == State.HALF_OPEN && probe) {
+                probes--;
+
+                if (failed || isSlow) {
+                    open(now);
+                } else if (++probeSuccesses >= halfOpenCalls) {
+                    state = State.CLOSED;
+                    clear();
+                }
+            } else if (state == State.CLOSED) {
+                long total = sum(calls, epoch);
+
+                if (total >= minimumCalls && (sum(failures, epoch) >= failureRate * total ||
+                        sum(slow, epoch) >= slowCallRate * total))
+                    open(now);
+            }
+        }
+
+        private long sum(long[] counts, long epoch) {
+            long total = 0;
+            for (int i = 0; i < buckets; i++) {
+                if (epochs[i] > epoch - buckets)
+                    total += counts[i];
+            }
+
+            return total;
+        }
+
+        private void open(long now) {
+            state = State.OPEN;
+            openedAt = now;
+            opened++;
+        }
+
+        private void clear() {
+            for (int i = 0; i < buckets; i++) {
+                epochs[i] = 0;
+                calls[i] = 0;
+                failures[i] = 0;
+                slow[i] = 0;
+            }
+        }
+
+        synchronized Stats stats(long now) {
+            long epoch = now / bucketMillis;
+            State s = state == State.OPEN && now - openedAt >= openDuration ? State.HALF_OPEN : state;
+
+            return new Stats(s, sum(calls, epoch), sum(failures, epoch), sum(slow, epoch), rejected, opened);
+        }
+    }
+
+    private final int buckets;
+    private final long bucketMillis;
+    private double failureRate = 0.5;
+    private long slowCallMillis = 10000;
+    private double slowCallRate = 0.8;
+    private int minimumCalls = 20;
+    private long openDuration = 30000;
+    private int halfOpenCalls = 3;
+
+    private final Circuit[] circuits;
+
+    /**
+     * Creates a circuit breaker with a rolling window of 10 seconds.
+     */
+    public CircuitBreaker() {
+        this(10000, 10);
+    }
+
+    /**
+     * Creates a circuit breaker.
+     *
+     * @param windowMillis Length of the rolling window
+     * @param buckets Number of buckets the window is split into
+     */
+    public CircuitBreaker(long windowMillis, int buckets) {
+        if (buckets < 1 || windowMillis < buckets)
+            throw new IllegalArgumentException("Window must have at least one bucket of one millisecond");
+
+        this.buckets = buckets;
+        this.bucketMillis = windowMillis / buckets;
+
+        Family[] families = Family.values();
+        circuits = new Circuit[families.length];
+        for (int i = 0; i < families.length; i++)
+            circuits[i] = new Circuit(families[i]);
+    }
+
+    /**
+     * Sets the failure rate, between 0 and 1, at which a circuit opens.
+     */
+    public CircuitBreaker failureRate(double failureRate) {
+        this.failureRate = failureRate;
+        return this;
+    }
+
+    /**
+     * Sets how long a call may take before it counts as slow, and the rate
+     * of slow calls, between 0 and 1, at which a circuit opens.
+     */
+    public CircuitBreaker slowCalls(long slowCallMillis, double slowCallRate) {
+        this.slowCallMillis = slowCallMillis;
+        this.slowCallRate = slowCallRate;
+        return this;
+    }
+
+    /**
+     * Sets the number of calls in the window below which a circuit stays
+     * closed regardless of the rates.
+     */
+    public CircuitBreaker minimumCalls(int minimumCalls) {
+        this.minimumCalls = minimumCalls;
+        return this;
+    }
+
+    /**
+     * Sets how long a circuit stays open in milliseconds before probing.
+     */
+    public CircuitBreaker openDuration(long openDuration) {
+        this.openDuration = openDuration;
+        return this;
+    }
+
+    /**
+     * Sets the number of probe calls that must succeed to close a circuit.
+     */
+    public CircuitBreaker halfOpenCalls(int halfOpenCalls) {
+        this.halfOpenCalls = halfOpenCalls;
+        return this;
+    }
+
+    public HttpResponse filter(HttpRequestBase req, Chain chain) throws IOException, JiraException {
+        Circuit circuit = circuits[Family.of(req.getMethod(), req.getURI()).ordinal()];
+        boolean probe = circuit.acquire(System.currentTimeMillis());
+        long start = System.nanoTime();
+        HttpResponse resp;
+
+        try {
+            resp = chain.proceed(req);
+        } catch (IOException ex) {
+            /* aborted on purpose, e.g. a hedge won */
+            if (req.isAborted())
+                circuit.release(probe);
+            else
+                circuit.record(probe, true, (System.nanoTime() - start) / 1000000, System.currentTimeMillis());
+
+            throw ex;
+        } catch (JiraException ex) {
+            circuit.release(probe);
+            throw ex;
+        } catch (RuntimeException ex) {
+            circuit.release(probe);
+            throw ex;
+        }
+
+        circuit.record(probe, resp.getStatusLine().getStatusCode() >= 500,
+                (System.nanoTime() - start) / 1000000, System.currentTimeMillis());
+
+        return resp;
+    }
+
+    /**
+     * Gets the current state of a family's circuit.
+     */
+    public State getState(Family family) {
+        return getStats(family).state;
+    }
+
+    /**
+     * Gets the counters of a family's circuit.
+     */
+    public Stats getStats(Family family) {
+        return circuits[family.ordinal()].stats(System.currentTimeMillis());
+    }
+}
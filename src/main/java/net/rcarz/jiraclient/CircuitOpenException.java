@@ -0,0 +1,54 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+
+package net.rcarz.jiraclient;
+
+/**
+ * Thrown instead of sending a request while the circuit for its endpoint
+ * family is open.
+ */
+public class CircuitOpenException extends JiraException {
+    private static final long serialVersionUID = 1L;
+
+    private final CircuitBreaker.Family family;
+    private final long waitMillis;
+
+    public CircuitOpenException(String msg, CircuitBreaker.Family family, long waitMillis) {
+        super(msg);
+        this.family = family;
+        this.waitMillis = waitMillis;
+    }
+
+    /**
+     * Gets the endpoint family whose circuit is open.
+     */
+    public CircuitBreaker.Family getFamily() {
+        return family;
+    }
+
+    /**
+     * Gets how long until the circuit lets a probe request through.
+     *
+     * @return the wait time in milliseconds
+     */
+    public long getWaitMillis() {
+        return waitMillis;
+    }
+}
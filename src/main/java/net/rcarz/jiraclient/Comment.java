@@ -31,8 +31,8 @@ public class Comment extends Resource {
 	
     private User author = null;
     private String body = null;
-    private Date created = null;
-    private Date updated = null;
+    private long created = DateParser.NONE;
+    private long updated = DateParser.NONE;
     private User updatedAuthor = null;
 
     /**
@@ -56,14 +56,14 @@ public class Comment extends Resource {
 	protected void deserialise(Map<String, Object> data) throws JiraException {
     	author = Field.getResource(User.class, data.get("author"));
         body = Field.getString(data.get("body"));
-        created = Field.getDateTime(data.get("created"));
-        updated = Field.getDateTime(data.get("updated"));
+        created = Field.getDateTimeMillis(data.get("created"));
+        updated = Field.getDateTimeMillis(data.get("updated"));
         updatedAuthor = Field.getResource(User.class, data.get("updatedAuthor"));
 	}
 
     @Override
     public String toString() {
-        return created + " by " + author;
+        return getCreatedDate() + " by " + author;
     }
 
     public User getAuthor() {
@@ -75,7 +75,7 @@ public class Comment extends Resource {
     }
 
     public Date getCreatedDate() {
-        return created;
+        return DateParser.toDate(created);
     }
 
     public User getUpdateAuthor() {
@@ -83,7 +83,7 @@ public class Comment extends Resource {
     }
 
     public Date getUpdatedDate() {
-        return updated;
+        return DateParser.toDate(updated);
     }
 
 	@Override
@@ -0,0 +1,331 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A read-only map for decoded JSON objects.
+ *
+ * Values are kept in a flat array. The keys live in a shape shared by every
+ * object that was decoded with the same keys in the same order, so a page of
+ * users or statuses carries one key layout instead of a hash table per
+ * object. Shapes are found by following transitions from the empty shape,
+ * one per key, and are cached up to a fixed number. The cache is static and
+ * lives as long as the process; once it's full, objects with key layouts
+ * that aren't cached yet are decoded into plain read-only maps.
+ */
+final class CompactMap extends AbstractMap<String, Object> {
+
+    /**
+     * Largest number of cached shapes.
+     */
+    static final int MAX_SHAPES = 16384;
+
+    /**
+     * Number of shapes that are cached, lowered by tests.
+     */
+    static volatile int maxShapes = MAX_SHAPES;
+
+    /**
+     * Shapes with more keys than this use a hash index for lookups.
+     */
+    private static final int LINEAR_LOOKUP = 8;
+
+    private static final AtomicInteger shapeCount = new AtomicInteger();
+
+    /**
+     * An ordered set of keys.
+     */
+    static final class Shape {
+        final Shape parent;
+        final String key;
+        final int size;
+        private volatile ConcurrentHashMap<String, Shape> transitions = null;
+        private volatile String[] keys = null;
+        private volatile Map<String, Integer> index = null;
+        private volatile Boolean unique = null;
+
+        Shape(Shape parent, String key) {
+            this.parent = parent;
+            this.key = key;
+            this.size = parent != null ? parent.size + 1 : 0;
+        }
+
+        /**
+         * Gets the shape with one more key.
+         *
+         * @return the shape or null when it isn't cached and the cache is
+         * full
+         */
+        Shape with(String key) {
+            ConcurrentHashMap<String, Shape> t = transitions;
+            if (t == null) {
+                synchronized (this) {
+                    if (transitions == null)
+                        transitions = new ConcurrentHashMap<String, Shape>(4);
+                    t = transitions;
+                }
+            }
+
+            Shape next = t.get(key);
+            if (next != null)
+                return next;
+
+            if (shapeCount.get() >= maxShapes)
+                return null;
+
+            next = new Shape(this, key);
+            Shape prev = t.putIfAbsent(key, next);
+            if (prev != null)
+                return prev;
+
+            shapeCount.incrementAndGet();
+            return next;
+        }
+
+        /**
+         * Gets the keys in order. Only shapes that objects end on need them.
+         */
+        String[] keys() {
+            String[] k = keys;
+            if (k == null) {
+                k = new String[size];
+                for (Shape s = this; s.parent != null; s = s.parent)
+                    k[s.size - 1] = s.key;
+                keys = k;
+            }
+
+            return k;
+        }
+
+        /**
+         * Checks that no key appears twice.
+         */
+        boolean isUnique() {
+            Boolean u = unique;
+            if (u == null) {
+                String[] k = keys();
+                u = new HashSet<String>(Arrays.asList(k)).size() == k.length;
+                unique = u;
+            }
+
+            return u;
+        }
+
+        int indexOf(Object key) {
+            String[] k = keys();
+
+            if (k.length <= LINEAR_LOOKUP) {
+                for (int i = 0; i < k.length; i++) {
+                    if (k[i].equals(key))
+                        return i;
+                }
+
+                return -1;
+            }
+
+            Map<String, Integer> idx = index;
+            if (idx == null) {
+                idx = new HashMap<String, Integer>(k.length * 2);
+                for (int i = 0; i < k.length; i++)
+                    idx.put(k[i], i);
+                index = idx;
+            }
+
+            Integer i = idx.get(key);
+            return i != null ? i : -1;
+        }
+    }
+
+    static final Shape EMPTY = new Shape(null, null);
+
+    /**
+     * Collects the members of one object.
+     */
+    static final class Builder {
+        private Shape shape = EMPTY;
+        private Object[] values = new Object[8];
+        private Map<String, Object> fallback = null;
+
+        /**
+         * Adds a member.
+         */
+        Builder put(String key, Object value) {
+            if (fallback != null) {
+                fallback.put(key, value);
+                return this;
+            }
+
+            Shape next = shape.with(key);
+            if (next == null) {
+                /* the shape cache is full, this object gets a plain map */
+                fallback = toMap();
+                fallback.put(key, value);
+                return this;
+            }
+
+            if (shape.size == values.length)
+                values = Arrays.copyOf(values, values.length * 2);
+
+            values[shape.size] = value;
+            shape = next;
+            return this;
+        }
+
+        private Map<String, Object> toMap() {
+            String[] keys = shape.keys();
+            Map<String, Object> map = new LinkedHashMap<String, Object>();
+            for (int i = 0; i < keys.length; i++)
+                map.put(keys[i], values[i]);
+
+            return map;
+        }
+
+        /**
+         * Creates the map. An object with a repeated key keeps the last
+         * value, the same as a hash map would, but doesn't get a shape.
+         */
+        Map<String, Object> build() {
+            if (fallback != null)
+                return Collections.unmodifiableMap(fallback);
+
+            if (!shape.isUnique())
+                return Collections.unmodifiableMap(toMap());
+
+            return new CompactMap(shape, Arrays.copyOf(values, shape.size));
+        }
+    }
+
+    private final Shape shape;
+    private final Object[] values;
+
+    private CompactMap(Shape shape, Object[] values) {
+        this.shape = shape;
+        this.values = values;
+    }
+
+    /**
+     * Creates a builder for one object.
+     */
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the shape of this map.
+     */
+    Shape getShape() {
+        return shape;
+    }
+
+    /**
+     * Gets the number of shapes cached so far.
+     */
+    static int getShapeCount() {
+        return shapeCount.get();
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int i = shape.indexOf(key);
+        return i >= 0 ? values[i] : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return shape.indexOf(key) >= 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        /* maps of one shape have the same keys in the same order */
+        if (o instanceof CompactMap && ((CompactMap)o).shape == shape) {
+            Object[] other = ((CompactMap)o).values;
+            for (int i = 0; i < values.length; i++) {
+                if (!Objects.equals(values[i], other[i]))
+                    return false;
+            }
+
+            return true;
+        }
+
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return super.hashCode();
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<Map.Entry<String, Object>>() {
+            @Override
+            public int size() {
+                return values.length;
+            }
+
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return new Iterator<Map.Entry<String, Object>>() {
+                    private final String[] keys = shape.keys();
+                    private int next = 0;
+
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    public Map.Entry<String, Object> next() {
+                        if (next >= keys.length)
+                            throw new NoSuchElementException();
+
+                        Map.Entry<String, Object> e =
+                                new AbstractMap.SimpleImmutableEntry<String, Object>(keys[next], values[next]);
+                        next++;
+                        return e;
+                    }
+
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+}
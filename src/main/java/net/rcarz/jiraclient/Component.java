@@ -19,6 +19,7 @@
 
 package net.rcarz.jiraclient;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -53,6 +54,20 @@ public class Component extends Resource {
         isAssigneeTypeValid = Field.getBoolean(data.get("isAssigneeTypeValid"));
     }
 
+    @Override
+    boolean bind(String property, JsonReader reader, JsonBinder binder) throws IOException, JiraException {
+        switch (property) {
+        case "description":
+            description = binder.readString(reader);
+            return true;
+        case "isAssigneeTypeValid":
+            isAssigneeTypeValid = binder.readBoolean(reader);
+            return true;
+        default:
+            return super.bind(property, reader, binder);
+        }
+    }
+
     public String getDescription() {
         return description;
     }
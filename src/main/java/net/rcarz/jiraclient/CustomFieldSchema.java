@@ -0,0 +1,557 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.rcarz.jiraclient.Field.Meta;
+
+/**
+ * Typed accessors for custom fields, compiled from field metadata.
+ *
+ * {@link Issue#getField(String)} returns custom field values as they were
+ * decoded, so every read looks the field up and checks and converts its
+ * value again. A schema is compiled once from the metadata returned by
+ * {@link JiraClient#getCreateMetadata(String, String)} or
+ * {@link JiraClient#getEditMetadata(String)} and has one accessor per
+ * custom field, chosen by its schema type. The first read of an issue
+ * decodes all its custom fields into a {@link Values} record of primitive
+ * and object slots, which is kept with the issue; later reads are array
+ * accesses.
+ *
+ * <pre>
+ * CustomFieldSchema schema = CustomFieldSchema.compile(jira.getEditMetadata("TEST-1"));
+ * CustomFieldSchema.NumberField points = schema.numberField("customfield_10006");
+ *
+ * for (Issue issue : issues)
+ *     total += points.getDouble(issue);
+ * </pre>
+ */
+public final class CustomFieldSchema {
+
+    /**
+     * The decoded custom fields of one issue.
+     */
+    public static final class Values {
+        final CustomFieldSchema schema;
+        final long[] longs;
+        final double[] doubles;
+        final Object[] objects;
+
+        Values(CustomFieldSchema schema) {
+            this.schema = schema;
+            this.longs = new long[schema.longSlots];
+            this.doubles = new double[schema.doubleSlots];
+            this.objects = new Object[schema.objectSlots];
+        }
+    }
+
+    /**
+     * An accessor of one custom field.
+     */
+    public abstract static class TypedField {
+        final Meta meta;
+        final int slot;
+        CustomFieldSchema schema = null;
+
+        TypedField(Meta meta, int slot) {
+            this.meta = meta;
+            this.slot = slot;
+        }
+
+        /**
+         * Stores the decoded value in its slot.
+         */
+        abstract void decode(Object value, Values into) throws JiraException;
+
+        Values values(Issue issue) {
+            return schema.read(issue);
+        }
+
+        /**
+         * Gets the field key, such as customfield_10010.
+         */
+        public String getKey() {
+            return meta.key;
+        }
+
+        /**
+         * Gets the field name.
+         */
+        public String getName() {
+            return meta.name;
+        }
+
+        /**
+         * Gets the field metadata the accessor was compiled from.
+         */
+        public Meta getMeta() {
+            return meta;
+        }
+
+        /**
+         * Gets the decoded value of an issue.
+         *
+         * @param issue Issue to read
+         *
+         * @return the value or null if the field isn't set
+         */
+        public abstract Object get(Issue issue);
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName() + "[" + meta.key + "]";
+        }
+    }
+
+    /**
+     * A number field, stored as a double.
+     */
+    public static final class NumberField extends TypedField {
+
+        NumberField(Meta meta, int slot) {
+            super(meta, slot);
+        }
+
+        @Override
+        void decode(Object value, Values into) {
+            into.doubles[slot] = value instanceof Number ? ((Number)value).doubleValue() : Double.NaN;
+        }
+
+        /**
+         * Gets the value of an issue.
+         *
+         * @return the value or NaN if the field isn't set
+         */
+        public double getDouble(Issue issue) {
+            return values(issue).doubles[slot];
+        }
+
+        /**
+         * Gets the value of an issue, truncated to a long.
+         *
+         * @return the value or the given default if the field isn't set
+         */
+        public long getLong(Issue issue, long defaultValue) {
+            double value = values(issue).doubles[slot];
+            return Double.isNaN(value) ? defaultValue : (long)value;
+        }
+
+        /**
+         * Checks whether the field is set on an issue.
+         */
+        public boolean isSet(Issue issue) {
+            return !Double.isNaN(values(issue).doubles[slot]);
+        }
+
+        @Override
+        public Double get(Issue issue) {
+            double value = values(issue).doubles[slot];
+            return Double.isNaN(value) ? null : Double.valueOf(value);
+        }
+    }
+
+    /**
+     * A date or date-time field, stored as epoch milliseconds.
+     */
+    public static final class DateField extends TypedField {
+        private final boolean time;
+
+        DateField(Meta meta, int slot, boolean time) {
+            super(meta, slot);
+            this.time = time;
+        }
+
+        @Override
+        void decode(Object value, Values into) {
+            into.longs[slot] = time ? Field.getDateTimeMillis(value) : Field.getDateMillis(value);
+        }
+
+        /**
+         * Gets the value of an issue.
+         *
+         * @return milliseconds since the epoch or {@link DateParser#NONE}
+         */
+        public long getMillis(Issue issue) {
+            return values(issue).longs[slot];
+        }
+
+        /**
+         * Checks whether the field is set on an issue.
+         */
+        public boolean isSet(Issue issue) {
+            return values(issue).longs[slot] != DateParser.NONE;
+        }
+
+        @Override
+        public Date get(Issue issue) {
+            return DateParser.toDate(values(issue).longs[slot]);
+        }
+    }
+
+    /**
+     * A string field.
+     */
+    public static final class StringField extends TypedField {
+
+        StringField(Meta meta, int slot) {
+            super(meta, slot);
+        }
+
+        @Override
+        void decode(Object value, Values into) {
+            into.objects[slot] = Field.getString(value);
+        }
+
+        @Override
+        public String get(Issue issue) {
+            return (String)values(issue).objects[slot];
+        }
+    }
+
+    /**
+     * A field holding a single resource, such as a user or a version.
+     *
+     * @param <T> Resource data type
+     */
+    public static class ResourceField<T extends AResource> extends TypedField {
+        private final Class<T> type;
+
+        ResourceField(Meta meta, int slot, Class<T> type) {
+            super(meta, slot);
+            this.type = type;
+        }
+
+        @Override
+        void decode(Object value, Values into) throws JiraException {
+            into.objects[slot] = Field.getResource(type, value);
+        }
+
+        /**
+         * Gets the resource type.
+         */
+        public Class<T> getType() {
+            return type;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(Issue issue) {
+            return (T)values(issue).objects[slot];
+        }
+    }
+
+    /**
+     * A select list field holding one option.
+     */
+    public static final class OptionField extends ResourceField<CustomFieldOption> {
+
+        OptionField(Meta meta, int slot) {
+            super(meta, slot, CustomFieldOption.class);
+        }
+
+        /**
+         * Gets the value of the selected option.
+         *
+         * @return the option value or null if the field isn't set
+         */
+        public String getOptionValue(Issue issue) {
+            CustomFieldOption option = get(issue);
+            return option != null ? option.getValue() : null;
+        }
+    }
+
+    /**
+     * A field holding a list of resources, such as a multi-select list.
+     *
+     * @param <T> Resource data type
+     */
+    public static final class ResourceListField<T extends AResource> extends TypedField {
+        private final Class<T> type;
+
+        ResourceListField(Meta meta, int slot, Class<T> type) {
+            super(meta, slot);
+            this.type = type;
+        }
+
+        @Override
+        void decode(Object value, Values into) throws JiraException {
+            into.objects[slot] = value instanceof List ? Field.getResourceArray(type, value) : null;
+        }
+
+        /**
+         * Gets the resource type.
+         */
+        public Class<T> getType() {
+            return type;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<T> get(Issue issue) {
+            return (List<T>)values(issue).objects[slot];
+        }
+    }
+
+    /**
+     * A field holding a list of strings, such as labels.
+     */
+    public static final class StringListField extends TypedField {
+
+        StringListField(Meta meta, int slot) {
+            super(meta, slot);
+        }
+
+        @Override
+        void decode(Object value, Values into) {
+            into.objects[slot] = value instanceof List ? Field.getStringArray(value) : null;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<String> get(Issue issue) {
+            return (List<String>)values(issue).objects[slot];
+        }
+    }
+
+    /**
+     * A field of a type without a typed accessor, kept as decoded.
+     */
+    public static final class ValueField extends TypedField {
+
+        ValueField(Meta meta, int slot) {
+            super(meta, slot);
+        }
+
+        @Override
+        void decode(Object value, Values into) {
+            into.objects[slot] = value;
+        }
+
+        @Override
+        public Object get(Issue issue) {
+            return values(issue).objects[slot];
+        }
+    }
+
+    private static final Map<String, Class<? extends AResource>> RESOURCE_TYPES =
+            new HashMap<String, Class<? extends AResource>>();
+
+    static {
+        RESOURCE_TYPES.put("component", Component.class);
+        RESOURCE_TYPES.put("issuetype", IssueType.class);
+        RESOURCE_TYPES.put("option", CustomFieldOption.class);
+        RESOURCE_TYPES.put("priority", Priority.class);
+        RESOURCE_TYPES.put("project", Project.class);
+        RESOURCE_TYPES.put("resolution", Resolution.class);
+        RESOURCE_TYPES.put("status", Status.class);
+        RESOURCE_TYPES.put("user", User.class);
+        RESOURCE_TYPES.put("version", Version.class);
+    }
+
+    private final TypedField[] fields;
+    private final Map<String, TypedField> byKey;
+    private int longSlots = 0;
+    private int doubleSlots = 0;
+    private int objectSlots = 0;
+
+    private CustomFieldSchema(Collection<Meta> metadata) {
+        List<TypedField> compiled = new ArrayList<TypedField>();
+        Map<String, TypedField> keys = new HashMap<String, TypedField>();
+
+        for (Meta meta : metadata) {
+            if (meta == null || meta.custom == null || meta.key == null)
+                continue;
+
+            TypedField field = compileField(meta);
+            field.schema = this;
+            compiled.add(field);
+            keys.put(meta.key, field);
+        }
+
+        this.fields = compiled.toArray(new TypedField[compiled.size()]);
+        this.byKey = Collections.unmodifiableMap(keys);
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private TypedField compileField(Meta meta) {
+        String type = meta.type != null ? meta.type : "";
+
+        switch (type) {
+        case "number":
+            return new NumberField(meta, doubleSlots++);
+        case "date":
+            return new DateField(meta, longSlots++, false);
+        case "datetime":
+            return new DateField(meta, longSlots++, true);
+        case "string":
+            return new StringField(meta, objectSlots++);
+        case "option":
+            return new OptionField(meta, objectSlots++);
+        case "array":
+            if ("string".equals(meta.items))
+                return new StringListField(meta, objectSlots++);
+
+            Class<? extends AResource> items = RESOURCE_TYPES.get(meta.items);
+            if (items != null)
+                return new ResourceListField(meta, objectSlots++, items);
+            break;
+        default:
+            Class<? extends AResource> resource = RESOURCE_TYPES.get(type);
+            if (resource != null)
+                return new ResourceField(meta, objectSlots++, resource);
+            break;
+        }
+
+        return new ValueField(meta, objectSlots++);
+    }
+
+    /**
+     * Compiles accessors for the custom fields of the given metadata.
+     * System fields are skipped; they have typed getters on {@link Issue}.
+     *
+     * @param metadata Field metadata by field key
+     *
+     * @return the compiled schema
+     */
+    public static CustomFieldSchema compile(Map<String, Meta> metadata) {
+        return new CustomFieldSchema(metadata.values());
+    }
+
+    /**
+     * Decodes the custom fields of an issue, or returns the values decoded
+     * by an earlier read.
+     *
+     * @param issue Issue to read
+     *
+     * @return the decoded values
+     *
+     * @throws IllegalStateException when a field value can't be decoded
+     */
+    public Values read(Issue issue) {
+        Values values = issue.customValues;
+        if (values != null && values.schema == this)
+            return values;
+
+        values = new Values(this);
+
+        for (TypedField field : fields) {
+            try {
+                field.decode(issue.getField(field.meta.key), values);
+            } catch (JiraException ex) {
+                throw new IllegalStateException("Failed to decode field " + field.meta.key +
+                        " of issue " + issue.getKey(), ex);
+            }
+        }
+
+        issue.customValues = values;
+        return values;
+    }
+
+    /**
+     * Gets the accessors of all custom fields.
+     */
+    public List<TypedField> getFields() {
+        return Collections.unmodifiableList(Arrays.asList(fields));
+    }
+
+    /**
+     * Gets the accessor of a custom field.
+     *
+     * @param key Field key, such as customfield_10010
+     *
+     * @return the accessor or null if the field isn't in the schema
+     */
+    public TypedField getField(String key) {
+        return byKey.get(key);
+    }
+
+    private <F extends TypedField> F getField(String key, Class<F> type) {
+        TypedField field = byKey.get(key);
+
+        if (field == null)
+            throw new IllegalArgumentException("Field " + key + " is not in the schema");
+        if (!type.isInstance(field))
+            throw new IllegalArgumentException("Field " + key + " is a " + field.getClass().getSimpleName() +
+                    ", not a " + type.getSimpleName());
+
+        return type.cast(field);
+    }
+
+    /**
+     * Gets the accessor of a number field.
+     *
+     * @throws IllegalArgumentException when the field isn't a number field
+     */
+    public NumberField numberField(String key) {
+        return getField(key, NumberField.class);
+    }
+
+    /**
+     * Gets the accessor of a date or date-time field.
+     *
+     * @throws IllegalArgumentException when the field isn't a date field
+     */
+    public DateField dateField(String key) {
+        return getField(key, DateField.class);
+    }
+
+    /**
+     * Gets the accessor of a string field.
+     *
+     * @throws IllegalArgumentException when the field isn't a string field
+     */
+    public StringField stringField(String key) {
+        return getField(key, StringField.class);
+    }
+
+    /**
+     * Gets the accessor of a single select field.
+     *
+     * @throws IllegalArgumentException when the field isn't an option field
+     */
+    public OptionField optionField(String key) {
+        return getField(key, OptionField.class);
+    }
+
+    /**
+     * Gets the accessor of a field holding a list of resources.
+     *
+     * @param type Resource data type of the list items
+     *
+     * @throws IllegalArgumentException when the field isn't a list of the
+     * given type
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends AResource> ResourceListField<T> resourceListField(String key, Class<T> type) {
+        ResourceListField<?> field = getField(key, ResourceListField.class);
+        if (field.getType() != type)
+            throw new IllegalArgumentException("Field " + key + " holds " + field.getType().getSimpleName());
+
+        return (ResourceListField<T>)field;
+    }
+}
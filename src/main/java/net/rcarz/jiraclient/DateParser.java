@@ -0,0 +1,311 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+import org.joda.time.DateTimeZone;
+
+/**
+ * Parses the date formats JIRA and GreenHopper send into epoch milliseconds.
+ *
+ * The parsers read the characters directly and don't create formatters,
+ * calendars or other objects, so they are safe to call from any thread and
+ * cheap enough for the thousands of timestamps in a page of changelogs.
+ * Resources keep the result as a primitive and create a {@link Date} or a
+ * Joda {@code DateTime} when a getter is called.
+ *
+ * Values that can't be parsed yield {@link #NONE}.
+ */
+public final class DateParser {
+
+    /**
+     * Marks a missing or unparsable date.
+     */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
+    private static final String[] MONTHS = {
+        "jan", "feb", "mar", "apr", "may", "jun", "jul", "aug", "sep", "oct", "nov", "dec"
+    };
+
+    private DateParser() { }
+
+    /**
+     * Parses a date in the {@link Field#DATE_FORMAT} format as midnight in
+     * the default time zone. Text after the date, such as a time, is
+     * ignored.
+     *
+     * @param text Date as a string
+     *
+     * @return milliseconds since the epoch or {@link #NONE}
+     */
+    public static long parseDate(CharSequence text) {
+        return parseDate(text, TimeZone.getDefault());
+    }
+
+    /**
+     * Parses a date in the {@link Field#DATE_FORMAT} format as midnight in
+     * the given time zone.
+     *
+     * @param text Date as a string
+     * @param zone Time zone of the date
+     *
+     * @return milliseconds since the epoch or {@link #NONE}
+     */
+    public static long parseDate(CharSequence text, TimeZone zone) {
+        if (text == null || text.length() < 10)
+            return NONE;
+
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+
+        if (text.charAt(4) != '-' || text.charAt(7) != '-' || !isDate(year, month, day))
+            return NONE;
+
+        return toUTC(epochDay(year, month, day) * MILLIS_PER_DAY, zone);
+    }
+
+    /**
+     * Parses a timestamp in the {@link Field#DATETIME_FORMAT} format, such
+     * as 2013-09-26T12:00:31.000-0400. The offset may also be written as
+     * -04:00 or Z.
+     *
+     * @param text Timestamp as a string
+     *
+     * @return milliseconds since the epoch or {@link #NONE}
+     */
+    public static long parseDateTime(CharSequence text) {
+        if (text == null || text.length() < 24)
+            return NONE;
+
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        int millis = digits(text, 20, 3);
+
+        if (text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T' ||
+                text.charAt(13) != ':' || text.charAt(16) != ':' || text.charAt(19) != '.')
+            return NONE;
+
+        if (!isDate(year, month, day) || hour < 0 || hour > 23 || minute < 0 || minute > 59 ||
+                second < 0 || second > 59 || millis < 0)
+            return NONE;
+
+        int offset;
+        char sign = text.charAt(23);
+
+        if (sign == 'Z') {
+            offset = 0;
+        } else if ((sign == '+' || sign == '-') && text.length() >= 28) {
+            int hours = digits(text, 24, 2);
+            int minutes = text.charAt(26) == ':'
+                    ? (text.length() >= 29 ? digits(text, 27, 2) : -1)
+                    : digits(text, 26, 2);
+
+            if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59)
+                return NONE;
+
+            offset = (hours * 60 + minutes) * 60000;
+            if (sign == '-')
+                offset = -offset;
+        } else
+            return NONE;
+
+        long local = epochDay(year, month, day) * MILLIS_PER_DAY +
+                ((hour * 60 + minute) * 60 + second) * 1000L + millis;
+
+        return local - offset;
+    }
+
+    /**
+     * Parses a GreenHopper timestamp in the "d/MMM/yy h:m a" format, such as
+     * 12/Jan/14 3:05 PM, in the default Joda time zone. Month names are
+     * English abbreviations in any case; two-digit years fall between 1950
+     * and 2049.
+     *
+     * @param text Timestamp as a string
+     *
+     * @return milliseconds since the epoch
+     *
+     * @throws IllegalArgumentException when the text isn't a timestamp
+     */
+    public static long parseGreenHopperDateTime(CharSequence text) {
+        int len = text.length();
+        int pos = 0;
+
+        int day = 0;
+        int n = 0;
+        for (; pos < len && n < 2 && isDigit(text.charAt(pos)); pos++, n++)
+            day = day * 10 + text.charAt(pos) - '0';
+        if (n == 0 || !expect(text, pos++, '/'))
+            throw malformed(text);
+
+        int month = pos + 3 <= len ? month(text, pos) : 0;
+        pos += 3;
+        if (month == 0 || !expect(text, pos++, '/'))
+            throw malformed(text);
+
+        int year = 0;
+        n = 0;
+        for (; pos < len && n < 4 && isDigit(text.charAt(pos)); pos++, n++)
+            year = year * 10 + text.charAt(pos) - '0';
+        if (n == 2)
+            year += year < 50 ? 2000 : 1900;
+        else if (n != 4)
+            throw malformed(text);
+        if (!expect(text, pos++, ' '))
+            throw malformed(text);
+
+        int hour = 0;
+        n = 0;
+        for (; pos < len && n < 2 && isDigit(text.charAt(pos)); pos++, n++)
+            hour = hour * 10 + text.charAt(pos) - '0';
+        if (n == 0 || !expect(text, pos++, ':'))
+            throw malformed(text);
+
+        int minute = 0;
+        n = 0;
+        for (; pos < len && n < 2 && isDigit(text.charAt(pos)); pos++, n++)
+            minute = minute * 10 + text.charAt(pos) - '0';
+        if (n == 0 || !expect(text, pos++, ' ') || pos + 2 != len)
+            throw malformed(text);
+
+        char half = Character.toUpperCase(text.charAt(pos));
+        if ((half != 'A' && half != 'P') || Character.toUpperCase(text.charAt(pos + 1)) != 'M')
+            throw malformed(text);
+
+        if (!isDate(year, month, day) || hour < 1 || hour > 12 || minute > 59)
+            throw malformed(text);
+
+        hour %= 12;
+        if (half == 'P')
+            hour += 12;
+
+        long local = epochDay(year, month, day) * MILLIS_PER_DAY + (hour * 60 + minute) * 60000L;
+        return DateTimeZone.getDefault().convertLocalToUTC(local, false);
+    }
+
+    /**
+     * Converts parsed milliseconds to a date.
+     *
+     * @param millis Milliseconds since the epoch or {@link #NONE}
+     *
+     * @return a new Date instance or null
+     */
+    public static Date toDate(long millis) {
+        return millis != NONE ? new Date(millis) : null;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean expect(CharSequence text, int pos, char c) {
+        return pos < text.length() && text.charAt(pos) == c;
+    }
+
+    private static IllegalArgumentException malformed(CharSequence text) {
+        return new IllegalArgumentException("Invalid format: \"" + text + "\"");
+    }
+
+    /**
+     * Reads a fixed number of digits, or returns -1 if any isn't a digit.
+     */
+    private static int digits(CharSequence text, int pos, int count) {
+        int value = 0;
+
+        for (int i = pos; i < pos + count; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c))
+                return -1;
+            value = value * 10 + c - '0';
+        }
+
+        return value;
+    }
+
+    /**
+     * Gets the month number of an English abbreviation, or 0.
+     */
+    private static int month(CharSequence text, int pos) {
+        char a = Character.toLowerCase(text.charAt(pos));
+        char b = Character.toLowerCase(text.charAt(pos + 1));
+        char c = Character.toLowerCase(text.charAt(pos + 2));
+
+        for (int i = 0; i < MONTHS.length; i++) {
+            String m = MONTHS[i];
+            if (m.charAt(0) == a && m.charAt(1) == b && m.charAt(2) == c)
+                return i + 1;
+        }
+
+        return 0;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    }
+
+    private static boolean isDate(int year, int month, int day) {
+        if (year < 0 || month < 1 || month > 12 || day < 1)
+            return false;
+
+        int length;
+        if (month == 2)
+            length = isLeapYear(year) ? 29 : 28;
+        else if (month == 4 || month == 6 || month == 9 || month == 11)
+            length = 30;
+        else
+            length = 31;
+
+        return day <= length;
+    }
+
+    /**
+     * Counts the days from 1970-01-01 to a date of the proleptic Gregorian
+     * calendar.
+     */
+    private static long epochDay(int year, int month, int day) {
+        long y = month <= 2 ? year - 1 : year;
+        long era = (y >= 0 ? y : y - 399) / 400;
+        long yoe = y - era * 400;
+        long doy = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        long doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+
+        return era * 146097 + doe - 719468;
+    }
+
+    /**
+     * Converts a local time to UTC in the given zone.
+     */
+    private static long toUTC(long local, TimeZone zone) {
+        int offset = zone.getOffset(local - zone.getRawOffset());
+        long utc = local - offset;
+        int actual = zone.getOffset(utc);
+
+        return actual == offset ? utc : local - actual;
+    }
+}
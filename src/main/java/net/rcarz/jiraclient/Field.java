@@ -20,7 +20,6 @@
 package net.rcarz.jiraclient;
 
 import java.sql.Timestamp;
-import java.text.ParsePosition;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
@@ -242,14 +241,19 @@ public final class Field extends AField {
      * @return a Date instance or null if d isn't a string
      */
     public static Date getDate(Object d) {
-        Date result = null;
-
-        if (d instanceof String) {
-            SimpleDateFormat df = new SimpleDateFormat(DATE_FORMAT);
-            result = df.parse((String)d, new ParsePosition(0));
-        }
+        return DateParser.toDate(getDateMillis(d));
+    }
 
-        return result;
+    /**
+     * Gets a date from the given object.
+     *
+     * @param d a string representation of a date
+     *
+     * @return milliseconds since the epoch or {@link DateParser#NONE} if d
+     * isn't a date
+     */
+    public static long getDateMillis(Object d) {
+        return d instanceof String ? DateParser.parseDate((String)d) : DateParser.NONE;
     }
 
     /**
@@ -260,24 +264,33 @@ public final class Field extends AField {
      * @return a Date instance or null if d isn't a string
      */
     public static Date getDateTime(Object d) {
-        Date result = null;
-
-        if (d instanceof String) {
-            SimpleDateFormat df = new SimpleDateFormat(DATETIME_FORMAT);
-            result = df.parse((String)d, new ParsePosition(0));
-        }
+        return DateParser.toDate(getDateTimeMillis(d));
+    }
 
-        return result;
+    /**
+     * Gets a date with a time from the given object.
+     *
+     * @param d a string representation of a date
+     *
+     * @return milliseconds since the epoch or {@link DateParser#NONE} if d
+     * isn't a date
+     */
+    public static long getDateTimeMillis(Object d) {
+        return d instanceof String ? DateParser.parseDateTime((String)d) : DateParser.NONE;
     }
 
     /**
      * Gets a JIRA resource from the given object.
      *
+     * The resource is created by the factory registered for its type in
+     * {@link ResourceFactories}.
+     *
      * @param type Resource data type
      * @param r a JSONObject instance
      * @param restclient REST client instance
      *
      * @return a Resource instance or null if r isn't a JSONObject instance
+     * or the type isn't registered
      * @throws JiraException 
      */
 	public static <T extends AResource> T getResource(Class<T> type, Object data) throws JiraException {
@@ -285,52 +298,19 @@ public final class Field extends AField {
         T result = null;
 
         if (data instanceof Map) {
-        	if (type == AllowedValue.class)
-                result = (T)new AllowedValue((Map<String, Object>) data);
-        	else if (type == Attachment.class)
-                result = (T)new Attachment((Map<String, Object>) data);
-            else if (type == ChangeLog.class)
-                result = (T)new ChangeLog((Map<String, Object>) data);
-            else if (type == ChangeLogEntry.class)
-                result = (T)new ChangeLogEntry((Map<String, Object>) data);
-            else if (type == ChangeLogItem.class)
-                result = (T)new ChangeLogItem((Map<String, Object>) data);
-            else if (type == Comment.class)
-                result = (T)new Comment((Map<String, Object>) data);
-            else if (type == Component.class)
-                result = (T)new Component((Map<String, Object>) data);
-            else if (type == CustomFieldOption.class)
-                result = (T)new CustomFieldOption((Map<String, Object>) data);
-            else if (type == Issue.class)
-                result = (T)new Issue((Map<String, Object>) data);
-            else if (type == IssueLink.class)
-                result = (T)new IssueLink((Map<String, Object>) data);
-            else if (type == IssueType.class)
-                result = (T)new IssueType((Map<String, Object>) data);
-            else if (type == LinkType.class)
-                result = (T)new LinkType((Map<String, Object>) data);
-            else if (type == Priority.class)
-                result = (T)new Priority((Map<String, Object>) data);
-            else if (type == Project.class)
-                result = (T)new Project((Map<String, Object>) data);
-            else if (type == RemoteLink.class)
-                result = (T)new RemoteLink((Map<String, Object>) data);
-            else if (type == Resolution.class)
-                result = (T)new Resolution((Map<String, Object>) data);
-            else if (type == Status.class)
-                result = (T)new Status((Map<String, Object>) data);
-            else if (type == Transition.class)
-                result = (T)new Transition((Map<String, Object>) data);
-            else if (type == User.class)
-                result = (T)new User((Map<String, Object>) data);
-            else if (type == Version.class)
-                result = (T)new Version((Map<String, Object>) data);
-            else if (type == Votes.class)
-                result = (T)new Votes((Map<String, Object>) data);
-            else if (type == Watches.class)
-                result = (T)new Watches((Map<String, Object>) data);
-            else if (type == WorkLog.class)
-                result = (T)new WorkLog((Map<String, Object>) data);
+            ResourceRegistry registry = ResourceRegistry.getDefault();
+            if (registry != null) {
+                T shared = registry.lookup(type, (Map<String, Object>) data);
+                if (shared != null)
+                    return shared;
+            }
+
+            ResourceFactory<T> factory = ResourceFactories.get(type);
+            if (factory != null)
+                result = factory.create((Map<String, Object>) data);
+
+            if (registry != null && result != null)
+                result = registry.register(type, (Map<String, Object>) data, result);
         }
 
         return result;
@@ -412,8 +392,7 @@ public final class Field extends AField {
         if (value instanceof Date || value == null)
             return (Date)value;
 
-        SimpleDateFormat df = new SimpleDateFormat(DATE_FORMAT);
-        return df.parse(value.toString(), new ParsePosition(0));
+        return DateParser.toDate(DateParser.parseDate(value.toString()));
     }
 
     /**
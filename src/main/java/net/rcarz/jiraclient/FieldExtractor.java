@@ -0,0 +1,269 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Picks a few values out of a JSON document without decoding the rest.
+ *
+ * Paths are member names separated by dots, such as "key" or
+ * "fields.updated". Members that aren't on a path are skipped token by
+ * token, and reading stops as soon as every path has been found, so
+ * checking the key and update time of a large issue costs little more than
+ * scanning up to them. Values are decoded the same as by
+ * {@link JsonDecoder}; paths that aren't found are null.
+ *
+ * An extractor is a {@link JsonHandler} and can also be passed to
+ * {@link RestClient#get(java.net.URI, JsonHandler)}. It is safe for use by
+ * multiple threads.
+ */
+public final class FieldExtractor implements JsonHandler<Object[]> {
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<String, Node>(4);
+        int slot = -1;
+    }
+
+    private static final class State {
+        final Object[] values;
+        final boolean[] seen;
+        int found = 0;
+
+        State(int size) {
+            values = new Object[size];
+            seen = new boolean[size];
+        }
+    }
+
+    private final String[] paths;
+    private final Node root = new Node();
+    private final JsonDecoder decoder;
+
+    /**
+     * Creates an extractor for the given paths.
+     *
+     * @param paths Dotted member paths, in the order of the extracted values
+     *
+     * @throws IllegalArgumentException when a path is empty, repeated or
+     * leads into another path
+     */
+    public FieldExtractor(String... paths) {
+        this(new JsonDecoder(), paths);
+    }
+
+    /**
+     * Creates an extractor for the given paths.
+     *
+     * @param decoder Decoder for the extracted values
+     * @param paths Dotted member paths, in the order of the extracted values
+     *
+     * @throws IllegalArgumentException when a path is empty, repeated or
+     * leads into another path
+     */
+    public FieldExtractor(JsonDecoder decoder, String... paths) {
+        if (paths.length == 0)
+            throw new IllegalArgumentException("No paths given");
+
+        this.decoder = decoder;
+        this.paths = paths.clone();
+
+        for (int i = 0; i < paths.length; i++) {
+            Node node = root;
+
+            for (String name : paths[i].split("\\.", -1)) {
+                if (name.isEmpty())
+                    throw new IllegalArgumentException("Malformed path " + paths[i]);
+                if (node.slot >= 0)
+                    throw new IllegalArgumentException("Path " + paths[i] + " overlaps " + paths[node.slot]);
+
+                Node child = node.children.get(name);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(name, child);
+                }
+                node = child;
+            }
+
+            if (node.slot >= 0 || !node.children.isEmpty())
+                throw new IllegalArgumentException("Path " + paths[i] + " is repeated or overlaps another");
+
+            node.slot = i;
+        }
+    }
+
+    /**
+     * Gets the paths in the order of the extracted values.
+     */
+    public List<String> getPaths() {
+        return Arrays.asList(paths.clone());
+    }
+
+    /**
+     * Extracts the values from a document.
+     *
+     * @return the values in the order of the paths, or null when the
+     * document is empty
+     */
+    public Object[] read(JsonReader reader) throws IOException, JiraException {
+        switch (reader.peek()) {
+        case END_DOCUMENT:
+            return null;
+        case BEGIN_OBJECT:
+            State state = new State(paths.length);
+            readObject(reader, root, state, true);
+            return state.values;
+        default:
+            throw new JiraException("JSON payload is not an object");
+        }
+    }
+
+    /**
+     * Creates a handler that extracts the values from every object of an
+     * array member, such as the issues of a search result.
+     *
+     * @param arrayName Name of the top-level array member
+     *
+     * @return a handler for a list of values per object
+     */
+    public JsonHandler<List<Object[]>> each(final String arrayName) {
+        return new JsonHandler<List<Object[]>>() {
+            public List<Object[]> read(JsonReader reader) throws IOException, JiraException {
+                switch (reader.peek()) {
+                case END_DOCUMENT:
+                    return null;
+                case BEGIN_OBJECT:
+                    break;
+                default:
+                    throw new JiraException("JSON payload is not an object");
+                }
+
+                List<Object[]> results = new ArrayList<Object[]>();
+
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (!reader.nextName().equals(arrayName)
+                            || reader.peek() != JsonReader.Token.BEGIN_ARRAY) {
+                        reader.skipValue();
+                        continue;
+                    }
+
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        if (reader.peek() != JsonReader.Token.BEGIN_OBJECT) {
+                            reader.skipValue();
+                            continue;
+                        }
+
+                        State state = new State(paths.length);
+                        readObject(reader, root, state, false);
+                        results.add(state.values);
+                    }
+                    reader.endArray();
+
+                    /* nothing else is needed */
+                    return results;
+                }
+                reader.endObject();
+
+                return results;
+            }
+        };
+    }
+
+    /**
+     * Extracts the values from the body of a raw response.
+     *
+     * @param raw Raw response with a JSON object body
+     *
+     * @return the values in the order of the paths, or null when the body
+     * is empty
+     *
+     * @throws IOException when the body can't be read or is malformed
+     * @throws JiraException when the body isn't an object
+     */
+    public Object[] extract(RawResponse raw) throws IOException, JiraException {
+        return read(raw, this);
+    }
+
+    /**
+     * Extracts the values from every object of an array member of the body
+     * of a raw response.
+     *
+     * @param raw Raw response with a JSON object body
+     * @param arrayName Name of the top-level array member
+     *
+     * @return a list of values per object, or null when the body is empty
+     *
+     * @throws IOException when the body can't be read or is malformed
+     * @throws JiraException when the body isn't an object
+     */
+    public List<Object[]> extractEach(RawResponse raw, String arrayName) throws IOException, JiraException {
+        return read(raw, each(arrayName));
+    }
+
+    private <T> T read(RawResponse raw, JsonHandler<T> handler) throws IOException, JiraException {
+        Reader in = raw.openReader();
+
+        try {
+            return handler.read(decoder.newReader(in));
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Reads the members of an object on the paths below the given node.
+     * With stop set, returns as soon as every path is found and leaves the
+     * rest of the document unread.
+     */
+    private void readObject(JsonReader reader, Node node, State state, boolean stop) throws IOException {
+        reader.beginObject();
+
+        while (reader.hasNext()) {
+            Node child = node.children.get(reader.nextName());
+
+            if (child == null) {
+                reader.skipValue();
+            } else if (child.slot >= 0) {
+                state.values[child.slot] = decoder.readValue(reader);
+                if (!state.seen[child.slot]) {
+                    state.seen[child.slot] = true;
+                    state.found++;
+                }
+            } else if (reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                readObject(reader, child, state, stop);
+            } else {
+                reader.skipValue();
+            }
+
+            if (stop && state.found == paths.length)
+                return;
+        }
+
+        reader.endObject();
+    }
+}
@@ -0,0 +1,423 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * Sends a second copy of a slow GET or HEAD request and takes whichever
+ * response arrives first.
+ *
+ * The hedge is sent once the first request has been outstanding for the
+ * hedge delay. The delay is fixed, or follows a percentile of the recently
+ * observed latencies so only the slowest requests are hedged. The losing
+ * request is aborted, which closes its connection. The original request
+ * runs on the calling thread, so it needs a transport that honours
+ * {@link HttpRequestBase#abort()} for a winning hedge to end it early.
+ *
+ * Hedges draw from a budget the same way retries do: each request adds a
+ * fraction of a token and each hedge takes a whole token, so hedging adds at
+ * most that fraction to the request rate.
+ *
+ * Only the hedge runs on the policy's executor.
+ */
+public class HedgePolicy implements RestFilter {
+
+    /**
+     * Snapshot of the hedging counters.
+     */
+    public static final class Stats {
+        public final long requests;
+        public final long hedged;
+        public final long wins;
+        public final long budgetDenied;
+        public final long delay;
+
+        private Stats(long requests, long hedged, long wins, long budgetDenied, long delay) {
+            this.requests = requests;
+            this.hedged = hedged;
+            this.wins = wins;
+            this.budgetDenied = budgetDenied;
+            this.delay = delay;
+        }
+
+        /**
+         * Gets the share of hedges that beat the original request.
+         */
+        public double getWinRate() {
+            return hedged > 0 ? (double)wins / hedged : 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[requests: %d; hedged: %d; wins: %d; win rate: %.2f; " +
+                    "budget denied: %d; delay: %d ms]", requests, hedged, wins, getWinRate(),
+                    budgetDenied, delay);
+        }
+    }
+
+    /**
+     * Ring of recent latencies with a cached percentile.
+     */
+    private static final class Latencies {
+        private final long[] samples;
+        private int count = 0;
+        private int next = 0;
+        private int sinceUpdate = 0;
+        private long percentile = -1;
+
+        Latencies(int size) {
+            samples = new long[size];
+        }
+
+        synchronized void add(long millis, double p, int minSamples) {
+            samples[next] = millis;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+
+            /* sorting on every sample isn't worth it, the estimate moves slowly */
+            if (count >= minSamples && (percentile < 0 || ++sinceUpdate >= Math.max(1, count / 10))) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                percentile = sorted[Math.min(count - 1, (int)Math.ceil(p * count) - 1)];
+                sinceUpdate = 0;
+            }
+        }
+
+        synchronized long get() {
+            return percentile;
+        }
+    }
+
+    /**
+     * One copy of the request.
+     */
+    private static final class Attempt implements Runnable {
+        final HttpRequestBase req;
+        final RestFilter.Chain chain;
+        final Race race;
+        final boolean hedge;
+        final long start = System.nanoTime();
+        long end;
+        Future<?> future;
+
+        Attempt(HttpRequestBase req, RestFilter.Chain chain, Race race, boolean hedge) {
+            this.req = req;
+            this.chain = chain;
+            this.race = race;
+            this.hedge = hedge;
+        }
+
+        public void run() {
+            try {
+                HttpResponse resp = chain.proceed(req);
+                if (!race.finish(this, resp, null))
+                    discard(req, resp);
+                else if (hedge)
+                    /* the original is blocking the calling thread */
+                    race.primary.cancel();
+            } catch (Exception ex) {
+                race.finish(this, null, ex);
+            }
+        }
+
+        void cancel() {
+            req.abort();
+            if (future != null)
+                future.cancel(true);
+        }
+    }
+
+    /**
+     * Outcome shared by the copies of one request.
+     */
+    private static final class Race {
+        Attempt primary;
+        Attempt hedge;
+        Attempt winner;
+        HttpResponse response;
+        Exception failure;
+        int running = 0;
+
+        synchronized boolean isDecided() {
+            return winner != null || failure != null;
+        }
+
+        synchronized boolean finish(Attempt attempt, HttpResponse resp, Exception ex) {
+            running--;
+
+            if (winner == null && resp != null) {
+                winner = attempt;
+                winner.end = System.nanoTime();
+                response = resp;
+            } else if (failure == null && ex != null && winner == null) {
+                failure = ex;
+            }
+
+            notifyAll();
+            return winner == attempt;
+        }
+    }
+
+    private static final ExecutorService SHARED = Executors.newCachedThreadPool(new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "jira-client-hedge");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    private static final ScheduledThreadPoolExecutor TIMER = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "jira-client-hedge-timer");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    static {
+        /* most hedges are never sent, their timers shouldn't pile up */
+        TIMER.setRemoveOnCancelPolicy(true);
+    }
+
+    private final ExecutorService executor;
+    private long delay = 100;
+    private long minDelay = 10;
+    private double percentile = -1;
+    private int minSamples = 20;
+    private double budgetRatio = 0.05;
+    private double budgetMax = 10;
+
+    private double budget = budgetMax;
+    private final Latencies latencies = new Latencies(1000);
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedged = new AtomicLong();
+    private final AtomicLong wins = new AtomicLong();
+    private final AtomicLong budgetDenied = new AtomicLong();
+
+    /**
+     * Creates a hedge policy that runs hedges on a shared pool of daemon
+     * threads.
+     */
+    public HedgePolicy() {
+        this(SHARED);
+    }
+
+    /**
+     * Creates a hedge policy that runs hedges on the given executor.
+     *
+     * @param executor Executor with a thread for each concurrent hedge
+     */
+    public HedgePolicy(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Sets a fixed hedge delay in milliseconds. Until enough latencies have
+     * been observed it's also the delay used with a percentile.
+     */
+    public HedgePolicy delay(long delay) {
+        this.delay = delay;
+        return this;
+    }
+
+    /**
+     * Hedges requests that take longer than the given percentile of recent
+     * latencies, for example 0.95, but never sooner than the minimum delay.
+     */
+    public HedgePolicy percentile(double percentile, long minDelay) {
+        if (percentile <= 0 || percentile >= 1)
+            throw new IllegalArgumentException("Percentile must be between 0 and 1");
+
+        this.percentile = percentile;
+        this.minDelay = minDelay;
+        return this;
+    }
+
+    /**
+     * Sets the hedge budget.
+     *
+     * @param ratio Tokens added by each request
+     * @param max Largest number of tokens that can be saved up
+     */
+    public synchronized HedgePolicy budget(double ratio, double max) {
+        this.budgetRatio = ratio;
+        this.budgetMax = max;
+        this.budget = max;
+        return this;
+    }
+
+    public HttpResponse filter(HttpRequestBase req, Chain chain) throws IOException, JiraException {
+        String method = req.getMethod();
+        if (!method.equals("GET") && !method.equals("HEAD"))
+            return chain.proceed(req);
+
+        requests.incrementAndGet();
+        synchronized (this) {
+            budget = Math.min(budgetMax, budget + budgetRatio);
+        }
+
+        final Race race = new Race();
+        final Attempt primary = new Attempt(req, chain, race, false);
+        race.primary = primary;
+        race.running = 1;
+
+        ScheduledFuture<?> timer = TIMER.schedule(new Runnable() {
+            public void run() {
+                hedge(race);
+            }
+        }, getDelay(), TimeUnit.MILLISECONDS);
+
+        try {
+            primary.run();
+        } finally {
+            timer.cancel(false);
+        }
+
+        /* the original has finished, so a hedge can't be started any more */
+        Attempt hedge;
+        synchronized (race) {
+            hedge = race.hedge;
+        }
+
+        try {
+            synchronized (race) {
+                while (race.winner == null && race.running > 0)
+                    race.wait();
+            }
+        } catch (InterruptedException ex) {
+            hedge.cancel();
+
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a response");
+        }
+
+        if (race.winner == null) {
+            if (race.failure instanceof IOException)
+                throw (IOException)race.failure;
+            if (race.failure instanceof JiraException)
+                throw (JiraException)race.failure;
+            if (race.failure instanceof RuntimeException)
+                throw (RuntimeException)race.failure;
+            throw new JiraException("Request failed", race.failure);
+        }
+
+        /* from the start of the copy that won, not of the original */
+        Attempt winner = race.winner;
+        if (percentile > 0)
+            latencies.add(TimeUnit.NANOSECONDS.toMillis(winner.end - winner.start), percentile, minSamples);
+
+        if (winner.hedge)
+            wins.incrementAndGet();
+        else if (hedge != null)
+            hedge.cancel();
+
+        return race.response;
+    }
+
+    /**
+     * Sends the hedge once the delay has passed, unless the original has
+     * finished or the budget is spent.
+     */
+    private void hedge(Race race) {
+        synchronized (race) {
+            if (race.isDecided() || !takeToken())
+                return;
+
+            Attempt hedge = new Attempt(copy(race.primary.req), race.primary.chain, race, true);
+            race.hedge = hedge;
+            race.running++;
+            hedged.incrementAndGet();
+
+            hedge.future = executor.submit(hedge);
+        }
+    }
+
+    private synchronized boolean takeToken() {
+        if (budget < 1) {
+            budgetDenied.incrementAndGet();
+            return false;
+        }
+
+        budget -= 1;
+        return true;
+    }
+
+    /**
+     * Gets the current hedge delay in milliseconds.
+     */
+    public long getDelay() {
+        if (percentile > 0) {
+            long observed = latencies.get();
+            if (observed >= 0)
+                return Math.max(minDelay, observed);
+        }
+
+        return delay;
+    }
+
+    private static HttpRequestBase copy(HttpRequestBase req) {
+        HttpRequestBase copy = req.getMethod().equals("HEAD") ? new HttpHead(req.getURI()) : new HttpGet(req.getURI());
+        copy.setHeaders(req.getAllHeaders());
+        copy.setConfig(req.getConfig());
+        CallOptions.inherit(req, copy);
+        return copy;
+    }
+
+    private static void discard(HttpRequestBase req, HttpResponse resp) {
+        req.abort();
+
+        try {
+            if (resp instanceof Closeable) {
+                ((Closeable)resp).close();
+            } else {
+                HttpEntity ent = resp.getEntity();
+                if (ent != null && ent.isStreaming())
+                    ent.getContent().close();
+            }
+        } catch (IOException ex) {
+            /* the response is thrown away anyway */
+        }
+    }
+
+    /**
+     * Gets the hedging counters and the current delay.
+     */
+    public Stats getStats() {
+        return new Stats(requests.get(), hedged.get(), wins.get(), budgetDenied.get(), getDelay());
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * Sends HTTP requests for a {@link RestClient}.
+ *
+ * Requests and responses keep using the HttpCore types, so interceptors,
+ * filters and credentials work the same on every transport.
+ */
+public interface HttpTransport extends Closeable {
+
+    /**
+     * Sends a request.
+     *
+     * @param req HTTP request, already authenticated
+     *
+     * @return the response; its entity hasn't been read yet and must be
+     * consumed to release the connection
+     *
+     * @throws IOException when the request can't be sent or the response
+     * can't be received
+     */
+    HttpResponse execute(HttpRequestBase req) throws IOException;
+}
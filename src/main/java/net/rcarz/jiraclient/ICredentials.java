@@ -41,5 +41,23 @@ public interface ICredentials {
     String getLogonName();
 
     void logout(RestClient client) throws JiraException;
+
+    /**
+     * Renews the credentials after the server rejected a request with 401.
+     *
+     * Called by many threads at once when a shared session expires, so
+     * implementations should log in again only if the request was sent with
+     * the credentials that are still current.
+     *
+     * @param client REST client to log in with
+     * @param req Rejected request
+     *
+     * @return true if the request should be authenticated and sent again
+     *
+     * @throws JiraException when logging in fails
+     */
+    default boolean reauthenticate(RestClient client, HttpRequest req) throws JiraException {
+        return false;
+    }
 }
 
@@ -20,7 +20,9 @@
 package net.rcarz.jiraclient;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -81,8 +83,46 @@ public class Issue extends Resource {
     }
 
     public static final String URI = "issue";
-    
+
+    /* bit positions in the loaded mask, one per typed field */
+    private static final int ASSIGNEE_SLOT = 0;
+    private static final int ATTACHMENT_SLOT = 1;
+    private static final int COMMENT_SLOT = 2;
+    private static final int COMPONENTS_SLOT = 3;
+    private static final int DESCRIPTION_SLOT = 4;
+    private static final int DUE_DATE_SLOT = 5;
+    private static final int FIX_VERSIONS_SLOT = 6;
+    private static final int ISSUE_LINKS_SLOT = 7;
+    private static final int ISSUE_TYPE_SLOT = 8;
+    private static final int LABELS_SLOT = 9;
+    private static final int PARENT_SLOT = 10;
+    private static final int PRIORITY_SLOT = 11;
+    private static final int PROJECT_SLOT = 12;
+    private static final int REPORTER_SLOT = 13;
+    private static final int RESOLUTION_SLOT = 14;
+    private static final int RESOLUTION_DATE_SLOT = 15;
+    private static final int STATUS_SLOT = 16;
+    private static final int SUBTASKS_SLOT = 17;
+    private static final int SUMMARY_SLOT = 18;
+    private static final int TIME_TRACKING_SLOT = 19;
+    private static final int VERSIONS_SLOT = 20;
+    private static final int VOTES_SLOT = 21;
+    private static final int WATCHES_SLOT = 22;
+    private static final int WORKLOG_SLOT = 23;
+    private static final int TIME_ESTIMATE_SLOT = 24;
+    private static final int TIME_SPENT_SLOT = 25;
+    private static final int CREATED_DATE_SLOT = 26;
+    private static final int UPDATED_DATE_SLOT = 27;
+    private static final int SLOT_COUNT = 28;
+    private static final int ALL_SLOTS = (1 << SLOT_COUNT) - 1;
+
     private Map<String, Object> fields = null;
+    private IssueFields otherFields = null;
+    private final boolean lazy;
+    private volatile int loaded = 0;
+
+    /* custom fields decoded by the last schema that read this issue */
+    volatile CustomFieldSchema.Values customValues = null;
 
     /* system fields */
     private User assignee = null;
@@ -91,7 +131,7 @@ public class Issue extends Resource {
     private ResourceList<Comment> comments = null;
     private ResourceList<Component> components = null;
     private String description = null;
-    private Date dueDate = null;
+    private long dueDate = DateParser.NONE;
     private ResourceList<Version> fixVersions = null;
     private ResourceList<IssueLink> issueLinks = null;
     private IssueType issueType = null;
@@ -101,7 +141,7 @@ public class Issue extends Resource {
     private Project project = null;
     private User reporter = null;
     private Resolution resolution = null;
-    private Date resolutionDate = null;
+    private long resolutionDate = DateParser.NONE;
     private Status status = null;
     private ResourceList<Issue> subtasks = null;
     private String summary = null;
@@ -112,8 +152,8 @@ public class Issue extends Resource {
     private ResourceList<WorkLog> workLogs = null;
     private Integer timeEstimate = null;
     private Integer timeSpent = null;
-    private Date createdDate = null;
-    private Date updatedDate = null;
+    private long createdDate = DateParser.NONE;
+    private long updatedDate = DateParser.NONE;
 
     /**
      * Creates an issue from a JSON payload.
@@ -122,8 +162,24 @@ public class Issue extends Resource {
      * @throws JiraException 
      */
     protected Issue(Map<String, Object> data) throws JiraException {
+        this(data, false);
+    }
+
+    /**
+     * Creates an issue from a JSON payload.
+     *
+     * A lazy issue keeps the fields map and decodes each typed field the
+     * first time its getter is called.
+     *
+     * @param data Map of the JSON payload
+     * @param lazy Whether to defer decoding the typed fields
+     * @throws JiraException 
+     */
+    protected Issue(Map<String, Object> data, boolean lazy) throws JiraException {
         super(data);
 
+        this.lazy = lazy;
+
         if (data != null) {
         	deserialise(data);
         }
@@ -139,108 +195,357 @@ public class Issue extends Resource {
         fields = Field.getMap(data.get("fields"));
 
         if (fields != null) {
-	        assignee = Field.getResource(User.class, fields.get(Field.ASSIGNEE));
-	        attachments = Field.getResourceArray(Attachment.class, fields.get(Field.ATTACHMENT));
 	        changeLog = Field.getResource(ChangeLog.class, data.get(Field.CHANGE_LOG));
-	        comments = Field.getResourceArray(Comment.class, fields.get(Field.COMMENT));
-	        components = Field.getResourceArray(Component.class, fields.get(Field.COMPONENTS));
-	        description = Field.getString(fields.get(Field.DESCRIPTION));
-	        dueDate = Field.getDate(fields.get(Field.DUE_DATE));
-	        fixVersions = Field.getResourceArray(Version.class, fields.get(Field.FIX_VERSIONS));
-	        issueLinks = Field.getResourceArray(IssueLink.class, fields.get(Field.ISSUE_LINKS));
-	        issueType = Field.getResource(IssueType.class, fields.get(Field.ISSUE_TYPE));
-	        labels = Field.getStringArray(fields.get(Field.LABELS));
-	        parent = Field.getResource(Issue.class, fields.get(Field.PARENT));
-	        priority = Field.getResource(Priority.class, fields.get(Field.PRIORITY));
-	        project = Field.getResource(Project.class, fields.get(Field.PROJECT));
-	        reporter = Field.getResource(User.class, fields.get(Field.REPORTER));
-	        resolution = Field.getResource(Resolution.class, fields.get(Field.RESOLUTION));
-	        resolutionDate = Field.getDateTime(fields.get(Field.RESOLUTION_DATE));
-	        status = Field.getResource(Status.class, fields.get(Field.STATUS));
-	        subtasks = Field.getResourceArray(Issue.class, fields.get(Field.SUBTASKS));
-	        summary = Field.getString(fields.get(Field.SUMMARY));
-	        timeTracking = Field.getTimeTracking(fields.get(Field.TIME_TRACKING));
-	        versions = Field.getResourceArray(Version.class, fields.get(Field.VERSIONS));
-	        votes = Field.getResource(Votes.class, fields.get(Field.VOTES));
-	        watches = Field.getResource(Watches.class, fields.get(Field.WATCHES));
-	        workLogs = Field.getResourceArray(WorkLog.class, fields.get(Field.WORKLOG));
-	        timeEstimate = Field.getInteger(fields.get(Field.TIME_ESTIMATE));
-	        timeSpent = Field.getInteger(fields.get(Field.TIME_SPENT));
-	        createdDate = Field.getDateTime(fields.get(Field.CREATED_DATE));
-	        updatedDate = Field.getDateTime(fields.get(Field.UPDATED_DATE));
+
+	        if (!lazy) {
+	            for (int slot = 0; slot < SLOT_COUNT; slot++)
+	                decode(slot);
+
+	            loaded = ALL_SLOTS;
+	        }
         }
 	}
 
+    /**
+     * Decodes a single typed field from the fields map.
+     *
+     * @param slot Position of the field in the loaded mask
+     */
+    private void decode(int slot) throws JiraException {
+        switch (slot) {
+        case ASSIGNEE_SLOT:
+            assignee = Field.getResource(User.class, fields.get(Field.ASSIGNEE));
+            break;
+        case ATTACHMENT_SLOT:
+            attachments = Field.getResourceArray(Attachment.class, fields.get(Field.ATTACHMENT));
+            break;
+        case COMMENT_SLOT:
+            comments = Field.getResourceArray(Comment.class, fields.get(Field.COMMENT));
+            break;
+        case COMPONENTS_SLOT:
+            components = Field.getResourceArray(Component.class, fields.get(Field.COMPONENTS));
+            break;
+        case DESCRIPTION_SLOT:
+            description = Field.getString(fields.get(Field.DESCRIPTION));
+            break;
+        case DUE_DATE_SLOT:
+            dueDate = Field.getDateMillis(fields.get(Field.DUE_DATE));
+            break;
+        case FIX_VERSIONS_SLOT:
+            fixVersions = Field.getResourceArray(Version.class, fields.get(Field.FIX_VERSIONS));
+            break;
+        case ISSUE_LINKS_SLOT:
+            issueLinks = Field.getResourceArray(IssueLink.class, fields.get(Field.ISSUE_LINKS));
+            break;
+        case ISSUE_TYPE_SLOT:
+            issueType = Field.getResource(IssueType.class, fields.get(Field.ISSUE_TYPE));
+            break;
+        case LABELS_SLOT:
+            labels = Field.getStringArray(fields.get(Field.LABELS));
+            break;
+        case PARENT_SLOT:
+            parent = Field.getResource(Issue.class, fields.get(Field.PARENT));
+            break;
+        case PRIORITY_SLOT:
+            priority = Field.getResource(Priority.class, fields.get(Field.PRIORITY));
+            break;
+        case PROJECT_SLOT:
+            project = Field.getResource(Project.class, fields.get(Field.PROJECT));
+            break;
+        case REPORTER_SLOT:
+            reporter = Field.getResource(User.class, fields.get(Field.REPORTER));
+            break;
+        case RESOLUTION_SLOT:
+            resolution = Field.getResource(Resolution.class, fields.get(Field.RESOLUTION));
+            break;
+        case RESOLUTION_DATE_SLOT:
+            resolutionDate = Field.getDateTimeMillis(fields.get(Field.RESOLUTION_DATE));
+            break;
+        case STATUS_SLOT:
+            status = Field.getResource(Status.class, fields.get(Field.STATUS));
+            break;
+        case SUBTASKS_SLOT:
+            subtasks = Field.getResourceArray(Issue.class, fields.get(Field.SUBTASKS));
+            break;
+        case SUMMARY_SLOT:
+            summary = Field.getString(fields.get(Field.SUMMARY));
+            break;
+        case TIME_TRACKING_SLOT:
+            timeTracking = Field.getTimeTracking(fields.get(Field.TIME_TRACKING));
+            break;
+        case VERSIONS_SLOT:
+            versions = Field.getResourceArray(Version.class, fields.get(Field.VERSIONS));
+            break;
+        case VOTES_SLOT:
+            votes = Field.getResource(Votes.class, fields.get(Field.VOTES));
+            break;
+        case WATCHES_SLOT:
+            watches = Field.getResource(Watches.class, fields.get(Field.WATCHES));
+            break;
+        case WORKLOG_SLOT:
+            workLogs = Field.getResourceArray(WorkLog.class, fields.get(Field.WORKLOG));
+            break;
+        case TIME_ESTIMATE_SLOT:
+            timeEstimate = Field.getInteger(fields.get(Field.TIME_ESTIMATE));
+            break;
+        case TIME_SPENT_SLOT:
+            timeSpent = Field.getInteger(fields.get(Field.TIME_SPENT));
+            break;
+        case CREATED_DATE_SLOT:
+            createdDate = Field.getDateTimeMillis(fields.get(Field.CREATED_DATE));
+            break;
+        case UPDATED_DATE_SLOT:
+            updatedDate = Field.getDateTimeMillis(fields.get(Field.UPDATED_DATE));
+            break;
+        }
+    }
+
+    /**
+     * Makes sure the given typed field has been decoded.
+     *
+     * @param slot Position of the field in the loaded mask
+     */
+    private void load(int slot) {
+        int bit = 1 << slot;
+
+        if ((loaded & bit) != 0 || fields == null)
+            return;
+
+        synchronized (this) {
+            if ((loaded & bit) != 0)
+                return;
+
+            try {
+                decode(slot);
+            } catch (JiraException ex) {
+                throw new IllegalStateException("Failed to decode field of issue " + key, ex);
+            }
+
+            loaded |= bit;
+        }
+    }
+
+    @Override
+    boolean bind(String property, JsonReader reader, JsonBinder binder) throws IOException, JiraException {
+        if (property.equals("fields")) {
+            bindFields(reader, binder);
+            return true;
+        } else if (property.equals(Field.CHANGE_LOG)) {
+            changeLog = Field.getResource(ChangeLog.class, binder.readValue(reader));
+            return true;
+        }
+
+        return super.bind(property, reader, binder);
+    }
+
+    /**
+     * Reads the issue fields from a token stream. Fields with a typed getter
+     * are bound directly, the rest is kept for {@link #getField(String)}.
+     */
+    private void bindFields(JsonReader reader, JsonBinder binder) throws IOException, JiraException {
+        if (reader.peek() != JsonReader.Token.BEGIN_OBJECT) {
+            reader.skipValue();
+            return;
+        }
+
+        /* same defaults as deserialise() for fields missing from the payload */
+        attachments = new ResourceList<Attachment>();
+        comments = new ResourceList<Comment>();
+        components = new ResourceList<Component>();
+        fixVersions = new ResourceList<Version>();
+        issueLinks = new ResourceList<IssueLink>();
+        labels = new ArrayList<String>();
+        subtasks = new ResourceList<Issue>();
+        versions = new ResourceList<Version>();
+        workLogs = new ResourceList<WorkLog>();
+        timeEstimate = 0;
+        timeSpent = 0;
+
+        otherFields = new IssueFields();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+
+            switch (name) {
+            case Field.ASSIGNEE:
+                assignee = binder.readResource(User.class, reader);
+                break;
+            case Field.ATTACHMENT:
+                attachments = Field.getResourceArray(Attachment.class, binder.readValue(reader));
+                break;
+            case Field.COMMENT:
+                comments = Field.getResourceArray(Comment.class, binder.readValue(reader));
+                break;
+            case Field.COMPONENTS:
+                components = binder.readResourceList(Component.class, reader);
+                break;
+            case Field.DESCRIPTION:
+                description = binder.readString(reader);
+                break;
+            case Field.DUE_DATE:
+                dueDate = Field.getDateMillis(binder.readString(reader));
+                break;
+            case Field.FIX_VERSIONS:
+                fixVersions = binder.readResourceList(Version.class, reader);
+                break;
+            case Field.ISSUE_LINKS:
+                issueLinks = Field.getResourceArray(IssueLink.class, binder.readValue(reader));
+                break;
+            case Field.ISSUE_TYPE:
+                issueType = binder.readResource(IssueType.class, reader);
+                break;
+            case Field.LABELS:
+                labels = binder.readStringArray(reader);
+                break;
+            case Field.PARENT:
+                parent = binder.readResource(Issue.class, reader);
+                break;
+            case Field.PRIORITY:
+                priority = binder.readResource(Priority.class, reader);
+                break;
+            case Field.PROJECT:
+                project = binder.readResource(Project.class, reader);
+                break;
+            case Field.REPORTER:
+                reporter = binder.readResource(User.class, reader);
+                break;
+            case Field.RESOLUTION:
+                resolution = binder.readResource(Resolution.class, reader);
+                break;
+            case Field.RESOLUTION_DATE:
+                resolutionDate = Field.getDateTimeMillis(binder.readString(reader));
+                break;
+            case Field.STATUS:
+                status = binder.readResource(Status.class, reader);
+                break;
+            case Field.SUBTASKS:
+                subtasks = binder.readResourceList(Issue.class, reader);
+                break;
+            case Field.SUMMARY:
+                summary = binder.readString(reader);
+                break;
+            case Field.TIME_TRACKING:
+                timeTracking = Field.getTimeTracking(binder.readValue(reader));
+                break;
+            case Field.VERSIONS:
+                versions = binder.readResourceList(Version.class, reader);
+                break;
+            case Field.VOTES:
+                votes = binder.readResource(Votes.class, reader);
+                break;
+            case Field.WATCHES:
+                watches = binder.readResource(Watches.class, reader);
+                break;
+            case Field.WORKLOG:
+                workLogs = Field.getResourceArray(WorkLog.class, binder.readValue(reader));
+                break;
+            case Field.TIME_ESTIMATE:
+                timeEstimate = binder.readInteger(reader);
+                break;
+            case Field.TIME_SPENT:
+                timeSpent = binder.readInteger(reader);
+                break;
+            case Field.CREATED_DATE:
+                createdDate = Field.getDateTimeMillis(binder.readString(reader));
+                break;
+            case Field.UPDATED_DATE:
+                updatedDate = Field.getDateTimeMillis(binder.readString(reader));
+                break;
+            default:
+                otherFields.put(name, binder.readValue(reader));
+            }
+        }
+        reader.endObject();
+
+        otherFields.trim();
+        loaded = ALL_SLOTS;
+    }
+
     /**
      * Gets an arbitrary field by its name.
      *
+     * When the issue was bound with {@link IssueDecoding#BOUND} only fields
+     * without a typed getter, such as custom fields, are available here.
+     *
      * @param name Name of the field to retrieve
      *
      * @return the field value or null if not found
      */
     public Object getField(String name) {
-        return fields != null ? fields.get(name) : null;
+        if (fields != null)
+            return fields.get(name);
+
+        return otherFields != null ? otherFields.get(name) : null;
     }
     
     public Object getFieldvalue(String name) {
     	switch (name) {
 		case Field.ASSIGNEE:
-			return assignee.getValue();
+			return getAssignee().getValue();
 		case Field.ATTACHMENT:
+			load(ATTACHMENT_SLOT);
 			return attachments.getValue();
 		case Field.CHANGE_LOG:
-			return changeLog.getValue();
+			return getChangeLog().getValue();
 		case Field.COMMENT:
+			load(COMMENT_SLOT);
 			return comments.getValue();
 		case Field.COMPONENTS:
+			load(COMPONENTS_SLOT);
 			return components.getValue();
 		case Field.CREATED_DATE:
-			return createdDate.toString();
+			return getCreatedDate().toString();
 		case Field.DESCRIPTION:
-			return description;
+			return getDescription();
 		case Field.DUE_DATE:
-			return dueDate.toString();
+			return getDueDate().toString();
 		case Field.FIX_VERSIONS:
+			load(FIX_VERSIONS_SLOT);
 			return fixVersions.getValue();
 		case Field.ISSUE_LINKS:
+			load(ISSUE_LINKS_SLOT);
 			return issueLinks.getValue();
 		case Field.ISSUE_TYPE:
-			return issueType.getValue();
+			return getIssueType().getValue();
 		case Field.LABELS:
-			return labels.toString();
+			return getLabels().toString();
 		case Field.PARENT:
-			return parent.getValue();
+			return getParent().getValue();
 		case Field.PRIORITY:
-			return priority.getValue();
+			return getPriority().getValue();
 		case Field.PROJECT:
-			return project.getValue();
+			return getProject().getValue();
 		case Field.REPORTER:
-			return reporter.getValue();
+			return getReporter().getValue();
 		case Field.RESOLUTION:
-			return resolution.getValue();
+			return getResolution().getValue();
 		case Field.RESOLUTION_DATE:
-			return resolutionDate.toString();
+			return getResolutionDate().toString();
 		case Field.STATUS:
-			return status.getValue();
+			return getStatus().getValue();
 		case Field.SUBTASKS:
+			load(SUBTASKS_SLOT);
 			return subtasks.getValue();
 		case Field.SUMMARY:
-			return summary;
+			return getSummary();
 		case Field.TIME_ESTIMATE:
-			return timeEstimate.toString();
+			return getTimeEstimate().toString();
 		case Field.TIME_SPENT:
-			return timeSpent.toString();
+			return getTimeSpent().toString();
 		case Field.TIME_TRACKING:
-			return timeTracking.toString();
+			return getTimeTracking().toString();
 		case Field.UPDATED_DATE:
-			return updatedDate.toString();
+			return getUpdatedDate().toString();
 		case Field.VERSIONS:
+			load(VERSIONS_SLOT);
 			return versions.getValue();
 		case Field.VOTES:
-			return votes.getValue();
+			return getVotes().getValue();
 		case Field.WATCHES:
-			return watches.getValue();
+			return getWatches().getValue();
 		case Field.WORKLOG:
+			load(WORKLOG_SLOT);
 			return workLogs.getValue();
 		default:
 			return null;
@@ -261,115 +566,143 @@ public class Issue extends Resource {
     }
 
     public User getAssignee() {
+        load(ASSIGNEE_SLOT);
         return assignee;
     }
 
     public List<Attachment> getAttachments() {
+        load(ATTACHMENT_SLOT);
         return attachments;
     }
 
     public List<Comment> getComments() {
+        load(COMMENT_SLOT);
         return comments;
     }
 
     public List<Component> getComponents() {
+        load(COMPONENTS_SLOT);
         return components;
     }
 
     public String getDescription() {
+        load(DESCRIPTION_SLOT);
         return description;
     }
 
     public Date getDueDate() {
-        return dueDate;
+        load(DUE_DATE_SLOT);
+        return DateParser.toDate(dueDate);
     }
 
     public List<Version> getFixVersions() {
+        load(FIX_VERSIONS_SLOT);
         return fixVersions;
     }
 
     public List<IssueLink> getIssueLinks() {
+        load(ISSUE_LINKS_SLOT);
         return issueLinks;
     }
 
     public IssueType getIssueType() {
+        load(ISSUE_TYPE_SLOT);
         return issueType;
     }
 
     public List<String> getLabels() {
+        load(LABELS_SLOT);
         return labels;
     }
 
     public Issue getParent() {
+        load(PARENT_SLOT);
         return parent;
     }
 
     public Priority getPriority() {
+        load(PRIORITY_SLOT);
         return priority;
     }
 
     public Project getProject() {
+        load(PROJECT_SLOT);
         return project;
     }
 
     public User getReporter() {
+        load(REPORTER_SLOT);
         return reporter;
     }
 
     public Resolution getResolution() {
+        load(RESOLUTION_SLOT);
         return resolution;
     }
 
     public Date getResolutionDate() {
-        return resolutionDate;
+        load(RESOLUTION_DATE_SLOT);
+        return DateParser.toDate(resolutionDate);
     }
 
     public Status getStatus() {
+        load(STATUS_SLOT);
         return status;
     }
 
     public List<Issue> getSubtasks() {
+        load(SUBTASKS_SLOT);
         return subtasks;
     }
 
     public String getSummary() {
+        load(SUMMARY_SLOT);
         return summary;
     }
 
     public TimeTracking getTimeTracking() {
+        load(TIME_TRACKING_SLOT);
         return timeTracking;
     }
 
     public List<Version> getVersions() {
+        load(VERSIONS_SLOT);
         return versions;
     }
 
     public Votes getVotes() {
+        load(VOTES_SLOT);
         return votes;
     }
 
     public Watches getWatches() {
+        load(WATCHES_SLOT);
         return watches;
     }
 
     public List<WorkLog> getWorkLogs() {
+        load(WORKLOG_SLOT);
         return workLogs;
     }
 
     public Integer getTimeSpent() {
+        load(TIME_SPENT_SLOT);
         return timeSpent;
     }
 
     public Integer getTimeEstimate() {
+        load(TIME_ESTIMATE_SLOT);
         return timeEstimate;
     }
 
     public Date getCreatedDate() {
-        return createdDate;
+        load(CREATED_DATE_SLOT);
+        return DateParser.toDate(createdDate);
     }
 
     public Date getUpdatedDate() {
-        return updatedDate;
+        load(UPDATED_DATE_SLOT);
+        return DateParser.toDate(updatedDate);
     }
 
 	@Override
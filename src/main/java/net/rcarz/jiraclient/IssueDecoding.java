@@ -0,0 +1,46 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+/**
+ * Strategies for turning issue payloads into {@link Issue} objects.
+ */
+public enum IssueDecoding {
+
+    /**
+     * Decode the payload into maps and build the issue from those. Every
+     * field is available through {@link Issue#getField(String)}.
+     */
+    EAGER,
+
+    /**
+     * Build the issue and its common nested resources straight from the
+     * JSON tokens. {@link Issue#getField(String)} only returns fields that
+     * have no typed getter, such as custom fields.
+     */
+    BOUND,
+
+    /**
+     * Decode the payload into maps but only build each typed field of the
+     * issue the first time its getter is called. Useful when callers read a
+     * few fields of many issues.
+     */
+    LAZY
+}
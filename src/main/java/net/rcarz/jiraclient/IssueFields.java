@@ -0,0 +1,130 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.util.Arrays;
+
+/**
+ * Compact storage for the issue fields that have no typed getter.
+ *
+ * Names and values are kept in parallel arrays, with the name hashes
+ * alongside to keep lookups cheap. Null values aren't stored.
+ */
+final class IssueFields {
+
+    private String[] names;
+    private int[] hashes;
+    private Object[] values;
+    private int size = 0;
+
+    IssueFields() {
+        this(16);
+    }
+
+    IssueFields(int capacity) {
+        names = new String[capacity];
+        hashes = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * Adds a field value. Null values are ignored.
+     *
+     * @param name Field name
+     * @param value Field value
+     */
+    void put(String name, Object value) {
+        if (value == null)
+            return;
+
+        int hash = name.hashCode();
+        int i = indexOf(name, hash);
+
+        if (i >= 0) {
+            values[i] = value;
+            return;
+        }
+
+        if (size == names.length) {
+            int capacity = Math.max(8, size * 2);
+            names = Arrays.copyOf(names, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        names[size] = name;
+        hashes[size] = hash;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * Gets a field value.
+     *
+     * @param name Field name
+     *
+     * @return the value or null if the field isn't set
+     */
+    Object get(String name) {
+        int i = indexOf(name, name.hashCode());
+        return i >= 0 ? values[i] : null;
+    }
+
+    /**
+     * Shrinks the arrays to the number of stored fields.
+     */
+    void trim() {
+        if (size < names.length) {
+            names = Arrays.copyOf(names, size);
+            hashes = Arrays.copyOf(hashes, size);
+            values = Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * Gets the number of fields with a value.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the name of the field at the given position.
+     */
+    String nameAt(int index) {
+        return names[index];
+    }
+
+    /**
+     * Gets the value of the field at the given position.
+     */
+    Object valueAt(int index) {
+        return values[index];
+    }
+
+    private int indexOf(String name, int hash) {
+        for (int i = 0; i < size; i++) {
+            if (hashes[i] == hash && names[i].equals(name))
+                return i;
+        }
+
+        return -1;
+    }
+}
@@ -9,7 +9,7 @@ public class IssueHistory extends Resource {
 
     private User user;
     private List<IssueHistoryItem> changes;
-    private Date created;
+    private long created = DateParser.NONE;
 
     /**
      * Creates an issue history record from a JSON payload.
@@ -39,7 +39,7 @@ public class IssueHistory extends Resource {
     @Override
 	protected void deserialise(Map<String, Object> data) throws JiraException {
     	user = Field.getResource(User.class, data.get("author"));
-        created = Field.getDateTime(data.get("created"));
+        created = Field.getDateTimeMillis(data.get("created"));
         changes = Field.getResourceArray(IssueHistoryItem.class, data.get("items"));
 	}
 
@@ -52,7 +52,7 @@ public class IssueHistory extends Resource {
     }
 
     public Date getCreated() {
-        return created;
+        return DateParser.toDate(created);
     }
 
 	@Override
@@ -19,6 +19,7 @@
 
 package net.rcarz.jiraclient;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -57,6 +58,26 @@ public class IssueType extends Resource {
         fields = Field.getMap(data.get("fields"));
 	}
 
+    @Override
+    boolean bind(String property, JsonReader reader, JsonBinder binder) throws IOException, JiraException {
+        switch (property) {
+        case "description":
+            description = binder.readString(reader);
+            return true;
+        case "iconUrl":
+            iconUrl = binder.readString(reader);
+            return true;
+        case "subtask":
+            subtask = binder.readBoolean(reader);
+            return true;
+        case "fields":
+            fields = Field.getMap(binder.readValue(reader));
+            return true;
+        default:
+            return super.bind(property, reader, binder);
+        }
+    }
+
     public String getDescription() {
         return description;
     }
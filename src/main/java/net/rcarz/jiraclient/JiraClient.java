@@ -29,12 +29,18 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import net.rcarz.jiraclient.Field.Meta;
 import net.rcarz.jiraclient.Issue.NewAttachment;
 import net.sf.json.JSONObject;
 
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
 import org.apache.http.auth.AuthenticationException;
 import org.apache.http.client.methods.HttpGet;
@@ -53,6 +59,9 @@ public class JiraClient extends AClient {
     public static String apirev = DEFAULT_API_REV;
 	
     private String username = null;
+    private PooledConnectionManager connectionManager = null;
+    private IssueDecoding issueDecoding = IssueDecoding.EAGER;
+    private final JsonBinder binder = new JsonBinder();
 
     /**
      * Issue search results structure.
@@ -450,12 +459,168 @@ public class JiraClient extends AClient {
      * @param creds Credentials to authenticate with
      */
     public JiraClient(String uri, ICredentials creds) {
-    	super(new RestClient(HttpClientBuilder.create().build(), creds, URI.create(uri)));
+    	this(new RestClient(HttpClientBuilder.create().disableContentCompression().build(), creds,
+    			URI.create(uri)), creds, null);
+    }
+
+    /**
+     * Creates a JIRA client on top of an existing REST client.
+     *
+     * @param restclient REST client to send requests with
+     * @param creds Credentials to authenticate with
+     * @param connectionManager Pooled connection manager backing the REST
+     * client, or null when the pool isn't managed by this client
+     */
+    protected JiraClient(RestClient restclient, ICredentials creds, PooledConnectionManager connectionManager) {
+    	super(restclient);
+
+    	this.connectionManager = connectionManager;
 
         if (creds != null) {
             username = creds.getLogonName();
         }
     }
+
+    /**
+     * Gets the connection pool state and lease counters.
+     *
+     * @return a stats snapshot or null when the client was not created with
+     * {@link JiraClientBuilder}
+     */
+    public PooledConnectionManager.Stats getConnectionPoolStats() {
+        return connectionManager != null ? connectionManager.getStats() : null;
+    }
+
+    /**
+     * Creates a view of this client whose requests follow the given call
+     * options. The view shares the connection pool and everything else with
+     * this client; closing it does nothing.
+     *
+     * A call that is cancelled or runs past its deadline fails with a
+     * {@link JiraException} caused by a {@link CallCancelledException}.
+     * Calls that send several requests, like {@link #getIssueChangeLog(Issue)},
+     * share one deadline across all of them.
+     *
+     * @param options Timeouts, deadline and cancellation for the call
+     *
+     * @return a client for the call
+     */
+    public JiraClient withOptions(CallOptions options) {
+        JiraClient view = new JiraClient(restclient.withOptions(options), null, null);
+        view.username = username;
+        view.issueDecoding = issueDecoding;
+
+        return view;
+    }
+
+    /**
+     * Prepares the client for traffic, see {@link #warmUp(int, boolean)}.
+     *
+     * @param connections Number of connections to open
+     *
+     * @return the number of connections opened
+     *
+     * @throws JiraException when logging in or opening a connection fails
+     */
+    public int warmUp(int connections) throws JiraException {
+        return warmUp(connections, false);
+    }
+
+    /**
+     * Prepares the client for traffic so the first requests after startup
+     * aren't slower than the rest. The credentials are initialized and the
+     * connection pool is filled with open connections, TLS handshake
+     * included. Reference data can be loaded at the same time, which warms
+     * up the server side and, with a response cache, the cache too.
+     *
+     * Connections are only opened when the client was created with
+     * {@link JiraClientBuilder} and the default transport, and not when the
+     * client tunnels through a proxy.
+     *
+     * @param connections Number of connections to open
+     * @param preload Whether to load projects, issue types and priorities
+     * in parallel
+     *
+     * @return the number of connections opened
+     *
+     * @throws JiraException when logging in, opening a connection or
+     * loading reference data fails
+     */
+    public int warmUp(int connections, boolean preload) throws JiraException {
+        restclient.initialize();
+
+        ExecutorService executor = null;
+        List<Future<?>> pending = new ArrayList<Future<?>>();
+
+        try {
+            if (preload) {
+                executor = Executors.newFixedThreadPool(3);
+                pending.add(executor.submit(new Callable<Object>() {
+                    public Object call() throws JiraException {
+                        return getProjects();
+                    }
+                }));
+                pending.add(executor.submit(new Callable<Object>() {
+                    public Object call() throws JiraException {
+                        return getIssueTypes();
+                    }
+                }));
+                pending.add(executor.submit(new Callable<Object>() {
+                    public Object call() throws JiraException {
+                        return getPriorities();
+                    }
+                }));
+            }
+
+            int opened = 0;
+            if (connectionManager != null && connections > 0) {
+                URI uri = restclient.getUri();
+                HttpHost target = new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme());
+
+                opened = connectionManager.warmUp(target, restclient.getRequestConfig(), connections);
+            }
+
+            for (Future<?> f : pending)
+                f.get();
+
+            return opened;
+        } catch (ExecutionException ex) {
+            throw new JiraException("Failed to preload reference data", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new JiraException("Interrupted while warming up", ex);
+        } catch (IOException ex) {
+            throw new JiraException("Failed to open connections", ex);
+        } finally {
+            if (executor != null)
+                executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets how issue payloads are turned into issues.
+     */
+    public IssueDecoding getIssueDecoding() {
+        return issueDecoding;
+    }
+
+    /**
+     * Sets how issue payloads are turned into issues.
+     *
+     * @param issueDecoding Decoding strategy for getIssue and searchIssues
+     */
+    public void setIssueDecoding(IssueDecoding issueDecoding) {
+        this.issueDecoding = issueDecoding;
+    }
+
+    /**
+     * Closes all pooled connections and stops idle connection eviction.
+     */
+    public void close() {
+        if (connectionManager != null) {
+            connectionManager.shutdown();
+        }
+    }
     
     /**
      * Gets the JIRA REST API revision number.
@@ -847,7 +1012,7 @@ public class JiraClient extends AClient {
     	
     	try{
         	HttpGet get = new HttpGet(contentUrl);
-        	HttpResponse response = restclient.getHttpClient().execute(get);
+        	HttpResponse response = restclient.getTransport().execute(get);
         	HttpEntity entity = response.getEntity();
         	if (entity != null) {
         	    InputStream inputStream = entity.getContent();
@@ -880,7 +1045,7 @@ public class JiraClient extends AClient {
             Map<String, String> queryParams = new HashMap<String, String>();
             queryParams.put("jql", jql);
             queryParams.put("maxResults", "1");
-            data = restclient.get(queryParams, getBaseUri(), SEARCH_URI);
+            data = restclient.get(restclient.buildURI(Route.SEARCH, queryParams));
         } catch (Exception ex) {
             throw new JiraException("Failed to search issues", ex);
         }
@@ -905,7 +1070,7 @@ public class JiraClient extends AClient {
 	        	queryParams.put("expand", "projects.issuetypes.fields");
 	        	queryParams.put("projectKeys", projectKey);
 	        	queryParams.put("issuetypeNames", issueType);
-	        	data = restclient.get(queryParams, getBaseUri(), Issue.URI, CREATEMETA_URI);
+	        	data = restclient.get(restclient.buildURI(Route.ISSUE_CREATEMETA, queryParams));
 	        } catch (Exception ex) {
 	            throw new JiraException("Failed to retrieve issue metadata", ex);
 	        }
@@ -940,7 +1105,7 @@ public class JiraClient extends AClient {
     	Map<String, Meta> metadata = new HashMap<String, Meta>();
 
         try {
-        	data = restclient.get(getBaseUri(), Issue.URI, issueKey, EDITMETA_URI);
+        	data = restclient.get(restclient.buildURI(Route.ISSUE_EDITMETA, null, issueKey));
         } catch (Exception ex) {
             throw new JiraException("Failed to retrieve issue metadata", ex);
         }
@@ -963,7 +1128,7 @@ public class JiraClient extends AClient {
         try {
         	Map<String, String> queryParams = new HashMap<String, String>();
         	queryParams.put("expand", "transitions.fields");
-        	data = restclient.get(queryParams, getBaseUri(), Issue.URI, issueKey, Transition.URI);
+        	data = restclient.get(restclient.buildURI(Route.ISSUE_TRANSITIONS, queryParams, issueKey));
         } catch (Exception ex) {
             throw new JiraException("Failed to retrieve transitions", ex);
         }
@@ -1235,12 +1400,47 @@ public class JiraClient extends AClient {
             if (expand != null) {
             	queryParams.put("expand", expand);
             }
-        	return new Issue(restclient.get(queryParams, getBaseUri(), Issue.URI, issueKey));
+            if (issueDecoding == IssueDecoding.BOUND) {
+                return restclient.get(restclient.buildURI(Route.ISSUE, queryParams, issueKey),
+                        binder.issueHandler);
+            }
+
+        	return new Issue(restclient.get(restclient.buildURI(Route.ISSUE, queryParams, issueKey)),
+        	        issueDecoding == IssueDecoding.LAZY);
         } catch (Exception ex) {
             throw new JiraException("Failed to retrieve issue " + issueKey, ex);
         }
     }
-    
+
+    /**
+     * Retrieves an issue without decoding it, for passing the JSON on as is.
+     *
+     * @param issueKey Issue key (PROJECT-123)
+     * @param includedFields Issue fields to include or null for all
+     * @param expand Fields to expand or null
+     *
+     * @return the undecoded response
+     *
+     * @throws JiraException when the retrieval fails
+     *
+     * @see FieldExtractor
+     */
+    public RawResponse getIssueRaw(String issueKey, String includedFields, String expand) throws JiraException {
+        try {
+            Map<String, String> queryParams = new HashMap<String, String>();
+            if (includedFields != null) {
+                queryParams.put("fields", includedFields);
+            }
+            if (expand != null) {
+                queryParams.put("expand", expand);
+            }
+
+            return restclient.getRaw(restclient.buildURI(Route.ISSUE, queryParams, issueKey));
+        } catch (Exception ex) {
+            throw new JiraException("Failed to retrieve issue " + issueKey, ex);
+        }
+    }
+
     /**
      * 
      * @param issue
@@ -1314,32 +1514,89 @@ public class JiraClient extends AClient {
     	Map<String, Object> data = null;
 
         try {
-            Map<String, String> queryParams = new HashMap<String, String>();
-            queryParams.put("jql", jql);
-            if (maxResults != null) {
-                queryParams.put("maxResults", String.valueOf(maxResults));
-            }
-            if (includedFields != null) {
-                queryParams.put("fields", includedFields);
-            }
-            if (expandFields != null) {
-                queryParams.put("expand", expandFields);
-            }
-            if (startAt != null) {
-                queryParams.put("startAt", String.valueOf(startAt));
+            Map<String, String> queryParams = searchParams(jql, includedFields, expandFields, maxResults, startAt);
+
+            if (issueDecoding == IssueDecoding.BOUND) {
+                return restclient.get(restclient.buildURI(Route.SEARCH, queryParams),
+                        binder.searchResultHandler);
             }
 
-            data = restclient.get(queryParams, getBaseUri(), SEARCH_URI);
+            data = restclient.get(restclient.buildURI(Route.SEARCH, queryParams));
+        } catch (Exception ex) {
+            throw new JiraException("Failed to search issues", ex);
+        }
+
+        return toSearchResult(data, issueDecoding == IssueDecoding.LAZY);
+    }
+
+    /**
+     * Search for issues without decoding the result, for passing the JSON on
+     * as is. The parameters are the same as for
+     * {@link #searchIssues(String, String, String, Integer, Integer)}.
+     *
+     * @return the undecoded response
+     *
+     * @throws JiraException when the search fails
+     *
+     * @see FieldExtractor
+     */
+    public RawResponse searchIssuesRaw(String jql, String includedFields, String expandFields,
+            Integer maxResults, Integer startAt) throws JiraException {
+
+        try {
+            return restclient.getRaw(restclient.buildURI(Route.SEARCH,
+                    searchParams(jql, includedFields, expandFields, maxResults, startAt)));
         } catch (Exception ex) {
             throw new JiraException("Failed to search issues", ex);
         }
+    }
+
+    static Map<String, String> searchParams(String jql, String includedFields, String expandFields, 
+    		Integer maxResults, Integer startAt) {
+    	
+        Map<String, String> queryParams = new HashMap<String, String>();
+        queryParams.put("jql", jql);
+        if (maxResults != null) {
+            queryParams.put("maxResults", String.valueOf(maxResults));
+        }
+        if (includedFields != null) {
+            queryParams.put("fields", includedFields);
+        }
+        if (expandFields != null) {
+            queryParams.put("expand", expandFields);
+        }
+        if (startAt != null) {
+            queryParams.put("startAt", String.valueOf(startAt));
+        }
+
+        return queryParams;
+    }
 
+    static SearchResult toSearchResult(Map<String, Object> data) throws JiraException {
+        return toSearchResult(data, false);
+    }
+
+    static SearchResult toSearchResult(Map<String, Object> data, boolean lazy) throws JiraException {
         SearchResult sr = new SearchResult();
 
         sr.start = Field.getInteger(data.get("startAt"));
         sr.max = Field.getInteger(data.get("maxResults"));
         sr.total = Field.getInteger(data.get("total"));
-        sr.issues = Field.getResourceArray(Issue.class, data.get("issues"));
+
+        if (lazy) {
+            ResourceList<Issue> issues = new ResourceList<Issue>();
+            List<Object> list = Field.getList(data.get("issues"));
+
+            if (list != null) {
+                for (Object item : list) {
+                    if (item instanceof Map)
+                        issues.add(new Issue(Field.getMap(item), true));
+                }
+            }
+
+            sr.issues = issues;
+        } else
+            sr.issues = Field.getResourceArray(Issue.class, data.get("issues"));
         
         return sr;
     }
@@ -0,0 +1,455 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.http.HeaderElement;
+import org.apache.http.HeaderElementIterator;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoutePlanner;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.DefaultRoutePlanner;
+import org.apache.http.impl.conn.DefaultSchemePortResolver;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClientBuilder;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.message.BasicHeaderElementIterator;
+import org.apache.http.protocol.HTTP;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * Builds a JIRA client on top of a pooled HTTP connection manager.
+ *
+ * All time values are in milliseconds. A timeout of zero means wait forever.
+ */
+public class JiraClientBuilder {
+
+    /**
+     * Keeps connections alive for as long as the server allows, falling back
+     * to a fixed duration when the server doesn't say.
+     */
+    private static final class KeepAliveStrategy implements ConnectionKeepAliveStrategy {
+        private final long defaultKeepAlive;
+
+        KeepAliveStrategy(long defaultKeepAlive) {
+            this.defaultKeepAlive = defaultKeepAlive;
+        }
+
+        public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+            HeaderElementIterator it = new BasicHeaderElementIterator(response.headerIterator(HTTP.CONN_KEEP_ALIVE));
+
+            while (it.hasNext()) {
+                HeaderElement he = it.nextElement();
+
+                if ("timeout".equalsIgnoreCase(he.getName()) && he.getValue() != null) {
+                    try {
+                        return Long.parseLong(he.getValue()) * 1000;
+                    } catch (NumberFormatException ex) {
+                        /* fall through to the default */
+                    }
+                }
+            }
+
+            return defaultKeepAlive;
+        }
+    }
+
+    private final String uri;
+    private ICredentials creds = null;
+    private int maxConnections = 20;
+    private int maxConnectionsPerRoute = 20;
+    private int connectTimeout = 10000;
+    private int socketTimeout = 60000;
+    private int connectionRequestTimeout = 30000;
+    private long keepAlive = 30000;
+    private HttpHost proxy = null;
+    private long connectionTimeToLive = 0;
+    private long idleTimeout = 30000;
+    private long evictionInterval = 5000;
+    private int ioThreads = Runtime.getRuntime().availableProcessors();
+    private IssueDecoding issueDecoding = IssueDecoding.EAGER;
+    private boolean compression = true;
+    private ResponseListener responseListener = null;
+    private RetryPolicy retryPolicy = null;
+    private HedgePolicy hedgePolicy = null;
+    private CircuitBreaker circuitBreaker = null;
+    private RateLimiter rateLimiter = null;
+    private RateLimiter.Mode rateLimitMode = RateLimiter.Mode.BLOCKING;
+    private ResponseCache responseCache = null;
+    private SingleFlight singleFlight = null;
+    private StringTable stringTable = null;
+    private HttpTransport transport = null;
+    private List<RestInterceptor> interceptors = new ArrayList<RestInterceptor>();
+    private List<RestFilter> filters = new ArrayList<RestFilter>();
+
+    /**
+     * Creates a builder for a JIRA client.
+     *
+     * @param uri Base URI of the JIRA server
+     */
+    public JiraClientBuilder(String uri) {
+        this.uri = uri;
+    }
+
+    /**
+     * Sets the credentials to authenticate with.
+     */
+    public JiraClientBuilder credentials(ICredentials creds) {
+        this.creds = creds;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of pooled connections across all routes.
+     */
+    public JiraClientBuilder maxConnections(int maxConnections) {
+        this.maxConnections = maxConnections;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of pooled connections to a single host.
+     */
+    public JiraClientBuilder maxConnectionsPerRoute(int maxConnectionsPerRoute) {
+        this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+        return this;
+    }
+
+    /**
+     * Sets how long to wait for a TCP connection to be established.
+     */
+    public JiraClientBuilder connectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+        return this;
+    }
+
+    /**
+     * Sets how long to wait for data on an open connection.
+     */
+    public JiraClientBuilder socketTimeout(int socketTimeout) {
+        this.socketTimeout = socketTimeout;
+        return this;
+    }
+
+    /**
+     * Sets how long to wait for a connection to become free in the pool.
+     */
+    public JiraClientBuilder connectionRequestTimeout(int connectionRequestTimeout) {
+        this.connectionRequestTimeout = connectionRequestTimeout;
+        return this;
+    }
+
+    /**
+     * Sets how long to keep an idle connection alive when the server doesn't
+     * send a Keep-Alive timeout.
+     */
+    public JiraClientBuilder keepAlive(long keepAlive) {
+        this.keepAlive = keepAlive;
+        return this;
+    }
+
+    /**
+     * Sets the proxy to send requests through.
+     */
+    public JiraClientBuilder proxy(HttpHost proxy) {
+        this.proxy = proxy;
+        return this;
+    }
+
+    /**
+     * Sets the maximum lifetime of a pooled connection, or zero for no limit.
+     */
+    public JiraClientBuilder connectionTimeToLive(long connectionTimeToLive) {
+        this.connectionTimeToLive = connectionTimeToLive;
+        return this;
+    }
+
+    /**
+     * Sets how long a connection may sit idle in the pool before it is
+     * evicted, and how often the pool is checked. An idle timeout of zero
+     * disables eviction.
+     */
+    public JiraClientBuilder idleConnectionEviction(long idleTimeout, long evictionInterval) {
+        this.idleTimeout = idleTimeout;
+        this.evictionInterval = evictionInterval;
+        return this;
+    }
+
+    /**
+     * Sets the number of I/O reactor threads used by asynchronous clients.
+     */
+    public JiraClientBuilder ioThreads(int ioThreads) {
+        this.ioThreads = ioThreads;
+        return this;
+    }
+
+    /**
+     * Sets how issue payloads are turned into issues.
+     */
+    public JiraClientBuilder issueDecoding(IssueDecoding issueDecoding) {
+        this.issueDecoding = issueDecoding;
+        return this;
+    }
+
+    /**
+     * Enables or disables gzip/deflate compressed responses.
+     */
+    public JiraClientBuilder compression(boolean compression) {
+        this.compression = compression;
+        return this;
+    }
+
+    /**
+     * Sets the listener that receives the transfer statistics of each
+     * response.
+     */
+    public JiraClientBuilder responseListener(ResponseListener responseListener) {
+        this.responseListener = responseListener;
+        return this;
+    }
+
+    /**
+     * Sets the policy used to retry failed requests.
+     */
+    public JiraClientBuilder retryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+    }
+
+    /**
+     * Sets the policy used to hedge slow GET requests.
+     */
+    public JiraClientBuilder hedgePolicy(HedgePolicy hedgePolicy) {
+        this.hedgePolicy = hedgePolicy;
+        return this;
+    }
+
+    /**
+     * Sets the rate limiter shared with other clients of the same host,
+     * usually from {@link RateLimiter#forHost(String)}.
+     */
+    public JiraClientBuilder rateLimiter(RateLimiter rateLimiter, RateLimiter.Mode mode) {
+        this.rateLimiter = rateLimiter;
+        this.rateLimitMode = mode;
+        return this;
+    }
+
+    /**
+     * Sets the circuit breaker that fails requests fast while their endpoint
+     * family is failing.
+     */
+    public JiraClientBuilder circuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+        return this;
+    }
+
+    /**
+     * Sets the cache that GET responses are revalidated against.
+     */
+    public JiraClientBuilder responseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+        return this;
+    }
+
+    /**
+     * Sets the coalescer of concurrent identical GET requests.
+     */
+    public JiraClientBuilder singleFlight(SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+        return this;
+    }
+
+    /**
+     * Sets the table that decoded responses share equal strings through.
+     */
+    public JiraClientBuilder stringTable(StringTable stringTable) {
+        this.stringTable = stringTable;
+        return this;
+    }
+
+    /**
+     * Sets the transport to send requests with instead of a pooled Apache
+     * HTTP client. The pool and timeout settings don't apply to it, and
+     * closing the client doesn't close it.
+     */
+    public JiraClientBuilder transport(HttpTransport transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    /**
+     * Adds an interceptor that runs after the built-in ones.
+     */
+    public JiraClientBuilder interceptor(RestInterceptor interceptor) {
+        this.interceptors.add(interceptor);
+        return this;
+    }
+
+    /**
+     * Adds a filter that runs after the built-in ones, once per attempt.
+     */
+    public JiraClientBuilder filter(RestFilter filter) {
+        this.filters.add(filter);
+        return this;
+    }
+
+    /**
+     * Builds the pooling connection manager.
+     */
+    protected PooledConnectionManager buildConnectionManager() {
+        PooledConnectionManager cm = new PooledConnectionManager(
+                maxConnections, maxConnectionsPerRoute, connectionTimeToLive);
+        cm.setConnectTimeout(connectTimeout);
+        cm.setRoutePlanner(buildRoutePlanner());
+
+        if (idleTimeout > 0)
+            cm.startIdleConnectionEviction(evictionInterval, idleTimeout);
+
+        return cm;
+    }
+
+    /**
+     * Builds the route planner shared by the HTTP client and the connection
+     * manager, so warming up opens connections on the routes requests take.
+     */
+    protected HttpRoutePlanner buildRoutePlanner() {
+        return new DefaultRoutePlanner(DefaultSchemePortResolver.INSTANCE);
+    }
+
+    /**
+     * Builds the default timeouts and proxy of a request.
+     */
+    private RequestConfig buildRequestConfig() {
+        return RequestConfig.custom()
+                .setProxy(proxy)
+                .setConnectTimeout(connectTimeout)
+                .setSocketTimeout(socketTimeout)
+                .setConnectionRequestTimeout(connectionRequestTimeout)
+                .build();
+    }
+
+    /**
+     * Builds the underlying HTTP client for the given connection manager.
+     */
+    protected CloseableHttpClient buildHttpClient(PooledConnectionManager cm) {
+        return HttpClientBuilder.create()
+                .setConnectionManager(cm)
+                .setRoutePlanner(cm.getRoutePlanner())
+                .setKeepAliveStrategy(new KeepAliveStrategy(keepAlive))
+                .setDefaultRequestConfig(buildRequestConfig())
+                .disableContentCompression()
+                .build();
+    }
+
+    /**
+     * Builds the underlying non-blocking HTTP client.
+     */
+    protected CloseableHttpAsyncClient buildHttpAsyncClient() {
+        IOReactorConfig ioconfig = IOReactorConfig.custom()
+                .setIoThreadCount(ioThreads)
+                .setConnectTimeout(connectTimeout)
+                .setSoTimeout(socketTimeout)
+                .build();
+
+        return HttpAsyncClientBuilder.create()
+                .setDefaultIOReactorConfig(ioconfig)
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setKeepAliveStrategy(new KeepAliveStrategy(keepAlive))
+                .setDefaultRequestConfig(buildRequestConfig())
+                .build();
+    }
+
+    /**
+     * Creates a non-blocking JIRA client.
+     *
+     * The client owns an I/O reactor; close it when done. Credentials that
+     * log in do so through a small blocking client that is closed with it.
+     *
+     * @return a new asynchronous JIRA client
+     */
+    public AsyncJiraClient buildAsync() {
+        RestClient session = null;
+        if (creds instanceof TokenCredentials && creds.getLogonName() != null) {
+            session = new RestClient(HttpClientBuilder.create()
+                    .setDefaultRequestConfig(buildRequestConfig())
+                    .disableContentCompression()
+                    .build(), creds, URI.create(uri));
+            session.setCompression(compression);
+        }
+
+        AsyncRestClient restclient = new AsyncRestClient(buildHttpAsyncClient(), creds, URI.create(uri),
+                ForkJoinPool.commonPool(), session);
+        restclient.setCompression(compression);
+        restclient.setResponseListener(responseListener);
+        restclient.setStringTable(stringTable);
+        restclient.setRateLimiter(rateLimiter, rateLimitMode);
+
+        AsyncJiraClient client = new AsyncJiraClient(restclient, creds);
+        client.setIssueDecoding(issueDecoding);
+
+        return client;
+    }
+
+    /**
+     * Creates the JIRA client.
+     *
+     * @return a new JIRA client
+     */
+    public JiraClient build() {
+        PooledConnectionManager cm = null;
+        RestClient restclient;
+
+        if (transport != null) {
+            restclient = new RestClient(transport, creds, URI.create(uri));
+        } else {
+            cm = buildConnectionManager();
+            restclient = new RestClient(buildHttpClient(cm), creds, URI.create(uri));
+        }
+        restclient.setCompression(compression);
+        restclient.setResponseListener(responseListener);
+        restclient.setRequestConfig(buildRequestConfig());
+        restclient.setRetryPolicy(retryPolicy);
+        restclient.setHedgePolicy(hedgePolicy);
+        restclient.setRateLimiter(rateLimiter, rateLimitMode);
+        restclient.setCircuitBreaker(circuitBreaker);
+        restclient.setResponseCache(responseCache);
+        restclient.setSingleFlight(singleFlight);
+        restclient.setStringTable(stringTable);
+
+        for (RestInterceptor interceptor : interceptors)
+            restclient.addInterceptor(interceptor);
+        for (RestFilter filter : filters)
+            restclient.addFilter(filter);
+
+        JiraClient client = new JiraClient(restclient, creds, cm);
+        client.setIssueDecoding(issueDecoding);
+
+        return client;
+    }
+}
@@ -0,0 +1,278 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import net.rcarz.jiraclient.JiraClient.SearchResult;
+
+/**
+ * Builds resources straight from JSON tokens.
+ *
+ * Issues and the reference resources they embed (users, statuses,
+ * priorities and so on) are populated property by property through
+ * {@link AResource#bind(String, JsonReader, JsonBinder)}. Anything else is
+ * decoded into maps and handed to the regular resource constructors.
+ */
+public class JsonBinder {
+
+    /**
+     * Types that read their properties from tokens.
+     */
+    private static final Set<Class<?>> BOUND_TYPES = new HashSet<Class<?>>(Arrays.<Class<?>>asList(
+            Component.class, Issue.class, IssueType.class, Priority.class, Project.class, Resolution.class,
+            Status.class, User.class, Version.class, Votes.class, Watches.class));
+
+    private final JsonDecoder decoder;
+
+    /**
+     * Reads a single issue document.
+     */
+    public final JsonHandler<Issue> issueHandler = new JsonHandler<Issue>() {
+        public Issue read(JsonReader reader) throws IOException, JiraException {
+            return readResource(Issue.class, reader);
+        }
+    };
+
+    /**
+     * Reads a search result document.
+     */
+    public final JsonHandler<SearchResult> searchResultHandler = new JsonHandler<SearchResult>() {
+        public SearchResult read(JsonReader reader) throws IOException, JiraException {
+            return readSearchResult(reader);
+        }
+    };
+
+    /**
+     * Creates a binder.
+     */
+    public JsonBinder() {
+        this(new JsonDecoder());
+    }
+
+    /**
+     * Creates a binder.
+     *
+     * @param decoder Decoder for values that are not bound directly
+     */
+    public JsonBinder(JsonDecoder decoder) {
+        this.decoder = decoder;
+    }
+
+    /**
+     * Creates an empty resource of the given type if it supports binding.
+     *
+     * @param type Resource data type
+     *
+     * @return a new resource or null if the type must be built from a map
+     *
+     * @throws JiraException when the resource can't be created
+     */
+    protected <T extends AResource> T newResource(Class<T> type) throws JiraException {
+        if (!BOUND_TYPES.contains(type))
+            return null;
+
+        ResourceFactory<T> factory = ResourceFactories.get(type);
+        return factory != null ? factory.create(null) : null;
+    }
+
+    /**
+     * Reads the next value as a resource.
+     *
+     * @param type Resource data type
+     * @param reader JSON reader positioned before the value
+     *
+     * @return a resource or null if the value isn't an object
+     *
+     * @throws IOException when the payload can't be read
+     * @throws JiraException when the resource can't be created
+     */
+    public <T extends AResource> T readResource(Class<T> type, JsonReader reader)
+            throws IOException, JiraException {
+
+        if (reader.peek() != JsonReader.Token.BEGIN_OBJECT) {
+            reader.skipValue();
+            return null;
+        }
+
+        /* shared resources are matched against the payload they came from */
+        ResourceRegistry registry = ResourceRegistry.getDefault();
+        if (registry != null && registry.isRegistered(type))
+            return Field.getResource(type, decoder.readObject(reader));
+
+        T result = newResource(type);
+
+        if (result == null)
+            return Field.getResource(type, decoder.readObject(reader));
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if (!result.bind(reader.nextName(), reader, this))
+                reader.skipValue();
+        }
+        reader.endObject();
+
+        return result;
+    }
+
+    /**
+     * Reads the next value as a list of resources.
+     *
+     * @param type Resource data type
+     * @param reader JSON reader positioned before the value
+     *
+     * @return a list of resources, empty if the value isn't an array
+     *
+     * @throws IOException when the payload can't be read
+     * @throws JiraException when a resource can't be created
+     */
+    public <T extends AResource> ResourceList<T> readResourceList(Class<T> type, JsonReader reader)
+            throws IOException, JiraException {
+
+        ResourceList<T> results = new ResourceList<T>();
+
+        if (reader.peek() != JsonReader.Token.BEGIN_ARRAY) {
+            reader.skipValue();
+            return results;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            T res = readResource(type, reader);
+            if (res != null)
+                results.add(res);
+        }
+        reader.endArray();
+
+        return results;
+    }
+
+    /**
+     * Reads a search result with its issues.
+     *
+     * @param reader JSON reader positioned at the start of the document
+     *
+     * @return the search result
+     *
+     * @throws IOException when the payload can't be read
+     * @throws JiraException when the payload isn't a JSON object
+     */
+    public SearchResult readSearchResult(JsonReader reader) throws IOException, JiraException {
+        if (reader.peek() != JsonReader.Token.BEGIN_OBJECT)
+            throw new JiraException("JSON payload is malformed");
+
+        SearchResult sr = new SearchResult();
+        sr.issues = new ResourceList<Issue>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+
+            if (name.equals("issues"))
+                sr.issues = readResourceList(Issue.class, reader);
+            else if (name.equals("startAt"))
+                sr.start = readInteger(reader);
+            else if (name.equals("maxResults"))
+                sr.max = readInteger(reader);
+            else if (name.equals("total"))
+                sr.total = readInteger(reader);
+            else
+                reader.skipValue();
+        }
+        reader.endObject();
+
+        return sr;
+    }
+
+    /**
+     * Reads the next value as a map, list, string, number, boolean or null.
+     */
+    public Object readValue(JsonReader reader) throws IOException {
+        return decoder.readValue(reader);
+    }
+
+    /**
+     * Reads the next value as a string.
+     *
+     * @return the string or null if the value isn't a string
+     */
+    public String readString(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonReader.Token.STRING)
+            return reader.nextString();
+
+        reader.skipValue();
+        return null;
+    }
+
+    /**
+     * Reads the next value as a boolean.
+     *
+     * @return the boolean or false if the value isn't a boolean
+     */
+    public boolean readBoolean(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonReader.Token.BOOLEAN)
+            return reader.nextBoolean();
+
+        reader.skipValue();
+        return false;
+    }
+
+    /**
+     * Reads the next value as an integer.
+     *
+     * @return the integer or 0 if the value isn't an integer
+     */
+    public int readInteger(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonReader.Token.NUMBER)
+            return Field.getInteger(reader.nextNumber());
+
+        reader.skipValue();
+        return 0;
+    }
+
+    /**
+     * Reads the next value as a list of strings.
+     *
+     * @return the strings found in the value, empty if it isn't an array
+     */
+    public List<String> readStringArray(JsonReader reader) throws IOException {
+        List<String> results = new ArrayList<String>();
+
+        if (reader.peek() != JsonReader.Token.BEGIN_ARRAY) {
+            reader.skipValue();
+            return results;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String s = readString(reader);
+            if (s != null)
+                results.add(s);
+        }
+        reader.endArray();
+
+        return results;
+    }
+}
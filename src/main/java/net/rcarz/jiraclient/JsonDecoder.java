@@ -0,0 +1,228 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes a JSON document into maps and lists in a single pass.
+ *
+ * Objects become a {@link Map}, arrays a {@link List}, and JSON null a null
+ * value. Numbers follow {@link JsonReader#nextNumber()}. By default the maps
+ * are compact and read-only: objects with the same keys share one key
+ * layout and keep their values in a flat array.
+ */
+public class JsonDecoder implements JsonHandler<Map<String, Object>> {
+
+    private final boolean compact;
+    private final StringTable strings;
+
+    /**
+     * Creates a decoder that builds compact, read-only maps.
+     */
+    public JsonDecoder() {
+        this(true);
+    }
+
+    /**
+     * Creates a decoder.
+     *
+     * @param compact Whether objects become compact, read-only maps that
+     * share their key layout, or hash maps
+     */
+    public JsonDecoder(boolean compact) {
+        this(compact, null);
+    }
+
+    /**
+     * Creates a decoder that shares equal strings through a table.
+     *
+     * @param compact Whether objects become compact, read-only maps that
+     * share their key layout, or hash maps
+     * @param strings Table of shared strings, or null to create a new
+     * string for every name and value
+     */
+    public JsonDecoder(boolean compact, StringTable strings) {
+        this.compact = compact;
+        this.strings = strings;
+    }
+
+    /**
+     * Gets the table of shared strings.
+     *
+     * @return the string table or null
+     */
+    public StringTable getStringTable() {
+        return strings;
+    }
+
+    /**
+     * Creates a token reader for the given input.
+     *
+     * @param in Character stream to read from
+     *
+     * @return a JSON reader
+     */
+    protected JsonReader newReader(Reader in) {
+        if (strings == null)
+            return new JsonReader(in);
+
+        return new JsonReader(in) {
+            @Override
+            protected String makeString(char[] chars, int offset, int length) {
+                return strings.get(chars, offset, length);
+            }
+        };
+    }
+
+    /**
+     * Decodes a document into a map.
+     *
+     * A top-level array is returned as a map with a single "data" entry, the
+     * same as {@link RestClient#JSONtoMap(Object)} does.
+     *
+     * @param in Character stream to read from
+     *
+     * @return the decoded map or null when the input is empty
+     *
+     * @throws JiraException when the document is not an object or an array
+     * @throws IOException when the input can't be read or is malformed
+     */
+    public Map<String, Object> decodeMap(Reader in) throws JiraException, IOException {
+        return read(newReader(in));
+    }
+
+    /**
+     * Decodes a document into a map.
+     *
+     * @see #decodeMap(Reader)
+     */
+    public Map<String, Object> read(JsonReader reader) throws JiraException, IOException {
+        switch (reader.peek()) {
+        case END_DOCUMENT:
+            return null;
+        case BEGIN_OBJECT:
+            Map<String, Object> map = readObject(reader);
+            reader.peek();
+            return map;
+        case BEGIN_ARRAY:
+            Map<String, Object> wrapper;
+            if (compact) {
+                wrapper = CompactMap.builder().put("data", readArray(reader)).build();
+            } else {
+                wrapper = new HashMap<String, Object>();
+                wrapper.put("data", readArray(reader));
+            }
+            reader.peek();
+            return wrapper;
+        case NULL:
+            throw new JiraException("JSON payload is empty");
+        default:
+            throw new JiraException("JSON payload is malformed");
+        }
+    }
+
+    /**
+     * Decodes a document into a map.
+     *
+     * @see #decodeMap(Reader)
+     */
+    public Map<String, Object> decodeMap(String json) throws JiraException, IOException {
+        return decodeMap(new StringReader(json));
+    }
+
+    /**
+     * Reads the next value from the given reader.
+     *
+     * @param reader JSON reader positioned before a value
+     *
+     * @return a map, list, string, number, boolean or null
+     *
+     * @throws IOException when the input can't be read or is malformed
+     */
+    public Object readValue(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+        case BEGIN_OBJECT:
+            return readObject(reader);
+        case BEGIN_ARRAY:
+            return readArray(reader);
+        case STRING:
+            return reader.nextString();
+        case NUMBER:
+            return reader.nextNumber();
+        case BOOLEAN:
+            return reader.nextBoolean() ? Boolean.TRUE : Boolean.FALSE;
+        case NULL:
+            reader.nextNull();
+            return null;
+        default:
+            throw new IOException("Unexpected " + reader.peek() + " at offset " + reader.getPosition());
+        }
+    }
+
+    /**
+     * Reads the next object from the given reader.
+     */
+    public Map<String, Object> readObject(JsonReader reader) throws IOException {
+        if (compact) {
+            CompactMap.Builder builder = CompactMap.builder();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                builder.put(name, readValue(reader));
+            }
+            reader.endObject();
+
+            return builder.build();
+        }
+
+        Map<String, Object> map = new HashMap<String, Object>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            map.put(name, readValue(reader));
+        }
+        reader.endObject();
+
+        return map;
+    }
+
+    /**
+     * Reads the next array from the given reader.
+     */
+    public List<Object> readArray(JsonReader reader) throws IOException {
+        List<Object> list = new ArrayList<Object>();
+
+        reader.beginArray();
+        while (reader.hasNext())
+            list.add(readValue(reader));
+        reader.endArray();
+
+        return list;
+    }
+}
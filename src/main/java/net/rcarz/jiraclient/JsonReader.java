@@ -0,0 +1,538 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigInteger;
+
+/**
+ * A pull parser that reads JSON tokens straight from a character stream.
+ *
+ * The reader never holds more than one buffer of input in memory, so a
+ * response can be decoded while it is still arriving on the socket.
+ */
+public class JsonReader implements Closeable {
+
+    /**
+     * JSON token types.
+     */
+    public enum Token {
+        BEGIN_OBJECT,
+        END_OBJECT,
+        BEGIN_ARRAY,
+        END_ARRAY,
+        NAME,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT
+    }
+
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int DANGLING_NAME = 3;
+    private static final int NONEMPTY_OBJECT = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private final Reader in;
+    private final char[] buf = new char[8192];
+    private int pos = 0;
+    private int limit = 0;
+    private long consumed = 0;
+
+    private int[] stack = new int[32];
+    private int stackSize = 1;
+    private Token peeked = null;
+
+    private char[] scratch = new char[256];
+
+    /**
+     * Creates a JSON reader.
+     *
+     * @param in Character stream to read from
+     */
+    public JsonReader(Reader in) {
+        this.in = in;
+        stack[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Gets the type of the next token without consuming it.
+     *
+     * @return the next token type
+     *
+     * @throws IOException when the input can't be read or is malformed
+     */
+    public Token peek() throws IOException {
+        if (peeked != null)
+            return peeked;
+
+        int scope = stack[stackSize - 1];
+        int c;
+
+        switch (scope) {
+        case EMPTY_ARRAY:
+            stack[stackSize - 1] = NONEMPTY_ARRAY;
+            break;
+        case NONEMPTY_ARRAY:
+            c = nextNonWhitespace(true);
+            if (c == ']') {
+                pos++;
+                return peeked = Token.END_ARRAY;
+            } else if (c != ',')
+                throw syntaxError("Expected ',' or ']'");
+            pos++;
+            break;
+        case EMPTY_OBJECT:
+        case NONEMPTY_OBJECT:
+            stack[stackSize - 1] = DANGLING_NAME;
+            if (scope == NONEMPTY_OBJECT) {
+                c = nextNonWhitespace(true);
+                if (c == '}') {
+                    pos++;
+                    return peeked = Token.END_OBJECT;
+                } else if (c != ',')
+                    throw syntaxError("Expected ',' or '}'");
+                pos++;
+            }
+
+            c = nextNonWhitespace(true);
+            if (c == '"') {
+                pos++;
+                return peeked = Token.NAME;
+            } else if (c == '}' && scope == EMPTY_OBJECT) {
+                pos++;
+                return peeked = Token.END_OBJECT;
+            }
+            throw syntaxError("Expected name");
+        case DANGLING_NAME:
+            stack[stackSize - 1] = NONEMPTY_OBJECT;
+            if (nextNonWhitespace(true) != ':')
+                throw syntaxError("Expected ':'");
+            pos++;
+            break;
+        case EMPTY_DOCUMENT:
+            if (nextNonWhitespace(false) == -1)
+                return peeked = Token.END_DOCUMENT;
+            stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+            break;
+        case NONEMPTY_DOCUMENT:
+            if (nextNonWhitespace(false) == -1)
+                return peeked = Token.END_DOCUMENT;
+            throw syntaxError("Unexpected content after the document");
+        }
+
+        c = nextNonWhitespace(true);
+
+        switch (c) {
+        case '{':
+            pos++;
+            return peeked = Token.BEGIN_OBJECT;
+        case '[':
+            pos++;
+            return peeked = Token.BEGIN_ARRAY;
+        case ']':
+            if (scope == EMPTY_ARRAY) {
+                pos++;
+                return peeked = Token.END_ARRAY;
+            }
+            break;
+        case '"':
+            pos++;
+            return peeked = Token.STRING;
+        case 't':
+        case 'f':
+            return peeked = Token.BOOLEAN;
+        case 'n':
+            return peeked = Token.NULL;
+        default:
+            if (c == '-' || (c >= '0' && c <= '9'))
+                return peeked = Token.NUMBER;
+        }
+
+        throw syntaxError("Unexpected character '" + (char)c + "'");
+    }
+
+    /**
+     * Checks if the current object or array has more elements.
+     */
+    public boolean hasNext() throws IOException {
+        Token t = peek();
+        return t != Token.END_OBJECT && t != Token.END_ARRAY && t != Token.END_DOCUMENT;
+    }
+
+    private void expect(Token expected) throws IOException {
+        if (peek() != expected)
+            throw syntaxError("Expected " + expected + " but was " + peeked);
+
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            int[] grown = new int[stackSize * 2];
+            System.arraycopy(stack, 0, grown, 0, stackSize);
+            stack = grown;
+        }
+
+        stack[stackSize++] = scope;
+    }
+
+    public void beginObject() throws IOException {
+        expect(Token.BEGIN_OBJECT);
+        push(EMPTY_OBJECT);
+    }
+
+    public void endObject() throws IOException {
+        expect(Token.END_OBJECT);
+        stackSize--;
+    }
+
+    public void beginArray() throws IOException {
+        expect(Token.BEGIN_ARRAY);
+        push(EMPTY_ARRAY);
+    }
+
+    public void endArray() throws IOException {
+        expect(Token.END_ARRAY);
+        stackSize--;
+    }
+
+    /**
+     * Consumes the next property name.
+     */
+    public String nextName() throws IOException {
+        expect(Token.NAME);
+        return readString();
+    }
+
+    /**
+     * Consumes the next string value.
+     */
+    public String nextString() throws IOException {
+        expect(Token.STRING);
+        return readString();
+    }
+
+    /**
+     * Consumes the next boolean value.
+     */
+    public boolean nextBoolean() throws IOException {
+        expect(Token.BOOLEAN);
+
+        if (buf[pos] == 't') {
+            readLiteral("true");
+            return true;
+        }
+
+        readLiteral("false");
+        return false;
+    }
+
+    /**
+     * Consumes the next null value.
+     */
+    public void nextNull() throws IOException {
+        expect(Token.NULL);
+        readLiteral("null");
+    }
+
+    /**
+     * Consumes the next number. Integers become an Integer when they fit,
+     * otherwise a Long or a BigInteger. Anything with a fraction or an
+     * exponent becomes a Double.
+     */
+    public Number nextNumber() throws IOException {
+        expect(Token.NUMBER);
+
+        int len = 0;
+        boolean integral = true;
+
+        while (true) {
+            if (pos == limit && !fill(1))
+                break;
+
+            char c = buf[pos];
+            if ((c >= '0' && c <= '9') || c == '-' || c == '+') {
+                /* digits and signs */
+            } else if (c == '.' || c == 'e' || c == 'E') {
+                integral = false;
+            } else
+                break;
+
+            if (len == scratch.length)
+                growScratch();
+
+            scratch[len++] = c;
+            pos++;
+        }
+
+        if (integral && len < 19) {
+            long value = 0;
+            boolean negative = scratch[0] == '-';
+
+            for (int i = negative ? 1 : 0; i < len; i++) {
+                char c = scratch[i];
+                if (c < '0' || c > '9')
+                    throw syntaxError("Malformed number");
+                value = value * 10 + (c - '0');
+            }
+
+            if (negative)
+                value = -value;
+
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE)
+                return Integer.valueOf((int)value);
+
+            return Long.valueOf(value);
+        }
+
+        String text = new String(scratch, 0, len);
+
+        try {
+            if (integral) {
+                BigInteger big = new BigInteger(text);
+                return big.bitLength() < 64 ? (Number)Long.valueOf(big.longValue()) : big;
+            }
+
+            return Double.valueOf(text);
+        } catch (NumberFormatException ex) {
+            throw syntaxError("Malformed number " + text);
+        }
+    }
+
+    /**
+     * Skips the next value, including nested objects and arrays, without
+     * decoding it.
+     */
+    public void skipValue() throws IOException {
+        int depth = 0;
+
+        do {
+            switch (peek()) {
+            case BEGIN_OBJECT:
+                beginObject();
+                depth++;
+                break;
+            case BEGIN_ARRAY:
+                beginArray();
+                depth++;
+                break;
+            case END_OBJECT:
+                endObject();
+                depth--;
+                break;
+            case END_ARRAY:
+                endArray();
+                depth--;
+                break;
+            case NAME:
+            case STRING:
+                peeked = null;
+                skipString();
+                break;
+            case NUMBER:
+                nextNumber();
+                break;
+            case BOOLEAN:
+                nextBoolean();
+                break;
+            case NULL:
+                nextNull();
+                break;
+            case END_DOCUMENT:
+                return;
+            }
+        } while (depth > 0);
+    }
+
+    /**
+     * Gets the number of characters consumed so far.
+     */
+    public long getPosition() {
+        return consumed + pos;
+    }
+
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Creates the string for a decoded value or name. Subclasses may return
+     * a shared instance for equal character sequences.
+     *
+     * @param chars Characters of the string
+     * @param offset Index of the first character
+     * @param length Number of characters
+     *
+     * @return a string with the given characters
+     */
+    protected String makeString(char[] chars, int offset, int length) {
+        return new String(chars, offset, length);
+    }
+
+    private String readString() throws IOException {
+        /* fast path: the whole string is in the buffer and has no escapes */
+        for (int p = pos; p < limit; p++) {
+            char c = buf[p];
+            if (c == '"') {
+                String result = makeString(buf, pos, p - pos);
+                pos = p + 1;
+                return result;
+            } else if (c == '\\')
+                break;
+        }
+
+        int len = 0;
+
+        while (true) {
+            if (pos == limit && !fill(1))
+                throw syntaxError("Unterminated string");
+
+            char c = buf[pos++];
+
+            if (c == '"')
+                return makeString(scratch, 0, len);
+
+            if (c == '\\')
+                c = readEscape();
+
+            if (len == scratch.length)
+                growScratch();
+
+            scratch[len++] = c;
+        }
+    }
+
+    private void skipString() throws IOException {
+        while (true) {
+            if (pos == limit && !fill(1))
+                throw syntaxError("Unterminated string");
+
+            char c = buf[pos++];
+
+            if (c == '"')
+                return;
+
+            if (c == '\\')
+                readEscape();
+        }
+    }
+
+    private char readEscape() throws IOException {
+        if (pos == limit && !fill(1))
+            throw syntaxError("Unterminated escape sequence");
+
+        char c = buf[pos++];
+
+        switch (c) {
+        case 'u':
+            if (limit - pos < 4 && !fill(4))
+                throw syntaxError("Unterminated escape sequence");
+
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit(buf[pos++], 16);
+                if (digit < 0)
+                    throw syntaxError("Malformed unicode escape");
+                value = (value << 4) | digit;
+            }
+            return (char)value;
+        case 'b':
+            return '\b';
+        case 'f':
+            return '\f';
+        case 'n':
+            return '\n';
+        case 'r':
+            return '\r';
+        case 't':
+            return '\t';
+        default:
+            return c;
+        }
+    }
+
+    private void readLiteral(String literal) throws IOException {
+        int len = literal.length();
+
+        if (limit - pos < len && !fill(len))
+            throw syntaxError("Expected " + literal);
+
+        for (int i = 0; i < len; i++) {
+            if (buf[pos + i] != literal.charAt(i))
+                throw syntaxError("Expected " + literal);
+        }
+
+        pos += len;
+    }
+
+    private int nextNonWhitespace(boolean required) throws IOException {
+        while (true) {
+            if (pos == limit && !fill(1)) {
+                if (required)
+                    throw syntaxError("Unexpected end of input");
+                return -1;
+            }
+
+            char c = buf[pos];
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t')
+                pos++;
+            else
+                return c;
+        }
+    }
+
+    /**
+     * Makes sure at least the given number of characters are buffered.
+     */
+    private boolean fill(int minimum) throws IOException {
+        if (pos > 0) {
+            consumed += pos;
+            limit -= pos;
+            System.arraycopy(buf, pos, buf, 0, limit);
+            pos = 0;
+        }
+
+        while (limit < minimum) {
+            int n = in.read(buf, limit, buf.length - limit);
+            if (n == -1)
+                return false;
+            limit += n;
+        }
+
+        return true;
+    }
+
+    private void growScratch() {
+        char[] grown = new char[scratch.length * 2];
+        System.arraycopy(scratch, 0, grown, 0, scratch.length);
+        scratch = grown;
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at offset " + getPosition());
+    }
+}
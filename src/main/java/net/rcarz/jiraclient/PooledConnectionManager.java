@@ -0,0 +1,356 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.routing.HttpRoutePlanner;
+import org.apache.http.impl.conn.DefaultRoutePlanner;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.message.BasicHttpRequest;
+import org.apache.http.pool.PoolStats;
+
+/**
+ * A pooling connection manager that evicts idle connections in the
+ * background and keeps track of how connections are leased.
+ */
+public class PooledConnectionManager extends PoolingHttpClientConnectionManager {
+
+    /**
+     * Snapshot of the pool state and lease counters.
+     */
+    public static final class Stats {
+        public final int leased;
+        public final int pending;
+        public final int available;
+        public final int max;
+        public final long leases;
+        public final long leaseTimeouts;
+        public final long leaseWaitMillis;
+        public final long maxLeaseWaitMillis;
+
+        private Stats(PoolStats ps, long leases, long leaseTimeouts, long leaseWaitNanos, long maxLeaseWaitNanos) {
+            this.leased = ps.getLeased();
+            this.pending = ps.getPending();
+            this.available = ps.getAvailable();
+            this.max = ps.getMax();
+            this.leases = leases;
+            this.leaseTimeouts = leaseTimeouts;
+            this.leaseWaitMillis = TimeUnit.NANOSECONDS.toMillis(leaseWaitNanos);
+            this.maxLeaseWaitMillis = TimeUnit.NANOSECONDS.toMillis(maxLeaseWaitNanos);
+        }
+
+        /**
+         * Average time a caller waited for a connection, in milliseconds.
+         * Leases that timed out count with the time they waited.
+         */
+        public double getAverageLeaseWaitMillis() {
+            long attempts = leases + leaseTimeouts;
+            return attempts > 0 ? (double)leaseWaitMillis / attempts : 0.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[leased: %d; pending: %d; available: %d; max: %d; leases: %d; " +
+                    "timeouts: %d; avg wait: %.2fms; max wait: %dms]", leased, pending, available, max,
+                    leases, leaseTimeouts, getAverageLeaseWaitMillis(), maxLeaseWaitMillis);
+        }
+    }
+
+    /**
+     * Daemon thread that periodically closes expired and idle connections.
+     */
+    private static final class IdleConnectionEvictor extends Thread {
+        private final PooledConnectionManager manager;
+        private final long intervalMillis;
+        private final long idleMillis;
+
+        IdleConnectionEvictor(PooledConnectionManager manager, long intervalMillis, long idleMillis) {
+            super("jira-client-connection-evictor");
+            setDaemon(true);
+
+            this.manager = manager;
+            this.intervalMillis = intervalMillis;
+            this.idleMillis = idleMillis;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (!isInterrupted()) {
+                    Thread.sleep(intervalMillis);
+                    manager.closeExpiredConnections();
+                    manager.closeIdleConnections(idleMillis, TimeUnit.MILLISECONDS);
+                }
+            } catch (InterruptedException ex) {
+                /* shutting down */
+            }
+        }
+    }
+
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong leaseTimeouts = new AtomicLong();
+    private final AtomicLong leaseWaitNanos = new AtomicLong();
+    private final AtomicLong maxLeaseWaitNanos = new AtomicLong();
+    private IdleConnectionEvictor evictor = null;
+    private int connectTimeout = 10000;
+    private HttpRoutePlanner routePlanner = new DefaultRoutePlanner(null);
+
+    /**
+     * Creates a connection manager with the given limits.
+     *
+     * @param maxTotal Maximum number of connections across all routes
+     * @param maxPerRoute Maximum number of connections to a single host
+     * @param timeToLive Maximum lifetime of a pooled connection in
+     * milliseconds, or zero for no limit
+     */
+    public PooledConnectionManager(int maxTotal, int maxPerRoute, long timeToLive) {
+        super(timeToLive > 0 ? timeToLive : -1, TimeUnit.MILLISECONDS);
+
+        setMaxTotal(maxTotal);
+        setDefaultMaxPerRoute(maxPerRoute);
+    }
+
+    /**
+     * Starts evicting connections that have been idle for too long.
+     *
+     * @param interval How often to check the pool in milliseconds
+     * @param idleTimeout Idle time after which a connection is closed in
+     * milliseconds
+     */
+    public synchronized void startIdleConnectionEviction(long interval, long idleTimeout) {
+        if (evictor != null)
+            return;
+
+        evictor = new IdleConnectionEvictor(this, interval, idleTimeout);
+        evictor.start();
+    }
+
+    /**
+     * Sets the connect timeout used when warming up connections.
+     *
+     * @param connectTimeout Timeout in milliseconds
+     */
+    public void setConnectTimeout(int connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    /**
+     * Sets the route planner used when warming up connections. It should be
+     * the one the HTTP client plans its routes with, so warmed up
+     * connections are pooled under the routes requests ask for.
+     *
+     * @param routePlanner Route planner of the HTTP client
+     */
+    public void setRoutePlanner(HttpRoutePlanner routePlanner) {
+        this.routePlanner = routePlanner;
+    }
+
+    /**
+     * Gets the route planner used when warming up connections.
+     */
+    public HttpRoutePlanner getRoutePlanner() {
+        return routePlanner;
+    }
+
+    /**
+     * Opens connections to a host, see {@link #warmUp(HttpRoute, int)}. The
+     * route is planned the same way the HTTP client plans it, so proxies and
+     * local addresses in the request configuration are taken into account.
+     * Nothing is opened for a route that tunnels through a proxy, because
+     * the tunnel is only set up when a request is sent.
+     *
+     * @param target Host to connect to
+     * @param config Default request configuration of the HTTP client, or
+     * null
+     * @param connections Number of connections the pool should hold
+     *
+     * @return the number of connections opened
+     *
+     * @throws IOException when the route can't be planned or a connection
+     * can't be opened
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public int warmUp(HttpHost target, RequestConfig config, int connections)
+            throws IOException, InterruptedException {
+
+        HttpClientContext context = HttpClientContext.create();
+        if (config != null)
+            context.setRequestConfig(config);
+
+        HttpRoute route;
+        try {
+            route = routePlanner.determineRoute(target, new BasicHttpRequest("GET", "/"), context);
+        } catch (HttpException ex) {
+            throw new IOException("Failed to plan a route to " + target, ex);
+        }
+
+        if (route.isTunnelled())
+            return 0;
+
+        return warmUp(route, connections);
+    }
+
+    /**
+     * Opens connections to a host ahead of the first requests, so those
+     * don't pay for DNS, TCP and TLS handshakes. The connections are opened
+     * in parallel and then returned to the pool.
+     *
+     * @param route Route to the host, as the HTTP client would plan it
+     * @param connections Number of connections the pool should hold, capped
+     * at the per-route maximum
+     *
+     * @return the number of connections opened
+     *
+     * @throws IOException when a connection can't be opened
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public int warmUp(final HttpRoute route, int connections) throws IOException, InterruptedException {
+        int count = Math.min(connections, getMaxPerRoute(route));
+        List<HttpClientConnection> leased = new ArrayList<HttpClientConnection>(count);
+        List<Future<Boolean>> opened = new ArrayList<Future<Boolean>>(count);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(count, 16)));
+
+        try {
+            for (int i = 0; i < count; i++) {
+                try {
+                    leased.add(requestConnection(route, null).get(connectTimeout, TimeUnit.MILLISECONDS));
+                } catch (ExecutionException ex) {
+                    throw new IOException("Failed to lease a connection", ex.getCause());
+                }
+            }
+
+            for (final HttpClientConnection conn : leased) {
+                opened.add(executor.submit(new Callable<Boolean>() {
+                    public Boolean call() throws IOException {
+                        if (conn.isOpen())
+                            return false;
+
+                        HttpClientContext context = HttpClientContext.create();
+                        connect(conn, route, connectTimeout, context);
+                        routeComplete(conn, route, context);
+
+                        /* binds the socket streams, which the stale check on the next lease expects */
+                        conn.flush();
+                        return true;
+                    }
+                }));
+            }
+
+            int n = 0;
+            for (Future<Boolean> f : opened) {
+                try {
+                    if (f.get())
+                        n++;
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof IOException)
+                        throw (IOException)ex.getCause();
+
+                    throw new IOException("Failed to open a connection", ex.getCause());
+                }
+            }
+
+            return n;
+        } finally {
+            executor.shutdownNow();
+
+            for (HttpClientConnection conn : leased)
+                releaseConnection(conn, null, -1, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+        final ConnectionRequest req = super.requestConnection(route, state);
+
+        return new ConnectionRequest() {
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit tunit)
+                    throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+
+                long start = System.nanoTime();
+
+                /* only leases and timeouts are counted, so only they add to the wait */
+                try {
+                    HttpClientConnection conn = req.get(timeout, tunit);
+                    recordLeaseWait(System.nanoTime() - start);
+                    leases.incrementAndGet();
+                    return conn;
+                } catch (ConnectionPoolTimeoutException ex) {
+                    recordLeaseWait(System.nanoTime() - start);
+                    leaseTimeouts.incrementAndGet();
+                    throw ex;
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return req.cancel();
+            }
+        };
+    }
+
+    private void recordLeaseWait(long waited) {
+        leaseWaitNanos.addAndGet(waited);
+
+        long max = maxLeaseWaitNanos.get();
+        while (waited > max && !maxLeaseWaitNanos.compareAndSet(max, waited))
+            max = maxLeaseWaitNanos.get();
+    }
+
+    /**
+     * Gets the current pool state together with the lease counters.
+     *
+     * @return a stats snapshot
+     */
+    public Stats getStats() {
+        return new Stats(getTotalStats(), leases.get(), leaseTimeouts.get(),
+                leaseWaitNanos.get(), maxLeaseWaitNanos.get());
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (this) {
+            if (evictor != null) {
+                evictor.interrupt();
+                evictor = null;
+            }
+        }
+
+        super.shutdown();
+    }
+}
@@ -19,6 +19,7 @@
 
 package net.rcarz.jiraclient;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -52,6 +53,16 @@ public class Priority extends Resource {
         iconUrl = Field.getString(data.get("iconUrl"));
     }
 
+    @Override
+    boolean bind(String property, JsonReader reader, JsonBinder binder) throws IOException, JiraException {
+        if (property.equals("iconUrl")) {
+            iconUrl = binder.readString(reader);
+            return true;
+        }
+
+        return super.bind(property, reader, binder);
+    }
+
     public String getIconUrl() {
         return iconUrl;
     }
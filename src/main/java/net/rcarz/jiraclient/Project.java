@@ -19,6 +19,7 @@
 
 package net.rcarz.jiraclient;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -69,6 +70,47 @@ public class Project extends Resource {
         roles = Field.getMap(data.get("roles"));
 	}
 
+    @Override
+    boolean bind(String property, JsonReader reader, JsonBinder binder) throws IOException, JiraException {
+        switch (property) {
+        case "avatarUrls":
+            avatarUrls = Field.getMap(binder.readValue(reader));
+            return true;
+        case "key":
+            key = binder.readString(reader);
+            super.key = key;
+            return true;
+        case "description":
+            description = binder.readString(reader);
+            return true;
+        case "lead":
+            lead = binder.readResource(User.class, reader);
+            return true;
+        case "assigneeType":
+            assigneeType = binder.readString(reader);
+            return true;
+        case "components":
+            components = binder.readResourceList(Component.class, reader);
+            return true;
+        case "issueTypes":
+            issueTypes = binder.readResourceList(IssueType.class, reader);
+            return true;
+        case "issuetypes":
+            ResourceList<IssueType> types = binder.readResourceList(IssueType.class, reader);
+            if (issueTypes == null)
+                issueTypes = types;
+            return true;
+        case "versions":
+            versions = binder.readResourceList(Version.class, reader);
+            return true;
+        case "roles":
+            roles = Field.getMap(binder.readValue(reader));
+            return true;
+        default:
+            return super.bind(property, reader, binder);
+        }
+    }
+
     public Map<String, Object> getAvatarUrls() {
         return avatarUrls;
     }
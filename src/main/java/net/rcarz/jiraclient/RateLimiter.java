@@ -0,0 +1,475 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * A token bucket that limits the request rate to a JIRA host.
+ *
+ * Limiters obtained from {@link #forHost(String)} are shared by every client
+ * in the JVM that talks to the same host, so several clients together stay
+ * under the server limits.
+ *
+ * The refill rate adapts to the server. The X-RateLimit-FillRate and
+ * X-RateLimit-Interval-Seconds headers set the ceiling, X-RateLimit-Remaining
+ * caps the local tokens, and Retry-After or an exhausted X-RateLimit-Reset
+ * pauses the bucket. Each 429 halves the rate and each successful response
+ * raises it again by a fraction of the ceiling.
+ */
+public class RateLimiter {
+
+    /**
+     * What a request does when no permit is available.
+     */
+    public enum Mode {
+        /** Block the calling thread until a permit is available. */
+        BLOCKING,
+        /** Delay the request without blocking; blocks on the synchronous client. */
+        ASYNC,
+        /** Fail the request with a {@link RateLimitException}. */
+        FAIL_FAST
+    }
+
+    /**
+     * Takes a permit for every request that passes through, retries
+     * included, and adapts the limiter to the responses.
+     */
+    public static final class Filter implements RestFilter {
+        private final RateLimiter limiter;
+        private final Mode mode;
+
+        Filter(RateLimiter limiter, Mode mode) {
+            this.limiter = limiter;
+            this.mode = mode;
+        }
+
+        public HttpResponse filter(HttpRequestBase req, Chain chain) throws IOException, JiraException {
+            limiter.acquire(mode, req);
+            HttpResponse resp = chain.proceed(req);
+            limiter.onResponse(resp);
+
+            return resp;
+        }
+
+        /**
+         * Gets the limiter permits are taken from.
+         */
+        public RateLimiter getLimiter() {
+            return limiter;
+        }
+
+        /**
+         * Gets what happens when no permit is available.
+         */
+        public Mode getMode() {
+            return mode;
+        }
+    }
+
+    private static final ConcurrentMap<String, RateLimiter> HOSTS = new ConcurrentHashMap<String, RateLimiter>();
+
+    private static volatile ScheduledExecutorService scheduler = null;
+
+    private static final double DECREASE = 0.5;
+    private static final double INCREASE = 0.02;
+
+    private double ceiling;
+    private double minRate;
+    private double rate;
+    private double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    private final AtomicLong permits = new AtomicLong();
+    private final AtomicLong delayed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+
+    /**
+     * Creates a rate limiter.
+     *
+     * @param permitsPerSecond Highest request rate
+     * @param burst Number of requests that can be sent at once
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        this.ceiling = permitsPerSecond;
+        this.minRate = permitsPerSecond / 100;
+        this.rate = permitsPerSecond;
+        this.capacity = burst;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Gets the shared limiter for a host, creating it with 10 requests per
+     * second and a burst of 20 if there's none yet.
+     *
+     * @param host Host name, optionally with a port
+     */
+    public static RateLimiter forHost(String host) {
+        return forHost(host, 10, 20);
+    }
+
+    /**
+     * Gets the shared limiter for a host, creating it with the given rate if
+     * there's none yet.
+     *
+     * @param host Host name, optionally with a port
+     * @param permitsPerSecond Highest request rate
+     * @param burst Number of requests that can be sent at once
+     */
+    public static RateLimiter forHost(String host, double permitsPerSecond, int burst) {
+        String key = host.toLowerCase(Locale.ROOT);
+        RateLimiter limiter = HOSTS.get(key);
+
+        if (limiter == null) {
+            RateLimiter created = new RateLimiter(permitsPerSecond, burst);
+            limiter = HOSTS.putIfAbsent(key, created);
+            if (limiter == null)
+                limiter = created;
+        }
+
+        return limiter;
+    }
+
+    /**
+     * Gets the shared limiter for the host of a URI.
+     *
+     * @see #forHost(String)
+     */
+    public static RateLimiter forUri(URI uri) {
+        return forHost(uri.getPort() < 0 ? uri.getHost() : uri.getHost() + ":" + uri.getPort());
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * rate / 1e9);
+        lastRefill = now;
+    }
+
+    /**
+     * Takes a permit, possibly one that only becomes available later.
+     *
+     * @return nanoseconds to wait before the permit can be used
+     */
+    synchronized long reserve() {
+        refill(System.nanoTime());
+        tokens -= 1;
+        permits.incrementAndGet();
+
+        if (tokens >= 0)
+            return 0;
+
+        delayed.incrementAndGet();
+        return (long)(-tokens / rate * 1e9);
+    }
+
+    /**
+     * Takes a permit if one is available right now.
+     *
+     * @return zero on success, otherwise the nanoseconds until one is
+     */
+    synchronized long tryReserve() {
+        refill(System.nanoTime());
+
+        if (tokens >= 1) {
+            tokens -= 1;
+            permits.incrementAndGet();
+            return 0;
+        }
+
+        rejected.incrementAndGet();
+        return Math.max(1, (long)((1 - tokens) / rate * 1e9));
+    }
+
+    /**
+     * Creates a filter that takes permits from this limiter.
+     *
+     * @param mode What to do when no permit is available; asynchronous
+     * waits block on the synchronous client
+     */
+    public Filter filter(Mode mode) {
+        return new Filter(this, mode);
+    }
+
+    /**
+     * Waits for a permit.
+     *
+     * @param mode How to wait; {@link Mode#ASYNC} blocks here as well
+     *
+     * @throws RateLimitException when the mode is fail-fast and no permit is
+     * available
+     * @throws InterruptedIOException when the thread is interrupted while
+     * waiting
+     */
+    public void acquire(Mode mode) throws RateLimitException, InterruptedIOException {
+        long wait = take(mode);
+        if (wait <= 0)
+            return;
+
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a rate limit permit");
+        }
+    }
+
+    /**
+     * Waits for a permit to send a request, within the time left to the
+     * call the request belongs to.
+     *
+     * @param mode How to wait; {@link Mode#ASYNC} blocks here as well
+     * @param req Request the permit is for
+     *
+     * @throws RateLimitException when the mode is fail-fast and no permit is
+     * available
+     * @throws CallCancelledException when the call is done or the wait
+     * would run past its deadline; the permit is given back
+     * @throws InterruptedIOException when the thread is interrupted while
+     * waiting
+     */
+    void acquire(Mode mode, HttpRequestBase req)
+            throws RateLimitException, CallCancelledException, InterruptedIOException {
+
+        long wait = take(mode);
+        if (wait <= 0)
+            return;
+
+        try {
+            CallOptions.pause(req, wait, "Interrupted while waiting for a rate limit permit");
+        } catch (CallCancelledException ex) {
+            release();
+            throw ex;
+        }
+    }
+
+    /**
+     * Takes a permit according to the mode.
+     *
+     * @return nanoseconds to wait before the permit can be used
+     */
+    private long take(Mode mode) throws RateLimitException {
+        if (mode == Mode.FAIL_FAST) {
+            long wait = tryReserve();
+            if (wait > 0)
+                throw new RateLimitException("Rate limit exceeded", TimeUnit.NANOSECONDS.toMillis(wait));
+            return 0;
+        }
+
+        return reserve();
+    }
+
+    /**
+     * Gives back a permit that won't be used.
+     */
+    private synchronized void release() {
+        tokens = Math.min(capacity, tokens + 1);
+        permits.decrementAndGet();
+    }
+
+    /**
+     * Waits for a permit without blocking.
+     *
+     * @param mode How to wait; {@link Mode#BLOCKING} blocks the caller
+     *
+     * @return a future that completes when the permit can be used
+     */
+    public CompletableFuture<Void> acquireAsync(Mode mode) {
+        CompletableFuture<Void> result = new CompletableFuture<Void>();
+
+        if (mode != Mode.ASYNC) {
+            try {
+                acquire(mode);
+                result.complete(null);
+            } catch (Exception ex) {
+                result.completeExceptionally(ex);
+            }
+
+            return result;
+        }
+
+        long wait = reserve();
+        if (wait <= 0)
+            result.complete(null);
+        else
+            getScheduler().schedule(() -> result.complete(null), wait, TimeUnit.NANOSECONDS);
+
+        return result;
+    }
+
+    private static ScheduledExecutorService getScheduler() {
+        if (scheduler == null) {
+            synchronized (RateLimiter.class) {
+                if (scheduler == null) {
+                    scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            Thread t = new Thread(r, "jira-rate-limiter");
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+                }
+            }
+        }
+
+        return scheduler;
+    }
+
+    /**
+     * Adapts the rate to a server response.
+     *
+     * @param resp HTTP response
+     */
+    public void onResponse(HttpResponse resp) {
+        onResponse(resp, System.nanoTime());
+    }
+
+    /**
+     * Adapts the rate to a server response received at the given time.
+     *
+     * @param resp HTTP response
+     * @param now Current value of {@link System#nanoTime()}
+     */
+    void onResponse(HttpResponse resp, long now) {
+        int status = resp.getStatusLine().getStatusCode();
+        long fillRate = parseLong(resp.getFirstHeader("X-RateLimit-FillRate"));
+        long interval = parseLong(resp.getFirstHeader("X-RateLimit-Interval-Seconds"));
+        long limit = parseLong(resp.getFirstHeader("X-RateLimit-Limit"));
+        long remaining = parseLong(resp.getFirstHeader("X-RateLimit-Remaining"));
+        long pause = status == 429 || remaining == 0
+                ? RetryPolicy.serverDelay(resp, System.currentTimeMillis()) : -1;
+
+        synchronized (this) {
+            refill(now);
+
+            if (fillRate > 0 && interval > 0) {
+                ceiling = (double)fillRate / interval;
+                minRate = ceiling / 100;
+            }
+
+            if (limit > 0)
+                capacity = limit;
+
+            if (status == 429) {
+                throttled.incrementAndGet();
+                rate = Math.max(minRate, rate * DECREASE);
+            } else if (status < 300) {
+                rate = Math.min(ceiling, rate + ceiling * INCREASE);
+            }
+
+            rate = Math.min(rate, ceiling);
+
+            if (remaining >= 0)
+                tokens = Math.min(tokens, remaining);
+
+            /* a negative balance makes the next requests wait out the pause */
+            if (pause > 0)
+                tokens = Math.min(tokens, -rate * pause / 1000.0);
+            else if (status == 429)
+                tokens = Math.min(tokens, 0);
+        }
+    }
+
+    private static long parseLong(Header header) {
+        if (header == null || header.getValue() == null)
+            return -1;
+
+        try {
+            return Long.parseLong(header.getValue().trim());
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gets the current refill rate in permits per second.
+     */
+    public synchronized double getRate() {
+        return rate;
+    }
+
+    /**
+     * Gets the permits available right now; negative when requests are
+     * queued.
+     */
+    public double getAvailablePermits() {
+        return getAvailablePermits(System.nanoTime());
+    }
+
+    /**
+     * Gets the permits available at the given time.
+     *
+     * @param now Current value of {@link System#nanoTime()}
+     */
+    synchronized double getAvailablePermits(long now) {
+        refill(now);
+        return tokens;
+    }
+
+    /**
+     * Gets the number of permits handed out.
+     */
+    public long getPermits() {
+        return permits.get();
+    }
+
+    /**
+     * Gets the number of permits that had to wait.
+     */
+    public long getDelayed() {
+        return delayed.get();
+    }
+
+    /**
+     * Gets the number of fail-fast requests that were rejected.
+     */
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Gets the number of 429 responses seen.
+     */
+    public long getThrottled() {
+        return throttled.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[rate: %.2f/s; permits: %d; delayed: %d; rejected: %d; throttled: %d]",
+                getRate(), getPermits(), getDelayed(), getRejected(), getThrottled());
+    }
+}
@@ -0,0 +1,238 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+
+/**
+ * A successful response with its body left undecoded.
+ *
+ * Raw responses are meant for passing JIRA's JSON on, for example from a
+ * gateway to browsers, without decoding and encoding it again. The body is
+ * kept as it was sent: when the server compressed it, {@link #getBody()}
+ * returns the compressed bytes and {@link #getContentEncoding()} names the
+ * encoding, so it can be forwarded together with a Content-Encoding header.
+ * {@link #openStream()} returns the uncompressed body.
+ *
+ * Raw requests pass through the same filters as decoded ones, so retries,
+ * rate limits and circuit breakers apply, but not through the interceptors,
+ * which work on decoded results. Error statuses still throw a
+ * {@link RestException}.
+ */
+public final class RawResponse {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final int statusCode;
+    private final String reasonPhrase;
+    private final Header[] headers;
+    private final String contentType;
+    private final String contentEncoding;
+    private final String charset;
+    private final byte[] body;
+    private final int length;
+
+    private RawResponse(HttpResponse resp, String contentType, String contentEncoding, String charset,
+            byte[] body, int length) {
+
+        this.statusCode = resp.getStatusLine().getStatusCode();
+        this.reasonPhrase = resp.getStatusLine().getReasonPhrase();
+        this.headers = resp.getAllHeaders();
+        this.contentType = contentType;
+        this.contentEncoding = contentEncoding;
+        this.charset = charset;
+        this.body = body;
+        this.length = length;
+    }
+
+    /**
+     * Reads the body of a response as it was sent.
+     *
+     * @param resp HTTP response to read
+     * @param in Stream of the entity content, or null when there's no entity
+     * @param encoding Content encoding of the entity or null
+     *
+     * @return the raw response
+     *
+     * @throws IOException when an error reading the response occurs
+     */
+    static RawResponse read(HttpResponse resp, InputStream in, String encoding) throws IOException {
+        HttpEntity ent = resp.getEntity();
+        if (ent == null || in == null)
+            return new RawResponse(resp, null, null, "UTF-8", EMPTY, 0);
+
+        long declared = ent.getContentLength();
+        byte[] buf = new byte[declared >= 0 && declared < Integer.MAX_VALUE ? (int)declared : 8192];
+        int len = 0;
+        int n;
+
+        while (true) {
+            if (len == buf.length) {
+                /* a declared length that is right ends here without copying */
+                int next = in.read();
+                if (next == -1)
+                    break;
+
+                buf = Arrays.copyOf(buf, Math.max(8192, buf.length * 2));
+                buf[len++] = (byte)next;
+            }
+
+            n = in.read(buf, len, buf.length - len);
+            if (n == -1)
+                break;
+            len += n;
+        }
+
+        Header type = ent.getContentType();
+        return new RawResponse(resp, type != null ? type.getValue() : null, encoding,
+                RestClient.getCharset(ent), buf, len);
+    }
+
+    /**
+     * Gets the HTTP status code.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Gets the HTTP reason phrase.
+     */
+    public String getReasonPhrase() {
+        return reasonPhrase;
+    }
+
+    /**
+     * Gets all response headers.
+     */
+    public Header[] getHeaders() {
+        return headers.clone();
+    }
+
+    /**
+     * Gets the value of the first header with the given name.
+     *
+     * @param name Header name, in any case
+     *
+     * @return the header value or null
+     */
+    public String getHeader(String name) {
+        for (Header header : headers) {
+            if (header.getName().equalsIgnoreCase(name))
+                return header.getValue();
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the Content-Type of the body or null.
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Gets the content encoding the body is compressed with, or null when
+     * it isn't.
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * Gets the character set of the body.
+     */
+    public String getCharset() {
+        return charset;
+    }
+
+    /**
+     * Gets the length of the body as sent.
+     */
+    public int getContentLength() {
+        return length;
+    }
+
+    /**
+     * Gets a copy of the body as sent.
+     */
+    public byte[] getBody() {
+        return Arrays.copyOf(body, length);
+    }
+
+    /**
+     * Gets a read-only buffer over the body as sent, without copying it.
+     */
+    public ByteBuffer getBuffer() {
+        return ByteBuffer.wrap(body, 0, length).asReadOnlyBuffer();
+    }
+
+    /**
+     * Writes the body as sent to the given stream.
+     *
+     * @param out Stream to write to
+     *
+     * @throws IOException when the stream can't be written
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(body, 0, length);
+    }
+
+    /**
+     * Opens the uncompressed body.
+     *
+     * @return a new stream over the body
+     *
+     * @throws IOException when the content encoding isn't supported
+     */
+    public InputStream openStream() throws IOException {
+        InputStream in = new ByteArrayInputStream(body, 0, length);
+        return length > 0 ? RestClient.decompress(in, contentEncoding) : in;
+    }
+
+    /**
+     * Opens the uncompressed body as characters.
+     *
+     * @return a new reader over the body
+     *
+     * @throws IOException when the encoding or character set isn't supported
+     */
+    public Reader openReader() throws IOException {
+        return new InputStreamReader(openStream(), charset);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[status: %d; type: %s; encoding: %s; length: %d]",
+                statusCode, contentType, contentEncoding, length);
+    }
+}
@@ -19,6 +19,7 @@
 
 package net.rcarz.jiraclient;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -52,6 +53,16 @@ public class Resolution extends Resource {
         description = Field.getString(data.get("description"));
     }
 
+    @Override
+    boolean bind(String property, JsonReader reader, JsonBinder binder) throws IOException, JiraException {
+        if (property.equals("description")) {
+            description = binder.readString(reader);
+            return true;
+        }
+
+        return super.bind(property, reader, binder);
+    }
+
     public String getDescription() {
         return description;
     }
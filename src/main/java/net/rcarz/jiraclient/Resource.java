@@ -19,6 +19,7 @@
 
 package net.rcarz.jiraclient;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -48,6 +49,16 @@ public abstract class Resource extends AResource {
     	}
     }
     
+    @Override
+    boolean bind(String property, JsonReader reader, JsonBinder binder) throws IOException, JiraException {
+        if (property.equals("self")) {
+            self = binder.readString(reader);
+            return true;
+        }
+
+        return super.bind(property, reader, binder);
+    }
+
     /**
      * Resource URL.
      */
@@ -0,0 +1,116 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The factories that {@link Field#getResource(Class, Object)} creates
+ * resources with, keyed by resource class.
+ *
+ * The JIRA resources are registered here and the GreenHopper ones by
+ * {@code GreenHopperField}, which is loaded along with this class so they
+ * are available whichever class is used first. Other resource types, such as the payloads of
+ * add-ons, can be registered too and are then decoded like the built-in
+ * ones, including as elements of {@link Field#getResourceArray(Class, Object)}.
+ *
+ * <pre>
+ * ResourceFactories.register(TempoWorklog.class, TempoWorklog::new);
+ * TempoWorklog worklog = Field.getResource(TempoWorklog.class, data);
+ * </pre>
+ */
+public final class ResourceFactories {
+
+    private static final ConcurrentHashMap<Class<?>, ResourceFactory<?>> factories =
+            new ConcurrentHashMap<Class<?>, ResourceFactory<?>>(64);
+
+    static {
+        register(AllowedValue.class, AllowedValue::new);
+        register(Attachment.class, Attachment::new);
+        register(ChangeLog.class, ChangeLog::new);
+        register(ChangeLogEntry.class, ChangeLogEntry::new);
+        register(ChangeLogItem.class, ChangeLogItem::new);
+        register(Comment.class, Comment::new);
+        register(Component.class, Component::new);
+        register(CustomFieldOption.class, CustomFieldOption::new);
+        register(Issue.class, Issue::new);
+        register(IssueLink.class, IssueLink::new);
+        register(IssueType.class, IssueType::new);
+        register(LinkType.class, LinkType::new);
+        register(Priority.class, Priority::new);
+        register(Project.class, Project::new);
+        register(RemoteLink.class, RemoteLink::new);
+        register(Resolution.class, Resolution::new);
+        register(Status.class, Status::new);
+        register(Transition.class, Transition::new);
+        register(User.class, User::new);
+        register(Version.class, Version::new);
+        register(Votes.class, Votes::new);
+        register(Watches.class, Watches::new);
+        register(WorkLog.class, WorkLog::new);
+
+        /* GreenHopper's constructors are protected, it registers its own */
+        try {
+            Class.forName("net.rcarz.jiraclient.greenhopper.GreenHopperField", true,
+                    ResourceFactories.class.getClassLoader());
+        } catch (ClassNotFoundException ex) {
+            throw new ExceptionInInitializerError(ex);
+        }
+    }
+
+    private ResourceFactories() { }
+
+    /**
+     * Registers the factory of a resource type, replacing any earlier one.
+     *
+     * @param type Resource data type
+     * @param factory Factory that creates resources of the type
+     */
+    public static <T extends AResource> void register(Class<T> type, ResourceFactory<? extends T> factory) {
+        if (type == null || factory == null)
+            throw new IllegalArgumentException("type and factory must not be null");
+
+        factories.put(type, factory);
+    }
+
+    /**
+     * Removes the factory of a resource type.
+     *
+     * @param type Resource data type
+     */
+    public static void unregister(Class<? extends AResource> type) {
+        factories.remove(type);
+    }
+
+    /**
+     * Gets the factory of a resource type.
+     *
+     * Callers that decode many resources of one type can keep the factory
+     * instead of looking it up each time.
+     *
+     * @param type Resource data type
+     *
+     * @return the factory or null if the type isn't registered
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends AResource> ResourceFactory<T> get(Class<T> type) {
+        return (ResourceFactory<T>)factories.get(type);
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.util.Map;
+
+/**
+ * Creates resources of one type from their JSON payload.
+ *
+ * @param <T> Resource data type
+ *
+ * @see ResourceFactories
+ */
+public interface ResourceFactory<T extends AResource> {
+
+    /**
+     * Creates a resource.
+     *
+     * @param data Map of the JSON payload, or null for an empty resource
+     *
+     * @return a new resource
+     *
+     * @throws JiraException when the payload can't be read
+     */
+    T create(Map<String, Object> data) throws JiraException;
+}
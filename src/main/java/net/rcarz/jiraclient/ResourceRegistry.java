@@ -0,0 +1,285 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps one shared instance of each reference resource.
+ *
+ * Every issue names its status, priority, issue type and resolution, yet a
+ * server only has a few dozen of each. With a registry installed, decoding
+ * a resource of a registered type returns the instance decoded earlier for
+ * the same class and self URL (or id, when there's no self URL), so all
+ * issues share it and it can be compared by identity. These resources have
+ * no setters.
+ *
+ * The payload a resource was decoded from is kept with it. When the server
+ * copy changes, for example a renamed status or a priority's new icon, the
+ * payload no longer matches and the new resource replaces the old one;
+ * resources handed out earlier keep their old values. Once the registry
+ * holds its maximum number of resources, new ones are decoded as usual but
+ * not stored.
+ *
+ * Resources are decoded by static factory methods, so the registry is
+ * installed process-wide with {@link #setDefault(ResourceRegistry)}.
+ */
+public class ResourceRegistry {
+
+    /**
+     * Default maximum number of stored resources.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 10000;
+
+    private static volatile ResourceRegistry defaultRegistry = null;
+
+    /**
+     * A shared resource with the payload it was decoded from.
+     */
+    private static final class Entry {
+        final Map<String, Object> data;
+        final AResource resource;
+
+        Entry(Map<String, Object> data, AResource resource) {
+            this.data = data;
+            this.resource = resource;
+        }
+    }
+
+    private final Map<Class<?>, ConcurrentHashMap<String, Entry>> entries;
+    private final int maxEntries;
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    /**
+     * Creates a registry of statuses, priorities, issue types, resolutions
+     * and custom field options.
+     */
+    public ResourceRegistry() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Creates a registry of statuses, priorities, issue types, resolutions
+     * and custom field options.
+     *
+     * Projects and users aren't included: an issue embeds a short form of
+     * them under the same self URL as the full resource, so the two forms
+     * would keep replacing each other.
+     *
+     * @param maxEntries Maximum number of stored resources
+     */
+    public ResourceRegistry(int maxEntries) {
+        this(maxEntries, Status.class, Priority.class, IssueType.class, Resolution.class,
+                CustomFieldOption.class);
+    }
+
+    /**
+     * Creates a registry of the given resource types.
+     *
+     * Only register types that have no setters and whose payload is the
+     * same wherever they are embedded.
+     *
+     * @param maxEntries Maximum number of stored resources
+     * @param types Resource types to share
+     */
+    @SafeVarargs
+    public ResourceRegistry(int maxEntries, Class<? extends AResource>... types) {
+        if (maxEntries < 0)
+            throw new IllegalArgumentException("maxEntries must not be negative");
+
+        Map<Class<?>, ConcurrentHashMap<String, Entry>> byType =
+                new HashMap<Class<?>, ConcurrentHashMap<String, Entry>>();
+        for (Class<? extends AResource> type : types)
+            byType.put(type, new ConcurrentHashMap<String, Entry>());
+
+        this.entries = Collections.unmodifiableMap(byType);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Gets the registry that decoded resources are shared through.
+     *
+     * @return the registry or null when resources aren't shared
+     */
+    public static ResourceRegistry getDefault() {
+        return defaultRegistry;
+    }
+
+    /**
+     * Sets the registry that decoded resources are shared through.
+     *
+     * @param registry Registry or null to stop sharing resources
+     */
+    public static void setDefault(ResourceRegistry registry) {
+        defaultRegistry = registry;
+    }
+
+    /**
+     * Checks whether resources of a type are shared.
+     */
+    public boolean isRegistered(Class<?> type) {
+        return entries.containsKey(type);
+    }
+
+    private static String identity(Map<String, Object> data) {
+        Object id = data.get("self");
+        if (!(id instanceof String))
+            id = data.get("id");
+
+        return id instanceof String ? (String)id : null;
+    }
+
+    /**
+     * Gets the shared resource decoded from an equal payload.
+     *
+     * @param type Resource data type
+     * @param data Map of the JSON payload
+     *
+     * @return the shared resource or null
+     */
+    @SuppressWarnings("unchecked")
+    <T extends AResource> T lookup(Class<T> type, Map<String, Object> data) {
+        ConcurrentHashMap<String, Entry> byId = entries.get(type);
+        if (byId == null)
+            return null;
+
+        String id = identity(data);
+        if (id == null)
+            return null;
+
+        Entry entry = byId.get(id);
+        if (entry == null || !entry.data.equals(data))
+            return null;
+
+        hits.increment();
+        return (T)entry.resource;
+    }
+
+    /**
+     * Stores a newly decoded resource unless an equal one was stored
+     * meanwhile.
+     *
+     * @param type Resource data type
+     * @param data Map of the JSON payload
+     * @param resource Resource decoded from data
+     *
+     * @return the shared resource, or the given one when it can't be shared
+     */
+    @SuppressWarnings("unchecked")
+    <T extends AResource> T register(Class<T> type, Map<String, Object> data, T resource) {
+        ConcurrentHashMap<String, Entry> byId = entries.get(type);
+        String id = identity(data);
+        if (byId == null || id == null)
+            return resource;
+
+        Entry created = new Entry(data, resource);
+
+        while (true) {
+            Entry entry = byId.get(id);
+
+            if (entry == null) {
+                if (size.get() >= maxEntries)
+                    return resource;
+
+                if (byId.putIfAbsent(id, created) == null) {
+                    size.incrementAndGet();
+                    misses.increment();
+                    return resource;
+                }
+            } else if (entry.data.equals(data)) {
+                hits.increment();
+                return (T)entry.resource;
+            } else if (byId.replace(id, entry, created)) {
+                refreshes.increment();
+                return resource;
+            }
+        }
+    }
+
+    /**
+     * Removes the shared resource of a type and self URL or id, so the next
+     * one decoded replaces it.
+     *
+     * @param type Resource data type
+     * @param id Self URL or id of the resource
+     */
+    public void invalidate(Class<?> type, String id) {
+        ConcurrentHashMap<String, Entry> byId = entries.get(type);
+        if (byId != null && byId.remove(id) != null)
+            size.decrementAndGet();
+    }
+
+    /**
+     * Removes all shared resources.
+     */
+    public void clear() {
+        for (ConcurrentHashMap<String, Entry> byId : entries.values()) {
+            for (String id : byId.keySet()) {
+                if (byId.remove(id) != null)
+                    size.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of shared resources.
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Gets the number of decoded resources that were replaced by a shared
+     * one.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of resources stored for the first time.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of shared resources replaced because the server copy
+     * changed.
+     */
+    public long getRefreshes() {
+        return refreshes.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[size: %d; hits: %d; misses: %d; refreshes: %d]",
+                size(), getHits(), getMisses(), getRefreshes());
+    }
+}
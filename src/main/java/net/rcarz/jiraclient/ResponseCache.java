@@ -0,0 +1,245 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.Header;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.auth.AuthenticationException;
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * A bounded cache of decoded GET responses that is revalidated with
+ * conditional requests.
+ *
+ * Responses with an ETag or Last-Modified header are stored together with
+ * their decoded result. The next GET of the same URI sends If-None-Match or
+ * If-Modified-Since, and a 304 answer returns the stored result without
+ * transferring or decoding the body again. The least recently used entries
+ * are evicted once the cache is full.
+ */
+public class ResponseCache implements RestInterceptor {
+
+    /**
+     * A cached result with its validators.
+     */
+    static final class Entry {
+        final JsonHandler<?> handler;
+        final String etag;
+        final String lastModified;
+        final Object value;
+
+        Entry(JsonHandler<?> handler, String etag, String lastModified, Object value) {
+            this.handler = handler;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.value = value;
+        }
+
+        /**
+         * Makes the request conditional on the cached validators.
+         */
+        void addValidators(HttpRequest req) {
+            if (etag != null)
+                req.setHeader("If-None-Match", etag);
+            if (lastModified != null)
+                req.setHeader("If-Modified-Since", lastModified);
+        }
+    }
+
+    private final Map<String, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Creates a response cache.
+     *
+     * @param maxEntries Maximum number of cached responses
+     */
+    public ResponseCache(final int maxEntries) {
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() <= maxEntries)
+                    return false;
+
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Makes GET requests conditional on a cached response and serves it on
+     * 304 Not Modified.
+     */
+    public <T> T intercept(Chain<T> chain)
+            throws RestException, IOException, AuthenticationException, JiraException {
+
+        HttpRequestBase req = chain.getRequest();
+        if (!"GET".equals(req.getMethod()))
+            return chain.proceed();
+
+        Entry cached = get(req.getURI(), chain.getHandler());
+        if (cached != null)
+            cached.addValidators(req);
+
+        T result;
+        try {
+            result = chain.proceed();
+        } catch (RestException ex) {
+            if (cached != null && ex.getHttpStatusCode() == 304)
+                return revalidated(cached);
+            throw ex;
+        }
+
+        put(req.getURI(), chain.getHandler(), chain.getResponse(), result);
+        return result;
+    }
+
+    /**
+     * Looks up the entry of a URI and counts a miss when there's none.
+     *
+     * @param uri Request URI
+     * @param handler Handler the result was read with
+     *
+     * @return the entry to revalidate or null
+     */
+    Entry get(URI uri, JsonHandler<?> handler) {
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(uri.toString());
+        }
+
+        if (entry == null || entry.handler != handler) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        revalidations.incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Counts a successful revalidation.
+     *
+     * @return the cached result
+     */
+    @SuppressWarnings("unchecked")
+    <T> T revalidated(Entry entry) {
+        hits.incrementAndGet();
+        return (T)entry.value;
+    }
+
+    /**
+     * Stores a result if the response carries validators.
+     *
+     * @param uri Request URI
+     * @param handler Handler the result was read with
+     * @param resp HTTP response
+     * @param value Decoded result
+     */
+    void put(URI uri, JsonHandler<?> handler, HttpResponse resp, Object value) {
+        String key = uri.toString();
+        String etag = getValue(resp, "ETag");
+        String lastModified = getValue(resp, "Last-Modified");
+        String cacheControl = getValue(resp, "Cache-Control");
+
+        boolean store = value != null && (etag != null || lastModified != null) &&
+                (cacheControl == null || !cacheControl.toLowerCase(Locale.ROOT).contains("no-store"));
+
+        synchronized (entries) {
+            if (store)
+                entries.put(key, new Entry(handler, etag, lastModified, value));
+            else
+                entries.remove(key);
+        }
+    }
+
+    private static String getValue(HttpResponse resp, String name) {
+        Header header = resp.getFirstHeader(name);
+        return header != null ? header.getValue() : null;
+    }
+
+    /**
+     * Removes all cached responses.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * Gets the number of cached responses.
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Gets the number of requests answered with 304 and served from the
+     * cache.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of GET requests without a cached response.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of conditional requests sent.
+     */
+    public long getRevalidations() {
+        return revalidations.get();
+    }
+
+    /**
+     * Gets the number of responses evicted to make room.
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[size: %d; hits: %d; misses: %d; revalidations: %d; evictions: %d]",
+                size(), getHits(), getMisses(), getRevalidations(), getEvictions());
+    }
+}
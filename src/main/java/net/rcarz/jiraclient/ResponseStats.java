@@ -0,0 +1,113 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transfer statistics of a single REST response.
+ */
+public final class ResponseStats {
+
+    private final String method;
+    private final String uri;
+    private final int status;
+    private final String contentEncoding;
+    private final long wireBytes;
+    private final long bodyBytes;
+    private final long decodeNanos;
+
+    ResponseStats(String method, String uri, int status, String contentEncoding,
+            long wireBytes, long bodyBytes, long decodeNanos) {
+
+        this.method = method;
+        this.uri = uri;
+        this.status = status;
+        this.contentEncoding = contentEncoding;
+        this.wireBytes = wireBytes;
+        this.bodyBytes = bodyBytes;
+        this.decodeNanos = decodeNanos;
+    }
+
+    /**
+     * HTTP method of the request.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Full URI of the request.
+     */
+    public String getUri() {
+        return uri;
+    }
+
+    /**
+     * HTTP status code of the response.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * Content encoding of the response body, or null when it wasn't
+     * compressed.
+     */
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    /**
+     * Number of body bytes received before decompression.
+     */
+    public long getWireBytes() {
+        return wireBytes;
+    }
+
+    /**
+     * Number of body bytes after decompression.
+     */
+    public long getBodyBytes() {
+        return bodyBytes;
+    }
+
+    /**
+     * Time spent reading, decompressing and decoding the body in
+     * nanoseconds.
+     */
+    public long getDecodeNanos() {
+        return decodeNanos;
+    }
+
+    /**
+     * Compressed size as a fraction of the uncompressed size.
+     */
+    public double getCompressionRatio() {
+        return bodyBytes > 0 ? (double)wireBytes / bodyBytes : 1.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s -> %d [%s; wire: %d bytes; body: %d bytes; decode: %.2fms]",
+                method, uri, status, contentEncoding != null ? contentEncoding : "identity",
+                wireBytes, bodyBytes, decodeNanos / (double)TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
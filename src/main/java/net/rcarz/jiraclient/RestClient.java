@@ -19,34 +19,42 @@
 
 package net.rcarz.jiraclient;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.io.Reader;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.charset.UnsupportedCharsetException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 import net.sf.json.JSON;
 import net.sf.json.JSONArray;
 import net.sf.json.JSONException;
 import net.sf.json.JSONObject;
-import net.sf.json.JSONSerializer;
 
 import org.apache.http.Header;
 import org.apache.http.HeaderElement;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpRequest;
 import org.apache.http.HttpResponse;
 import org.apache.http.NameValuePair;
 import org.apache.http.StatusLine;
 import org.apache.http.auth.AuthenticationException;
 import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
 import org.apache.http.client.methods.HttpGet;
@@ -59,15 +67,32 @@ import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.apache.http.entity.mime.content.ByteArrayBody;
 import org.apache.http.entity.mime.content.FileBody;
 import org.apache.http.entity.mime.content.InputStreamBody;
+import org.apache.http.util.EntityUtils;
 
 /**
  * A simple REST client that speaks JSON.
  */
 public class RestClient {
     
-    private HttpClient httpClient = null;
+    private HttpTransport transport = null;
     private ICredentials creds = null;
     private URI uri = null;
+    private String base = null;
+    private JsonDecoder decoder = new JsonDecoder();
+    private boolean compression = true;
+    private ResponseListener listener = null;
+    private final Object credsLock = new Object();
+    private volatile boolean credsInitialized = false;
+    private boolean credsInitializing = false;
+    private volatile RestInterceptor[] interceptors = new RestInterceptor[0];
+    private volatile RestFilter[] filters = new RestFilter[0];
+    private RequestConfig requestConfig = null;
+    private CallOptions options = null;
+
+    /**
+     * Content encodings the client can decompress.
+     */
+    static final String ACCEPT_ENCODING = "gzip, deflate";
 
     /**
      * Creates a REST client instance with a URI.
@@ -87,9 +112,30 @@ public class RestClient {
      * @param uri Base URI of the remote REST service
      */
     public RestClient(HttpClient httpclient, ICredentials creds, URI uri) {
-        this.httpClient = httpclient;
+        this(new ApacheTransport(httpclient), creds, uri);
+    }
+
+    /**
+     * Creates an authenticated REST client instance on a transport.
+     *
+     * @param transport Transport to send requests with
+     * @param creds Credentials to send with each request
+     * @param uri Base URI of the remote REST service
+     */
+    public RestClient(HttpTransport transport, ICredentials creds, URI uri) {
+        this.transport = transport;
         this.creds = creds;
         this.uri = uri;
+        this.base = routeBase(uri);
+    }
+
+    /**
+     * Gets the base URI as a string without a trailing slash, for expanding
+     * routes onto.
+     */
+    static String routeBase(URI uri) {
+        String base = uri.toString();
+        return base.endsWith("/") ? base.substring(0, base.length() - 1) : base;
     }
     
     /**
@@ -116,7 +162,22 @@ public class RestClient {
      * @throws URISyntaxException when the path is invalid
      */
     public URI buildURI(Map<String, String> params, String... pathParts) throws URISyntaxException {
-        URIBuilder ub = new URIBuilder(uri);
+        return buildURI(uri, params, pathParts);
+    }
+
+    /**
+     * Build a URI from a base URI, a path and query parameters.
+     *
+     * @param base Base URI of the remote REST service
+     * @param params Map of key value pairs
+     * @param pathParts Path to append to the base URI
+     *
+     * @return the full URI
+     *
+     * @throws URISyntaxException when the path is invalid
+     */
+    static URI buildURI(URI base, Map<String, String> params, String... pathParts) throws URISyntaxException {
+        URIBuilder ub = new URIBuilder(base);
         String path = "";
         for (String part : pathParts) {
         	path += "/" + part;
@@ -131,60 +192,535 @@ public class RestClient {
         return ub.build();
     }
 
-    private JSON request(HttpRequestBase req) throws RestException, IOException, AuthenticationException {
+    /**
+     * Build a URI from a precompiled route and query parameters.
+     *
+     * @param route Route to expand
+     * @param params Map of key value pairs, may be null
+     * @param vars Route variable values in template order
+     *
+     * @return the full URI
+     */
+    public URI buildURI(Route route, Map<String, String> params, String... vars) {
+        return route.expand(base, params, vars);
+    }
+
+    private Map<String, Object> request(HttpRequestBase req)
+            throws RestException, IOException, AuthenticationException, JiraException {
+
+        return request(req, decoder);
+    }
+
+    private <T> T request(HttpRequestBase req, JsonHandler<T> handler)
+            throws RestException, IOException, AuthenticationException, JiraException {
+
+        return call(req, () -> execute(req, handler));
+    }
+
+    /**
+     * Sends a request and keeps the body undecoded. Raw requests pass
+     * through the filters but not the interceptors, which work on decoded
+     * results.
+     */
+    private RawResponse requestRaw(HttpRequestBase req)
+            throws RestException, IOException, AuthenticationException, JiraException {
+
+        return call(req, () -> {
+            prepare(req);
+            return new Exchange<RawResponse>(req, null, new RestInterceptor[0], filters,
+                    resp -> readRaw(req, resp, listener)).proceed(0);
+        });
+    }
+
+    /**
+     * Reads the result of a response that passed the filters.
+     */
+    private interface ResponseReader<T> {
+        T read(HttpResponse resp) throws RestException, IOException, JiraException;
+    }
+
+    /**
+     * Runs the exchange of a request.
+     */
+    private interface Call<T> {
+        T run() throws RestException, IOException, AuthenticationException, JiraException;
+    }
+
+    /**
+     * Runs a request within the call options of this client, if any.
+     */
+    private <T> T call(HttpRequestBase req, Call<T> call)
+            throws RestException, IOException, AuthenticationException, JiraException {
+
+        if (options == null)
+            return call.run();
+
+        if (options.isDone())
+            throw options.failure(null);
+
+        options.enter(req);
+        try {
+            return call.run();
+        } catch (IOException ex) {
+            if (options.isDone())
+                throw options.failure(ex);
+
+            throw ex;
+        } finally {
+            options.exit(req);
+        }
+    }
+
+    private <T> T execute(HttpRequestBase req, JsonHandler<T> handler)
+            throws RestException, IOException, AuthenticationException, JiraException {
+
+        prepare(req);
+
+        RestInterceptor[] is = interceptors;
+        RestFilter[] fs = filters;
+
+        if (is.length == 0 && fs.length == 0) {
+            if (creds != null)
+                creds.authenticate(req);
+
+            HttpResponse resp = transport.execute(req);
+            if (reauthenticate(req, resp))
+                resp = transport.execute(req);
+
+            return readResponse(req, resp, decoder, handler, listener);
+        }
+
+        return new Exchange<T>(req, handler, is, fs,
+                resp -> readResponse(req, resp, decoder, handler, listener)).proceed(0);
+    }
+
+    private void prepare(HttpRequestBase req) throws JiraException {
         req.addHeader("Accept", "application/json");
 
-        if (creds != null)
-            creds.authenticate(req);
+        if (compression && !req.containsHeader("Accept-Encoding"))
+            req.addHeader("Accept-Encoding", ACCEPT_ENCODING);
 
-        HttpResponse resp = httpClient.execute(req);
-        HttpEntity ent = resp.getEntity();
-        StringBuilder result = new StringBuilder();
+        if (creds != null && !credsInitialized)
+            initializeCredentials();
+    }
 
-        if (ent != null) {
-            String encoding = null;
-            if (ent.getContentEncoding() != null) {
-            	encoding = ent.getContentEncoding().getValue();
-            }
-            
-            if (encoding == null) {
-    	        Header contentTypeHeader = resp.getFirstHeader("Content-Type");
-    	        HeaderElement[] contentTypeElements = contentTypeHeader.getElements();
-    	        for (HeaderElement he : contentTypeElements) {
-    	        	NameValuePair nvp = he.getParameterByName("charset");
-    	        	if (nvp != null) {
-    	        		encoding = nvp.getValue();
-    	        	}
-    	        }
-            }
-            
-            InputStreamReader isr =  encoding != null ?
-                new InputStreamReader(ent.getContent(), encoding) :
-                new InputStreamReader(ent.getContent());
-            BufferedReader br = null;
+    /**
+     * Creates a view of this client that sends requests with the given call
+     * options. The view shares the transport, the credentials and the
+     * current interceptors and filters.
+     *
+     * @param options Timeouts, deadline and cancellation for the call
+     *
+     * @return a REST client for the call
+     */
+    public RestClient withOptions(CallOptions options) {
+        RestClient view = new RestClient(new CallOptions.Transport(transport, options, requestConfig), creds, uri);
+        view.decoder = decoder;
+        view.compression = compression;
+        view.listener = listener;
+        view.credsInitialized = credsInitialized;
+        view.interceptors = interceptors;
+        view.filters = filters;
+        view.requestConfig = requestConfig;
+        view.options = options;
+
+        return view;
+    }
+
+    /**
+     * Sets the request configuration the HTTP client uses by default, which
+     * call options start from.
+     */
+    void setRequestConfig(RequestConfig requestConfig) {
+        this.requestConfig = requestConfig;
+    }
+
+    /**
+     * Gets the request configuration the HTTP client uses by default.
+     */
+    RequestConfig getRequestConfig() {
+        return requestConfig;
+    }
+
+    /**
+     * Initializes the credentials now instead of on the first request. Does
+     * nothing when they are already initialized.
+     *
+     * @throws JiraException when the credentials fail to initialize
+     */
+    public void initialize() throws JiraException {
+        if (creds != null && !credsInitialized)
+            initializeCredentials();
+    }
 
+    /**
+     * Lets the credentials log in before the first request. Requests the
+     * credentials make while logging in skip this.
+     */
+    private void initializeCredentials() throws JiraException {
+        synchronized (credsLock) {
+            if (credsInitialized || credsInitializing)
+                return;
+
+            credsInitializing = true;
             try {
-            	String line = "";
-            	br = new BufferedReader(isr);
-	            while ((line = br.readLine()) != null)
-	                result.append(line);
+                creds.initialize(this);
+                credsInitialized = true;
             } finally {
-            	if (br != null) {
-            		br.close();
-            	}
+                credsInitializing = false;
+            }
+        }
+    }
+
+    /**
+     * Prepares a request rejected with 401 to be sent again if the
+     * credentials could be renewed.
+     *
+     * @return true if the request should be sent again
+     */
+    private boolean reauthenticate(HttpRequestBase req, HttpResponse resp)
+            throws IOException, AuthenticationException, JiraException {
+
+        if (creds == null || resp.getStatusLine().getStatusCode() != 401)
+            return false;
+
+        if (req instanceof HttpEntityEnclosingRequestBase) {
+            HttpEntity ent = ((HttpEntityEnclosingRequestBase)req).getEntity();
+            if (ent != null && !ent.isRepeatable())
+                return false;
+        }
+
+        if (!creds.reauthenticate(this, req))
+            return false;
+
+        EntityUtils.consume(resp.getEntity());
+        req.reset();
+        req.removeHeaders("Cookie");
+        req.removeHeaders("Authorization");
+        creds.authenticate(req);
+
+        return true;
+    }
+
+    /**
+     * The state of one request passing through the interceptors and filters.
+     */
+    private final class Exchange<T> {
+        final HttpRequestBase req;
+        final JsonHandler<T> handler;
+        final RestInterceptor[] interceptors;
+        final RestFilter[] filters;
+        final ResponseReader<T> reader;
+        volatile HttpResponse response = null;
+
+        Exchange(HttpRequestBase req, JsonHandler<T> handler, RestInterceptor[] interceptors, RestFilter[] filters,
+                ResponseReader<T> reader) {
+
+            this.req = req;
+            this.handler = handler;
+            this.interceptors = interceptors;
+            this.filters = filters;
+            this.reader = reader;
+        }
+
+        T proceed(int index) throws RestException, IOException, AuthenticationException, JiraException {
+            if (index < interceptors.length)
+                return interceptors[index].intercept(new InterceptorLink<T>(this, index + 1));
+
+            if (creds != null)
+                creds.authenticate(req);
+
+            HttpResponse resp = send(req, 0);
+            if (reauthenticate(req, resp))
+                resp = send(req, 0);
+            response = resp;
+
+            return reader.read(resp);
+        }
+
+        HttpResponse send(HttpRequestBase req, int index) throws IOException, JiraException {
+            if (index < filters.length)
+                return filters[index].filter(req, new FilterLink(this, index + 1));
+
+            return transport.execute(req);
+        }
+    }
+
+    private static final class InterceptorLink<T> implements RestInterceptor.Chain<T> {
+        private final Exchange<T> exchange;
+        private final int index;
+
+        InterceptorLink(Exchange<T> exchange, int index) {
+            this.exchange = exchange;
+            this.index = index;
+        }
+
+        public HttpRequestBase getRequest() {
+            return exchange.req;
+        }
+
+        public JsonHandler<T> getHandler() {
+            return exchange.handler;
+        }
+
+        public HttpResponse getResponse() {
+            return exchange.response;
+        }
+
+        public T proceed() throws RestException, IOException, AuthenticationException, JiraException {
+            return exchange.proceed(index);
+        }
+    }
+
+    private static final class FilterLink implements RestFilter.Chain {
+        private final Exchange<?> exchange;
+        private final int index;
+
+        FilterLink(Exchange<?> exchange, int index) {
+            this.exchange = exchange;
+            this.index = index;
+        }
+
+        public HttpResponse proceed(HttpRequestBase req) throws IOException, JiraException {
+            return exchange.send(req, index);
+        }
+    }
+
+    /**
+     * Gets the character set of a response, defaulting to UTF-8.
+     *
+     * @param ent Response entity
+     *
+     * @return the charset name
+     */
+    static String getCharset(HttpEntity ent) {
+        Header contentType = ent.getContentType();
+
+        if (contentType != null) {
+            for (HeaderElement he : contentType.getElements()) {
+                NameValuePair nvp = he.getParameterByName("charset");
+                if (nvp != null && nvp.getValue() != null)
+                    return nvp.getValue();
             }
         }
 
+        return "UTF-8";
+    }
+
+    /**
+     * Gets the content encoding of a response.
+     *
+     * @return the lower-case encoding or null when the body isn't encoded
+     */
+    static String getContentEncoding(HttpResponse resp, HttpEntity ent) {
+        Header ce = ent.getContentEncoding();
+
+        if (ce == null)
+            ce = resp.getFirstHeader("Content-Encoding");
+
+        if (ce == null || ce.getValue() == null)
+            return null;
+
+        String encoding = ce.getValue().trim().toLowerCase(Locale.ROOT);
+        return encoding.isEmpty() || encoding.equals("identity") ? null : encoding;
+    }
+
+    /**
+     * Wraps a body stream so it is decompressed while it's being read.
+     *
+     * @param in Raw body stream
+     * @param encoding Content encoding or null
+     *
+     * @return a stream of the decompressed body
+     *
+     * @throws IOException when the compressed stream is malformed
+     */
+    static InputStream decompress(InputStream in, String encoding) throws IOException {
+        if (encoding == null)
+            return in;
+
+        if (encoding.equals("gzip") || encoding.equals("x-gzip"))
+            return new GZIPInputStream(in, 8192);
+
+        if (encoding.equals("deflate")) {
+            /* servers send either zlib-wrapped or raw deflate data */
+            PushbackInputStream pin = new PushbackInputStream(in, 2);
+            byte[] head = new byte[2];
+            int n = pin.read(head);
+
+            if (n <= 0)
+                return pin;
+
+            pin.unread(head, 0, n);
+
+            boolean zlib = n == 2 && (head[0] & 0x0f) == 8
+                    && (((head[0] & 0xff) << 8) | (head[1] & 0xff)) % 31 == 0;
+
+            return new InflaterInputStream(pin, new Inflater(!zlib), 8192);
+        }
+
+        throw new IOException("Unsupported content encoding " + encoding);
+    }
+
+    /**
+     * Reads a JSON response and checks the HTTP status.
+     *
+     * @see #readResponse(HttpRequest, HttpResponse, JsonDecoder, JsonHandler, ResponseListener)
+     */
+    static Map<String, Object> readResponse(HttpResponse resp, JsonDecoder decoder)
+            throws RestException, IOException, JiraException {
+
+        return readResponse(null, resp, decoder, decoder, null);
+    }
+
+    /**
+     * Reads a JSON response with the given handler and checks the HTTP
+     * status.
+     *
+     * The body is decompressed and decoded straight from the entity stream.
+     * Error responses are read as text so they can be passed on with the
+     * exception.
+     *
+     * @param req HTTP request the response belongs to, used for statistics
+     * @param resp HTTP response to read
+     * @param decoder JSON decoder that creates the token reader
+     * @param handler Handler that reads the result from the tokens
+     * @param listener Listener for the transfer statistics or null
+     *
+     * @return the result or null when there's no content
+     *
+     * @throws RestException when the server returned an error status
+     * @throws IOException when an error reading the response occurs
+     * @throws JiraException when the response doesn't have the expected shape
+     */
+    static <T> T readResponse(HttpRequest req, HttpResponse resp, JsonDecoder decoder,
+            JsonHandler<T> handler, ResponseListener listener) throws RestException, IOException, JiraException {
+
+        HttpEntity ent = resp.getEntity();
+        StatusLine sl = resp.getStatusLine();
+        boolean failed = sl.getStatusCode() >= 300;
+        String encoding = null;
+        CountingInputStream wire = null;
+        CountingInputStream body = null;
+        String error = "";
+        T result = null;
+        long start = System.nanoTime();
+
+        try {
+            if (ent != null) {
+                encoding = getContentEncoding(resp, ent);
+                wire = new CountingInputStream(ent.getContent());
+                body = new CountingInputStream(ent.getContentLength() != 0 ? decompress(wire, encoding) : wire);
+
+                Reader reader = new InputStreamReader(body, getCharset(ent));
+
+                try {
+                    if (failed)
+                        error = readText(reader);
+                    else
+                        result = handler.read(decoder.newReader(reader));
+                } finally {
+                    reader.close();
+                }
+            }
+        } finally {
+            report(listener, req, sl, encoding, wire, body, start);
+        }
+
+        if (failed)
+            throw new RestException(sl.getReasonPhrase(), sl.getStatusCode(), error);
+
+        return result;
+    }
+
+    /**
+     * Reads a response without decoding the body and checks the HTTP
+     * status.
+     *
+     * The body of a successful response is kept as sent, compressed or not.
+     * Error responses are read as text, the same as by
+     * {@link #readResponse(HttpRequest, HttpResponse, JsonDecoder, JsonHandler, ResponseListener)}.
+     *
+     * @param req HTTP request the response belongs to, used for statistics
+     * @param resp HTTP response to read
+     * @param listener Listener for the transfer statistics or null
+     *
+     * @return the raw response
+     *
+     * @throws RestException when the server returned an error status
+     * @throws IOException when an error reading the response occurs
+     */
+    static RawResponse readRaw(HttpRequest req, HttpResponse resp, ResponseListener listener)
+            throws RestException, IOException {
+
+        HttpEntity ent = resp.getEntity();
         StatusLine sl = resp.getStatusLine();
+        boolean failed = sl.getStatusCode() >= 300;
+        String encoding = null;
+        CountingInputStream wire = null;
+        CountingInputStream body = null;
+        String error = "";
+        RawResponse result = null;
+        long start = System.nanoTime();
 
-        if (sl.getStatusCode() >= 300)
-            throw new RestException(sl.getReasonPhrase(), sl.getStatusCode(), result.toString());
+        try {
+            if (ent == null) {
+                if (!failed)
+                    result = RawResponse.read(resp, null, null);
+            } else {
+                encoding = getContentEncoding(resp, ent);
+                wire = new CountingInputStream(ent.getContent());
 
-        return result.length() > 0 ? JSONSerializer.toJSON(result.toString()): null;
+                try {
+                    if (failed) {
+                        body = new CountingInputStream(ent.getContentLength() != 0 ? decompress(wire, encoding) : wire);
+                        error = readText(new InputStreamReader(body, getCharset(ent)));
+                    } else {
+                        body = wire;
+                        result = RawResponse.read(resp, wire, encoding);
+                    }
+                } finally {
+                    wire.close();
+                }
+            }
+        } finally {
+            report(listener, req, sl, encoding, wire, body, start);
+        }
+
+        if (failed)
+            throw new RestException(sl.getReasonPhrase(), sl.getStatusCode(), error);
+
+        return result;
+    }
+
+    private static void report(ResponseListener listener, HttpRequest req, StatusLine sl, String encoding,
+            CountingInputStream wire, CountingInputStream body, long start) {
+
+        if (listener == null)
+            return;
+
+        listener.responseReceived(new ResponseStats(
+                req != null ? req.getRequestLine().getMethod() : null,
+                req != null ? req.getRequestLine().getUri() : null,
+                sl.getStatusCode(), encoding,
+                wire != null ? wire.getCount() : 0,
+                body != null ? body.getCount() : 0,
+                System.nanoTime() - start));
+    }
+
+    private static String readText(Reader reader) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        char[] buf = new char[4096];
+        int n;
+
+        while ((n = reader.read(buf)) != -1)
+            sb.append(buf, 0, n);
+
+        return sb.toString();
     }
 
-    private JSON request(HttpEntityEnclosingRequestBase req, String payload) 
-    		throws RestException, IOException, AuthenticationException {
+    private Map<String, Object> request(HttpEntityEnclosingRequestBase req, String payload) 
+    		throws RestException, IOException, AuthenticationException, JiraException {
 
         if (payload != null) {
             StringEntity ent = null;
@@ -203,8 +739,8 @@ public class RestClient {
         return request(req);
     }
     
-    private JSON request(HttpEntityEnclosingRequestBase req, File file) 
-    		throws RestException, IOException, AuthenticationException {
+    private Map<String, Object> request(HttpEntityEnclosingRequestBase req, File file) 
+    		throws RestException, IOException, AuthenticationException, JiraException {
         
     	if (file != null) {
             File fileUpload = file;
@@ -216,8 +752,8 @@ public class RestClient {
         return request(req);
     }
 
-    private JSON request(HttpEntityEnclosingRequestBase req, Issue.NewAttachment... attachments) 
-    		throws RestException, IOException, AuthenticationException {
+    private Map<String, Object> request(HttpEntityEnclosingRequestBase req, Issue.NewAttachment... attachments) 
+    		throws RestException, IOException, AuthenticationException, JiraException {
         
     	if (attachments != null) {
             req.setHeader("X-Atlassian-Token", "nocheck");
@@ -244,8 +780,8 @@ public class RestClient {
         return request(req);
     }
 
-    private JSON request(HttpEntityEnclosingRequestBase req, JSON payload) 
-    		throws RestException, IOException, AuthenticationException {
+    private Map<String, Object> request(HttpEntityEnclosingRequestBase req, JSON payload) 
+    		throws RestException, IOException, AuthenticationException, JiraException {
 
         return request(req, payload != null ? payload.toString() : null);
     }
@@ -265,7 +801,7 @@ public class RestClient {
     public Map<String, Object> delete(URI uri) 
     		throws RestException, IOException, AuthenticationException, JiraException {
         
-    	return JSONtoMap(request(new HttpDelete(uri)));
+    	return request(new HttpDelete(uri));
     }
 
     /**
@@ -308,7 +844,46 @@ public class RestClient {
     public Map<String, Object> get(URI uri) 
     		throws RestException, IOException, AuthenticationException, JiraException {
         
-    	return JSONtoMap(request(new HttpGet(uri)));
+    	return request(new HttpGet(uri));
+    }
+
+    /**
+     * Executes an HTTP GET with the given URI and reads the response with
+     * the given handler.
+     *
+     * @param uri Full URI of the remote endpoint
+     * @param handler Reads the result from the JSON tokens
+     *
+     * @return the result or null when there's no content returned
+     *
+     * @throws RestException when an HTTP-level error occurs
+     * @throws IOException when an error reading the response occurs
+     * @throws AuthenticationException
+     * @throws JiraException
+     */
+    public <T> T get(URI uri, JsonHandler<T> handler)
+            throws RestException, IOException, AuthenticationException, JiraException {
+
+        return request(new HttpGet(uri), handler);
+    }
+
+    /**
+     * Executes an HTTP GET with the given URI and returns the response body
+     * without decoding it.
+     *
+     * @param uri Full URI of the remote endpoint
+     *
+     * @return the status, headers and body of the response
+     *
+     * @throws RestException when an HTTP-level error occurs
+     * @throws IOException when an error reading the response occurs
+     * @throws AuthenticationException
+     * @throws JiraException
+     */
+    public RawResponse getRaw(URI uri)
+            throws RestException, IOException, AuthenticationException, JiraException {
+
+        return requestRaw(new HttpGet(uri));
     }
 
     /**
@@ -331,6 +906,27 @@ public class RestClient {
     	return get(buildURI(params, pathParts));
     }
 
+    /**
+     * Executes an HTTP GET with the given path and returns the response body
+     * without decoding it.
+     *
+     * @param params Map of key value pairs
+     * @param pathParts Path to be appended to the URI supplied in the construtor
+     *
+     * @return the status, headers and body of the response
+     *
+     * @throws RestException when an HTTP-level error occurs
+     * @throws IOException when an error reading the response occurs
+     * @throws URISyntaxException when an error occurred appending the path to the URI
+     * @throws AuthenticationException
+     * @throws JiraException
+     */
+    public RawResponse getRaw(Map<String, String> params, String... pathParts)
+            throws RestException, IOException, URISyntaxException, AuthenticationException, JiraException {
+
+        return getRaw(buildURI(params, pathParts));
+    }
+
     /**
      * Executes an HTTP GET with the given path.
      *
@@ -367,7 +963,7 @@ public class RestClient {
     public Map<String, Object> post(URI uri, JSON payload) 
     		throws RestException, IOException, AuthenticationException, JiraException {
         
-    	return JSONtoMap(request(new HttpPost(uri), payload));
+    	return request(new HttpPost(uri), payload);
     }
 
     /**
@@ -397,7 +993,7 @@ public class RestClient {
     	if (payload != null && !payload.equals(new JSONObject())) {
     		quoted = String.format("\"%s\"", payload);
     	}
-        return JSONtoMap(request(new HttpPost(uri), quoted));
+        return request(new HttpPost(uri), quoted);
     }
 
     /**
@@ -456,7 +1052,7 @@ public class RestClient {
     public Map<String, Object> post(File file, String... pathParts) 
     		throws RestException, IOException, URISyntaxException, AuthenticationException, JiraException {
         
-    	return JSONtoMap(request(new HttpPost(buildURI(pathParts)), file));
+    	return request(new HttpPost(buildURI(pathParts)), file);
     }
 
     /**
@@ -476,7 +1072,7 @@ public class RestClient {
     public Map<String, Object> post(URI uri, Issue.NewAttachment... attachments) 
     		throws RestException, IOException, URISyntaxException, AuthenticationException, JiraException {
         
-    	return JSONtoMap(request(new HttpPost(uri), attachments));
+    	return request(new HttpPost(uri), attachments);
     }
 
     /**
@@ -495,7 +1091,7 @@ public class RestClient {
     public Map<String, Object> put(URI uri, JSON payload) 
     		throws RestException, IOException, AuthenticationException, JiraException {
         
-    	return JSONtoMap(request(new HttpPut(uri), payload));
+    	return request(new HttpPut(uri), payload);
     }
 
     /**
@@ -518,13 +1114,304 @@ public class RestClient {
     	return put(buildURI(pathParts), payload);
     }
     
+    /**
+     * Enables or disables asking the server for compressed responses.
+     * Compressed responses are decompressed either way.
+     *
+     * The underlying HTTP client should have its own content compression
+     * disabled, otherwise the wire byte counts are of the decompressed body.
+     *
+     * @param compression Whether to send Accept-Encoding with each request
+     */
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    /**
+     * Sets the listener that receives the transfer statistics of each
+     * response.
+     *
+     * @param listener Response listener or null to remove it
+     */
+    public void setResponseListener(ResponseListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Sets the table that decoded responses share equal strings through.
+     *
+     * Names, keys and URLs repeat for every issue of a search page, so a
+     * table keeps one instance of each instead of thousands. Use a table
+     * per client and size it for the distinct short strings of a page.
+     *
+     * @param strings String table or null to create a new string for every
+     * name and value
+     */
+    public void setStringTable(StringTable strings) {
+        this.decoder = new JsonDecoder(true, strings);
+    }
+
+    /**
+     * Gets the table that decoded responses share equal strings through.
+     */
+    public StringTable getStringTable() {
+        return decoder.getStringTable();
+    }
+
+    /**
+     * Adds an interceptor after the ones already registered.
+     *
+     * @param interceptor Interceptor to add
+     */
+    public synchronized void addInterceptor(RestInterceptor interceptor) {
+        insertInterceptor(interceptors.length, interceptor);
+    }
+
+    /**
+     * Removes an interceptor.
+     *
+     * @param interceptor Interceptor to remove
+     */
+    public synchronized void removeInterceptor(RestInterceptor interceptor) {
+        List<RestInterceptor> list = new ArrayList<RestInterceptor>(Arrays.asList(interceptors));
+        list.remove(interceptor);
+        interceptors = list.toArray(new RestInterceptor[list.size()]);
+    }
+
+    /**
+     * Gets the interceptors in the order they run.
+     */
+    public List<RestInterceptor> getInterceptors() {
+        return Collections.unmodifiableList(Arrays.asList(interceptors.clone()));
+    }
+
+    /**
+     * Adds a filter after the ones already registered.
+     *
+     * @param filter Filter to add
+     */
+    public synchronized void addFilter(RestFilter filter) {
+        insertFilter(filters.length, filter);
+    }
+
+    /**
+     * Removes a filter.
+     *
+     * @param filter Filter to remove
+     */
+    public synchronized void removeFilter(RestFilter filter) {
+        List<RestFilter> list = new ArrayList<RestFilter>(Arrays.asList(filters));
+        list.remove(filter);
+        filters = list.toArray(new RestFilter[list.size()]);
+    }
+
+    /**
+     * Gets the filters in the order they run.
+     */
+    public List<RestFilter> getFilters() {
+        return Collections.unmodifiableList(Arrays.asList(filters.clone()));
+    }
+
+    private void insertInterceptor(int index, RestInterceptor interceptor) {
+        List<RestInterceptor> list = new ArrayList<RestInterceptor>(Arrays.asList(interceptors));
+        list.add(index, interceptor);
+        interceptors = list.toArray(new RestInterceptor[list.size()]);
+    }
+
+    private void insertFilter(int index, RestFilter filter) {
+        List<RestFilter> list = new ArrayList<RestFilter>(Arrays.asList(filters));
+        list.add(index, filter);
+        filters = list.toArray(new RestFilter[list.size()]);
+    }
+
+    private int indexOfInterceptor(Class<?> type) {
+        for (int i = 0; i < interceptors.length; i++) {
+            if (type.isInstance(interceptors[i]))
+                return i;
+        }
+
+        return -1;
+    }
+
+    private int indexOfFilter(Class<?> type) {
+        for (int i = 0; i < filters.length; i++) {
+            if (type.isInstance(filters[i]))
+                return i;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Replaces the interceptor of the given type, or inserts it at the given
+     * position when there's none.
+     */
+    private void setInterceptor(Class<?> type, RestInterceptor interceptor, int index) {
+        int i = indexOfInterceptor(type);
+
+        if (i >= 0)
+            removeInterceptor(interceptors[i]);
+        if (interceptor != null)
+            insertInterceptor(i >= 0 ? i : index, interceptor);
+    }
+
+    /**
+     * Replaces the filter of the given type, or inserts it at the given
+     * position when there's none.
+     */
+    private void setFilter(Class<?> type, RestFilter filter, int index) {
+        int i = indexOfFilter(type);
+
+        if (i >= 0)
+            removeFilter(filters[i]);
+        if (filter != null)
+            insertFilter(i >= 0 ? i : index, filter);
+    }
+
+    /**
+     * Sets the policy used to retry failed requests. Without a policy
+     * failed requests are never retried. The policy is the first filter.
+     *
+     * @param retryPolicy Retry policy or null to disable retries
+     */
+    public synchronized void setRetryPolicy(RetryPolicy retryPolicy) {
+        setFilter(RetryPolicy.class, retryPolicy, 0);
+    }
+
+    /**
+     * Gets the policy used to retry failed requests.
+     */
+    public RetryPolicy getRetryPolicy() {
+        RestFilter[] fs = filters;
+        int i = indexOfFilter(RetryPolicy.class);
+        return i >= 0 ? (RetryPolicy)fs[i] : null;
+    }
+
+    /**
+     * Sets the policy used to hedge slow GET requests. The policy runs
+     * right after the retry policy, so each retry can be hedged.
+     *
+     * @param hedgePolicy Hedge policy or null to disable hedging
+     */
+    public synchronized void setHedgePolicy(HedgePolicy hedgePolicy) {
+        setFilter(HedgePolicy.class, hedgePolicy, indexOfFilter(RetryPolicy.class) + 1);
+    }
+
+    /**
+     * Gets the policy used to hedge slow GET requests.
+     */
+    public HedgePolicy getHedgePolicy() {
+        RestFilter[] fs = filters;
+        int i = indexOfFilter(HedgePolicy.class);
+        return i >= 0 ? (HedgePolicy)fs[i] : null;
+    }
+
+    /**
+     * Sets the limiter that every request, including retries and hedges,
+     * takes a permit from. The limiter runs right after the retry and hedge
+     * policies.
+     *
+     * @param rateLimiter Rate limiter, usually shared per host, or null
+     * @param mode What to do when no permit is available; asynchronous
+     * waits block on this client
+     */
+    public synchronized void setRateLimiter(RateLimiter rateLimiter, RateLimiter.Mode mode) {
+        setFilter(RateLimiter.Filter.class, rateLimiter != null ? rateLimiter.filter(mode) : null,
+                Math.max(indexOfFilter(RetryPolicy.class), indexOfFilter(HedgePolicy.class)) + 1);
+    }
+
+    /**
+     * Gets the limiter that requests take a permit from.
+     */
+    public RateLimiter getRateLimiter() {
+        RestFilter[] fs = filters;
+        int i = indexOfFilter(RateLimiter.Filter.class);
+        return i >= 0 ? ((RateLimiter.Filter)fs[i]).getLimiter() : null;
+    }
+
+    /**
+     * Sets the circuit breaker that fails requests fast while their endpoint
+     * family is failing. The breaker runs after the retry and hedge policies
+     * and the rate limiter, so it sees every attempt that reaches the server.
+     *
+     * @param circuitBreaker Circuit breaker or null to disable it
+     */
+    public synchronized void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        setFilter(CircuitBreaker.class, circuitBreaker, Math.max(indexOfFilter(RetryPolicy.class),
+                Math.max(indexOfFilter(HedgePolicy.class), indexOfFilter(RateLimiter.Filter.class))) + 1);
+    }
+
+    /**
+     * Gets the circuit breaker.
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        RestFilter[] fs = filters;
+        int i = indexOfFilter(CircuitBreaker.class);
+        return i >= 0 ? (CircuitBreaker)fs[i] : null;
+    }
+
+    /**
+     * Sets the cache that GET responses with an ETag or Last-Modified
+     * header are kept in. Cached results are revalidated with a conditional
+     * request and shared between callers, so they must not be modified.
+     * The cache runs right after request coalescing.
+     *
+     * @param responseCache Response cache or null to disable caching
+     */
+    public synchronized void setResponseCache(ResponseCache responseCache) {
+        setInterceptor(ResponseCache.class, responseCache, indexOfInterceptor(SingleFlight.class) + 1);
+    }
+
+    /**
+     * Gets the cache that GET responses are kept in.
+     */
+    public ResponseCache getResponseCache() {
+        RestInterceptor[] is = interceptors;
+        int i = indexOfInterceptor(ResponseCache.class);
+        return i >= 0 ? (ResponseCache)is[i] : null;
+    }
+
+    /**
+     * Sets the coalescer that makes concurrent identical GET requests share
+     * one round trip. Shared results must not be modified. The coalescer is
+     * the first interceptor.
+     *
+     * @param singleFlight Request coalescer or null to send every request
+     */
+    public synchronized void setSingleFlight(SingleFlight singleFlight) {
+        setInterceptor(SingleFlight.class, singleFlight, 0);
+    }
+
+    /**
+     * Gets the coalescer of concurrent identical GET requests.
+     */
+    public SingleFlight getSingleFlight() {
+        RestInterceptor[] is = interceptors;
+        int i = indexOfInterceptor(SingleFlight.class);
+        return i >= 0 ? (SingleFlight)is[i] : null;
+    }
+
     /**
      * Exposes the http client.
      *
-     * @return the httpClient property
+     * @return the Apache HTTP client or null when another transport is used
      */
     public HttpClient getHttpClient(){
-        return this.httpClient;
+        return transport instanceof ApacheTransport ? ((ApacheTransport)transport).getHttpClient() : null;
+    }
+
+    /**
+     * Gets the base URI of the remote REST service.
+     */
+    public URI getUri() {
+        return uri;
+    }
+
+    /**
+     * Gets the transport requests are sent with.
+     */
+    public HttpTransport getTransport() {
+        return transport;
     }
     
     /**
@@ -538,7 +1425,7 @@ public class RestClient {
      * @throws JiraException
      */
     public static Map<String, Object> JSONtoMap(Object object) throws JSONException, JiraException {
-        Map<String, Object> map = new HashMap<String, Object>();
+        CompactMap.Builder map = CompactMap.builder();
 
         if (object == null) {
         	return null;
@@ -570,7 +1457,7 @@ public class RestClient {
 	        }
         }
         
-        return map;
+        return map.build();
     }
 
     /**
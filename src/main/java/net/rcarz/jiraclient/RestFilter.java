@@ -0,0 +1,63 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.IOException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * Wraps the execution of an authenticated request.
+ *
+ * Filters run in the order they were added to the {@link RestClient}, after
+ * the interceptors and authentication, and see the raw response before it
+ * is decoded. A filter may send the request more than once, add headers to
+ * it, or answer it without calling the next filter.
+ */
+public interface RestFilter {
+
+    /**
+     * The rest of the filters for one request.
+     */
+    interface Chain {
+
+        /**
+         * Passes the request to the next filter, or executes it after the
+         * last one.
+         *
+         * @param req HTTP request
+         *
+         * @return the response
+         */
+        HttpResponse proceed(HttpRequestBase req) throws IOException, JiraException;
+    }
+
+    /**
+     * Executes one request.
+     *
+     * @param req HTTP request
+     * @param chain Rest of the filters
+     *
+     * @return the response; an unread entity must be consumed by whoever
+     * discards it
+     */
+    HttpResponse filter(HttpRequestBase req, Chain chain) throws IOException, JiraException;
+}
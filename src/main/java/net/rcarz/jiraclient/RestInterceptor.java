@@ -0,0 +1,76 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.IOException;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.auth.AuthenticationException;
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * Wraps the decoding of a response.
+ *
+ * Interceptors run in the order they were added to the {@link RestClient},
+ * before the request is authenticated and sent. Each one either calls
+ * {@link Chain#proceed()} to pass the request on or returns a result of its
+ * own, for example from a cache.
+ */
+public interface RestInterceptor {
+
+    /**
+     * The rest of the pipeline for one request.
+     */
+    interface Chain<T> {
+
+        /**
+         * Gets the request being sent.
+         */
+        HttpRequestBase getRequest();
+
+        /**
+         * Gets the handler that reads the result.
+         */
+        JsonHandler<T> getHandler();
+
+        /**
+         * Gets the response the result was read from, once
+         * {@link #proceed()} has returned.
+         */
+        HttpResponse getResponse();
+
+        /**
+         * Passes the request to the next interceptor, or authenticates, sends
+         * and decodes it after the last one.
+         *
+         * @return the decoded result
+         */
+        T proceed() throws RestException, IOException, AuthenticationException, JiraException;
+    }
+
+    /**
+     * Handles one request.
+     *
+     * @param chain Rest of the pipeline
+     *
+     * @return the decoded result
+     */
+    <T> T intercept(Chain<T> chain) throws RestException, IOException, AuthenticationException, JiraException;
+}
@@ -0,0 +1,394 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.net.ssl.SSLException;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.util.EntityUtils;
+import org.joda.time.format.ISODateTimeFormat;
+
+/**
+ * Decides whether and when a failed request is sent again.
+ *
+ * Only idempotent methods are retried unless others are added explicitly.
+ * Back-off is exponential with decorrelated jitter: each delay is a random
+ * value between the base delay and three times the previous delay, capped
+ * at the maximum delay. A Retry-After header or exhausted X-RateLimit
+ * headers take precedence over the computed delay. Requests sent with
+ * {@link CallOptions} fail right away instead of waiting past the deadline.
+ *
+ * Retries draw from a budget shared by all requests of the client. Each
+ * request adds a fraction of a token and each retry takes a whole token, so
+ * during an outage the retry rate is bounded by that fraction of the
+ * request rate instead of multiplying the load.
+ */
+public class RetryPolicy implements RestFilter {
+
+    /**
+     * Snapshot of the retry counters.
+     */
+    public static final class Stats {
+        public final long requests;
+        public final long attempts;
+        public final long retries;
+        public final long exhausted;
+        public final long budgetDenied;
+        public final double budget;
+
+        private Stats(long requests, long attempts, long retries, long exhausted, long budgetDenied, double budget) {
+            this.requests = requests;
+            this.attempts = attempts;
+            this.retries = retries;
+            this.exhausted = exhausted;
+            this.budgetDenied = budgetDenied;
+            this.budget = budget;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[requests: %d; attempts: %d; retries: %d; exhausted: %d; " +
+                    "budget denied: %d; budget: %.1f]", requests, attempts, retries, exhausted,
+                    budgetDenied, budget);
+        }
+    }
+
+    private static final Set<String> IDEMPOTENT_METHODS =
+            new HashSet<String>(Arrays.asList("GET", "HEAD", "OPTIONS", "PUT", "DELETE"));
+
+    private int maxAttempts = 4;
+    private long baseDelay = 250;
+    private long maxDelay = 30000;
+    private long maxRetryAfter = 60000;
+    private Set<Integer> statuses = new HashSet<Integer>(Arrays.asList(429, 502, 503, 504));
+    private Set<String> methods = new HashSet<String>(IDEMPOTENT_METHODS);
+    private double budgetRatio = 0.1;
+    private double budgetMax = 10;
+
+    private double budget = budgetMax;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong attempts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+    private final AtomicLong budgetDenied = new AtomicLong();
+
+    /**
+     * Sets the maximum number of attempts per request, including the first.
+     */
+    public RetryPolicy maxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    /**
+     * Sets the smallest and the largest back-off delay in milliseconds.
+     */
+    public RetryPolicy backoff(long baseDelay, long maxDelay) {
+        this.baseDelay = baseDelay;
+        this.maxDelay = maxDelay;
+        return this;
+    }
+
+    /**
+     * Sets the longest server-requested delay to wait for, in milliseconds.
+     * Requests asked to wait longer fail right away.
+     */
+    public RetryPolicy maxRetryAfter(long maxRetryAfter) {
+        this.maxRetryAfter = maxRetryAfter;
+        return this;
+    }
+
+    /**
+     * Sets the HTTP status codes that are retried.
+     */
+    public RetryPolicy retryStatuses(Integer... statuses) {
+        this.statuses = new HashSet<Integer>(Arrays.asList(statuses));
+        return this;
+    }
+
+    /**
+     * Allows retrying non-idempotent methods such as POST.
+     *
+     * @param methods HTTP methods to retry in addition to the idempotent ones
+     */
+    public RetryPolicy retryMethods(String... methods) {
+        for (String m : methods)
+            this.methods.add(m.toUpperCase(Locale.ROOT));
+
+        return this;
+    }
+
+    /**
+     * Sets the retry budget.
+     *
+     * @param ratio Tokens added per request, which bounds retries to this
+     * fraction of requests over time
+     * @param max Maximum number of tokens that can be saved up
+     */
+    public synchronized RetryPolicy budget(double ratio, double max) {
+        this.budgetRatio = ratio;
+        this.budgetMax = max;
+        this.budget = max;
+        return this;
+    }
+
+    /**
+     * Sends a request, and again as long as the policy allows.
+     */
+    public HttpResponse filter(HttpRequestBase req, Chain chain) throws IOException, JiraException {
+        if (!isRetryable(req.getMethod(), isRepeatable(req)))
+            return chain.proceed(req);
+
+        onRequest();
+        /* so the first delay is already spread over [base, 3 * base] */
+        long delay = baseDelay;
+
+        for (int attempt = 1;; attempt++) {
+            HttpResponse resp;
+
+            try {
+                resp = chain.proceed(req);
+            } catch (IOException ex) {
+                if (!isRetryableException(ex) || (delay = nextDelay(attempt, delay, null)) < 0)
+                    throw ex;
+
+                backOff(req, delay);
+                continue;
+            }
+
+            if (isRetryableStatus(resp.getStatusLine().getStatusCode()) &&
+                    (delay = nextDelay(attempt, delay, resp)) >= 0) {
+
+                EntityUtils.consume(resp.getEntity());
+                backOff(req, delay);
+                continue;
+            }
+
+            return resp;
+        }
+    }
+
+    private static boolean isRepeatable(HttpRequestBase req) {
+        if (!(req instanceof HttpEntityEnclosingRequestBase))
+            return true;
+
+        HttpEntity ent = ((HttpEntityEnclosingRequestBase)req).getEntity();
+        return ent == null || ent.isRepeatable();
+    }
+
+    private static void backOff(HttpRequestBase req, long delay) throws IOException, JiraException {
+        /* within the call deadline, if there is one */
+        CallOptions.pause(req, TimeUnit.MILLISECONDS.toNanos(delay),
+                "Interrupted while waiting to retry " + req.getURI());
+
+        req.reset();
+    }
+
+    /**
+     * Checks if requests with the given method may be retried.
+     *
+     * @param method HTTP method
+     * @param repeatable Whether the request entity can be sent again
+     */
+    public boolean isRetryable(String method, boolean repeatable) {
+        return repeatable && methods.contains(method);
+    }
+
+    /**
+     * Checks if a response status should be retried.
+     */
+    public boolean isRetryableStatus(int status) {
+        return statuses.contains(status);
+    }
+
+    /**
+     * Checks if a transport error should be retried.
+     */
+    public boolean isRetryableException(IOException ex) {
+        if (ex instanceof UnknownHostException || ex instanceof SSLException)
+            return false;
+
+        if (ex instanceof InterruptedIOException)
+            return ex instanceof SocketTimeoutException;
+
+        return true;
+    }
+
+    /**
+     * Records a new request and adds its share to the retry budget.
+     */
+    public void onRequest() {
+        requests.incrementAndGet();
+        attempts.incrementAndGet();
+
+        synchronized (this) {
+            budget = Math.min(budgetMax, budget + budgetRatio);
+        }
+    }
+
+    /**
+     * Computes the delay before the next attempt and takes a token from the
+     * budget.
+     *
+     * @param attempt Number of attempts made so far
+     * @param previousDelay Delay before the last attempt, the base delay for
+     * the first retry
+     * @param resp Failed response or null after a transport error
+     *
+     * @return the delay in milliseconds or -1 to stop retrying
+     */
+    public long nextDelay(int attempt, long previousDelay, HttpResponse resp) {
+        if (attempt >= maxAttempts) {
+            exhausted.incrementAndGet();
+            return -1;
+        }
+
+        long delay = resp != null ? serverDelay(resp, System.currentTimeMillis()) : -1;
+
+        if (delay > maxRetryAfter) {
+            exhausted.incrementAndGet();
+            return -1;
+        }
+
+        if (delay < 0)
+            delay = jitter(previousDelay);
+
+        synchronized (this) {
+            if (budget < 1) {
+                budgetDenied.incrementAndGet();
+                return -1;
+            }
+
+            budget -= 1;
+        }
+
+        retries.incrementAndGet();
+        attempts.incrementAndGet();
+
+        return delay;
+    }
+
+    /**
+     * Decorrelated jitter: a random delay between the base delay and three
+     * times the previous one.
+     */
+    long jitter(long previousDelay) {
+        long upper = Math.max(baseDelay, previousDelay * 3);
+        long delay = upper > baseDelay ? ThreadLocalRandom.current().nextLong(baseDelay, upper + 1) : baseDelay;
+
+        return Math.min(maxDelay, delay);
+    }
+
+    /**
+     * Gets the delay the server asked for.
+     *
+     * @param resp HTTP response
+     * @param now Current time in milliseconds
+     *
+     * @return the delay in milliseconds or -1 when the server didn't say
+     */
+    static long serverDelay(HttpResponse resp, long now) {
+        Header retryAfter = resp.getFirstHeader("Retry-After");
+
+        if (retryAfter != null && retryAfter.getValue() != null) {
+            String value = retryAfter.getValue().trim();
+
+            try {
+                return Math.max(0, Long.parseLong(value) * 1000);
+            } catch (NumberFormatException ex) {
+                Date date = DateUtils.parseDate(value);
+                if (date != null)
+                    return Math.max(0, date.getTime() - now);
+            }
+        }
+
+        Header remaining = resp.getFirstHeader("X-RateLimit-Remaining");
+        if (remaining == null || parseLong(remaining, -1) != 0)
+            return -1;
+
+        Header reset = resp.getFirstHeader("X-RateLimit-Reset");
+        if (reset != null && reset.getValue() != null) {
+            String value = reset.getValue().trim();
+
+            try {
+                long epoch = Long.parseLong(value);
+                /* either seconds or milliseconds since the epoch */
+                long millis = epoch < 100000000000L ? epoch * 1000 : epoch;
+                return Math.max(0, millis - now);
+            } catch (NumberFormatException ex) {
+                try {
+                    return Math.max(0, ISODateTimeFormat.dateTimeParser().parseMillis(value) - now);
+                } catch (IllegalArgumentException iex) {
+                    /* fall through */
+                }
+            }
+        }
+
+        /* Jira Data Center refills the bucket at FillRate tokens per interval */
+        long fillRate = parseLong(resp.getFirstHeader("X-RateLimit-FillRate"), -1);
+        long interval = parseLong(resp.getFirstHeader("X-RateLimit-Interval-Seconds"), -1);
+        if (fillRate > 0 && interval > 0)
+            return interval * 1000 / fillRate;
+
+        return -1;
+    }
+
+    private static long parseLong(Header header, long defaultValue) {
+        if (header == null || header.getValue() == null)
+            return defaultValue;
+
+        try {
+            return Long.parseLong(header.getValue().trim());
+        } catch (NumberFormatException ex) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Gets the retry counters and the remaining budget.
+     */
+    public Stats getStats() {
+        double b;
+        synchronized (this) {
+            b = budget;
+        }
+
+        return new Stats(requests.get(), attempts.get(), retries.get(), exhausted.get(), budgetDenied.get(), b);
+    }
+}
@@ -0,0 +1,280 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+
+package net.rcarz.jiraclient;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A precompiled endpoint path.
+ *
+ * Templates are relative to the base URI of the REST service, for example
+ * "rest/api/{rev}/issue/{issueKey}/transitions". The template is split into
+ * literal text and variables once. {rev} is replaced by the API revision in
+ * effect, everything else in braces is a variable filled in by position when
+ * the route is expanded. Variable values are percent-encoded as a single path
+ * segment.
+ */
+public final class Route {
+
+    public static final Route ISSUE = compile("rest/api/{rev}/issue/{issueKey}");
+    public static final Route ISSUE_TRANSITIONS = compile("rest/api/{rev}/issue/{issueKey}/transitions");
+    public static final Route ISSUE_EDITMETA = compile("rest/api/{rev}/issue/{issueKey}/editmeta");
+    public static final Route ISSUE_CREATEMETA = compile("rest/api/{rev}/issue/createmeta");
+    public static final Route SEARCH = compile("rest/api/{rev}/search");
+
+    private static final String REV = "rev";
+
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    /**
+     * Literal text with the API revision substituted, cached per revision.
+     */
+    private static final class Resolved {
+        final String rev;
+        final String[] literals;
+        final int length;
+
+        Resolved(String rev, String[] literals) {
+            this.rev = rev;
+            this.literals = literals;
+
+            int len = 0;
+            for (String l : literals)
+                len += l.length();
+            this.length = len;
+        }
+    }
+
+    private final String template;
+    private final String[] literals;
+    private final String[] names;
+    private volatile Resolved resolved = null;
+
+    private Route(String template, String[] literals, String[] names) {
+        this.template = template;
+        this.literals = literals;
+        this.names = names;
+    }
+
+    /**
+     * Compiles a route template.
+     *
+     * @param template Path relative to the base URI, with variables in braces
+     *
+     * @return the compiled route
+     *
+     * @throws IllegalArgumentException when a brace isn't closed or a variable has no name
+     */
+    public static Route compile(String template) {
+        List<String> literals = new ArrayList<String>();
+        List<String> names = new ArrayList<String>();
+        StringBuilder literal = new StringBuilder("/");
+
+        int start = template.startsWith("/") ? 1 : 0;
+        for (int i = start; i < template.length(); i++) {
+            char c = template.charAt(i);
+
+            if (c != '{') {
+                literal.append(c);
+                continue;
+            }
+
+            int end = template.indexOf('}', i);
+            if (end < 0)
+                throw new IllegalArgumentException("Unclosed variable in route " + template);
+
+            String name = template.substring(i + 1, end);
+            if (name.isEmpty())
+                throw new IllegalArgumentException("Unnamed variable in route " + template);
+
+            if (name.equals(REV)) {
+                /* kept in the literal and resolved later, the revision can change at runtime */
+                literal.append("{rev}");
+            } else {
+                literals.add(literal.toString());
+                names.add(name);
+                literal.setLength(0);
+            }
+
+            i = end;
+        }
+
+        literals.add(literal.toString());
+
+        return new Route(template, literals.toArray(new String[literals.size()]),
+                names.toArray(new String[names.size()]));
+    }
+
+    /**
+     * Gets the template this route was compiled from.
+     */
+    public String getTemplate() {
+        return template;
+    }
+
+    /**
+     * Gets the number of variables the route expects.
+     */
+    public int getArity() {
+        return names.length;
+    }
+
+    /**
+     * Expands the route against a base URI.
+     *
+     * @param base Base URI of the REST service, without a trailing slash
+     * @param params Query parameters, may be null
+     * @param vars Variable values in template order
+     *
+     * @return the full URI
+     *
+     * @throws IllegalArgumentException when the number of values is wrong or a value is null
+     */
+    public URI expand(String base, Map<String, String> params, String... vars) {
+        if (vars.length != names.length) {
+            throw new IllegalArgumentException("Route " + template + " expects " + names.length +
+                    " values, got " + vars.length);
+        }
+
+        Resolved r = resolve();
+        int capacity = base.length() + r.length + 16;
+        for (String v : vars)
+            capacity += v == null ? 0 : v.length();
+
+        StringBuilder sb = new StringBuilder(capacity);
+        sb.append(base);
+
+        for (int i = 0; i < vars.length; i++) {
+            if (vars[i] == null)
+                throw new IllegalArgumentException("Missing value for {" + names[i] + "} in route " + template);
+
+            sb.append(r.literals[i]);
+            appendSegment(sb, vars[i]);
+        }
+        sb.append(r.literals[vars.length]);
+
+        if (params != null && !params.isEmpty()) {
+            char sep = '?';
+            for (Map.Entry<String, String> ent : params.entrySet()) {
+                sb.append(sep);
+                appendQuery(sb, ent.getKey());
+                sb.append('=');
+                if (ent.getValue() != null)
+                    appendQuery(sb, ent.getValue());
+                sep = '&';
+            }
+        }
+
+        return URI.create(sb.toString());
+    }
+
+    private Resolved resolve() {
+        String rev = JiraClient.getApiRev();
+        Resolved r = resolved;
+
+        if (r == null || !r.rev.equals(rev)) {
+            String[] lits = new String[literals.length];
+            for (int i = 0; i < lits.length; i++)
+                lits[i] = literals[i].replace("{rev}", rev);
+
+            r = new Resolved(rev, lits);
+            resolved = r;
+        }
+
+        return r;
+    }
+
+    /**
+     * Appends a value as a path segment, percent-encoding what isn't allowed
+     * in a segment. The slash is encoded too so a value can't add segments.
+     */
+    static void appendSegment(StringBuilder sb, String value) {
+        int len = value.length();
+        int i = 0;
+        while (i < len && isSegmentSafe(value.charAt(i)))
+            i++;
+
+        if (i == len) {
+            sb.append(value);
+            return;
+        }
+
+        sb.append(value, 0, i);
+        for (byte b : value.substring(i).getBytes(StandardCharsets.UTF_8)) {
+            char c = (char)(b & 0xff);
+            if (isSegmentSafe(c))
+                sb.append(c);
+            else
+                sb.append('%').append(HEX[c >> 4]).append(HEX[c & 0xf]);
+        }
+    }
+
+    /**
+     * Appends a value form-encoded, the same as URIBuilder does for query
+     * parameters.
+     */
+    static void appendQuery(StringBuilder sb, String value) {
+        int len = value.length();
+        int i = 0;
+        while (i < len && isQuerySafe(value.charAt(i)))
+            i++;
+
+        if (i == len) {
+            sb.append(value);
+            return;
+        }
+
+        try {
+            sb.append(value, 0, i).append(URLEncoder.encode(value.substring(i), "UTF-8"));
+        } catch (UnsupportedEncodingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static boolean isSegmentSafe(char c) {
+        if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))
+            return true;
+
+        switch (c) {
+        case '-': case '.': case '_': case '~': case '!': case '$': case '&': case '\'':
+        case '(': case ')': case '*': case '+': case ',': case ';': case '=': case ':': case '@':
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private static boolean isQuerySafe(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') ||
+                c == '-' || c == '.' || c == '_' || c == '*';
+    }
+
+    @Override
+    public String toString() {
+        return template;
+    }
+}
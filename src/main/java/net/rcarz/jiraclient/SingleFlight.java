@@ -0,0 +1,201 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.http.auth.AuthenticationException;
+
+/**
+ * Collapses identical concurrent GET requests into one.
+ *
+ * The first caller for a URI sends the request; callers that ask for the
+ * same URI while it's in flight wait for it and receive the same result or
+ * exception. The shared result must be treated as read-only.
+ *
+ * Callers with {@link CallOptions} wait no longer than their own deadline
+ * and stop waiting when they are cancelled. When the first caller was
+ * cancelled or ran out of time, the callers waiting for it send the request
+ * again instead of failing with it.
+ */
+public class SingleFlight implements RestInterceptor {
+
+    /**
+     * A request to run on behalf of all waiters.
+     */
+    interface Call<T> {
+        T call() throws Exception;
+    }
+
+    private static final class Key {
+        final String uri;
+        final Object handler;
+
+        Key(String uri, Object handler) {
+            this.uri = uri;
+            this.handler = handler;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key))
+                return false;
+
+            Key k = (Key)o;
+            return k.handler == handler && k.uri.equals(uri);
+        }
+
+        @Override
+        public int hashCode() {
+            return uri.hashCode() * 31 + System.identityHashCode(handler);
+        }
+    }
+
+    /**
+     * Outcome of a request in flight and the options of its caller.
+     */
+    private static final class Flight extends CompletableFuture<Object> {
+        final CallOptions options;
+
+        Flight(CallOptions options) {
+            this.options = options;
+        }
+
+        /**
+         * Checks whether the request failed because its caller gave up.
+         */
+        boolean isAbandoned(Throwable cause) {
+            return cause instanceof CallCancelledException || (options != null && options.isDone());
+        }
+    }
+
+    private final ConcurrentMap<Key, Flight> inflight = new ConcurrentHashMap<Key, Flight>();
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Shares the outcome of GET requests with identical concurrent ones.
+     */
+    public <T> T intercept(final Chain<T> chain)
+            throws RestException, IOException, AuthenticationException, JiraException {
+
+        if (!"GET".equals(chain.getRequest().getMethod()))
+            return chain.proceed();
+
+        try {
+            return execute(chain.getRequest().getURI(), chain.getHandler(),
+                    CallOptions.forRequest(chain.getRequest()), () -> chain.proceed());
+        } catch (RestException | IOException | AuthenticationException | JiraException | RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new JiraException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Runs the call unless an identical one is in flight, in which case its
+     * outcome is shared.
+     *
+     * @param uri Request URI
+     * @param handler Handler the result is read with
+     * @param options Options of the caller or null
+     * @param call Sends the request
+     *
+     * @return the result
+     *
+     * @throws Exception what the call threw
+     */
+    @SuppressWarnings("unchecked")
+    <T> T execute(URI uri, JsonHandler<T> handler, CallOptions options, Call<T> call) throws Exception {
+        Key key = new Key(uri.toString(), handler);
+        Flight flight = new Flight(options);
+        Flight leader;
+
+        while ((leader = inflight.putIfAbsent(key, flight)) != null) {
+            coalesced.incrementAndGet();
+
+            try {
+                return (T)(options != null ? options.await(leader) : leader.get());
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+
+                /* the leader's caller gave up, not the server: ask again */
+                if (leader.isAbandoned(cause))
+                    continue;
+
+                if (cause instanceof Error)
+                    throw (Error)cause;
+                throw (Exception)cause;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for " + uri);
+            }
+        }
+
+        requests.incrementAndGet();
+
+        try {
+            T result = call.call();
+            inflight.remove(key, flight);
+            flight.complete(result);
+            return result;
+        } catch (Throwable ex) {
+            /* removed first, so waiters that retry don't find it again */
+            inflight.remove(key, flight);
+            flight.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Gets the number of requests that were sent.
+     */
+    public long getRequests() {
+        return requests.get();
+    }
+
+    /**
+     * Gets the number of calls that shared an in-flight request.
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    /**
+     * Gets the number of requests in flight.
+     */
+    public int getInFlight() {
+        return inflight.size();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[requests: %d; coalesced: %d; in flight: %d]",
+                getRequests(), getCoalesced(), getInFlight());
+    }
+}
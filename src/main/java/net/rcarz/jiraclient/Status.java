@@ -19,6 +19,7 @@
 
 package net.rcarz.jiraclient;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -54,6 +55,20 @@ public class Status extends Resource {
         iconUrl = Field.getString(data.get("iconUrl"));
     }
 
+    @Override
+    boolean bind(String property, JsonReader reader, JsonBinder binder) throws IOException, JiraException {
+        switch (property) {
+        case "description":
+            description = binder.readString(reader);
+            return true;
+        case "iconUrl":
+            iconUrl = binder.readString(reader);
+            return true;
+        default:
+            return super.bind(property, reader, binder);
+        }
+    }
+
     public String getDescription() {
         return description;
     }
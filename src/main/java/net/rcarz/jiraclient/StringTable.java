@@ -0,0 +1,174 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded table that lets decoders share one instance of equal strings.
+ *
+ * Search responses repeat the same names, keys and URLs for every issue.
+ * Strings read through the table are looked up by their characters before
+ * a new instance is created, so a page of issues keeps one copy of each
+ * status name or avatar URL. The table has a fixed number of slots and
+ * never grows: a string that hashes to a taken slot replaces the old one.
+ * Strings longer than a limit, such as descriptions and comment bodies,
+ * are never stored.
+ *
+ * A table is safe to share between threads and is usually set on one
+ * client with {@link RestClient#setStringTable(StringTable)}.
+ */
+public class StringTable {
+
+    /**
+     * Default length of the longest string that is stored.
+     */
+    public static final int DEFAULT_MAX_LENGTH = 256;
+
+    private final AtomicReferenceArray<String> slots;
+    private final int mask;
+    private final int maxLength;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Creates a string table.
+     *
+     * @param capacity Maximum number of strings, rounded up to a power of two
+     */
+    public StringTable(int capacity) {
+        this(capacity, DEFAULT_MAX_LENGTH);
+    }
+
+    /**
+     * Creates a string table.
+     *
+     * @param capacity Maximum number of strings, rounded up to a power of two
+     * @param maxLength Length of the longest string that is stored
+     */
+    public StringTable(int capacity, int maxLength) {
+        if (capacity < 1 || capacity > 1 << 30)
+            throw new IllegalArgumentException("capacity must be between 1 and 2^30");
+        if (maxLength < 0)
+            throw new IllegalArgumentException("maxLength must not be negative");
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity)
+            size <<= 1;
+
+        this.slots = new AtomicReferenceArray<String>(size);
+        this.mask = size - 1;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Gets a string with the given characters, shared when an equal string
+     * is in the table.
+     *
+     * @param chars Characters of the string
+     * @param offset Index of the first character
+     * @param length Number of characters
+     *
+     * @return a string with the given characters
+     */
+    public String get(char[] chars, int offset, int length) {
+        if (length > maxLength) {
+            misses.increment();
+            return new String(chars, offset, length);
+        }
+
+        int h = 0;
+        for (int i = offset, end = offset + length; i < end; i++)
+            h = 31 * h + chars[i];
+
+        int slot = (h ^ (h >>> 16)) & mask;
+        String s = slots.get(slot);
+
+        if (s != null && s.length() == length && matches(s, chars, offset)) {
+            hits.increment();
+            return s;
+        }
+
+        s = new String(chars, offset, length);
+        slots.lazySet(slot, s);
+        misses.increment();
+        return s;
+    }
+
+    private static boolean matches(String s, char[] chars, int offset) {
+        for (int i = 0, n = s.length(); i < n; i++) {
+            if (s.charAt(i) != chars[offset + i])
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes all strings.
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++)
+            slots.set(i, null);
+    }
+
+    /**
+     * Gets the number of slots.
+     */
+    public int capacity() {
+        return slots.length();
+    }
+
+    /**
+     * Gets the number of strings in the table.
+     */
+    public int size() {
+        int size = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null)
+                size++;
+        }
+
+        return size;
+    }
+
+    /**
+     * Gets the number of lookups that returned a shared string.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups that created a new string, including ones
+     * too long to store.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("[size: %d; capacity: %d; hits: %d; misses: %d]",
+                size(), capacity(), getHits(), getMisses());
+    }
+}
@@ -23,19 +23,31 @@ import java.util.Map;
 
 import net.sf.json.JSONObject;
 
+import org.apache.http.Header;
 import org.apache.http.HttpRequest;
+import org.apache.http.message.BasicHeader;
 
 /**
- * Basic HTTP authentication credentials.
+ * JIRA session credentials.
+ *
+ * With a username and password the client logs in once, on its first
+ * request, and sends the session cookie with every request after that. The
+ * session is shared by all threads; when it expires the first request to
+ * get a 401 logs in again and the others wait for it and reuse the new
+ * session.
  */
 public class TokenCredentials implements ICredentials {
 
+    private static final String SESSION_COOKIE = "JSESSIONID";
+
     private String username;
     private String password;
-    private String token;
+    private volatile String token;
+    private volatile Header cookie;
+    private final Object lock = new Object();
 
     /**
-     * Creates new basic HTTP credentials.
+     * Creates new session credentials that log in when first used.
      *
      * @param username
      * @param password
@@ -45,19 +57,33 @@ public class TokenCredentials implements ICredentials {
         this.password = password;
     }
 
+    /**
+     * Creates new credentials for an existing session.
+     *
+     * @param jsessionId Session ID
+     */
     public TokenCredentials(String jsessionId) {
-        token = jsessionId;
+        setSession(SESSION_COOKIE, jsessionId);
+    }
+
+    private void setSession(String name, String value) {
+        token = value;
+        cookie = value != null ? new BasicHeader("Cookie", name + "=" + value + ";") : null;
     }
 
     /**
-     * Sets the Authorization header for the given request.
+     * Sets the session cookie for the given request.
      *
      * @param req HTTP request to authenticate
      */
     public void authenticate(HttpRequest req) {
-        if (token != null) {
-            req.addHeader("Cookie", "JSESSIONID="+token+";");
-        }
+        /* the login request itself goes without the stale session */
+        if (Thread.holdsLock(lock))
+            return;
+
+        Header c = cookie;
+        if (c != null)
+            req.addHeader(c);
     }
 
     /**
@@ -69,26 +95,70 @@ public class TokenCredentials implements ICredentials {
         return username;
     }
 
+    /**
+     * Logs in unless there's a session already.
+     */
     public void initialize(RestClient client) throws JiraException {
-        if (token == null) {
-            try {
-            	JSONObject req = new JSONObject();
-                req.put("username", username);
-                req.put("password", password);
-                Map<String, Object> result = client.post(req, JiraClient.getAuthUri(), "session");
-                System.out.println(result.toString());
-            } catch (Exception ex) {
-                throw new JiraException("Failed to login", ex);
-            }
+        if (token != null || username == null)
+            return;
+
+        synchronized (lock) {
+            if (token == null)
+                login(client);
+        }
+    }
+
+    /**
+     * Logs in again if the rejected request was sent with the current
+     * session, or just asks for it to be resent if another thread has
+     * logged in since.
+     */
+    @Override
+    public boolean reauthenticate(RestClient client, HttpRequest req) throws JiraException {
+        if (username == null || Thread.holdsLock(lock))
+            return false;
+
+        Header sent = req.getFirstHeader("Cookie");
+
+        synchronized (lock) {
+            Header current = cookie;
+            if (current != null && (sent == null || !current.getValue().equals(sent.getValue())))
+                return true;
+
+            login(client);
+            return true;
+        }
+    }
+
+    private void login(RestClient client) throws JiraException {
+        try {
+            JSONObject req = new JSONObject();
+            req.put("username", username);
+            req.put("password", password);
+            Map<String, Object> result = client.post(req, JiraClient.getAuthUri(), "session");
+
+            Map<?, ?> session = result != null ? (Map<?, ?>)result.get("session") : null;
+            if (session == null || session.get("value") == null)
+                throw new JiraException("Login response contains no session");
+
+            Object name = session.get("name");
+            setSession(name != null ? name.toString() : SESSION_COOKIE, session.get("value").toString());
+        } catch (JiraException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new JiraException("Failed to login", ex);
         }
     }
 
     public void logout(RestClient client) throws JiraException {
         if (token != null) {
            try {
-                client.delete(JiraClient.getAuthUri() + "session");
+                client.delete(JiraClient.getAuthUri(), "session");
             } catch (Exception e) {
                 throw new JiraException("Failed to logout", e);
+            } finally {
+                if (username != null)
+                    setSession(null, null);
             }
         }
     }
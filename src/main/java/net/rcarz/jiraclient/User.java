@@ -19,6 +19,7 @@
 
 package net.rcarz.jiraclient;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -58,6 +59,31 @@ public class User extends Resource {
         email = getEmailFromMap(data);
     }
 
+    @Override
+    boolean bind(String property, JsonReader reader, JsonBinder binder) throws IOException, JiraException {
+        switch (property) {
+        case "active":
+            active = binder.readBoolean(reader);
+            return true;
+        case "avatarUrls":
+            avatarUrls = Field.getMap(binder.readValue(reader));
+            return true;
+        case "displayName":
+            displayName = binder.readString(reader);
+            return true;
+        case "email":
+            email = binder.readString(reader);
+            return true;
+        case "emailAddress":
+            String address = binder.readString(reader);
+            if (email == null)
+                email = address;
+            return true;
+        default:
+            return super.bind(property, reader, binder);
+        }
+    }
+
     /**
      * API changes email address might be represented as either "email" or "emailAddress"
      *
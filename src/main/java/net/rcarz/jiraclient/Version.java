@@ -19,6 +19,7 @@
 
 package net.rcarz.jiraclient;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -58,6 +59,26 @@ public class Version extends Resource {
         description = Field.getString(data.get("description"));
     }
 
+    @Override
+    boolean bind(String property, JsonReader reader, JsonBinder binder) throws IOException, JiraException {
+        switch (property) {
+        case "archived":
+            archived = binder.readBoolean(reader);
+            return true;
+        case "released":
+            released = binder.readBoolean(reader);
+            return true;
+        case "releaseDate":
+            releaseDate = binder.readString(reader);
+            return true;
+        case "description":
+            description = binder.readString(reader);
+            return true;
+        default:
+            return super.bind(property, reader, binder);
+        }
+    }
+
     public boolean isArchived() {
         return archived;
     }
@@ -19,6 +19,7 @@
 
 package net.rcarz.jiraclient;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -54,6 +55,20 @@ public class Votes extends Resource {
         hasVoted = Field.getBoolean(data.get("hasVoted"));
     }
 
+    @Override
+    boolean bind(String property, JsonReader reader, JsonBinder binder) throws IOException, JiraException {
+        switch (property) {
+        case "votes":
+            votes = binder.readInteger(reader);
+            return true;
+        case "hasVoted":
+            hasVoted = binder.readBoolean(reader);
+            return true;
+        default:
+            return super.bind(property, reader, binder);
+        }
+    }
+
     @Override
     public String toString() {
         return Integer.toString(getVotes());
@@ -19,6 +19,7 @@
 
 package net.rcarz.jiraclient;
 
+import java.io.IOException;
 import java.util.Map;
 
 /**
@@ -54,6 +55,20 @@ public class Watches extends Resource {
         isWatching = Field.getBoolean(data.get("isWatching"));
     }
 
+    @Override
+    boolean bind(String property, JsonReader reader, JsonBinder binder) throws IOException, JiraException {
+        switch (property) {
+        case "watchCount":
+            watchCount = binder.readInteger(reader);
+            return true;
+        case "isWatching":
+            isWatching = binder.readBoolean(reader);
+            return true;
+        default:
+            return super.bind(property, reader, binder);
+        }
+    }
+
     @Override
     public String toString() {
         return Integer.toString(getWatchCount());
@@ -31,8 +31,8 @@ public class WorkLog extends Resource {
 	
     private User author = null;
     private String comment = null;
-    private Date created = null;
-    private Date updated = null;
+    private long created = DateParser.NONE;
+    private long updated = DateParser.NONE;
     private User updatedAuthor = null;
     private int timeSpentSeconds = 0;
 
@@ -57,15 +57,15 @@ public class WorkLog extends Resource {
     protected void deserialise(Map<String, Object> data) throws JiraException {
         author = Field.getResource(User.class, data.get("author"));
         comment = Field.getString(data.get("comment"));
-        created = Field.getDate(data.get("created"));
-        updated = Field.getDate(data.get("updated"));
+        created = Field.getDateMillis(data.get("created"));
+        updated = Field.getDateMillis(data.get("updated"));
         updatedAuthor = Field.getResource(User.class, data.get("updatedAuthor"));
         timeSpentSeconds = Field.getInteger(data.get("timeSpentSeconds"));
     }
 
     @Override
     public String toString() {
-        return created + " by " + author;
+        return getCreatedDate() + " by " + author;
     }
 
     public User getAuthor() {
@@ -77,7 +77,7 @@ public class WorkLog extends Resource {
     }
 
     public Date getCreatedDate() {
-        return created;
+        return DateParser.toDate(created);
     }
 
     public User getUpdateAuthor() {
@@ -85,7 +85,7 @@ public class WorkLog extends Resource {
     }
 
     public Date getUpdatedDate() {
-        return updated;
+        return DateParser.toDate(updated);
     }
 
     public int getTimeSpentSeconds() {
@@ -24,10 +24,12 @@ import java.util.List;
 import java.util.Map;
 
 import net.rcarz.jiraclient.AField;
+import net.rcarz.jiraclient.DateParser;
+import net.rcarz.jiraclient.Field;
 import net.rcarz.jiraclient.JiraException;
+import net.rcarz.jiraclient.ResourceFactories;
 
 import org.joda.time.DateTime;
-import org.joda.time.format.DateTimeFormat;
 
 /**
  * Utility functions for translating between JSON and fields.
@@ -37,6 +39,19 @@ public final class GreenHopperField extends AField {
     public static final String DATE_TIME_FORMAT = "d/MMM/yy h:m a";
     public static final String NO_DATE = "None";
 
+    static {
+        ResourceFactories.register(Epic.class, Epic::new);
+        ResourceFactories.register(EpicStats.class, EpicStats::new);
+        ResourceFactories.register(EstimateStatistic.class, EstimateStatistic::new);
+        ResourceFactories.register(EstimateSum.class, EstimateSum::new);
+        ResourceFactories.register(GreenHopperIssue.class, GreenHopperIssue::new);
+        ResourceFactories.register(Marker.class, Marker::new);
+        ResourceFactories.register(RapidView.class, RapidView::new);
+        ResourceFactories.register(RapidViewProject.class, RapidViewProject::new);
+        ResourceFactories.register(Sprint.class, Sprint::new);
+        ResourceFactories.register(SprintIssue.class, SprintIssue::new);
+    }
+
     private GreenHopperField() { }
 
     /**
@@ -47,10 +62,32 @@ public final class GreenHopperField extends AField {
      * @return the date-time or null
      */
     public static DateTime getDateTime(Object dt) {
+        return toDateTime(getDateTimeMillis(dt));
+    }
+
+    /**
+     * Gets a date-time from the given object.
+     *
+     * @param dt Date-Time as a string
+     *
+     * @return milliseconds since the epoch or {@link DateParser#NONE}
+     */
+    public static long getDateTimeMillis(Object dt) {
         if(dt == null || ((String)dt).equals(NO_DATE)){
-            return null;
+            return DateParser.NONE;
         }
-        return DateTime.parse((String)dt, DateTimeFormat.forPattern(DATE_TIME_FORMAT));
+        return DateParser.parseGreenHopperDateTime((String)dt);
+    }
+
+    /**
+     * Converts parsed milliseconds to a date-time in the default zone.
+     *
+     * @param millis Milliseconds since the epoch or {@link DateParser#NONE}
+     *
+     * @return a new date-time or null
+     */
+    public static DateTime toDateTime(long millis) {
+        return millis != DateParser.NONE ? new DateTime(millis) : null;
     }
 
     /**
@@ -64,34 +101,7 @@ public final class GreenHopperField extends AField {
      * @throws JiraException 
      */
     public static <T extends GreenHopperResource> T getResource(Class<T> type, Object data) throws JiraException {
-
-        T result = null;
-        
-        if (data instanceof Map) {	
-            if (type == Epic.class) {
-                result = (T)new Epic((Map<String, Object>) data);
-            } else if (type == EpicStats.class) {
-                result = (T)new EpicStats((Map<String, Object>) data);
-            } else if (type == EstimateStatistic.class) {
-                result = (T)new EstimateStatistic((Map<String, Object>) data);
-            } else if (type == EstimateSum.class) {
-                result = (T)new EstimateSum((Map<String, Object>) data);
-            } else if (type == GreenHopperIssue.class) {
-                result = (T)new GreenHopperIssue((Map<String, Object>) data);
-            } else if (type == Marker.class) {
-                result = (T)new Marker((Map<String, Object>) data);
-            } else if (type == RapidView.class) {
-                result = (T)new RapidView((Map<String, Object>) data);
-            } else if (type == RapidViewProject.class) {
-                result = (T)new RapidViewProject((Map<String, Object>) data);
-            } else if (type == Sprint.class) {
-                result = (T)new Sprint((Map<String, Object>) data);
-            } else if (type == SprintIssue.class) {
-                result = (T)new SprintIssue((Map<String, Object>) data);
-            }
-        }
-
-        return result;
+        return Field.getResource(type, data);
     }
 
     /**
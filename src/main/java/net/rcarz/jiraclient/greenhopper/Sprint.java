@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+import net.rcarz.jiraclient.DateParser;
 import net.rcarz.jiraclient.JiraException;
 
 import org.joda.time.DateTime;
@@ -35,9 +36,9 @@ public class Sprint extends GreenHopperResource {
 	public static final String URI = RESOURCE_URI + "sprintquery";
 	
 	private boolean closed = false;
-    private DateTime startDate = null;
-    private DateTime endDate = null;
-    private DateTime completeDate = null;
+    private long startDate = DateParser.NONE;
+    private long endDate = DateParser.NONE;
+    private long completeDate = DateParser.NONE;
     private List<Integer> issuesIds = null;
     private List<SprintIssue> issues = null;
 
@@ -61,9 +62,9 @@ public class Sprint extends GreenHopperResource {
     @Override
 	protected void deserialise(Map<String, Object> data) {
     	closed = data.containsValue("CLOSED");
-        startDate = GreenHopperField.getDateTime(data.get("startDate"));
-        endDate = GreenHopperField.getDateTime(data.get("endDate"));
-        completeDate = GreenHopperField.getDateTime(data.get("completeDate"));
+        startDate = GreenHopperField.getDateTimeMillis(data.get("startDate"));
+        endDate = GreenHopperField.getDateTimeMillis(data.get("endDate"));
+        completeDate = GreenHopperField.getDateTimeMillis(data.get("completeDate"));
         issuesIds = GreenHopperField.getIntegerArray(data.get("issuesIds"));
 	}
 
@@ -72,15 +73,15 @@ public class Sprint extends GreenHopperResource {
     }
 
     public DateTime getStartDate() {
-        return startDate;
+        return GreenHopperField.toDateTime(startDate);
     }
 
     public DateTime getEndDate() {
-        return endDate;
+        return GreenHopperField.toDateTime(endDate);
     }
 
     public DateTime getCompleteDate() {
-        return completeDate;
+        return GreenHopperField.toDateTime(completeDate);
     }
 
     public List<SprintIssue> getIssues(){
@@ -0,0 +1,212 @@
+/**
+ * jira-client - a simple JIRA REST client
+ * Copyright (c) 2013 Bob Carroll (bob.carroll@alum.rit.edu)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301  USA
+ */
+
+package net.rcarz.jiraclient;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpEntityEnclosingRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.ProtocolVersion;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.impl.execchain.RequestAbortedException;
+import org.apache.http.entity.InputStreamEntity;
+import org.apache.http.impl.EnglishReasonPhraseCatalog;
+import org.apache.http.message.BasicHttpResponse;
+
+/**
+ * Sends requests with the JDK HTTP client.
+ *
+ * The JDK client negotiates HTTP/2 where the server supports it and then
+ * multiplexes concurrent requests as streams over a single connection per
+ * host, instead of opening one connection per request in flight.
+ *
+ * The socket timeout of a request's {@link RequestConfig}, as set by call
+ * options, replaces the request timeout. The JDK client only takes a connect
+ * timeout when it is built, so the per-request connect timeout is not
+ * applied. {@link HttpRequestBase#abort()} cancels the exchange, or closes
+ * the response body once the headers have arrived.
+ *
+ * Requires Java 11 or later.
+ */
+public class JdkHttpTransport implements HttpTransport {
+
+    /**
+     * Headers the JDK client sets itself and refuses to take from callers.
+     */
+    private static final Set<String> RESTRICTED_HEADERS = new HashSet<String>(Arrays.asList(
+            "connection", "content-length", "expect", "host", "upgrade"));
+
+    private static final ProtocolVersion HTTP_2 = new ProtocolVersion("HTTP", 2, 0);
+
+    private final HttpClient httpClient;
+    private final Duration requestTimeout;
+
+    /**
+     * Creates a transport that prefers HTTP/2.
+     *
+     * @param connectTimeout Connect timeout in milliseconds, zero for none
+     * @param requestTimeout Timeout for receiving the response headers in
+     * milliseconds, zero for none
+     */
+    public JdkHttpTransport(int connectTimeout, int requestTimeout) {
+        this(newHttpClient(connectTimeout), requestTimeout);
+    }
+
+    /**
+     * Creates a transport on top of a JDK HTTP client.
+     *
+     * @param httpClient Underlying HTTP client to use
+     * @param requestTimeout Timeout for receiving the response headers in
+     * milliseconds, zero for none
+     */
+    public JdkHttpTransport(HttpClient httpClient, int requestTimeout) {
+        this.httpClient = httpClient;
+        this.requestTimeout = requestTimeout > 0 ? Duration.ofMillis(requestTimeout) : null;
+    }
+
+    private static HttpClient newHttpClient(int connectTimeout) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL);
+
+        if (connectTimeout > 0)
+            builder.connectTimeout(Duration.ofMillis(connectTimeout));
+
+        return builder.build();
+    }
+
+    public org.apache.http.HttpResponse execute(HttpRequestBase req) throws IOException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(req.getURI());
+
+        RequestConfig config = req.getConfig();
+        if (config != null && config.getSocketTimeout() > 0)
+            builder.timeout(Duration.ofMillis(config.getSocketTimeout()));
+        else if (requestTimeout != null)
+            builder.timeout(requestTimeout);
+
+        for (Header h : req.getAllHeaders()) {
+            if (!RESTRICTED_HEADERS.contains(h.getName().toLowerCase(Locale.ROOT)))
+                builder.header(h.getName(), h.getValue());
+        }
+
+        HttpEntity ent = req instanceof HttpEntityEnclosingRequest
+                ? ((HttpEntityEnclosingRequest)req).getEntity() : null;
+
+        if (ent == null) {
+            builder.method(req.getMethod(), HttpRequest.BodyPublishers.noBody());
+        } else {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            ent.writeTo(body);
+            builder.method(req.getMethod(), HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()));
+
+            if (ent.getContentType() != null && !req.containsHeader("Content-Type"))
+                builder.header("Content-Type", ent.getContentType().getValue());
+        }
+
+        final CompletableFuture<HttpResponse<InputStream>> pending =
+                httpClient.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofInputStream());
+
+        /* cancels right away when the request was aborted already */
+        req.setCancellable(() -> pending.cancel(true));
+
+        final HttpResponse<InputStream> resp;
+        try {
+            resp = pending.get();
+        } catch (CancellationException ex) {
+            throw new RequestAbortedException("Request aborted");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException)
+                throw (IOException)ex.getCause();
+
+            throw new IOException("Failed to send " + req.getURI(), ex.getCause());
+        } catch (InterruptedException ex) {
+            pending.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + req.getURI());
+        }
+
+        /* from here on aborting ends the body */
+        req.setCancellable(() -> {
+            try {
+                resp.body().close();
+            } catch (IOException ex) {
+                /* aborting anyway */
+            }
+            return true;
+        });
+
+        return toHttpResponse(resp);
+    }
+
+    private static org.apache.http.HttpResponse toHttpResponse(HttpResponse<InputStream> resp) {
+        ProtocolVersion version = resp.version() == HttpClient.Version.HTTP_2 ? HTTP_2 : HttpVersion.HTTP_1_1;
+        BasicHttpResponse result = new BasicHttpResponse(version, resp.statusCode(),
+                EnglishReasonPhraseCatalog.INSTANCE.getReason(resp.statusCode(), Locale.ENGLISH));
+
+        for (Map.Entry<String, List<String>> header : resp.headers().map().entrySet()) {
+            if (header.getKey().startsWith(":"))
+                continue;
+
+            for (String value : header.getValue())
+                result.addHeader(header.getKey(), value);
+        }
+
+        long length = resp.headers().firstValueAsLong("Content-Length").orElse(-1);
+        InputStreamEntity ent = new InputStreamEntity(resp.body(), length);
+        resp.headers().firstValue("Content-Type").ifPresent(ent::setContentType);
+        resp.headers().firstValue("Content-Encoding").ifPresent(ent::setContentEncoding);
+        result.setEntity(ent);
+
+        return result;
+    }
+
+    /**
+     * Gets the underlying HTTP client.
+     */
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    /**
+     * Does nothing; the JDK client releases its connections when it is
+     * garbage collected.
+     */
+    public void close() {
+    }
+}
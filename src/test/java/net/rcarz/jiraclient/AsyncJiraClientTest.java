@@ -0,0 +1,52 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AsyncJiraClientTest {
+
+    private static AsyncJiraClient client(ScriptedHttpAsyncClient http) {
+        return new AsyncJiraClient(new AsyncRestClient(http, null, URI.create("http://jira"), Runnable::run), null);
+    }
+
+    @Test
+    public void testGetIssue() throws Exception {
+        ScriptedHttpAsyncClient http = new ScriptedHttpAsyncClient().respond(200, Utils.getTestIssueJson());
+
+        Issue issue = client(http).getIssue("FILTA-43").get(5, TimeUnit.SECONDS);
+
+        assertEquals("FILTA-43", issue.getKey());
+        assertTrue(http.requests.get(0).getRequestLine().getUri().contains("/issue/FILTA-43"));
+    }
+
+    @Test
+    public void testFailureIsWrapped() throws Exception {
+        ScriptedHttpAsyncClient http = new ScriptedHttpAsyncClient().respond(404, "{\"errorMessages\": [\"Gone\"]}");
+
+        try {
+            client(http).getIssue("TEST-2").get(5, TimeUnit.SECONDS);
+            fail("ExecutionException expected");
+        } catch (ExecutionException ex) {
+            JiraException jex = (JiraException)ex.getCause();
+            assertEquals("Failed to retrieve issue TEST-2", jex.getMessage());
+            assertEquals(404, ((RestException)jex.getCause()).getHttpStatusCode());
+        }
+    }
+
+    @Test
+    public void testCancelAbortsExchange() throws Exception {
+        ScriptedHttpAsyncClient http = new ScriptedHttpAsyncClient().hang();
+        CompletableFuture<Issue> issue = client(http).getIssue("TEST-1");
+
+        assertTrue(issue.cancel(true));
+        assertTrue(http.exchanges.get(0).isCancelled());
+    }
+}
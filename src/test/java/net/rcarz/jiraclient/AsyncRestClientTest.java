@@ -0,0 +1,129 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AsyncRestClientTest {
+
+    private static final String JSON = "{\"key\": \"TEST-1\", \"fields\": {\"summary\": \"Async\"}}";
+
+    private static String session(String value) {
+        return "{\"session\": {\"name\": \"JSESSIONID\", \"value\": \"" + value + "\"}}";
+    }
+
+    private static AsyncRestClient client(ScriptedHttpAsyncClient http) {
+        /* decode on the calling thread */
+        return new AsyncRestClient(http, null, URI.create("http://jira"), Runnable::run);
+    }
+
+    @Test
+    public void testCompletion() throws Exception {
+        ScriptedHttpAsyncClient http = new ScriptedHttpAsyncClient().respond(200, JSON);
+        AsyncRestClient client = client(http);
+
+        Map<String, Object> map = client.get(client.buildURI(null, "issue", "TEST-1")).get(5, TimeUnit.SECONDS);
+
+        assertTrue(http.isRunning());
+        assertEquals("TEST-1", map.get("key"));
+        assertEquals("application/json", http.requests.get(0).getFirstHeader("Accept").getValue());
+    }
+
+    @Test
+    public void testErrorStatus() throws Exception {
+        ScriptedHttpAsyncClient http = new ScriptedHttpAsyncClient().respond(404, "{\"errorMessages\": [\"Gone\"]}");
+
+        try {
+            client(http).get(URI.create("http://jira/rest/api/2/issue/TEST-2")).get(5, TimeUnit.SECONDS);
+            fail("ExecutionException expected");
+        } catch (ExecutionException ex) {
+            assertEquals(404, ((RestException)ex.getCause()).getHttpStatusCode());
+        }
+    }
+
+    @Test
+    public void testTransportFailure() throws Exception {
+        IOException refused = new ConnectException("Connection refused");
+        ScriptedHttpAsyncClient http = new ScriptedHttpAsyncClient().fail(refused);
+
+        try {
+            client(http).get(URI.create("http://jira/rest/api/2/issue/TEST-1")).get(5, TimeUnit.SECONDS);
+            fail("ExecutionException expected");
+        } catch (ExecutionException ex) {
+            assertEquals(refused, ex.getCause());
+        }
+    }
+
+    @Test
+    public void testCancelAbortsExchange() throws Exception {
+        ScriptedHttpAsyncClient http = new ScriptedHttpAsyncClient().hang();
+        CompletableFuture<Map<String, Object>> result =
+                client(http).get(URI.create("http://jira/rest/api/2/issue/TEST-1"));
+
+        assertEquals(1, http.exchanges.size());
+        assertTrue(result.cancel(true));
+        assertTrue(http.exchanges.get(0).isCancelled());
+    }
+
+    @Test
+    public void testSessionLogin() throws Exception {
+        ScriptedHttpClient login = new ScriptedHttpClient().respond(200, session("abc"));
+        ScriptedHttpAsyncClient http = new ScriptedHttpAsyncClient().respond(200, JSON).respond(200, JSON);
+        TokenCredentials creds = new TokenCredentials("batman", "pow! pow!");
+        AsyncRestClient client = new AsyncRestClient(http, creds, URI.create("http://jira"), Runnable::run,
+                new RestClient(login, creds, URI.create("http://jira")));
+
+        client.get(URI.create("http://jira/rest/api/2/issue/TEST-1")).get(5, TimeUnit.SECONDS);
+        client.get(URI.create("http://jira/rest/api/2/issue/TEST-1")).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, login.requests.size());
+        assertEquals("/rest/auth/latest/session", login.requests.get(0).getRequestLine().getUri()
+                .replaceFirst("^http://jira", ""));
+        assertEquals("JSESSIONID=abc;", http.requests.get(0).getFirstHeader("Cookie").getValue());
+        assertEquals("JSESSIONID=abc;", http.requests.get(1).getFirstHeader("Cookie").getValue());
+    }
+
+    @Test
+    public void testSessionRenewedOnce() throws Exception {
+        ScriptedHttpClient login = new ScriptedHttpClient()
+                .respond(200, session("abc")).respond(200, session("def")).respond(200, session("ghi"));
+        ScriptedHttpAsyncClient http = new ScriptedHttpAsyncClient()
+                .respond(401, null).respond(200, JSON)
+                .respond(401, null).respond(401, null);
+        TokenCredentials creds = new TokenCredentials("batman", "pow! pow!");
+        AsyncRestClient client = new AsyncRestClient(http, creds, URI.create("http://jira"), Runnable::run,
+                new RestClient(login, creds, URI.create("http://jira")));
+
+        Map<String, Object> map = client.get(URI.create("http://jira/rest/api/2/issue/TEST-1")).get(5, TimeUnit.SECONDS);
+        assertEquals("TEST-1", map.get("key"));
+        assertEquals(2, login.requests.size());
+        assertEquals("JSESSIONID=def;", http.requests.get(1).getFirstHeader("Cookie").getValue());
+
+        /* a second 401 after logging in again fails the request */
+        try {
+            client.get(URI.create("http://jira/rest/api/2/issue/TEST-1")).get(5, TimeUnit.SECONDS);
+            fail("ExecutionException expected");
+        } catch (ExecutionException ex) {
+            assertEquals(401, ((RestException)ex.getCause()).getHttpStatusCode());
+        }
+
+        assertEquals(3, login.requests.size());
+        assertEquals(4, http.requests.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSessionCredentialsNeedLoginClient() {
+        new AsyncRestClient(new ScriptedHttpAsyncClient(), new TokenCredentials("batman", "pow! pow!"),
+                URI.create("http://jira"), Runnable::run);
+    }
+}
@@ -0,0 +1,233 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class CallOptionsTest {
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private final AtomicInteger pages = new AtomicInteger();
+    private JiraClient jira;
+
+    @Before
+    public void start() throws IOException {
+        executor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                String body;
+
+                try {
+                    if (exchange.getRequestURI().getPath().endsWith("/SLOW")) {
+                        Thread.sleep(5000);
+                        body = "{}";
+                    } else {
+                        /* a change log that takes one 100 ms page per entry */
+                        pages.incrementAndGet();
+                        Thread.sleep(100);
+                        body = "{\"changelog\": {\"total\": 100, \"histories\": [{\"id\": \"1\", \"items\": []}]}}";
+                    }
+                } catch (InterruptedException ex) {
+                    return;
+                }
+
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, bytes.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(bytes);
+                out.close();
+            }
+        });
+        server.start();
+
+        jira = new JiraClientBuilder("http://127.0.0.1:" + server.getAddress().getPort()).build();
+    }
+
+    @After
+    public void stop() {
+        jira.close();
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static CallCancelledException cancelled(JiraException ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof CallCancelledException)
+                return (CallCancelledException)t;
+        }
+
+        throw new AssertionError("Not cancelled: " + ex);
+    }
+
+    @Test
+    public void testDeadline() throws Exception {
+        long start = System.currentTimeMillis();
+
+        try {
+            jira.withOptions(new CallOptions().timeout(200)).getIssue("SLOW", null, null);
+            fail("JiraException expected");
+        } catch (JiraException ex) {
+            assertTrue(cancelled(ex).isDeadlineExceeded());
+        }
+
+        assertTrue(System.currentTimeMillis() - start < 2000);
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        final CallOptions options = new CallOptions();
+        long start = System.currentTimeMillis();
+
+        new Thread() {
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ex) {
+                }
+                options.cancel();
+            }
+        }.start();
+
+        try {
+            jira.withOptions(options).getIssue("SLOW", null, null);
+            fail("JiraException expected");
+        } catch (JiraException ex) {
+            assertFalse(cancelled(ex).isDeadlineExceeded());
+        }
+
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertTrue(options.isCancelled());
+    }
+
+    @Test
+    public void testDeadlineSharedAcrossPages() throws Exception {
+        Issue issue = new Issue(Utils.getTestIssue());
+        long start = System.currentTimeMillis();
+
+        try {
+            jira.withOptions(new CallOptions().timeout(450)).getIssueChangeLog(issue);
+            fail("JiraException expected");
+        } catch (JiraException ex) {
+            assertTrue(cancelled(ex).isDeadlineExceeded());
+        }
+
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        assertTrue(String.valueOf(pages.get()), pages.get() >= 2 && pages.get() <= 6);
+    }
+
+    @Test
+    public void testDeadlineTaskCancelledOnCompletion() throws Exception {
+        CallOptions options = new CallOptions().timeout(60000);
+
+        jira.withOptions(options).restclient.get("issue", "FAST");
+
+        assertFalse(options.isWatched());
+        assertFalse(options.isDone());
+    }
+
+    @Test
+    public void testBackOffWithinDeadline() throws Exception {
+        ScriptedHttpClient http = new ScriptedHttpClient()
+                .respond(503, "busy", "Retry-After", "30")
+                .respond(200, "{}");
+        RestClient client = new RestClient(http, URI.create("http://jira"));
+        client.setRetryPolicy(new RetryPolicy());
+        long start = System.currentTimeMillis();
+
+        try {
+            client.withOptions(new CallOptions().timeout(1000)).get("issue", "TEST-1");
+            fail("CallCancelledException expected");
+        } catch (CallCancelledException ex) {
+            assertTrue(ex.isDeadlineExceeded());
+        }
+
+        assertTrue(System.currentTimeMillis() - start < 500);
+        assertEquals(1, http.requests.size());
+    }
+
+    @Test
+    public void testCancelDuringBackOff() throws Exception {
+        ScriptedHttpClient http = new ScriptedHttpClient()
+                .respond(503, "busy", "Retry-After", "5")
+                .respond(200, "{}");
+        RestClient client = new RestClient(http, URI.create("http://jira"));
+        client.setRetryPolicy(new RetryPolicy());
+        final CallOptions options = new CallOptions();
+        long start = System.currentTimeMillis();
+
+        new Thread() {
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ex) {
+                }
+                options.cancel();
+            }
+        }.start();
+
+        try {
+            client.withOptions(options).get("issue", "TEST-1");
+            fail("CallCancelledException expected");
+        } catch (CallCancelledException ex) {
+            assertFalse(ex.isDeadlineExceeded());
+        }
+
+        assertTrue(System.currentTimeMillis() - start < 2000);
+    }
+
+    @Test
+    public void testRateLimitWithinDeadline() throws Exception {
+        ScriptedHttpClient http = new ScriptedHttpClient().respond(200, "{}").respond(200, "{}");
+        RestClient client = new RestClient(http, URI.create("http://jira"));
+        RateLimiter limiter = new RateLimiter(0.1, 1);
+        client.setRateLimiter(limiter, RateLimiter.Mode.BLOCKING);
+        RestClient view = client.withOptions(new CallOptions().timeout(1000));
+        long start = System.currentTimeMillis();
+
+        view.get("issue", "TEST-1");
+
+        try {
+            view.get("issue", "TEST-2");
+            fail("CallCancelledException expected");
+        } catch (CallCancelledException ex) {
+            assertTrue(ex.isDeadlineExceeded());
+        }
+
+        assertTrue(System.currentTimeMillis() - start < 500);
+        assertEquals(1, http.requests.size());
+        assertEquals(1, limiter.getPermits());
+    }
+
+    @Test
+    public void testReadTimeout() throws Exception {
+        try {
+            jira.withOptions(new CallOptions().readTimeout(100)).getIssue("SLOW", null, null);
+            fail("JiraException expected");
+        } catch (JiraException ex) {
+            assertTrue(String.valueOf(ex.getCause()), ex.getCause() instanceof SocketTimeoutException);
+        }
+    }
+}
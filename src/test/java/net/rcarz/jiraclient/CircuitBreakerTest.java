@@ -0,0 +1,141 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.rcarz.jiraclient.CircuitBreaker.Family;
+import net.rcarz.jiraclient.CircuitBreaker.State;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+public class CircuitBreakerTest {
+
+    /**
+     * Fails search requests with the current search status and answers
+     * everything else.
+     */
+    private static class Transport implements HttpTransport {
+        volatile int searchStatus = 503;
+        final AtomicInteger calls = new AtomicInteger();
+
+        public HttpResponse execute(HttpRequestBase req) throws IOException {
+            calls.incrementAndGet();
+            int status = req.getURI().getPath().endsWith("/search") ? searchStatus : 200;
+            HttpResponse resp = new BasicHttpResponse(HttpVersion.HTTP_1_1, status, "Status " + status);
+            resp.setEntity(new StringEntity("{\"key\": \"TEST-1\", \"issues\": []}", "UTF-8"));
+            return resp;
+        }
+
+        public void close() {
+        }
+    }
+
+    private static void search(RestClient client) throws Exception {
+        client.get(client.buildURI(Route.SEARCH, null));
+    }
+
+    @Test
+    public void testFamilies() {
+        URI base = URI.create("http://jira/ctx/");
+
+        assertEquals(Family.SEARCH, Family.of("GET", base.resolve("rest/api/2/search?jql=x")));
+        assertEquals(Family.SEARCH, Family.of("POST", base.resolve("rest/api/latest/search")));
+        assertEquals(Family.ISSUE_READ, Family.of("GET", base.resolve("rest/api/2/issue/TEST-1/transitions")));
+        assertEquals(Family.ISSUE_WRITE, Family.of("PUT", base.resolve("rest/api/2/issue/TEST-1")));
+        assertEquals(Family.ATTACHMENTS, Family.of("POST", base.resolve("rest/api/2/issue/TEST-1/attachments")));
+        assertEquals(Family.ATTACHMENTS, Family.of("GET", base.resolve("rest/api/2/attachment/10000")));
+        assertEquals(Family.GREENHOPPER, Family.of("GET", base.resolve("rest/greenhopper/1.0/rapidviews/list")));
+        assertEquals(Family.OTHER, Family.of("GET", base.resolve("rest/api/2/issuetype")));
+        assertEquals(Family.OTHER, Family.of("GET", base.resolve("rest/api/2/user/search")));
+    }
+
+    @Test
+    public void testOpensPerFamily() throws Exception {
+        Transport transport = new Transport();
+        RestClient client = new RestClient(transport, null, URI.create("http://jira"));
+        CircuitBreaker breaker = new CircuitBreaker().minimumCalls(4).failureRate(0.5);
+        client.setCircuitBreaker(breaker);
+
+        for (int i = 0; i < 4; i++) {
+            try {
+                search(client);
+                fail("RestException expected");
+            } catch (RestException ex) {
+                assertEquals(503, ex.getHttpStatusCode());
+            }
+        }
+
+        assertEquals(State.OPEN, breaker.getState(Family.SEARCH));
+
+        try {
+            search(client);
+            fail("CircuitOpenException expected");
+        } catch (CircuitOpenException ex) {
+            assertEquals(Family.SEARCH, ex.getFamily());
+        }
+
+        assertEquals(4, transport.calls.get());
+        assertEquals(1, breaker.getStats(Family.SEARCH).rejected);
+
+        /* other families are unaffected */
+        assertEquals("TEST-1", client.get("rest/api/2/issue", "TEST-1").get("key"));
+        assertEquals(State.CLOSED, breaker.getState(Family.ISSUE_READ));
+    }
+
+    @Test
+    public void testHalfOpenProbes() throws Exception {
+        Transport transport = new Transport();
+        RestClient client = new RestClient(transport, null, URI.create("http://jira"));
+        CircuitBreaker breaker = new CircuitBreaker().minimumCalls(2).openDuration(50).halfOpenCalls(2);
+        client.setCircuitBreaker(breaker);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                search(client);
+            } catch (RestException ex) {
+            }
+        }
+        assertEquals(State.OPEN, breaker.getState(Family.SEARCH));
+
+        /* a failed probe opens the circuit again */
+        Thread.sleep(60);
+        assertEquals(State.HALF_OPEN, breaker.getState(Family.SEARCH));
+        try {
+            search(client);
+        } catch (RestException ex) {
+        }
+        assertEquals(State.OPEN, breaker.getState(Family.SEARCH));
+        assertEquals(2, breaker.getStats(Family.SEARCH).opened);
+
+        Thread.sleep(60);
+        transport.searchStatus = 200;
+        search(client);
+        assertEquals(State.HALF_OPEN, breaker.getState(Family.SEARCH));
+        search(client);
+        assertEquals(State.CLOSED, breaker.getState(Family.SEARCH));
+    }
+
+    @Test
+    public void testSlowCallsOpen() throws Exception {
+        RestClient client = new RestClient(new Transport(), null, URI.create("http://jira"));
+        CircuitBreaker breaker = new CircuitBreaker().minimumCalls(3).slowCalls(0, 1.0);
+        client.setCircuitBreaker(breaker);
+        client.setRetryPolicy(new RetryPolicy());
+
+        for (int i = 0; i < 3; i++)
+            client.get("rest/api/2/issue", "TEST-1");
+
+        assertEquals(State.OPEN, breaker.getState(Family.ISSUE_READ));
+        assertEquals(3, breaker.getStats(Family.ISSUE_READ).slowCalls);
+        assertEquals(breaker, client.getFilters().get(1));
+    }
+}
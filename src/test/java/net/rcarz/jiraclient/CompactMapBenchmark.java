@@ -0,0 +1,74 @@
+package net.rcarz.jiraclient;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import net.rcarz.jiraclient.JiraClient.SearchResult;
+
+/**
+ * Measures the heap retained by decoded search pages with hash maps, with
+ * compact maps, with shared strings and with shared reference resources.
+ *
+ * Run with: java -cp target/classes:target/test-classes:... \
+ *     net.rcarz.jiraclient.CompactMapBenchmark [issues] [pages]
+ */
+public class CompactMapBenchmark {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private static long usedHeap() throws InterruptedException {
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    private static long measure(String label, byte[] page, int issues, int pages, JsonDecoder decoder)
+            throws Exception {
+
+        List<SearchResult> held = new ArrayList<SearchResult>(pages);
+        long before = usedHeap();
+
+        for (int i = 0; i < pages; i++) {
+            held.add(JiraClient.toSearchResult(decoder.decodeMap(
+                    Utils.read(page))));
+        }
+
+        long perIssue = (usedHeap() - before) / ((long)pages * issues);
+        if (held.get(pages - 1).issues.size() != issues)
+            throw new IllegalStateException(label + " decoded the wrong number of issues");
+
+        System.out.printf("%-10s %10d retained bytes/issue%n", label, perIssue);
+        return perIssue;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int issues = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int pages = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        byte[] page = Utils.getTestSearchPage(issues);
+
+        System.out.printf("%d issues per page, %d pages held%n", issues, pages);
+
+        long hashed = measure("hash maps", page, issues, pages, new JsonDecoder(false));
+        long compact = measure("compact", page, issues, pages, new JsonDecoder());
+
+        StringTable strings = new StringTable(4096);
+        long deduped = measure("strings", page, issues, pages, new JsonDecoder(true, strings));
+
+        ResourceRegistry registry = new ResourceRegistry();
+        ResourceRegistry.setDefault(registry);
+        long shared = measure("resources", page, issues, pages, new JsonDecoder(true, strings));
+        ResourceRegistry.setDefault(null);
+
+        System.out.printf("compact maps retain %.1f%% of hash maps (%d shapes)%n",
+                100.0 * compact / hashed, CompactMap.getShapeCount());
+        System.out.printf("shared strings retain %.1f%% of hash maps %s%n",
+                100.0 * deduped / hashed, strings);
+        System.out.printf("shared resources retain %.1f%% of hash maps %s%n",
+                100.0 * shared / hashed, registry);
+    }
+}
@@ -0,0 +1,101 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class CompactMapTest {
+
+    @Test
+    public void testMapContract() {
+        Map<String, Object> map = CompactMap.builder()
+                .put("name", "Bug")
+                .put("id", "1")
+                .put("avatarId", null)
+                .build();
+
+        Map<String, Object> expected = new HashMap<String, Object>();
+        expected.put("name", "Bug");
+        expected.put("id", "1");
+        expected.put("avatarId", null);
+
+        assertEquals(3, map.size());
+        assertEquals("Bug", map.get("name"));
+        assertNull(map.get("avatarId"));
+        assertTrue(map.containsKey("avatarId"));
+        assertFalse(map.containsKey("self"));
+        assertEquals(expected, map);
+        assertEquals(map, expected);
+        assertEquals(expected.hashCode(), map.hashCode());
+        assertEquals(Arrays.asList("name", "id", "avatarId"), Arrays.asList(map.keySet().toArray()));
+    }
+
+    @Test
+    public void testShapesAreShared() throws Exception {
+        Map<String, Object> decoded = new JsonDecoder().decodeMap(
+                "{\"data\": [{\"id\": \"1\", \"name\": \"Bug\"}, {\"id\": \"2\", \"name\": \"Task\"}]}");
+
+        List<?> data = (List<?>)decoded.get("data");
+        CompactMap first = (CompactMap)data.get(0);
+        CompactMap second = (CompactMap)data.get(1);
+
+        assertTrue(first.getShape() == second.getShape());
+        assertEquals("Task", second.get("name"));
+    }
+
+    @Test
+    public void testWideAndDuplicateKeys() {
+        CompactMap.Builder builder = CompactMap.builder();
+        for (int i = 0; i < 20; i++)
+            builder.put("customfield_" + i, i);
+
+        Map<String, Object> wide = builder.build();
+        assertEquals(19, wide.get("customfield_19"));
+        assertNull(wide.get("customfield_20"));
+
+        Map<String, Object> dup = CompactMap.builder().put("a", 1).put("b", 2).put("a", 3).build();
+        assertEquals(2, dup.size());
+        assertEquals(3, dup.get("a"));
+    }
+
+    @Test
+    public void testFullShapeCache() {
+        Map<String, Object> cached = CompactMap.builder().put("name", "Bug").put("id", "1").build();
+
+        CompactMap.maxShapes = CompactMap.getShapeCount();
+        try {
+            Map<String, Object> known = CompactMap.builder().put("name", "Task").put("id", "2").build();
+            Map<String, Object> unknown = CompactMap.builder()
+                    .put("name", "Epic").put("shapeCacheIsFull", true).put("name", "Story").build();
+
+            assertTrue(((CompactMap)known).getShape() == ((CompactMap)cached).getShape());
+            assertFalse(unknown instanceof CompactMap);
+            assertEquals(Arrays.asList("name", "shapeCacheIsFull"), Arrays.asList(unknown.keySet().toArray()));
+            assertEquals("Story", unknown.get("name"));
+            assertEquals(CompactMap.maxShapes, CompactMap.getShapeCount());
+        } finally {
+            CompactMap.maxShapes = CompactMap.MAX_SHAPES;
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testReadOnly() throws Exception {
+        new JsonDecoder().decodeMap("{\"key\": \"TEST-1\"}").put("key", "TEST-2");
+    }
+
+    @Test
+    public void testHashMapDecoder() throws Exception {
+        Map<String, Object> map = new JsonDecoder(false).decodeMap("{\"key\": \"TEST-1\"}");
+
+        map.put("key", "TEST-2");
+        assertEquals("TEST-2", map.get("key"));
+    }
+}
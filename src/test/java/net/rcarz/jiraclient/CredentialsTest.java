@@ -0,0 +1,87 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.auth.BasicScheme;
+import org.junit.Test;
+
+public class CredentialsTest {
+
+    private static final String SESSION = "{\"session\": {\"name\": \"JSESSIONID\", \"value\": \"%s\"}}";
+
+    @Test
+    public void testBasicHeaderMatchesBasicScheme() throws Exception {
+        HttpGet expected = new HttpGet("http://jira");
+        expected.addHeader(new BasicScheme().authenticate(
+                new UsernamePasswordCredentials("batman", "pow! pow!"), expected, null));
+
+        HttpGet actual = new HttpGet("http://jira");
+        new BasicCredentials("batman", "pow! pow!").authenticate(actual);
+
+        assertEquals(expected.getFirstHeader("Authorization").getValue(),
+                actual.getFirstHeader("Authorization").getValue());
+    }
+
+    @Test
+    public void testSessionIsReused() throws Exception {
+        ScriptedHttpClient http = new ScriptedHttpClient()
+                .respond(200, String.format(SESSION, "abc"))
+                .respond(200, "{}")
+                .respond(200, "{}");
+        RestClient client = new RestClient(http, new TokenCredentials("batman", "pow! pow!"), URI.create("http://jira"));
+
+        client.get("myself");
+        client.get("myself");
+
+        assertEquals(3, http.requests.size());
+        assertTrue(http.requests.get(0).getRequestLine().getUri().endsWith("/session"));
+        assertNull(http.header(0, "Cookie"));
+        assertEquals("JSESSIONID=abc;", http.header(1, "Cookie"));
+        assertEquals("JSESSIONID=abc;", http.header(2, "Cookie"));
+    }
+
+    @Test
+    public void testLogsInAgainOn401() throws Exception {
+        ScriptedHttpClient http = new ScriptedHttpClient()
+                .respond(200, String.format(SESSION, "abc"))
+                .respond(401, "")
+                .respond(200, String.format(SESSION, "def"))
+                .respond(200, "{\"key\": \"TEST-1\"}");
+        TokenCredentials creds = new TokenCredentials("batman", "pow! pow!");
+        RestClient client = new RestClient(http, creds, URI.create("http://jira"));
+
+        assertEquals("TEST-1", client.get("issue", "TEST-1").get("key"));
+        assertEquals("JSESSIONID=abc;", http.header(1, "Cookie"));
+        assertNull(http.header(2, "Cookie"));
+        assertEquals("JSESSIONID=def;", http.header(3, "Cookie"));
+
+        /* a request that failed with the old session is resent without logging in again */
+        HttpGet stale = new HttpGet("http://jira/rest/api/2/myself");
+        stale.addHeader("Cookie", "JSESSIONID=abc;");
+        assertTrue(creds.reauthenticate(client, stale));
+        assertEquals(4, http.requests.size());
+        assertEquals("def", creds.getToken());
+    }
+
+    @Test
+    public void testExistingSession() throws Exception {
+        ScriptedHttpClient http = new ScriptedHttpClient().respond(401, "");
+        RestClient client = new RestClient(http, new TokenCredentials("abc"), URI.create("http://jira"));
+
+        try {
+            client.get("myself");
+        } catch (RestException ex) {
+            assertEquals(401, ex.getHttpStatusCode());
+            assertEquals("JSESSIONID=abc;", http.header(0, "Cookie"));
+            return;
+        }
+
+        throw new AssertionError("RestException expected");
+    }
+}
@@ -0,0 +1,96 @@
+package net.rcarz.jiraclient;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares reading custom fields with Issue.getField and with compiled
+ * accessors, over several passes of the same issues. The first compiled
+ * pass, which decodes each issue, is reported separately.
+ *
+ * Run with: java -cp target/classes:target/test-classes:... \
+ *     net.rcarz.jiraclient.CustomFieldSchemaBenchmark [issues] [passes]
+ */
+public class CustomFieldSchemaBenchmark {
+
+    private interface Reader {
+        double read(Issue issue);
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+    private static volatile double sink;
+
+    private static void measure(String label, List<Issue> issues, int passes, Reader reader) {
+        long tid = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(tid);
+        long start = System.nanoTime();
+
+        for (int p = 0; p < passes; p++) {
+            for (Issue issue : issues)
+                sink += reader.read(issue);
+        }
+
+        long reads = (long)passes * issues.size();
+        long elapsed = System.nanoTime() - start;
+        long bytes = THREADS.getThreadAllocatedBytes(tid) - before;
+
+        System.out.printf("%-10s %8d bytes/read %8.1f ns/read%n", label, bytes / reads, (double)elapsed / reads);
+    }
+
+    private static List<Issue> decode(int count) throws Exception {
+        Map<String, Object> data = new JsonDecoder().decodeMap(CustomFieldSchemaTest.ISSUE);
+        List<Issue> issues = new ArrayList<Issue>(count);
+
+        for (int i = 0; i < count; i++)
+            issues.add(new Issue(data));
+
+        return issues;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        int passes = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        final CustomFieldSchema schema = CustomFieldSchema.compile(CustomFieldSchemaTest.metadata());
+        final CustomFieldSchema.NumberField points = schema.numberField("customfield_1");
+        final CustomFieldSchema.DateField due = schema.dateField("customfield_3");
+        final CustomFieldSchema.OptionField level = schema.optionField("customfield_4");
+
+        Reader maps = new Reader() {
+            public double read(Issue issue) {
+                Object p = issue.getField("customfield_1");
+                Date d = Field.getDateTime(issue.getField("customfield_3"));
+                Object o = issue.getField("customfield_4");
+                String v = o instanceof Map ? (String)((Map<?, ?>)o).get("value") : null;
+
+                return (p instanceof Number ? ((Number)p).doubleValue() : 0) +
+                        (d != null ? d.getTime() % 7 : 0) + (v != null ? v.length() : 0);
+            }
+        };
+
+        Reader typed = new Reader() {
+            public double read(Issue issue) {
+                String v = level.getOptionValue(issue);
+                return points.getDouble(issue) + due.getMillis(issue) % 7 + (v != null ? v.length() : 0);
+            }
+        };
+
+        /* warm up on a separate set, so the measured issues are decoded on the first pass */
+        List<Issue> warm = decode(10000);
+        for (int i = 0; i < 5; i++) {
+            measure("warm-up", warm, 1, maps);
+            measure("warm-up", decode(10000), 1, typed);
+        }
+
+        List<Issue> issues = decode(count);
+        System.out.printf("%d issues, %d passes%n", count, passes);
+        measure("getField", issues, passes, maps);
+        measure("decode", issues, 1, typed);
+        measure("compiled", issues, passes, typed);
+    }
+}
@@ -0,0 +1,111 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.rcarz.jiraclient.Field.Meta;
+
+import org.junit.Test;
+
+public class CustomFieldSchemaTest {
+
+    static final String ISSUE = "{\"key\": \"TEST-1\", \"fields\": {" +
+            "\"summary\": \"Typed\"," +
+            "\"customfield_1\": 5.0," +
+            "\"customfield_2\": \"2014-01-15\"," +
+            "\"customfield_3\": \"2014-01-15T10:30:00.000+0000\"," +
+            "\"customfield_4\": {\"self\": \"http://jira/rest/api/2/customFieldOption/1\", \"value\": \"High\", \"id\": \"1\"}," +
+            "\"customfield_5\": [{\"value\": \"A\", \"id\": \"2\"}, {\"value\": \"B\", \"id\": \"3\"}]," +
+            "\"customfield_6\": [\"red\", \"blue\"]," +
+            "\"customfield_7\": \"plain text\"," +
+            "\"customfield_8\": {\"anything\": true}}}";
+
+    static Map<String, Meta> metadata() throws Exception {
+        Map<String, Meta> metadata = new HashMap<String, Meta>();
+        String[][] fields = {
+            { "customfield_1", "number", null },
+            { "customfield_2", "date", null },
+            { "customfield_3", "datetime", null },
+            { "customfield_4", "option", null },
+            { "customfield_5", "array", "option" },
+            { "customfield_6", "array", "string" },
+            { "customfield_7", "string", null },
+            { "customfield_8", "any", null },
+            { "customfield_9", "number", null },
+        };
+
+        for (String[] field : fields) {
+            Map<String, Object> schema = new HashMap<String, Object>();
+            schema.put("type", field[1]);
+            schema.put("items", field[2]);
+            schema.put("custom", "com.atlassian.jira.plugin.system.customfieldtypes:" + field[1]);
+            schema.put("customId", Integer.valueOf(field[0].substring(12)));
+
+            Map<String, Object> data = new HashMap<String, Object>();
+            data.put("name", "Field " + field[0]);
+            data.put("schema", schema);
+
+            metadata.put(field[0], new Meta(field[0], data));
+        }
+
+        Map<String, Object> summary = new HashMap<String, Object>();
+        summary.put("type", "string");
+        summary.put("system", "summary");
+        metadata.put("summary", new Meta("summary", new HashMap<String, Object>(
+                Collections.singletonMap("schema", (Object)summary))));
+
+        return metadata;
+    }
+
+    @Test
+    public void testTypedAccessors() throws Exception {
+        CustomFieldSchema schema = CustomFieldSchema.compile(metadata());
+        Issue issue = new Issue(new JsonDecoder().decodeMap(ISSUE));
+
+        assertEquals(9, schema.getFields().size());
+        assertNull(schema.getField("summary"));
+
+        assertEquals(5.0, schema.numberField("customfield_1").getDouble(issue), 0.0);
+        assertEquals(5L, schema.numberField("customfield_1").getLong(issue, -1));
+        assertFalse(schema.numberField("customfield_9").isSet(issue));
+        assertNull(schema.numberField("customfield_9").get(issue));
+
+        assertEquals(Field.getDate("2014-01-15"), schema.dateField("customfield_2").get(issue));
+        assertEquals(1389781800000L, schema.dateField("customfield_3").getMillis(issue));
+
+        assertEquals("High", schema.optionField("customfield_4").getOptionValue(issue));
+        assertEquals("B", schema.resourceListField("customfield_5", CustomFieldOption.class)
+                .get(issue).get(1).getValue());
+        assertEquals(Arrays.asList("red", "blue"), schema.getField("customfield_6").get(issue));
+        assertEquals("plain text", schema.stringField("customfield_7").get(issue));
+        assertTrue(schema.getField("customfield_8").get(issue) instanceof Map);
+    }
+
+    @Test
+    public void testDecodedOncePerIssue() throws Exception {
+        CustomFieldSchema schema = CustomFieldSchema.compile(metadata());
+        Issue issue = new JsonBinder().issueHandler.read(new JsonReader(new StringReader(ISSUE)));
+
+        CustomFieldSchema.Values values = schema.read(issue);
+        assertSame(values, schema.read(issue));
+        assertEquals(5.0, schema.numberField("customfield_1").getDouble(issue), 0.0);
+
+        CustomFieldSchema other = CustomFieldSchema.compile(metadata());
+        assertEquals(5.0, other.numberField("customfield_1").getDouble(issue), 0.0);
+        assertSame(schema.getField("customfield_4").get(issue), schema.getField("customfield_4").get(issue));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongAccessorType() throws Exception {
+        CustomFieldSchema.compile(metadata()).dateField("customfield_1");
+    }
+}
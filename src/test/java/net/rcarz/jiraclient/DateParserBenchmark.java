@@ -0,0 +1,84 @@
+package net.rcarz.jiraclient;
+
+import java.lang.management.ManagementFactory;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+
+import net.rcarz.jiraclient.greenhopper.GreenHopperField;
+
+import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormat;
+
+/**
+ * Compares the bytes allocated per timestamp by the formatter based parsing
+ * and by DateParser.
+ *
+ * Run with: java -cp target/classes:target/test-classes:... \
+ *     net.rcarz.jiraclient.DateParserBenchmark [iterations]
+ */
+public class DateParserBenchmark {
+
+    private interface Parser {
+        long parse(String text);
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+    private static final String[] DATETIMES = {
+        "2013-09-26T12:00:31.000-0400", "2014-01-02T08:15:00.123+0100", "2015-06-30T23:59:59.999+0000"
+    };
+
+    private static final String[] SPRINT_DATES = { "12/Jan/14 3:05 PM", "1/Dec/13 12:00 AM", "29/Feb/16 9:59 AM" };
+
+    private static volatile long sink;
+
+    private static void measure(String label, String[] values, int iterations, Parser parser) {
+        /* warm up */
+        for (int i = 0; i < iterations; i++)
+            sink += parser.parse(values[i % values.length]);
+
+        long tid = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(tid);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < iterations; i++)
+            sink += parser.parse(values[i % values.length]);
+
+        long elapsed = System.nanoTime() - start;
+        long bytes = THREADS.getThreadAllocatedBytes(tid) - before;
+
+        System.out.printf("%-22s %8d bytes/op %10.1f ns/op%n", label, bytes / iterations,
+                (double)elapsed / iterations);
+    }
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+
+        measure("SimpleDateFormat", DATETIMES, iterations, new Parser() {
+            public long parse(String text) {
+                SimpleDateFormat df = new SimpleDateFormat(Field.DATETIME_FORMAT);
+                return df.parse(text, new ParsePosition(0)).getTime();
+            }
+        });
+
+        measure("DateParser", DATETIMES, iterations, new Parser() {
+            public long parse(String text) {
+                return DateParser.parseDateTime(text);
+            }
+        });
+
+        measure("DateTimeFormat", SPRINT_DATES, iterations, new Parser() {
+            public long parse(String text) {
+                return DateTime.parse(text, DateTimeFormat.forPattern(GreenHopperField.DATE_TIME_FORMAT))
+                        .getMillis();
+            }
+        });
+
+        measure("DateParser (sprint)", SPRINT_DATES, iterations, new Parser() {
+            public long parse(String text) {
+                return DateParser.parseGreenHopperDateTime(text);
+            }
+        });
+    }
+}
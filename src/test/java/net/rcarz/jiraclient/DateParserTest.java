@@ -0,0 +1,89 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import net.rcarz.jiraclient.greenhopper.GreenHopperField;
+
+import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormat;
+import org.junit.Test;
+
+public class DateParserTest {
+
+    private static Date legacy(String format, String text, TimeZone zone) {
+        SimpleDateFormat df = new SimpleDateFormat(format);
+        df.setTimeZone(zone);
+        return df.parse(text, new ParsePosition(0));
+    }
+
+    @Test
+    public void testDateTimeMatchesSimpleDateFormat() {
+        String[] values = {
+            "2013-09-26T12:00:31.000-0400",
+            "2013-12-31T23:59:59.999+0000",
+            "2016-02-29T00:00:00.001+0530",
+            "1999-01-01T06:30:00.500-1100",
+            "2013-09-26T12:00:31.000-0400 trailing"
+        };
+
+        for (String value : values) {
+            assertEquals(value, legacy(Field.DATETIME_FORMAT, value, TimeZone.getDefault()),
+                    Field.getDateTime(value));
+        }
+
+        assertEquals(DateParser.parseDateTime("2013-09-26T16:00:31.000Z"),
+                DateParser.parseDateTime("2013-09-26T12:00:31.000-04:00"));
+    }
+
+    @Test
+    public void testDateMatchesSimpleDateFormat() {
+        String[] zones = { "UTC", "America/New_York", "Australia/Lord_Howe", "Asia/Kathmandu" };
+        String[] values = { "2013-09-26", "2013-03-10", "2016-02-29", "2013-11-03T12:00:31.000-0400" };
+
+        for (String id : zones) {
+            TimeZone zone = TimeZone.getTimeZone(id);
+            for (String value : values) {
+                assertEquals(id + " " + value, legacy(Field.DATE_FORMAT, value, zone).getTime(),
+                        DateParser.parseDate(value, zone));
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidValues() {
+        String[] values = { "", "soon", "2013-9-26", "2013-02-30", "2013-09-26T25:00:00.000-0400",
+                "2013-09-26T12:00:31-0400", "2013-09-26T12:00:31.000" };
+
+        for (String value : values)
+            assertNull(value, Field.getDateTime(value));
+
+        assertNull(Field.getDate("26/09/2013"));
+        assertNull(Field.getDate(null));
+        assertEquals(DateParser.NONE, Field.getDateTimeMillis(42));
+    }
+
+    @Test
+    public void testGreenHopperMatchesJoda() {
+        String[] values = { "12/Jan/14 3:05 PM", "1/DEC/99 12:00 AM", "29/Feb/16 12:59 pm", "5/Jul/2021 9:7 AM" };
+
+        for (String value : values) {
+            DateTime expected = DateTime.parse(value,
+                    DateTimeFormat.forPattern(GreenHopperField.DATE_TIME_FORMAT).withLocale(Locale.ENGLISH));
+            assertEquals(value, expected, GreenHopperField.getDateTime(value));
+        }
+
+        assertNull(GreenHopperField.getDateTime(GreenHopperField.NO_DATE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedGreenHopperDate() {
+        GreenHopperField.getDateTime("12/Foo/14 3:05 PM");
+    }
+}
@@ -0,0 +1,78 @@
+package net.rcarz.jiraclient;
+
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Compares decoding a search page with extracting the key and update time
+ * of every issue.
+ *
+ * Run with: java -cp target/classes:target/test-classes:... \
+ *     net.rcarz.jiraclient.FieldExtractorBenchmark [issues] [rounds]
+ */
+public class FieldExtractorBenchmark {
+
+    private interface Reading {
+        int read(Reader in) throws Exception;
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+    private static void measure(String label, byte[] page, int issues, int rounds, Reading reading)
+            throws Exception {
+
+        /* warm up */
+        for (int i = 0; i < rounds; i++)
+            reading.read(Utils.read(page));
+
+        long tid = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(tid);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < rounds; i++) {
+            int n = reading.read(Utils.read(page));
+            if (n != issues)
+                throw new IllegalStateException(label + " read " + n + " issues");
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long perIssue = (THREADS.getThreadAllocatedBytes(tid) - before) / ((long)rounds * issues);
+
+        System.out.printf("%-10s %10d bytes/issue %10.1f us/issue%n", label, perIssue,
+                elapsed / 1000.0 / ((long)rounds * issues));
+    }
+
+    public static void main(String[] args) throws Exception {
+        int issues = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        byte[] page = Utils.getTestSearchPage(issues);
+
+        System.out.printf("%d issues per page, %d bytes per page%n", issues, page.length);
+
+        final JsonDecoder decoder = new JsonDecoder();
+        measure("decode", page, issues, rounds, new Reading() {
+            public int read(Reader in) throws Exception {
+                List<Issue> list = JiraClient.toSearchResult(decoder.decodeMap(in)).issues;
+                for (Issue issue : list) {
+                    if (issue.getKey() == null || issue.getUpdatedDate() == null)
+                        throw new IllegalStateException();
+                }
+                return list.size();
+            }
+        });
+
+        final JsonHandler<List<Object[]>> extractor = new FieldExtractor("key", "fields.updated").each("issues");
+        measure("extract", page, issues, rounds, new Reading() {
+            public int read(Reader in) throws Exception {
+                List<Object[]> rows = extractor.read(new JsonReader(in));
+                for (Object[] row : rows) {
+                    if (row[0] == null || DateParser.parseDateTime((String)row[1]) == DateParser.NONE)
+                        throw new IllegalStateException();
+                }
+                return rows.size();
+            }
+        });
+    }
+}
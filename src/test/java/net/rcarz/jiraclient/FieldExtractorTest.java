@@ -0,0 +1,57 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.StringReader;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class FieldExtractorTest {
+
+    private static final String SEARCH = "{\"startAt\": 0, \"total\": 2, \"issues\": ["
+            + "{\"key\": \"TEST-1\", \"fields\": {\"summary\": \"One\", \"updated\": \"2016-01-02T03:04:05.000+0000\"}},"
+            + "{\"fields\": {\"status\": {\"name\": \"Open\"}}, \"key\": \"TEST-2\"}]}";
+
+    @Test
+    public void testExtract() throws Exception {
+        FieldExtractor extractor = new FieldExtractor("key", "fields.updated", "fields.status");
+        Object[] values = extractor.read(new JsonReader(new StringReader(Utils.getTestIssueJson())));
+
+        assertEquals("FILTA-43", values[0]);
+        assertEquals("2013-10-09T22:24:55.961+0100", values[1]);
+        assertEquals("To Do", ((Map<?, ?>)values[2]).get("name"));
+    }
+
+    @Test
+    public void testStopsWhenFound() throws Exception {
+        /* the rest of the document is never read, malformed or not */
+        FieldExtractor extractor = new FieldExtractor("key");
+        Object[] values = extractor.read(new JsonReader(new StringReader("{\"key\": \"TEST-1\", \"fields\": {[")));
+
+        assertEquals("TEST-1", values[0]);
+    }
+
+    @Test
+    public void testEach() throws Exception {
+        ScriptedHttpClient http = new ScriptedHttpClient().respond(200, SEARCH);
+        RestClient client = new RestClient(http, URI.create("http://jira"));
+        RawResponse raw = client.getRaw(null, "search");
+
+        List<Object[]> rows = new FieldExtractor("key", "fields.updated").extractEach(raw, "issues");
+
+        assertEquals(2, rows.size());
+        assertEquals("TEST-1", rows.get(0)[0]);
+        assertEquals("2016-01-02T03:04:05.000+0000", rows.get(0)[1]);
+        assertEquals("TEST-2", rows.get(1)[0]);
+        assertNull(rows.get(1)[1]);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOverlappingPaths() {
+        new FieldExtractor("fields", "fields.updated");
+    }
+}
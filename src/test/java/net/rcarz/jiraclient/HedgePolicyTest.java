@@ -0,0 +1,168 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+public class HedgePolicyTest {
+
+    private static final String JSON = "{\"key\": \"TEST-1\"}";
+
+    /**
+     * Answers each request after the next scripted delay, taking the delays
+     * in turn, unless the request is aborted first.
+     */
+    private static class SlowTransport implements HttpTransport {
+        final long[] delays;
+        final AtomicInteger calls = new AtomicInteger();
+        final AtomicInteger aborted = new AtomicInteger();
+        final ConcurrentLinkedQueue<String> headers = new ConcurrentLinkedQueue<String>();
+        final ConcurrentLinkedQueue<Thread> threads = new ConcurrentLinkedQueue<Thread>();
+
+        SlowTransport(long... delays) {
+            this.delays = delays;
+        }
+
+        public HttpResponse execute(HttpRequestBase req) throws IOException {
+            int n = calls.getAndIncrement();
+            headers.add(req.getFirstHeader("Accept").getValue());
+            threads.add(Thread.currentThread());
+
+            long end = System.currentTimeMillis() + delays[n % delays.length];
+            try {
+                while (System.currentTimeMillis() < end) {
+                    if (req.isAborted()) {
+                        aborted.incrementAndGet();
+                        throw new IOException("Request aborted");
+                    }
+
+                    Thread.sleep(Math.min(5, Math.max(1, end - System.currentTimeMillis())));
+                }
+            } catch (InterruptedException ex) {
+                aborted.incrementAndGet();
+                throw new InterruptedIOException();
+            }
+
+            HttpResponse resp = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+            resp.setEntity(new StringEntity(JSON, "UTF-8"));
+            return resp;
+        }
+
+        public void close() {
+        }
+    }
+
+    @Test
+    public void testHedgeWinsSlowRequest() throws Exception {
+        SlowTransport transport = new SlowTransport(5000, 10);
+        RestClient client = new RestClient(transport, null, URI.create("http://jira"));
+        HedgePolicy hedge = new HedgePolicy().delay(50);
+        client.setHedgePolicy(hedge);
+
+        long start = System.nanoTime();
+        assertEquals("TEST-1", client.get("issue", "TEST-1").get("key"));
+        long elapsed = (System.nanoTime() - start) / 1000000;
+
+        assertTrue("took " + elapsed + " ms", elapsed < 2000);
+        assertEquals(2, transport.calls.get());
+        assertEquals("[application/json, application/json]", transport.headers.toString());
+
+        HedgePolicy.Stats stats = hedge.getStats();
+        assertEquals(1, stats.hedged);
+        assertEquals(1, stats.wins);
+        assertEquals(1.0, stats.getWinRate(), 0);
+
+        /* the losing request is aborted */
+        Thread.sleep(100);
+        assertEquals(1, transport.aborted.get());
+    }
+
+    @Test
+    public void testOriginalRunsOnCallingThread() throws Exception {
+        SlowTransport transport = new SlowTransport(200, 0);
+        RestClient client = new RestClient(transport, null, URI.create("http://jira"));
+        HedgePolicy hedge = new HedgePolicy().delay(20);
+        client.setHedgePolicy(hedge);
+
+        client.get("issue", "TEST-1");
+
+        assertEquals(2, transport.calls.get());
+        assertEquals(Thread.currentThread(), transport.threads.peek());
+        assertTrue(transport.threads.toString(), Thread.currentThread() != transport.threads.toArray()[1]);
+        assertEquals(1, hedge.getStats().wins);
+    }
+
+    @Test
+    public void testHedgeLatencyFromItsOwnStart() throws Exception {
+        SlowTransport transport = new SlowTransport(5000, 10);
+        RestClient client = new RestClient(transport, null, URI.create("http://jira"));
+        HedgePolicy hedge = new HedgePolicy().delay(100).percentile(0.5, 1).budget(1, 10);
+        client.setHedgePolicy(hedge);
+
+        for (int i = 0; i < 20; i++)
+            client.get("issue", "TEST-1");
+
+        /* measured from the original's start every sample would be over 100 ms */
+        assertEquals(20, hedge.getStats().wins);
+        assertTrue(hedge.getStats().toString(), hedge.getDelay() < 100);
+    }
+
+    @Test
+    public void testFastRequestIsNotHedged() throws Exception {
+        SlowTransport transport = new SlowTransport(0);
+        RestClient client = new RestClient(transport, null, URI.create("http://jira"));
+        HedgePolicy hedge = new HedgePolicy().delay(1000);
+        client.setHedgePolicy(hedge);
+
+        client.get("issue", "TEST-1");
+        client.post("issue", "TEST-1");
+
+        assertEquals(2, transport.calls.get());
+        assertEquals(1, hedge.getStats().requests);
+        assertEquals(0, hedge.getStats().hedged);
+    }
+
+    @Test
+    public void testBudgetCapsHedges() throws Exception {
+        SlowTransport transport = new SlowTransport(30);
+        RestClient client = new RestClient(transport, null, URI.create("http://jira"));
+        HedgePolicy hedge = new HedgePolicy().delay(0).budget(0.25, 1);
+        client.setHedgePolicy(hedge);
+
+        for (int i = 0; i < 8; i++)
+            client.get("issue", "TEST-1");
+
+        HedgePolicy.Stats stats = hedge.getStats();
+        assertEquals(8, stats.requests);
+        assertTrue(stats.toString(), stats.hedged >= 2 && stats.hedged <= 3);
+        assertEquals(8 - stats.hedged, stats.budgetDenied);
+    }
+
+    @Test
+    public void testPercentileDelay() throws Exception {
+        RestClient client = new RestClient(new SlowTransport(0), null, URI.create("http://jira"));
+        HedgePolicy hedge = new HedgePolicy().delay(500).percentile(0.9, 25);
+        client.setHedgePolicy(hedge);
+        client.setRateLimiter(new RateLimiter(1000, 1000), RateLimiter.Mode.BLOCKING);
+
+        assertEquals(500, hedge.getDelay());
+        for (int i = 0; i < 30; i++)
+            client.get("issue", "TEST-1");
+
+        assertEquals(25, hedge.getDelay());
+        assertEquals(hedge, client.getFilters().get(0));
+        assertTrue(client.getFilters().get(1) instanceof RateLimiter.Filter);
+    }
+}
@@ -0,0 +1,88 @@
+package net.rcarz.jiraclient;
+
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+
+import net.rcarz.jiraclient.JiraClient.SearchResult;
+import net.sf.json.JSONSerializer;
+
+/**
+ * Measures the bytes allocated per issue when decoding a search page.
+ *
+ * Run with: java -cp target/classes:target/test-classes:... \
+ *     net.rcarz.jiraclient.IssueDecodingBenchmark [issues] [rounds]
+ */
+public class IssueDecodingBenchmark {
+
+    private interface Decoder {
+        SearchResult decode(Reader in) throws Exception;
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+    private static long measure(String label, byte[] page, int issues, int rounds, Decoder decoder)
+            throws Exception {
+
+        /* warm up */
+        for (int i = 0; i < rounds; i++)
+            decoder.decode(Utils.read(page));
+
+        long tid = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(tid);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < rounds; i++) {
+            SearchResult sr = decoder.decode(Utils.read(page));
+            if (sr.issues.size() != issues)
+                throw new IllegalStateException(label + " decoded " + sr.issues.size() + " issues");
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long perIssue = (THREADS.getThreadAllocatedBytes(tid) - before) / ((long)rounds * issues);
+
+        System.out.printf("%-10s %10d bytes/issue %10.1f us/issue%n", label, perIssue,
+                elapsed / 1000.0 / ((long)rounds * issues));
+
+        return perIssue;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int issues = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        byte[] page = Utils.getTestSearchPage(issues);
+
+        System.out.printf("%d issues per page, %d bytes per page%n", issues, page.length);
+
+        /* json-lib is orders of magnitude slower, a single round is enough */
+        long legacy = measure("json-lib", page, issues, 1, new Decoder() {
+            public SearchResult decode(Reader in) throws Exception {
+                StringBuilder result = new StringBuilder();
+                BufferedReader br = new BufferedReader(in);
+                String line;
+                while ((line = br.readLine()) != null)
+                    result.append(line);
+
+                return JiraClient.toSearchResult(RestClient.JSONtoMap(JSONSerializer.toJSON(result.toString())));
+            }
+        });
+
+        final JsonDecoder decoder = new JsonDecoder();
+        long maps = measure("maps", page, issues, rounds, new Decoder() {
+            public SearchResult decode(Reader in) throws Exception {
+                return JiraClient.toSearchResult(decoder.decodeMap(in));
+            }
+        });
+
+        final JsonBinder binder = new JsonBinder();
+        long bound = measure("bound", page, issues, rounds, new Decoder() {
+            public SearchResult decode(Reader in) throws Exception {
+                return binder.searchResultHandler.read(new JsonReader(in));
+            }
+        });
+
+        System.out.printf("bound allocates %.1f%% of maps and %.1f%% of json-lib%n",
+                100.0 * bound / maps, 100.0 * bound / legacy);
+    }
+}
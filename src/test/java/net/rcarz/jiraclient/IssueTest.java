@@ -135,4 +135,29 @@ public class IssueTest {
       Issue issue = new Issue(Utils.getTestIssue());
       assertEquals(new DateTime(2013, 10, 9, 22, 24, 55, 961, DateTimeZone.forOffsetHours(1)).toDate(), issue.getUpdatedDate());
     }
+
+    @Test
+    public void testLazyIssueMatchesEager() throws JiraException {
+        Issue eager = new Issue(Utils.getTestIssue());
+        Issue lazy = new Issue(Utils.getTestIssue(), true);
+
+        assertEquals(eager.getKey(), lazy.getKey());
+        assertEquals(eager.getSummary(), lazy.getSummary());
+        assertEquals(eager.getStatus().getName(), lazy.getStatus().getName());
+        assertEquals(eager.getReporter().getEmail(), lazy.getReporter().getEmail());
+        assertEquals(eager.getLabels(), lazy.getLabels());
+        assertEquals(eager.getCreatedDate(), lazy.getCreatedDate());
+        assertEquals(eager.getTimeSpent(), lazy.getTimeSpent());
+        assertEquals(eager.getFixVersions().size(), lazy.getFixVersions().size());
+        assertEquals(eager.getFieldvalue(Field.STATUS), lazy.getFieldvalue(Field.STATUS));
+        assertEquals("90", lazy.getField("customfield_10006"));
+    }
+
+    @Test
+    public void testLazyIssueCachesFields() throws JiraException {
+        Issue lazy = new Issue(Utils.getTestIssue(), true);
+
+        assertTrue(lazy.getStatus() == lazy.getStatus());
+        assertTrue(lazy.getComments() == lazy.getComments());
+    }
 }
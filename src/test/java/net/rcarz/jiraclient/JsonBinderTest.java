@@ -0,0 +1,72 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import net.rcarz.jiraclient.JiraClient.SearchResult;
+
+import org.junit.Test;
+
+public class JsonBinderTest {
+
+    private JsonBinder binder = new JsonBinder();
+
+    private Issue bind(String json) throws IOException, JiraException {
+        return binder.issueHandler.read(new JsonReader(new StringReader(json)));
+    }
+
+    @Test
+    public void testBoundIssueMatchesEager() throws IOException, JiraException {
+        Issue eager = new Issue(Utils.getTestIssue());
+        Issue bound = bind(Utils.getTestIssueJson());
+
+        assertEquals(eager.getId(), bound.getId());
+        assertEquals(eager.getKey(), bound.getKey());
+        assertEquals(eager.getSelf(), bound.getSelf());
+        assertEquals(eager.getSummary(), bound.getSummary());
+        assertEquals(eager.getDescription(), bound.getDescription());
+        assertEquals(eager.getCreatedDate(), bound.getCreatedDate());
+        assertEquals(eager.getUpdatedDate(), bound.getUpdatedDate());
+        assertEquals(eager.getLabels(), bound.getLabels());
+        assertEquals(eager.getTimeSpent(), bound.getTimeSpent());
+        assertEquals(eager.getStatus().getName(), bound.getStatus().getName());
+        assertEquals(eager.getStatus().getIconUrl(), bound.getStatus().getIconUrl());
+        assertEquals(eager.getPriority().getId(), bound.getPriority().getId());
+        assertEquals(eager.getIssueType().getDescription(), bound.getIssueType().getDescription());
+        assertEquals(eager.getReporter().getEmail(), bound.getReporter().getEmail());
+        assertEquals(eager.getReporter().getDisplayName(), bound.getReporter().getDisplayName());
+        assertEquals(eager.getReporter().getAvatarUrls(), bound.getReporter().getAvatarUrls());
+        assertEquals(eager.getProject().getKey(), bound.getProject().getKey());
+        assertEquals(eager.getVotes().getVotes(), bound.getVotes().getVotes());
+        assertEquals(eager.getWatches().getWatchCount(), bound.getWatches().getWatchCount());
+        assertEquals(eager.getComments().size(), bound.getComments().size());
+        assertEquals(eager.getFixVersions().size(), bound.getFixVersions().size());
+        assertNull(bound.getAssignee());
+    }
+
+    @Test
+    public void testCustomFieldsAreKept() throws IOException, JiraException {
+        Issue bound = bind(Utils.getTestIssueJson());
+
+        assertEquals("90", bound.getField("customfield_10006"));
+        assertNull(bound.getField("customfield_10001"));
+        assertNull(bound.getField(Field.SUMMARY));
+    }
+
+    @Test
+    public void testSearchResult() throws IOException, JiraException {
+        String json = "{\"startAt\": 5, \"maxResults\": 2, \"total\": 42, \"expand\": \"names\", " +
+                "\"issues\": [" + Utils.getTestIssueJson() + ", " + Utils.getTestIssueJson() + "]}";
+
+        SearchResult sr = binder.searchResultHandler.read(new JsonReader(new StringReader(json)));
+
+        assertEquals(5, sr.start);
+        assertEquals(2, sr.max);
+        assertEquals(42, sr.total);
+        assertEquals(2, sr.issues.size());
+        assertEquals("FILTA-43", sr.issues.get(1).getKey());
+    }
+}
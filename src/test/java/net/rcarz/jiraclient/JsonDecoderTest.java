@@ -0,0 +1,90 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Map;
+
+import net.sf.json.JSONObject;
+
+import org.junit.Test;
+
+public class JsonDecoderTest {
+
+    private JsonDecoder decoder = new JsonDecoder();
+
+    @Test
+    public void testDecodeObject() throws IOException, JiraException {
+        Map<String, Object> map = decoder.decodeMap(
+                "{\"key\": \"TEST-1\", \"votes\": 3, \"done\": false, \"resolution\": null, " +
+                "\"labels\": [\"a\", \"b\"], \"fields\": {\"summary\": \"Text \\\"quoted\\\" \\u00e9\"}}");
+
+        assertEquals("TEST-1", map.get("key"));
+        assertEquals(Integer.valueOf(3), map.get("votes"));
+        assertEquals(Boolean.FALSE, map.get("done"));
+        assertTrue(map.containsKey("resolution"));
+        assertNull(map.get("resolution"));
+        assertEquals(2, ((List<?>)map.get("labels")).size());
+        assertEquals("Text \"quoted\" \u00e9", ((Map<?, ?>)map.get("fields")).get("summary"));
+    }
+
+    @Test
+    public void testNumberTypes() throws IOException, JiraException {
+        Map<String, Object> map = decoder.decodeMap(
+                "{\"i\": -42, \"l\": 12345678901, \"b\": 123456789012345678901234, \"d\": 1.5, \"e\": 2E3}");
+
+        assertEquals(Integer.valueOf(-42), map.get("i"));
+        assertEquals(Long.valueOf(12345678901L), map.get("l"));
+        assertEquals(new BigInteger("123456789012345678901234"), map.get("b"));
+        assertEquals(Double.valueOf(1.5), map.get("d"));
+        assertEquals(Double.valueOf(2000), map.get("e"));
+    }
+
+    @Test
+    public void testTopLevelArray() throws IOException, JiraException {
+        Map<String, Object> map = decoder.decodeMap("[{\"id\": \"1\"}, {\"id\": \"2\"}]");
+        assertEquals(2, ((List<?>)map.get("data")).size());
+    }
+
+    @Test
+    public void testEmptyInput() throws IOException, JiraException {
+        assertNull(decoder.decodeMap("  "));
+    }
+
+    @Test(expected = JiraException.class)
+    public void testScalarIsMalformed() throws IOException, JiraException {
+        decoder.decodeMap("\"text\"");
+    }
+
+    @Test(expected = IOException.class)
+    public void testTrailingContent() throws IOException, JiraException {
+        decoder.decodeMap("{} {}");
+    }
+
+    @Test
+    public void testLongStringsAcrossBuffers() throws IOException, JiraException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++)
+            sb.append(i % 10);
+
+        String json = "{\"description\": \"" + sb + "\\n\"}";
+        Map<String, Object> map = decoder.decodeMap(new StringReader(json));
+        assertEquals(sb + "\n", map.get("description"));
+    }
+
+    @Test
+    public void testMatchesJSONtoMap() throws IOException, JiraException {
+        JSONObject json = new JSONObject();
+        json.put("id", "10004");
+        json.put("count", 7);
+        json.put("ratio", 0.25);
+        json.put("names", new String[] { "x", "y" });
+
+        assertEquals(RestClient.JSONtoMap(json), decoder.decodeMap(json.toString()));
+    }
+}
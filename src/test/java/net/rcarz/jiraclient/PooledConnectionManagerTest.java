@@ -0,0 +1,86 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.junit.Test;
+
+public class PooledConnectionManagerTest {
+
+    private static final HttpRoute ROUTE = new HttpRoute(new HttpHost("jira", 80, "http"));
+
+    @Test
+    public void testBuilderLimits() {
+        PooledConnectionManager cm = new JiraClientBuilder("http://jira")
+                .maxConnections(7)
+                .maxConnectionsPerRoute(3)
+                .idleConnectionEviction(0, 0)
+                .buildConnectionManager();
+
+        try {
+            assertEquals(7, cm.getMaxTotal());
+            assertEquals(3, cm.getDefaultMaxPerRoute());
+            assertEquals(7, cm.getStats().max);
+        } finally {
+            cm.shutdown();
+        }
+    }
+
+    @Test
+    public void testClientStats() throws Exception {
+        JiraClient jira = new JiraClientBuilder("http://jira").maxConnections(5).build();
+
+        try {
+            PooledConnectionManager.Stats stats = jira.getConnectionPoolStats();
+            assertNotNull(stats);
+            assertEquals(5, stats.max);
+            assertEquals(0, stats.leases);
+            assertEquals(0.0, stats.getAverageLeaseWaitMillis(), 0.0);
+        } finally {
+            jira.close();
+        }
+
+        JiraClient plain = new JiraClient("http://jira");
+        assertNull(plain.getConnectionPoolStats());
+    }
+
+    @Test
+    public void testLeaseCounters() throws Exception {
+        PooledConnectionManager cm = new PooledConnectionManager(2, 1, 0);
+
+        try {
+            HttpClientConnection conn = cm.requestConnection(ROUTE, null).get(1, TimeUnit.SECONDS);
+
+            try {
+                cm.requestConnection(ROUTE, null).get(100, TimeUnit.MILLISECONDS);
+                fail("the route only allows one connection");
+            } catch (ConnectionPoolTimeoutException ex) {
+                /* expected */
+            }
+
+            PooledConnectionManager.Stats stats = cm.getStats();
+            assertEquals(1, stats.leased);
+            assertEquals(1, stats.leases);
+            assertEquals(1, stats.leaseTimeouts);
+            assertTrue(stats.toString(), stats.maxLeaseWaitMillis >= 50);
+
+            /* the timed-out wait is averaged over both attempts, not the one lease */
+            assertEquals(stats.toString(), stats.leaseWaitMillis / 2.0, stats.getAverageLeaseWaitMillis(), 0.0);
+            assertTrue(stats.toString(), stats.getAverageLeaseWaitMillis() <= stats.maxLeaseWaitMillis);
+
+            cm.releaseConnection(conn, null, -1, TimeUnit.MILLISECONDS);
+            assertEquals(0, cm.getStats().leased);
+        } finally {
+            cm.shutdown();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+public class RateLimiterTest {
+
+    private static HttpResponse response(int status, String... headers) {
+        HttpResponse resp = new BasicHttpResponse(HttpVersion.HTTP_1_1, status, "Status " + status);
+        for (int i = 0; i < headers.length; i += 2)
+            resp.addHeader(headers[i], headers[i + 1]);
+        return resp;
+    }
+
+    @Test
+    public void testSharedPerHost() {
+        RateLimiter limiter = RateLimiter.forHost("shared.example.com");
+
+        assertSame(limiter, RateLimiter.forHost("SHARED.example.com", 1, 1));
+        assertSame(limiter, RateLimiter.forUri(URI.create("https://shared.example.com/jira")));
+        assertFalse(limiter == RateLimiter.forHost("other.example.com"));
+    }
+
+    @Test
+    public void testFailFast() throws Exception {
+        RateLimiter limiter = new RateLimiter(1, 2);
+
+        limiter.acquire(RateLimiter.Mode.FAIL_FAST);
+        limiter.acquire(RateLimiter.Mode.FAIL_FAST);
+
+        try {
+            limiter.acquire(RateLimiter.Mode.FAIL_FAST);
+            fail("RateLimitException expected");
+        } catch (RateLimitException ex) {
+            assertTrue(ex.getWaitMillis() > 0 && ex.getWaitMillis() <= 1000);
+        }
+
+        assertEquals(2, limiter.getPermits());
+        assertEquals(1, limiter.getRejected());
+    }
+
+    @Test
+    public void testBlockingAndAsyncWait() throws Exception {
+        RateLimiter limiter = new RateLimiter(50, 1);
+
+        long start = System.nanoTime();
+        limiter.acquire(RateLimiter.Mode.BLOCKING);
+        limiter.acquire(RateLimiter.Mode.BLOCKING);
+        assertTrue(System.nanoTime() - start >= 15000000L);
+
+        CompletableFuture<Void> f = limiter.acquireAsync(RateLimiter.Mode.ASYNC);
+        assertFalse(f.isDone());
+        f.get();
+        assertEquals(2, limiter.getDelayed());
+    }
+
+    @Test
+    public void testAdaptsToServer() {
+        RateLimiter limiter = new RateLimiter(100, 100);
+        /* one point in time, so no permits are refilled between the steps */
+        long now = System.nanoTime();
+
+        limiter.onResponse(response(200, "X-RateLimit-Limit", "20", "X-RateLimit-Remaining", "5",
+                "X-RateLimit-FillRate", "10", "X-RateLimit-Interval-Seconds", "2"), now);
+        assertEquals(5.0, limiter.getRate(), 0.001);
+        assertEquals(5.0, limiter.getAvailablePermits(now), 0.0);
+
+        limiter.onResponse(response(429), now);
+        assertEquals(2.5, limiter.getRate(), 0.001);
+        assertEquals(1, limiter.getThrottled());
+        assertEquals(0.0, limiter.getAvailablePermits(now), 0.0);
+
+        limiter.onResponse(response(200), now);
+        assertEquals(2.6, limiter.getRate(), 0.001);
+
+        /* the two second pause at the halved rate of 1.3 per second */
+        limiter.onResponse(response(429, "Retry-After", "2"), now);
+        assertEquals(-2.6, limiter.getAvailablePermits(now), 0.001);
+    }
+}
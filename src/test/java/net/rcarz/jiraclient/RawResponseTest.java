@@ -0,0 +1,110 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.entity.ByteArrayEntity;
+import org.junit.Test;
+
+public class RawResponseTest {
+
+    private static final String JSON = "{\"key\": \"TEST-1\", \"fields\": {\"summary\": \"Raw\"}}";
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZIPOutputStream gz = new GZIPOutputStream(out);
+        gz.write(text.getBytes(StandardCharsets.UTF_8));
+        gz.close();
+        return out.toByteArray();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[256];
+        int n;
+        while ((n = in.read(buf)) != -1)
+            out.write(buf, 0, n);
+        in.close();
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testPlainBody() throws Exception {
+        ScriptedHttpClient http = new ScriptedHttpClient().respond(200, JSON, "X-Request-Id", "42");
+        RestClient client = new RestClient(http, URI.create("http://jira"));
+
+        RawResponse raw = client.getRaw(null, "issue", "TEST-1");
+
+        assertEquals(200, raw.getStatusCode());
+        assertEquals("42", raw.getHeader("x-request-id"));
+        assertEquals("application/json", raw.getContentType());
+        assertEquals(null, raw.getContentEncoding());
+        assertEquals(JSON, new String(raw.getBody(), StandardCharsets.UTF_8));
+        assertEquals(JSON.length(), raw.getBuffer().remaining());
+        assertEquals(JSON, read(raw.openStream()));
+    }
+
+    @Test
+    public void testCompressedBodyIsKept() throws Exception {
+        byte[] body = gzip(JSON);
+        ScriptedHttpClient.Response resp = new ScriptedHttpClient.Response(200, null, "Content-Encoding", "gzip");
+        ByteArrayEntity ent = new ByteArrayEntity(body);
+        ent.setContentType("application/json;charset=UTF-8");
+        resp.setEntity(ent);
+
+        ScriptedHttpClient http = new ScriptedHttpClient();
+        http.responses.add(resp);
+        RestClient client = new RestClient(http, URI.create("http://jira"));
+
+        RawResponse raw = client.getRaw(URI.create("http://jira/rest/api/2/issue/TEST-1"));
+
+        assertEquals("gzip", raw.getContentEncoding());
+        assertArrayEquals(body, raw.getBody());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        raw.writeTo(out);
+        assertArrayEquals(body, out.toByteArray());
+        assertEquals(JSON, read(raw.openStream()));
+    }
+
+    @Test
+    public void testFiltersWithoutInterceptors() throws Exception {
+        ScriptedHttpClient http = new ScriptedHttpClient()
+                .respond(503, "busy", "Retry-After", "0")
+                .respond(200, JSON)
+                .respond(200, JSON);
+        RestClient client = new RestClient(http, URI.create("http://jira"));
+        ResponseCache cache = new ResponseCache(10);
+        client.setRetryPolicy(new RetryPolicy());
+        client.setResponseCache(cache);
+        client.setSingleFlight(new SingleFlight());
+
+        assertEquals(200, client.getRaw(null, "issue", "TEST-1").getStatusCode());
+        assertEquals(JSON, new String(client.getRaw(null, "issue", "TEST-1").getBody(), StandardCharsets.UTF_8));
+        assertEquals(3, http.requests.size());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testErrorStatus() throws Exception {
+        ScriptedHttpClient http = new ScriptedHttpClient().respond(404, "{\"errorMessages\": [\"Gone\"]}");
+        RestClient client = new RestClient(http, URI.create("http://jira"));
+
+        try {
+            client.getRaw(null, "issue", "TEST-2");
+        } catch (RestException ex) {
+            assertEquals(404, ex.getHttpStatusCode());
+            assertEquals("{\"errorMessages\": [\"Gone\"]}", ex.getHttpResult());
+            return;
+        }
+
+        throw new AssertionError("RestException expected");
+    }
+}
@@ -0,0 +1,127 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringReader;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.List;
+import java.util.Map;
+
+import net.rcarz.jiraclient.greenhopper.GreenHopperField;
+import net.rcarz.jiraclient.greenhopper.Sprint;
+
+import org.junit.Test;
+
+public class ResourceFactoriesTest {
+
+    private final JsonDecoder decoder = new JsonDecoder();
+
+    public static class Account extends Resource {
+        private String status = null;
+
+        public Account(Map<String, Object> data) {
+            super(data);
+
+            if (data != null)
+                deserialise(data);
+        }
+
+        @Override
+        protected void deserialise(Map<String, Object> data) {
+            status = Field.getString(data.get("status"));
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        @Override
+        public String getValue() {
+            return getKey();
+        }
+    }
+
+    public static class TracedStatus extends Status {
+        public TracedStatus(Map<String, Object> data) throws JiraException {
+            super(data);
+        }
+    }
+
+    @Test
+    public void testCustomResourceType() throws Exception {
+        assertNull(Field.getResource(Account.class, decoder.decodeMap("{\"key\": \"ACC-1\"}")));
+
+        ResourceFactories.register(Account.class, Account::new);
+        try {
+            Map<String, Object> data = decoder.decodeMap(
+                    "{\"data\": [{\"key\": \"ACC-1\", \"status\": \"OPEN\"}, {\"key\": \"ACC-2\"}]}");
+            List<Account> accounts = Field.getResourceArray(Account.class, data.get("data"));
+
+            assertEquals(2, accounts.size());
+            assertEquals("ACC-1", accounts.get(0).getValue());
+            assertEquals("OPEN", accounts.get(0).getStatus());
+        } finally {
+            ResourceFactories.unregister(Account.class);
+        }
+    }
+
+    @Test
+    public void testReplacedFactoryIsUsedByBothDecoders() throws Exception {
+        ResourceFactories.register(Status.class, TracedStatus::new);
+        try {
+            Issue eager = new Issue(decoder.decodeMap(Utils.getTestIssueJson()));
+            Issue bound = new JsonBinder().issueHandler.read(
+                    new JsonReader(new StringReader(Utils.getTestIssueJson())));
+
+            assertTrue(eager.getStatus() instanceof TracedStatus);
+            assertTrue(bound.getStatus() instanceof TracedStatus);
+            assertEquals("To Do", bound.getStatus().getName());
+        } finally {
+            ResourceFactories.register(Status.class, Status::new);
+        }
+    }
+
+    @Test
+    public void testGreenHopperResources() throws Exception {
+        Sprint sprint = GreenHopperField.getResource(Sprint.class,
+                decoder.decodeMap("{\"id\": 7, \"name\": \"Sprint 7\", \"state\": \"CLOSED\"}"));
+
+        assertEquals("Sprint 7", sprint.getName());
+        assertTrue(sprint.isClosed());
+    }
+
+    @Test
+    public void testGreenHopperResourcesWithoutGreenHopperField() throws Exception {
+        /* the client classes again in a fresh loader, where nothing has loaded GreenHopperField yet */
+        URLClassLoader loader = new URLClassLoader(new URL[] {
+                Field.class.getProtectionDomain().getCodeSource().getLocation()
+        }, getClass().getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+                if (!name.startsWith("net.rcarz.jiraclient."))
+                    return super.loadClass(name, resolve);
+
+                synchronized (getClassLoadingLock(name)) {
+                    Class<?> c = findLoadedClass(name);
+                    return c != null ? c : findClass(name);
+                }
+            }
+        };
+
+        try {
+            Class<?> sprint = Class.forName("net.rcarz.jiraclient.greenhopper.Sprint", false, loader);
+            Method getResource = Class.forName("net.rcarz.jiraclient.Field", true, loader)
+                    .getMethod("getResource", Class.class, Object.class);
+            Object resource = getResource.invoke(null, sprint, decoder.decodeMap("{\"id\": 7, \"name\": \"Sprint 7\"}"));
+
+            assertTrue(sprint.isInstance(resource));
+            assertEquals("Sprint 7", sprint.getMethod("getName").invoke(resource));
+        } finally {
+            loader.close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.StringReader;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ResourceRegistryTest {
+
+    private final JsonDecoder decoder = new JsonDecoder();
+
+    @After
+    public void tearDown() {
+        ResourceRegistry.setDefault(null);
+    }
+
+    private Issue decode(String json) throws Exception {
+        return new Issue(decoder.decodeMap(json));
+    }
+
+    @Test
+    public void testReferenceResourcesAreShared() throws Exception {
+        ResourceRegistry registry = new ResourceRegistry();
+        ResourceRegistry.setDefault(registry);
+
+        Issue first = decode(Utils.getTestIssueJson());
+        Issue second = decode(Utils.getTestIssueJson().replace("FILTA-43", "FILTA-44"));
+
+        assertSame(first.getStatus(), second.getStatus());
+        assertSame(first.getPriority(), second.getPriority());
+        assertNotSame(first.getReporter(), second.getReporter());
+        assertNotSame(first.getProject(), second.getProject());
+        assertNotSame(first.getVotes(), second.getVotes());
+        assertEquals("FILTA-44", second.getKey());
+        assertEquals(registry.size(), registry.getMisses());
+        assertFalse(registry.isRegistered(Project.class));
+        assertFalse(registry.isRegistered(User.class));
+    }
+
+    @Test
+    public void testRegisteredTypesOnly() throws Exception {
+        ResourceRegistry registry = new ResourceRegistry(100, User.class);
+        ResourceRegistry.setDefault(registry);
+
+        Issue first = decode(Utils.getTestIssueJson());
+        Issue second = decode(Utils.getTestIssueJson().replace("FILTA-43", "FILTA-44"));
+
+        assertSame(first.getReporter(), second.getReporter());
+        assertNotSame(first.getStatus(), second.getStatus());
+    }
+
+    @Test
+    public void testChangedResourceReplacesShared() throws Exception {
+        ResourceRegistry registry = new ResourceRegistry();
+        ResourceRegistry.setDefault(registry);
+
+        Issue before = decode(Utils.getTestIssueJson());
+        Issue after = decode(Utils.getTestIssueJson().replace("open.png", "reopened.png"));
+        Issue again = decode(Utils.getTestIssueJson().replace("open.png", "reopened.png"));
+
+        assertNotSame(before.getStatus(), after.getStatus());
+        assertEquals("https://brainbubble.atlassian.net/images/icons/statuses/open.png",
+                before.getStatus().getIconUrl());
+        assertSame(after.getStatus(), again.getStatus());
+        assertEquals(1, registry.getRefreshes());
+
+        registry.invalidate(Status.class, after.getStatus().getSelf());
+        assertNotSame(after.getStatus(), decode(Utils.getTestIssueJson()).getStatus());
+    }
+
+    @Test
+    public void testFullRegistryDecodesAsUsual() throws Exception {
+        ResourceRegistry.setDefault(new ResourceRegistry(0));
+
+        Issue first = decode(Utils.getTestIssueJson());
+        Issue second = decode(Utils.getTestIssueJson());
+
+        assertNotSame(first.getStatus(), second.getStatus());
+        assertEquals(first.getStatus().getName(), second.getStatus().getName());
+    }
+
+    @Test
+    public void testBoundIssuesShareResources() throws Exception {
+        ResourceRegistry.setDefault(new ResourceRegistry());
+        JsonBinder binder = new JsonBinder();
+
+        Issue eager = decode(Utils.getTestIssueJson());
+        Issue bound = binder.issueHandler.read(new JsonReader(new StringReader(Utils.getTestIssueJson())));
+
+        assertSame(eager.getStatus(), bound.getStatus());
+        assertSame(eager.getPriority(), bound.getPriority());
+    }
+}
@@ -0,0 +1,85 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.net.URI;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class ResponseCacheTest {
+
+    @Test
+    public void testRevalidation() throws Exception {
+        ScriptedHttpClient http = new ScriptedHttpClient();
+        ResponseCache cache = new ResponseCache(10);
+        RestClient client = new RestClient(http, URI.create("http://jira"));
+        client.setResponseCache(cache);
+
+        http.respond(200, "{\"id\": \"1\"}", "ETag", "\"v1\"");
+        http.respond(304, null, "ETag", "\"v1\"");
+        http.respond(200, "{\"id\": \"2\"}", "Last-Modified", "Tue, 01 Jan 2030 00:00:00 GMT");
+        http.respond(304, null);
+
+        Map<String, Object> first = client.get("project", "TEST");
+        assertNull(http.requests.get(0).getFirstHeader("If-None-Match"));
+
+        assertSame(first, client.get("project", "TEST"));
+        assertEquals("\"v1\"", http.requests.get(1).getFirstHeader("If-None-Match").getValue());
+
+        Map<String, Object> changed = client.get("project", "TEST");
+        assertEquals("2", changed.get("id"));
+        assertSame(changed, client.get("project", "TEST"));
+        assertEquals("Tue, 01 Jan 2030 00:00:00 GMT",
+                http.requests.get(3).getFirstHeader("If-Modified-Since").getValue());
+
+        assertEquals(1, cache.getMisses());
+        assertEquals(3, cache.getRevalidations());
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    public void testNotStored() throws Exception {
+        ScriptedHttpClient http = new ScriptedHttpClient();
+        ResponseCache cache = new ResponseCache(10);
+        RestClient client = new RestClient(http, URI.create("http://jira"));
+        client.setResponseCache(cache);
+
+        http.respond(200, "{}");
+        http.respond(200, "{}", "ETag", "\"v1\"", "Cache-Control", "no-store");
+        client.get("priority");
+        client.get("priority");
+
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void testLruEviction() throws Exception {
+        ScriptedHttpClient http = new ScriptedHttpClient();
+        ResponseCache cache = new ResponseCache(2);
+        RestClient client = new RestClient(http, URI.create("http://jira"));
+        client.setResponseCache(cache);
+
+        http.respond(200, "{}", "ETag", "\"0\"");
+        http.respond(200, "{}", "ETag", "\"1\"");
+        http.respond(304, null);
+        http.respond(200, "{}", "ETag", "\"2\"");
+
+        client.get("status", "0");
+        client.get("status", "1");
+        client.get("status", "0");
+        client.get("status", "2");
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+
+        /* status/1 was the least recently used */
+        http.respond(200, "{}", "ETag", "\"1\"");
+        client.get("status", "1");
+        assertNull(http.requests.get(4).getFirstHeader("If-None-Match"));
+        assertEquals(1, cache.getHits());
+    }
+}
@@ -0,0 +1,195 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.auth.AuthenticationException;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+public class RestClientTest {
+
+    private static final String JSON = "{\"key\": \"TEST-1\", \"fields\": {\"summary\": \"Compressed\"}}";
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZIPOutputStream gz = new GZIPOutputStream(out);
+        gz.write(text.getBytes(StandardCharsets.UTF_8));
+        gz.close();
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(String text, boolean nowrap) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DeflaterOutputStream dos = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, nowrap));
+        dos.write(text.getBytes(StandardCharsets.UTF_8));
+        dos.close();
+        return out.toByteArray();
+    }
+
+    private static HttpResponse response(int status, byte[] body, String encoding) {
+        HttpResponse resp = new BasicHttpResponse(HttpVersion.HTTP_1_1, status, "Status " + status);
+        ByteArrayEntity ent = new ByteArrayEntity(body);
+        ent.setContentType("application/json;charset=UTF-8");
+        if (encoding != null) {
+            ent.setContentEncoding(encoding);
+            resp.addHeader("Content-Encoding", encoding);
+        }
+        resp.setEntity(ent);
+        return resp;
+    }
+
+    private static class LastStats implements ResponseListener {
+        ResponseStats stats;
+
+        public void responseReceived(ResponseStats stats) {
+            this.stats = stats;
+        }
+    }
+
+    @Test
+    public void testGzipResponse() throws Exception {
+        byte[] body = gzip(JSON);
+        LastStats listener = new LastStats();
+
+        Map<String, Object> map = RestClient.readResponse(new HttpGet("http://jira/rest/api/2/issue/TEST-1"),
+                response(200, body, "gzip"), new JsonDecoder(), new JsonDecoder(), listener);
+
+        assertEquals("TEST-1", map.get("key"));
+        assertEquals("GET", listener.stats.getMethod());
+        assertEquals("gzip", listener.stats.getContentEncoding());
+        assertEquals(body.length, listener.stats.getWireBytes());
+        assertEquals(JSON.length(), listener.stats.getBodyBytes());
+        assertTrue(listener.stats.getDecodeNanos() > 0);
+    }
+
+    @Test
+    public void testDeflateResponses() throws Exception {
+        for (boolean nowrap : new boolean[] { false, true }) {
+            Map<String, Object> map = RestClient.readResponse(
+                    response(200, deflate(JSON, nowrap), "deflate"), new JsonDecoder());
+
+            assertEquals("Compressed", ((Map<?, ?>)map.get("fields")).get("summary"));
+        }
+    }
+
+    @Test
+    public void testCompressedErrorBody() throws Exception {
+        try {
+            RestClient.readResponse(response(404, gzip("{\"errorMessages\": [\"Gone\"]}"), "gzip"),
+                    new JsonDecoder());
+        } catch (RestException ex) {
+            assertEquals(404, ex.getHttpStatusCode());
+            assertEquals("{\"errorMessages\": [\"Gone\"]}", ex.getHttpResult());
+            return;
+        }
+
+        throw new AssertionError("RestException expected");
+    }
+
+    @Test
+    public void testIdentityResponse() throws Exception {
+        LastStats listener = new LastStats();
+
+        RestClient.readResponse(null, response(200, JSON.getBytes(StandardCharsets.UTF_8), null),
+                new JsonDecoder(), new JsonDecoder(), listener);
+
+        assertEquals(null, listener.stats.getContentEncoding());
+        assertEquals(listener.stats.getWireBytes(), listener.stats.getBodyBytes());
+    }
+
+    private static class Recorder implements RestInterceptor, RestFilter {
+        final String name;
+        final List<String> log;
+
+        Recorder(String name, List<String> log) {
+            this.name = name;
+            this.log = log;
+        }
+
+        public <T> T intercept(RestInterceptor.Chain<T> chain)
+                throws RestException, IOException, AuthenticationException, JiraException {
+
+            log.add(name);
+            T result = chain.proceed();
+            log.add(name + " " + chain.getResponse().getStatusLine().getStatusCode());
+            return result;
+        }
+
+        public HttpResponse filter(HttpRequestBase req, RestFilter.Chain chain) throws IOException, JiraException {
+            log.add(name);
+            req.setHeader("X-Trace", name);
+            return chain.proceed(req);
+        }
+    }
+
+    @Test
+    public void testPipelineOrder() throws Exception {
+        List<String> log = new ArrayList<String>();
+        ScriptedHttpClient http = new ScriptedHttpClient().respond(200, JSON);
+        RestClient client = new RestClient(http, URI.create("http://jira"));
+
+        client.addInterceptor(new Recorder("i1", log));
+        client.addInterceptor(new Recorder("i2", log));
+        client.addFilter(new Recorder("f1", log));
+
+        assertEquals("TEST-1", client.get("issue", "TEST-1").get("key"));
+        assertEquals(Arrays.asList("i1", "i2", "f1", "i2 200", "i1 200"), log);
+        assertEquals("f1", http.requests.get(0).getFirstHeader("X-Trace").getValue());
+    }
+
+    @Test
+    public void testBuiltInOrder() throws Exception {
+        RestClient client = new RestClient(new ScriptedHttpClient(), URI.create("http://jira"));
+        RestFilter trace = new Recorder("trace", new ArrayList<String>());
+        RetryPolicy retry = new RetryPolicy();
+        ResponseCache cache = new ResponseCache(10);
+        SingleFlight flight = new SingleFlight();
+
+        client.addFilter(trace);
+        client.setRateLimiter(new RateLimiter(10, 10), RateLimiter.Mode.BLOCKING);
+        client.setRetryPolicy(retry);
+        client.setResponseCache(cache);
+        client.setSingleFlight(flight);
+
+        assertEquals(retry, client.getFilters().get(0));
+        assertTrue(client.getFilters().get(1) instanceof RateLimiter.Filter);
+        assertEquals(trace, client.getFilters().get(2));
+        assertEquals(Arrays.<RestInterceptor>asList(flight, cache), client.getInterceptors());
+
+        client.setRetryPolicy(null);
+        assertEquals(null, client.getRetryPolicy());
+        assertEquals(2, client.getFilters().size());
+    }
+
+    @Test
+    public void testRetryFilter() throws Exception {
+        ScriptedHttpClient http = new ScriptedHttpClient()
+                .respond(503, "busy", "Retry-After", "0")
+                .respond(200, JSON);
+        RestClient client = new RestClient(http, URI.create("http://jira"));
+        RetryPolicy retry = new RetryPolicy();
+        client.setRetryPolicy(retry);
+
+        assertEquals("TEST-1", client.get("issue", "TEST-1").get("key"));
+        assertEquals(2, http.requests.size());
+        assertEquals(1, retry.getStats().retries);
+    }
+}
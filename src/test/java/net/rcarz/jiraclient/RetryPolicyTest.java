@@ -0,0 +1,156 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+public class RetryPolicyTest {
+
+    private static HttpResponse response(int status, String... headers) {
+        HttpResponse resp = new BasicHttpResponse(HttpVersion.HTTP_1_1, status, "Status " + status);
+        for (int i = 0; i < headers.length; i += 2)
+            resp.addHeader(headers[i], headers[i + 1]);
+        return resp;
+    }
+
+    @Test
+    public void testIdempotentMethods() {
+        RetryPolicy policy = new RetryPolicy();
+
+        assertTrue(policy.isRetryable("GET", true));
+        assertTrue(policy.isRetryable("PUT", true));
+        assertFalse(policy.isRetryable("POST", true));
+        assertFalse(policy.isRetryable("PUT", false));
+
+        policy.retryMethods("post");
+        assertTrue(policy.isRetryable("POST", true));
+    }
+
+    @Test
+    public void testRetryableFailures() {
+        RetryPolicy policy = new RetryPolicy();
+
+        assertTrue(policy.isRetryableStatus(429));
+        assertTrue(policy.isRetryableStatus(503));
+        assertFalse(policy.isRetryableStatus(500));
+        assertFalse(policy.isRetryableStatus(404));
+        assertTrue(policy.isRetryableException(new SocketTimeoutException()));
+        assertTrue(policy.isRetryableException(new IOException("Connection reset")));
+        assertFalse(policy.isRetryableException(new UnknownHostException()));
+    }
+
+    @Test
+    public void testDecorrelatedJitter() {
+        RetryPolicy policy = new RetryPolicy().backoff(100, 1000);
+        long delay = 0;
+
+        for (int i = 0; i < 100; i++) {
+            long next = policy.jitter(delay);
+            assertTrue(next >= 100);
+            assertTrue(next <= Math.min(1000, Math.max(100, delay * 3)));
+            delay = next;
+        }
+    }
+
+    @Test
+    public void testFirstDelaysVary() throws Exception {
+        final List<Long> sent = new ArrayList<Long>();
+        RetryPolicy policy = new RetryPolicy().maxAttempts(2).backoff(20, 1000);
+        policy.budget(1, 1000);
+
+        for (int i = 0; i < 20; i++) {
+            policy.filter(new HttpGet("http://jira/rest/api/2/issue/TEST-1"), new RestFilter.Chain() {
+                public HttpResponse proceed(HttpRequestBase req) {
+                    sent.add(System.nanoTime());
+                    return response(sent.size() % 2 == 1 ? 503 : 200);
+                }
+            });
+        }
+
+        /* a fixed first delay would be 20 ms every time */
+        long min = Long.MAX_VALUE;
+        long max = 0;
+        for (int i = 0; i < sent.size(); i += 2) {
+            long wait = TimeUnit.NANOSECONDS.toMillis(sent.get(i + 1) - sent.get(i));
+            assertTrue(String.valueOf(wait), wait >= 20);
+            min = Math.min(min, wait);
+            max = Math.max(max, wait);
+        }
+
+        assertTrue(min + " - " + max, max - min >= 10);
+    }
+
+    @Test
+    public void testServerDelay() {
+        long now = System.currentTimeMillis();
+
+        assertEquals(-1, RetryPolicy.serverDelay(response(503), now));
+        assertEquals(7000, RetryPolicy.serverDelay(response(429, "Retry-After", "7"), now));
+
+        String date = DateUtils.formatDate(new Date(now + 20000));
+        long delay = RetryPolicy.serverDelay(response(503, "Retry-After", date), now);
+        assertTrue(delay > 18000 && delay <= 20000);
+
+        assertEquals(-1, RetryPolicy.serverDelay(response(429,
+                "X-RateLimit-Remaining", "3", "X-RateLimit-Reset", String.valueOf(now / 1000 + 5)), now));
+        delay = RetryPolicy.serverDelay(response(429,
+                "X-RateLimit-Remaining", "0", "X-RateLimit-Reset", String.valueOf(now / 1000 + 5)), now);
+        assertTrue(delay > 4000 && delay <= 5000);
+
+        delay = RetryPolicy.serverDelay(response(429,
+                "X-RateLimit-Remaining", "0", "X-RateLimit-Reset", "2001-01-01T00:00Z"), now);
+        assertEquals(0, delay);
+
+        assertEquals(2000, RetryPolicy.serverDelay(response(429, "X-RateLimit-Remaining", "0",
+                "X-RateLimit-FillRate", "5", "X-RateLimit-Interval-Seconds", "10"), now));
+    }
+
+    @Test
+    public void testMaxAttemptsAndRetryAfterLimit() {
+        RetryPolicy policy = new RetryPolicy().maxAttempts(3).maxRetryAfter(10000);
+
+        policy.onRequest();
+        assertEquals(2000, policy.nextDelay(1, 0, response(429, "Retry-After", "2")));
+        assertEquals(-1, policy.nextDelay(2, 0, response(429, "Retry-After", "60")));
+        assertTrue(policy.nextDelay(2, 0, null) >= 0);
+        assertEquals(-1, policy.nextDelay(3, 0, null));
+
+        RetryPolicy.Stats stats = policy.getStats();
+        assertEquals(1, stats.requests);
+        assertEquals(3, stats.attempts);
+        assertEquals(2, stats.retries);
+        assertEquals(2, stats.exhausted);
+    }
+
+    @Test
+    public void testBudget() {
+        RetryPolicy policy = new RetryPolicy().budget(0.5, 2);
+
+        policy.onRequest();
+        assertTrue(policy.nextDelay(1, 0, null) >= 0);
+        assertTrue(policy.nextDelay(2, 0, null) >= 0);
+        assertEquals(-1, policy.nextDelay(3, 0, null));
+        assertEquals(1, policy.getStats().budgetDenied);
+
+        policy.onRequest();
+        policy.onRequest();
+        assertTrue(policy.nextDelay(1, 0, null) >= 0);
+        assertEquals(0.0, policy.getStats().budget, 0.001);
+    }
+}
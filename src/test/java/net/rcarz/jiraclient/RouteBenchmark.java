@@ -0,0 +1,77 @@
+package net.rcarz.jiraclient;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compares building request URIs from path parts with expanding routes.
+ *
+ * Run with: java -cp target/classes:target/test-classes:... \
+ *     net.rcarz.jiraclient.RouteBenchmark [iterations]
+ */
+public class RouteBenchmark {
+
+    private interface Builder {
+        URI build(int i) throws Exception;
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+
+    private static final String[] KEYS = { "TEST-1", "TEST-22", "PROJ-333", "ABC-4444" };
+
+    private static volatile int sink;
+
+    private static void measure(String label, int iterations, Builder builder) throws Exception {
+        /* warm up */
+        for (int i = 0; i < iterations; i++)
+            sink += builder.build(i).hashCode();
+
+        long tid = Thread.currentThread().getId();
+        long before = THREADS.getThreadAllocatedBytes(tid);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < iterations; i++)
+            sink += builder.build(i).hashCode();
+
+        long elapsed = System.nanoTime() - start;
+        long bytes = THREADS.getThreadAllocatedBytes(tid) - before;
+
+        System.out.printf("%-22s %8.1f ns/op %8d bytes/op%n", label,
+                (double)elapsed / iterations, bytes / iterations);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+        final URI base = URI.create("https://jira.example.com");
+        final RestClient client = new RestClient(new ScriptedHttpClient(), base);
+        final Map<String, String> expand = new HashMap<String, String>();
+        expand.put("expand", "transitions.fields");
+
+        measure("issue, path parts", iterations, new Builder() {
+            public URI build(int i) throws Exception {
+                return client.buildURI(JiraClient.getBaseUri(), Issue.URI, KEYS[i & 3]);
+            }
+        });
+
+        measure("issue, route", iterations, new Builder() {
+            public URI build(int i) {
+                return client.buildURI(Route.ISSUE, null, KEYS[i & 3]);
+            }
+        });
+
+        measure("transitions, parts", iterations, new Builder() {
+            public URI build(int i) throws Exception {
+                return client.buildURI(expand, JiraClient.getBaseUri(), Issue.URI, KEYS[i & 3], Transition.URI);
+            }
+        });
+
+        measure("transitions, route", iterations, new Builder() {
+            public URI build(int i) {
+                return client.buildURI(Route.ISSUE_TRANSITIONS, expand, KEYS[i & 3]);
+            }
+        });
+    }
+}
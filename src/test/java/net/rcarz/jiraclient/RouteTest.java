@@ -0,0 +1,81 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class RouteTest {
+
+    private static final URI BASE = URI.create("https://jira.example.com/jira");
+
+    @Test
+    public void testMatchesBuildURI() throws Exception {
+        Map<String, String> params = new LinkedHashMap<String, String>();
+        params.put("jql", "project = TEST AND summary ~ \"a/b & c\"");
+        params.put("fields", "*all,-comment");
+        params.put("maxResults", "50");
+
+        assertEquals(RestClient.buildURI(BASE, params, JiraClient.getBaseUri(), JiraClient.SEARCH_URI),
+                Route.SEARCH.expand(RestClient.routeBase(BASE), params));
+        assertEquals(RestClient.buildURI(BASE, null, JiraClient.getBaseUri(), Issue.URI, "TEST-1", Transition.URI),
+                Route.ISSUE_TRANSITIONS.expand(RestClient.routeBase(BASE), null, "TEST-1"));
+        assertEquals(RestClient.buildURI(BASE, null, JiraClient.getBaseUri(), Issue.URI, "a b;c=d@\u00fc"),
+                Route.ISSUE.expand(RestClient.routeBase(BASE), null, "a b;c=d@\u00fc"));
+    }
+
+    @Test
+    public void testSegmentEncoding() {
+        RestClient client = new RestClient(new ScriptedHttpClient(), URI.create("http://jira/"));
+        String prefix = "http://jira/rest/api/" + JiraClient.getApiRev() + "/issue/";
+
+        assertEquals(prefix + "a%2Fb%20c%25",
+                client.buildURI(Route.ISSUE, null, "a/b c%").toString());
+        assertEquals(prefix + "TEST-1?expand=names",
+                client.buildURI(Route.ISSUE, Collections.singletonMap("expand", "names"), "TEST-1").toString());
+    }
+
+    @Test
+    public void testApiRevision() {
+        Route route = Route.compile("/rest/api/{rev}/project/{key}/versions");
+        String rev = JiraClient.getApiRev();
+
+        try {
+            JiraClient.setApiRev("2");
+            assertEquals("http://jira/rest/api/2/project/ABC/versions", route.expand("http://jira", null, "ABC").toString());
+            JiraClient.setApiRev("latest");
+            assertEquals("http://jira/rest/api/latest/project/ABC/versions", route.expand("http://jira", null, "ABC").toString());
+        } finally {
+            JiraClient.setApiRev(rev);
+        }
+    }
+
+    @Test
+    public void testArity() {
+        assertEquals(1, Route.ISSUE.getArity());
+        assertEquals(0, Route.SEARCH.getArity());
+
+        try {
+            Route.ISSUE.expand("http://jira", null);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException ex) {
+        }
+
+        try {
+            Route.ISSUE.expand("http://jira", null, (String)null);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException ex) {
+        }
+
+        try {
+            Route.compile("rest/api/{rev}/issue/{key");
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException ex) {
+        }
+    }
+}
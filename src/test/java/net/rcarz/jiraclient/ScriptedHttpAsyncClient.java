@@ -0,0 +1,82 @@
+package net.rcarz.jiraclient;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpResponse;
+import org.apache.http.concurrent.BasicFuture;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.nio.protocol.HttpAsyncRequestProducer;
+import org.apache.http.nio.protocol.HttpAsyncResponseConsumer;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * An asynchronous HTTP client that answers requests from a script and
+ * records them.
+ */
+class ScriptedHttpAsyncClient extends CloseableHttpAsyncClient {
+
+    /* scripted outcomes: a response, an exception, or null to leave the exchange open */
+    final LinkedList<Object> outcomes = new LinkedList<Object>();
+    final List<HttpRequest> requests = new ArrayList<HttpRequest>();
+    final List<BasicFuture<HttpResponse>> exchanges = new ArrayList<BasicFuture<HttpResponse>>();
+    private boolean running = false;
+
+    ScriptedHttpAsyncClient respond(int status, String body, String... headers) {
+        outcomes.add(new ScriptedHttpClient.Response(status, body, headers));
+        return this;
+    }
+
+    ScriptedHttpAsyncClient fail(Exception ex) {
+        outcomes.add(ex);
+        return this;
+    }
+
+    ScriptedHttpAsyncClient hang() {
+        outcomes.add(null);
+        return this;
+    }
+
+    @Override
+    public synchronized Future<HttpResponse> execute(HttpHost target, HttpRequest request, HttpContext context,
+            FutureCallback<HttpResponse> callback) {
+
+        BasicFuture<HttpResponse> future = new BasicFuture<HttpResponse>(callback);
+        Object outcome = outcomes.removeFirst();
+
+        requests.add(request);
+        exchanges.add(future);
+
+        if (outcome instanceof HttpResponse)
+            future.completed((HttpResponse)outcome);
+        else if (outcome instanceof Exception)
+            future.failed((Exception)outcome);
+
+        return future;
+    }
+
+    public <T> Future<T> execute(HttpAsyncRequestProducer producer, HttpAsyncResponseConsumer<T> consumer,
+            HttpContext context, FutureCallback<T> callback) {
+
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    public void close() {
+        running = false;
+    }
+}
@@ -0,0 +1,82 @@
+package net.rcarz.jiraclient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.apache.http.Header;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.conn.ClientConnectionManager;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.message.BasicHttpResponse;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+
+/**
+ * An HTTP client that answers requests from a script and records them.
+ */
+@SuppressWarnings("deprecation")
+class ScriptedHttpClient extends CloseableHttpClient {
+
+    static class Response extends BasicHttpResponse implements CloseableHttpResponse {
+        Response(int status, String body, String... headers) {
+            super(HttpVersion.HTTP_1_1, status, "Status " + status);
+            if (body != null) {
+                ByteArrayEntity ent = new ByteArrayEntity(body.getBytes(StandardCharsets.UTF_8));
+                ent.setContentType("application/json");
+                setEntity(ent);
+            }
+            for (int i = 0; i < headers.length; i += 2)
+                addHeader(headers[i], headers[i + 1]);
+        }
+
+        public void close() {
+        }
+    }
+
+    final LinkedList<CloseableHttpResponse> responses = new LinkedList<CloseableHttpResponse>();
+    final List<HttpRequest> requests = new ArrayList<HttpRequest>();
+    final List<Header[]> headers = new ArrayList<Header[]>();
+
+    ScriptedHttpClient respond(int status, String body, String... headers) {
+        responses.add(new Response(status, body, headers));
+        return this;
+    }
+
+    @Override
+    protected synchronized CloseableHttpResponse doExecute(HttpHost target, HttpRequest request,
+            HttpContext context) {
+
+        requests.add(request);
+        headers.add(request.getAllHeaders());
+        return responses.removeFirst();
+    }
+
+    /**
+     * Gets a header of a request as it was sent.
+     */
+    String header(int request, String name) {
+        for (Header h : headers.get(request)) {
+            if (h.getName().equalsIgnoreCase(name))
+                return h.getValue();
+        }
+
+        return null;
+    }
+
+    public void close() {
+    }
+
+    public HttpParams getParams() {
+        throw new UnsupportedOperationException();
+    }
+
+    public ClientConnectionManager getConnectionManager() {
+        throw new UnsupportedOperationException();
+    }
+}
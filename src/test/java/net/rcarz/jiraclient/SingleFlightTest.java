@@ -0,0 +1,204 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class SingleFlightTest {
+
+    private static final URI ISSUE = URI.create("http://jira/rest/api/2/issue/OPS-1");
+
+    private final JsonDecoder decoder = new JsonDecoder();
+
+    private List<Future<Object>> callConcurrently(final SingleFlight flight, int threads,
+            final SingleFlight.Call<Object> call) throws Exception {
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Object>> results = new ArrayList<Future<Object>>();
+
+        for (int i = 0; i < threads; i++) {
+            results.add(pool.submit(() -> {
+                @SuppressWarnings("unchecked")
+                JsonHandler<Object> handler = (JsonHandler<Object>)(JsonHandler<?>)decoder;
+                return flight.execute(ISSUE, handler, null, call);
+            }));
+        }
+
+        pool.shutdown();
+        return results;
+    }
+
+    @Test
+    public void testConcurrentCallsShareResult() throws Exception {
+        final SingleFlight flight = new SingleFlight();
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final Object result = new Object();
+
+        List<Future<Object>> results = callConcurrently(flight, 8, () -> {
+            calls.incrementAndGet();
+            release.await();
+            return result;
+        });
+
+        while (flight.getCoalesced() < 7)
+            Thread.sleep(1);
+        release.countDown();
+
+        for (Future<Object> f : results)
+            assertSame(result, f.get(5, TimeUnit.SECONDS));
+
+        assertEquals(1, calls.get());
+        assertEquals(1, flight.getRequests());
+        assertEquals(0, flight.getInFlight());
+    }
+
+    @Test
+    public void testFailureIsShared() throws Exception {
+        final SingleFlight flight = new SingleFlight();
+        final CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<Object>> results = callConcurrently(flight, 4, () -> {
+            release.await();
+            throw new RestException("Service Unavailable", 503, "");
+        });
+
+        while (flight.getCoalesced() < 3)
+            Thread.sleep(1);
+        release.countDown();
+
+        for (Future<Object> f : results) {
+            try {
+                f.get(5, TimeUnit.SECONDS);
+            } catch (ExecutionException ex) {
+                assertEquals(503, ((RestException)ex.getCause()).getHttpStatusCode());
+                continue;
+            }
+            throw new AssertionError("RestException expected");
+        }
+    }
+
+    @Test
+    public void testSequentialCallsAreNotShared() throws Exception {
+        SingleFlight flight = new SingleFlight();
+
+        flight.execute(ISSUE, decoder, null, () -> null);
+        flight.execute(ISSUE, decoder, null, () -> null);
+
+        assertEquals(2, flight.getRequests());
+        assertEquals(0, flight.getCoalesced());
+    }
+
+    private Future<Object> lead(final SingleFlight flight, final CallOptions options, final SingleFlight.Call<Object> call) {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<Object> result = pool.submit(() -> flight.execute(ISSUE, decoder(), options, call));
+        pool.shutdown();
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private JsonHandler<Object> decoder() {
+        return (JsonHandler<Object>)(JsonHandler<?>)decoder;
+    }
+
+    @Test
+    public void testFollowerDeadline() throws Exception {
+        final SingleFlight flight = new SingleFlight();
+        final CountDownLatch release = new CountDownLatch(1);
+        Future<Object> leader = lead(flight, null, () -> {
+            release.await();
+            return "leader";
+        });
+
+        while (flight.getInFlight() == 0)
+            Thread.sleep(1);
+
+        long start = System.currentTimeMillis();
+        try {
+            flight.execute(ISSUE, decoder(), new CallOptions().timeout(100), () -> "follower");
+            fail("CallCancelledException expected");
+        } catch (CallCancelledException ex) {
+            assertTrue(ex.isDeadlineExceeded());
+        }
+
+        assertTrue(System.currentTimeMillis() - start < 2000);
+        release.countDown();
+        assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testFollowerCancel() throws Exception {
+        final SingleFlight flight = new SingleFlight();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CallOptions options = new CallOptions();
+        Future<Object> leader = lead(flight, null, () -> {
+            release.await();
+            return "leader";
+        });
+
+        while (flight.getInFlight() == 0)
+            Thread.sleep(1);
+
+        Future<Object> follower = lead(flight, options, () -> "follower");
+        while (flight.getCoalesced() == 0)
+            Thread.sleep(1);
+        options.cancel();
+
+        try {
+            follower.get(5, TimeUnit.SECONDS);
+            fail("CallCancelledException expected");
+        } catch (ExecutionException ex) {
+            assertFalse(((CallCancelledException)ex.getCause()).isDeadlineExceeded());
+        }
+
+        release.countDown();
+        assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testLeaderCancelled() throws Exception {
+        final SingleFlight flight = new SingleFlight();
+        final CountDownLatch release = new CountDownLatch(1);
+        final CallOptions options = new CallOptions();
+        Future<Object> leader = lead(flight, options, () -> {
+            release.await();
+            throw options.failure(null);
+        });
+
+        while (flight.getInFlight() == 0)
+            Thread.sleep(1);
+
+        Future<Object> follower = lead(flight, new CallOptions(), () -> "follower");
+        while (flight.getCoalesced() == 0)
+            Thread.sleep(1);
+
+        options.cancel();
+        release.countDown();
+
+        try {
+            leader.get(5, TimeUnit.SECONDS);
+            fail("CallCancelledException expected");
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof CallCancelledException);
+        }
+
+        /* sent again rather than failing with the leader */
+        assertEquals("follower", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(2, flight.getRequests());
+    }
+}
@@ -0,0 +1,64 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class StringTableTest {
+
+    private static String get(StringTable table, String s) {
+        char[] chars = ("xx" + s).toCharArray();
+        return table.get(chars, 2, s.length());
+    }
+
+    @Test
+    public void testEqualStringsAreShared() {
+        StringTable table = new StringTable(64);
+        String first = get(table, "In Progress");
+        String second = get(table, "In Progress");
+
+        assertEquals("In Progress", first);
+        assertTrue(first == second);
+        assertEquals(1, table.getHits());
+        assertEquals(1, table.getMisses());
+    }
+
+    @Test
+    public void testBounded() {
+        StringTable table = new StringTable(100, 8);
+        assertEquals(128, table.capacity());
+
+        for (int i = 0; i < 10000; i++)
+            get(table, "user" + i);
+        assertTrue(table.size() <= table.capacity());
+
+        String text = get(table, "a long description");
+        assertFalse(text == get(table, "a long description"));
+        assertEquals("a long description", text);
+
+        table.clear();
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void testDecodedResponsesShareStrings() throws Exception {
+        String json = "{\"data\": [{\"name\": \"Open\", \"self\": \"http://jira/rest/api/2/status/1\"}, " +
+                "{\"name\": \"Open\", \"self\": \"http://jira/rest/api/2/status/1\"}]}";
+        ScriptedHttpClient http = new ScriptedHttpClient().respond(200, json).respond(200, json);
+        RestClient client = new RestClient(http, URI.create("http://jira"));
+        client.setStringTable(new StringTable(1024));
+
+        List<?> first = (List<?>)client.get("status").get("data");
+        List<?> second = (List<?>)client.get("status").get("data");
+
+        assertTrue(((Map<?, ?>)first.get(0)).get("self") == ((Map<?, ?>)first.get(1)).get("self"));
+        assertTrue(((Map<?, ?>)first.get(0)).get("name") == ((Map<?, ?>)second.get(1)).get("name"));
+        assertTrue(client.getStringTable().getHits() > 0);
+    }
+}
@@ -1,5 +1,9 @@
 package net.rcarz.jiraclient;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 import net.sf.json.JSONException;
@@ -9,7 +13,38 @@ import net.sf.json.JSONSerializer;
 public class Utils {
 
     public static Map<String, Object> getTestIssue() throws JSONException, JiraException {
-        JSONObject jsonObject = (JSONObject) JSONSerializer.toJSON("{\n" +
+        JSONObject jsonObject = (JSONObject) JSONSerializer.toJSON(getTestIssueJson());
+
+        return RestClient.JSONtoMap(jsonObject);
+    }
+
+    /**
+     * Builds a search response of copies of the test issue, with keys
+     * FILTA-0 onwards.
+     */
+    public static byte[] getTestSearchPage(int issues) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"expand\": \"names,schema\", \"startAt\": 0, \"maxResults\": ").append(issues)
+                .append(", \"total\": ").append(issues).append(", \"issues\": [");
+
+        for (int i = 0; i < issues; i++) {
+            if (i > 0)
+                sb.append(',');
+            sb.append(getTestIssueJson().replace("FILTA-43", "FILTA-" + i));
+        }
+
+        return sb.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Opens a UTF-8 reader on a response body.
+     */
+    public static Reader read(byte[] body) {
+        return new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8);
+    }
+
+    public static String getTestIssueJson() {
+        return "{\n" +
         "  \"expand\": \"renderedFields,names,schema,transitions,operations,editmeta,changelog\",\n" +
         "  \"id\": \"10742\",\n" +
         "  \"self\": \"https://brainbubble.atlassian.net/rest/api/latest/issue/10742\",\n" +
@@ -200,9 +235,7 @@ public class Utils {
         "    \"timeoriginalestimate\": null,\n" +
         "    \"aggregatetimespent\": null\n" +
         "  }\n" +
-        "}");
-
-        return RestClient.JSONtoMap(jsonObject);
+        "}";
     }
 
 }
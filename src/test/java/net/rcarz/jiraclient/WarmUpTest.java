@@ -0,0 +1,125 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.http.HttpHost;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class WarmUpTest {
+
+    private HttpServer server;
+    private final Set<String> paths = Collections.synchronizedSet(new HashSet<String>());
+
+    @Before
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                paths.add(exchange.getRequestURI().getPath());
+
+                byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(body);
+                out.close();
+            }
+        });
+        server.start();
+    }
+
+    @After
+    public void stop() {
+        server.stop(0);
+    }
+
+    private JiraClient client() {
+        return new JiraClientBuilder("http://127.0.0.1:" + server.getAddress().getPort())
+                .maxConnectionsPerRoute(4)
+                .build();
+    }
+
+    @Test
+    public void testOpensConnections() throws Exception {
+        JiraClient jira = client();
+
+        try {
+            assertEquals(4, jira.warmUp(8));
+            assertEquals(4, jira.getConnectionPoolStats().available);
+
+            /* the pool is already full */
+            assertEquals(0, jira.warmUp(4));
+            assertTrue(paths.isEmpty());
+
+            jira.getPriorities();
+            assertEquals(4, jira.getConnectionPoolStats().available);
+        } finally {
+            jira.close();
+        }
+    }
+
+    @Test
+    public void testOpensConnectionsToProxy() throws Exception {
+        JiraClient jira = new JiraClientBuilder("http://jira.invalid")
+                .proxy(new HttpHost("127.0.0.1", server.getAddress().getPort()))
+                .maxConnectionsPerRoute(2)
+                .build();
+
+        try {
+            assertEquals(2, jira.warmUp(2));
+            assertTrue(paths.isEmpty());
+
+            /* the request reuses a warmed up connection instead of opening a third */
+            jira.getPriorities();
+            assertEquals(1, paths.size());
+            assertEquals(2, jira.getConnectionPoolStats().available);
+        } finally {
+            jira.close();
+        }
+    }
+
+    @Test
+    public void testSkipsTunnelledRoutes() throws Exception {
+        JiraClient jira = new JiraClientBuilder("https://jira.invalid")
+                .proxy(new HttpHost("127.0.0.1", server.getAddress().getPort()))
+                .build();
+
+        try {
+            assertEquals(0, jira.warmUp(2));
+            assertEquals(0, jira.getConnectionPoolStats().available);
+        } finally {
+            jira.close();
+        }
+    }
+
+    @Test
+    public void testPreload() throws Exception {
+        JiraClient jira = client();
+
+        try {
+            jira.warmUp(2, true);
+
+            String base = "/" + JiraClient.getBaseUri() + "/";
+            assertTrue(paths.toString(), paths.contains(base + Project.URI));
+            assertTrue(paths.toString(), paths.contains(base + IssueType.URI));
+            assertTrue(paths.toString(), paths.contains(base + Priority.URI));
+        } finally {
+            jira.close();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package net.rcarz.jiraclient;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import net.sf.json.JSONObject;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+public class JdkHttpTransportTest {
+
+    private HttpServer server;
+    private RestClient client;
+    private volatile String lastBody;
+    private volatile String lastAuth;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Before
+    public void start() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", ex -> {
+            InputStream in = ex.getRequestBody();
+            lastBody = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            lastAuth = ex.getRequestHeaders().getFirst("Authorization");
+
+            String path = ex.getRequestURI().getPath();
+            if (path.endsWith("/slow")) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException iex) {
+                    /* answer now */
+                }
+            }
+
+            int status = path.endsWith("/missing") ? 404 : 200;
+            byte[] body = ("{\"method\": \"" + ex.getRequestMethod() + "\", \"path\": \"" + path + "\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+
+            if ("gzip".equals(ex.getRequestHeaders().getFirst("Accept-Encoding").split(",")[0])) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+                    gz.write(body);
+                }
+                body = out.toByteArray();
+                ex.getResponseHeaders().add("Content-Encoding", "gzip");
+            }
+
+            ex.getResponseHeaders().add("Content-Type", "application/json;charset=UTF-8");
+            ex.sendResponseHeaders(status, body.length);
+            ex.getResponseBody().write(body);
+            ex.close();
+        });
+        server.start();
+
+        client = new RestClient(new JdkHttpTransport(5000, 5000), new BasicCredentials("batman", "pow! pow!"),
+                URI.create("http://localhost:" + server.getAddress().getPort()));
+    }
+
+    @After
+    public void stop() {
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    public void testGet() throws Exception {
+        Map<String, Object> result = client.get("rest", "api", "2", "issue", "TEST-1");
+
+        assertEquals("GET", result.get("method"));
+        assertEquals("/rest/api/2/issue/TEST-1", result.get("path"));
+        assertEquals(true, lastAuth.startsWith("Basic "));
+    }
+
+    @Test
+    public void testPostBody() throws Exception {
+        JSONObject payload = new JSONObject();
+        payload.put("summary", "Sent over the JDK client");
+
+        Map<String, Object> result = client.post(payload, "rest", "api", "2", "issue");
+
+        assertEquals("POST", result.get("method"));
+        assertEquals(payload.toString(), lastBody);
+    }
+
+    @Test
+    public void testErrorStatus() throws Exception {
+        try {
+            client.get("rest", "missing");
+        } catch (RestException ex) {
+            assertEquals(404, ex.getHttpStatusCode());
+            return;
+        }
+
+        throw new AssertionError("RestException expected");
+    }
+
+    private static CallCancelledException cancelled(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof CallCancelledException)
+                return (CallCancelledException)t;
+        }
+
+        throw new AssertionError("CallCancelledException expected", ex);
+    }
+
+    @Test
+    public void testDeadline() throws Exception {
+        long start = System.currentTimeMillis();
+
+        try {
+            client.withOptions(new CallOptions().timeout(200)).get("rest", "slow");
+            fail("JiraException expected");
+        } catch (JiraException ex) {
+            assertTrue(cancelled(ex).isDeadlineExceeded());
+        }
+
+        assertTrue(System.currentTimeMillis() - start < 2000);
+    }
+
+    @Test
+    public void testCancelAbortsExchange() throws Exception {
+        final CallOptions options = new CallOptions();
+        long start = System.currentTimeMillis();
+
+        new Thread() {
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException ex) {
+                }
+                options.cancel();
+            }
+        }.start();
+
+        try {
+            client.withOptions(options).get("rest", "slow");
+            fail("JiraException expected");
+        } catch (JiraException ex) {
+            assertFalse(cancelled(ex).isDeadlineExceeded());
+        }
+
+        assertTrue(System.currentTimeMillis() - start < 2000);
+    }
+}
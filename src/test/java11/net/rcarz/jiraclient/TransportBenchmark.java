@@ -0,0 +1,190 @@
+package net.rcarz.jiraclient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Compares the connections opened and the latency percentiles of the
+ * Apache and JDK transports under concurrent load.
+ *
+ * Run with: java -cp target/classes:target/test-classes:... \
+ *     net.rcarz.jiraclient.TransportBenchmark [url] [threads] [requests]
+ *
+ * Without a URL the benchmark starts a local HTTP/1.1 server that answers
+ * after 5 ms, so both transports use HTTP/1.1 there. Point it at an HTTPS
+ * server that speaks HTTP/2 to see the JDK client multiplex. Connections
+ * are counted from /proc/net/tcp and only on Linux.
+ */
+public class TransportBenchmark {
+
+    private static HttpServer startServer() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 512);
+        byte[] body = Utils.getTestIssueJson().getBytes(StandardCharsets.UTF_8);
+
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/", ex -> {
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            ex.getResponseHeaders().add("Content-Type", "application/json;charset=UTF-8");
+            ex.sendResponseHeaders(200, body.length);
+            ex.getResponseBody().write(body);
+            ex.close();
+        });
+        server.start();
+
+        return server;
+    }
+
+    /**
+     * Counts established TCP connections to a remote port.
+     *
+     * @return the count or -1 when /proc/net/tcp isn't available
+     */
+    private static int countConnections(int port) {
+        int count = 0;
+        boolean found = false;
+
+        for (String table : new String[] { "/proc/net/tcp", "/proc/net/tcp6" }) {
+            Path path = Paths.get(table);
+            if (!Files.isReadable(path))
+                continue;
+
+            found = true;
+            try {
+                for (String line : Files.readAllLines(path)) {
+                    String[] cols = line.trim().split("\\s+");
+                    if (cols.length < 4 || !cols[3].equals("01"))
+                        continue;
+
+                    String remote = cols[2];
+                    if (Integer.parseInt(remote.substring(remote.indexOf(':') + 1), 16) == port)
+                        count++;
+                }
+            } catch (IOException | RuntimeException ex) {
+                return -1;
+            }
+        }
+
+        return found ? count : -1;
+    }
+
+    private static void run(String label, HttpTransport transport, final URI uri, int threads, int requests,
+            int port) throws Exception {
+
+        final RestClient client = new RestClient(transport, null, uri);
+
+        /* warm up */
+        for (int i = 0; i < 200; i++)
+            client.get(uri);
+
+        final long[] latencies = new long[requests];
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicBoolean done = new AtomicBoolean();
+        final AtomicInteger peak = new AtomicInteger();
+
+        Thread sampler = new Thread(() -> {
+            while (!done.get()) {
+                peak.accumulateAndGet(countConnections(port), Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        });
+        sampler.setDaemon(true);
+        sampler.start();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<Void>> workers = new ArrayList<Future<Void>>();
+        long start = System.nanoTime();
+
+        for (int t = 0; t < threads; t++) {
+            workers.add(pool.submit(new Callable<Void>() {
+                public Void call() throws Exception {
+                    int i;
+                    while ((i = next.getAndIncrement()) < requests) {
+                        long begin = System.nanoTime();
+                        client.get(uri);
+                        latencies[i] = System.nanoTime() - begin;
+                    }
+                    return null;
+                }
+            }));
+        }
+
+        for (Future<Void> f : workers)
+            f.get();
+
+        long elapsed = System.nanoTime() - start;
+        done.set(true);
+        sampler.join();
+        pool.shutdown();
+        transport.close();
+
+        Arrays.sort(latencies);
+        System.out.printf("%-8s %8.0f req/s  p50 %7.2f ms  p99 %7.2f ms  max %7.2f ms  peak connections %d%n",
+                label, requests / (elapsed / 1e9),
+                latencies[requests / 2] / 1e6,
+                latencies[(int)(requests * 0.99)] / 1e6,
+                latencies[requests - 1] / 1e6,
+                peak.get());
+    }
+
+    public static void main(String[] args) throws Exception {
+        HttpServer server = null;
+        URI uri;
+
+        if (args.length > 0 && !args[0].isEmpty()) {
+            uri = URI.create(args[0]);
+        } else {
+            server = startServer();
+            uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/rest/api/2/issue/FILTA-43");
+        }
+
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int requests = args.length > 2 ? Integer.parseInt(args[2]) : 20000;
+        int port = uri.getPort() > 0 ? uri.getPort() : "https".equals(uri.getScheme()) ? 443 : 80;
+
+        System.out.printf("%s, %d threads, %d requests%n", uri, threads, requests);
+
+        PooledConnectionManager cm = new PooledConnectionManager(threads, threads, 0);
+        CloseableHttpClient apache = HttpClientBuilder.create()
+                .setConnectionManager(cm)
+                .disableContentCompression()
+                .build();
+
+        run("apache", new ApacheTransport(apache), uri, threads, requests, port);
+        cm.shutdown();
+
+        run("jdk", new JdkHttpTransport(5000, 30000), uri, threads, requests, port);
+
+        if (server != null)
+            server.stop(0);
+
+        System.exit(0);
+    }
+}